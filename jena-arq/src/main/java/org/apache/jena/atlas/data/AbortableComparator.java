@@ -61,6 +61,20 @@ public final class AbortableComparator<E> implements Comparator<E> {
         return Finish.COMPLETED;
     }
 
+    /**
+     * Sort the array <code>e</code> using this comparator, in parallel, with the
+     * additional ability to abort the sort. The comparator must be safe to call
+     * from several threads.
+     */
+    public Finish abortableParallelSort(E[] e) {
+        try {
+            Arrays.parallelSort(e, this);
+        } catch (AbandonSort s) {
+            return Finish.ABORTED;
+        }
+        return Finish.COMPLETED;
+    }
+
     /**
      * Arrange that the next on-frequency cancellation test in compare will
      * succeed, aborting the sort.
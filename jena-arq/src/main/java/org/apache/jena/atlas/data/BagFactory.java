@@ -49,7 +49,32 @@ public class BagFactory
     {
         return new SortedDataBag<>(policy, serializerFactory, comparator);
     }
+
+    /**
+     * Get a sorted data bag, which sorts using several threads if {@code parallel} is true.
+     */
+    public static <T> SortedDataBag<T> newSortedBag(ThresholdPolicy<T> policy, SerializationFactory<T> serializerFactory, Comparator<T> comparator, boolean parallel)
+    {
+        return new SortedDataBag<>(policy, serializerFactory, comparator, parallel);
+    }
     
+    /**
+     * Get a sorted data bag that keeps only the least {@code limit} items.
+     */
+    public static <T> TopNDataBag<T> newTopNBag(ThresholdPolicy<T> policy, SerializationFactory<T> serializerFactory, Comparator<T> comparator, long limit)
+    {
+        return new TopNDataBag<>(policy, serializerFactory, comparator, limit);
+    }
+
+    /**
+     * Get a sorted data bag that keeps only the least {@code limit} different items.
+     * The comparator must be consistent with equals.
+     */
+    public static <T> TopNDataBag<T> newTopNBag(ThresholdPolicy<T> policy, SerializationFactory<T> serializerFactory, Comparator<T> comparator, long limit, boolean distinct)
+    {
+        return new TopNDataBag<>(policy, serializerFactory, comparator, limit, distinct);
+    }
+
     /**
      * Get a distinct data bag.
      */
@@ -145,7 +145,8 @@ public class DefaultDataBag<E> extends AbstractDataBag<E> {
         closeWriter();
 
         // Create a new reader
-        if ( policy.isThresholdExceeded() ) {
+        // The policy may be exceeded by the last item added without anything having been spilled.
+        if ( spilled ) {
             File spillFile = getSpillFiles().get(0);
 
             InputStream in;
@@ -20,11 +20,14 @@ package org.apache.jena.atlas.data;
 
 import java.io.*;
 import java.util.*;
+import java.util.stream.IntStream;
 
 import org.apache.jena.atlas.AtlasException;
+import org.apache.jena.atlas.io.IO;
 import org.apache.jena.atlas.data.AbortableComparator.Finish;
 import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.atlas.iterator.IteratorCloseable;
+import org.apache.jena.atlas.lib.FileOps;
 import org.apache.jena.atlas.lib.Sink;
 
 /**
@@ -54,6 +57,11 @@ import org.apache.jena.atlas.lib.Sink;
  * is time to spill, that data is sorted and written to disk. An iterator will
  * read in each file and perform a merge-sort as the results are returned.
  * </p>
+ * <p>
+ * If created with {@code parallel} set, the data in memory is sorted with
+ * {@link Arrays#parallelSort}, and when there are more than {@link #MAX_SPILL_FILES}
+ * spill files, groups of files are merged concurrently.
+ * </p>
  */
 public class SortedDataBag<E> extends AbstractDataBag<E> {
     /**
@@ -65,15 +73,26 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
     protected final ThresholdPolicy<E> policy;
     protected final SerializationFactory<E> serializationFactory;
     protected final AbortableComparator<E> comparator;
+    protected final boolean parallel;
 
     protected boolean finishedAdding = false;
     protected boolean spilled = false;
     protected boolean closed = false;
 
     public SortedDataBag(ThresholdPolicy<E> policy, SerializationFactory<E> serializerFactory, Comparator<? super E> comparator) {
+        this(policy, serializerFactory, comparator, false);
+    }
+
+    /**
+     * Create a sorted data bag. If {@code parallel} is true, the items in memory are
+     * sorted, and spill files are merged, using several threads. The comparator must
+     * then be safe to call from several threads.
+     */
+    public SortedDataBag(ThresholdPolicy<E> policy, SerializationFactory<E> serializerFactory, Comparator<? super E> comparator, boolean parallel) {
         this.policy = policy;
         this.serializationFactory = serializerFactory;
         this.comparator = new AbortableComparator<>(comparator);
+        this.parallel = parallel;
     }
 
     /**
@@ -148,7 +167,7 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
             // We'll never get around to using it anyway.
 
             E[] array = (E[])memory.toArray();
-            if ( comparator.abortableSort(array) == Finish.COMPLETED ) {
+            if ( sort(array) == Finish.COMPLETED ) {
                 Sink<E> serializer = serializationFactory.createSerializer(out);
                 try {
                     for ( Object tuple : array ) {
@@ -158,6 +177,8 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
                 finally {
                     serializer.close();
                 }
+            } else {
+                IO.close(out);
             }
 
             spilled = true;
@@ -166,6 +187,10 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
         }
     }
 
+    private Finish sort(E[] array) {
+        return parallel ? comparator.abortableParallelSort(array) : comparator.abortableSort(array);
+    }
+
     @Override
     public void flush() {
         spill();
@@ -201,7 +226,7 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
         // like all the other methods)
         if ( !finishedAdding && memSize > 1 ) {
             E[] array = (E[])memory.toArray();
-            comparator.abortableSort(array); // don't care if we aborted or not
+            sort(array); // don't care if we aborted or not
             memory = Arrays.asList(array);
         }
 
@@ -247,6 +272,11 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
             return;
         }
 
+        if ( parallel ) {
+            preMergeParallel();
+            return;
+        }
+
         try {
             while (getSpillFiles().size() > MAX_SPILL_FILES) {
                 Sink<E> sink = serializationFactory.createSerializer(getSpillStream());
@@ -277,6 +307,67 @@ public class SortedDataBag<E> extends AbstractDataBag<E> {
         }
     }
 
+    /**
+     * Merge groups of {@link #MAX_SPILL_FILES} spill files, each group on its own
+     * thread, until there are few enough spill files to merge in one pass.
+     */
+    private void preMergeParallel() {
+        List<File> spillFiles = getSpillFiles();
+        while (spillFiles.size() > MAX_SPILL_FILES) {
+            List<List<File>> groups = new ArrayList<>();
+            for ( int i = 0 ; i < spillFiles.size() ; i += MAX_SPILL_FILES ) {
+                groups.add(new ArrayList<>(spillFiles.subList(i, Math.min(i + MAX_SPILL_FILES, spillFiles.size()))));
+            }
+            List<File> merged = new ArrayList<>(groups.size());
+            for ( List<File> group : groups ) {
+                merged.add(group.size() == 1 ? group.get(0) : getNewTemporaryFile());
+            }
+            try {
+                IntStream.range(0, groups.size()).parallel().forEach(i -> {
+                    if ( groups.get(i).size() > 1 )
+                        mergeFiles(groups.get(i), merged.get(i));
+                });
+            } catch (RuntimeException ex) {
+                for ( int i = 0 ; i < groups.size() ; i++ ) {
+                    if ( groups.get(i).size() > 1 )
+                        FileOps.delete(merged.get(i), false);
+                }
+                throw ex;
+            }
+            for ( List<File> group : groups ) {
+                if ( group.size() > 1 )
+                    group.forEach(file -> file.delete());
+            }
+            spillFiles.clear();
+            merged.forEach(this::registerSpillFile);
+        }
+    }
+
+    private void mergeFiles(List<File> inputFiles, File outputFile) {
+        List<Iterator<E>> inputs = new ArrayList<>(inputFiles.size());
+        try {
+            for ( File file : inputFiles ) {
+                inputs.add(getInputIterator(file));
+            }
+            Iterator<E> ssi = new SpillSortIterator<>(inputs, comparator);
+            Sink<E> sink = serializationFactory.createSerializer(getOutputStream(outputFile));
+            try {
+                while (ssi.hasNext()) {
+                    sink.send(ssi.next());
+                }
+            }
+            finally {
+                sink.close();
+            }
+        } catch (FileNotFoundException e) {
+            throw new AtlasException("Cannot find one of the spill files", e);
+        } finally {
+            for ( Iterator<E> it : inputs ) {
+                Iter.close(it);
+            }
+        }
+    }
+
     @Override
     public void close() {
         if ( !closed ) {
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.atlas.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import org.apache.jena.atlas.data.AbortableComparator.Finish;
+import org.apache.jena.atlas.iterator.Iter;
+
+/**
+ * <p>
+ * A sorted data bag that only keeps the least {@code limit} items.
+ * </p>
+ * <p>
+ * Whenever the items in memory are sorted, either to be spilled to disk or because
+ * there are twice {@code limit} of them, only the first {@code limit} are kept. The
+ * last of these is a boundary: there are already {@code limit} items that are not
+ * greater, so any later item that is not less than the boundary is dropped when it is
+ * added, without being stored.
+ * </p>
+ * <p>
+ * The memory used is set by the {@link ThresholdPolicy}, as for
+ * {@link SortedDataBag}, and is at most twice {@code limit} items. Each spill file
+ * has at most {@code limit} items. The iterator returns the least {@code limit}
+ * items, in sorted order.
+ * </p>
+ * <p>
+ * If the bag is {@code distinct}, duplicate items are kept only once and the iterator
+ * returns the least {@code limit} different items. The comparator must then be
+ * consistent with equals, so that duplicates are adjacent when sorted.
+ * </p>
+ */
+public class TopNDataBag<E> extends SortedDataBag<E> {
+    private final long limit;
+    private final boolean distinct;
+    private E boundary = null;
+
+    public TopNDataBag(ThresholdPolicy<E> policy, SerializationFactory<E> serializerFactory, Comparator<? super E> comparator, long limit) {
+        this(policy, serializerFactory, comparator, limit, false);
+    }
+
+    public TopNDataBag(ThresholdPolicy<E> policy, SerializationFactory<E> serializerFactory, Comparator<? super E> comparator, long limit, boolean distinct) {
+        super(policy, serializerFactory, comparator);
+        if ( limit <= 0 )
+            throw new IllegalArgumentException("TopNDataBag: limit must be positive: " + limit);
+        this.limit = limit;
+        this.distinct = distinct;
+    }
+
+    @Override
+    public void add(E item) {
+        checkClosed();
+        if ( boundary != null && comparator.compare(item, boundary) >= 0 )
+            return;
+        super.add(item);
+        if ( memory.size() - limit >= limit )
+            truncate();
+    }
+
+    @Override
+    protected void spill() {
+        truncate();
+        super.spill();
+    }
+
+    /** The current boundary, or null if there have not yet been {@code limit} items in memory. */
+    public E getBoundary() {
+        return boundary;
+    }
+
+    /**
+     * Sort the items in memory, remove duplicates if distinct, keep the first
+     * {@code limit} and update the boundary.
+     */
+    @SuppressWarnings({"unchecked"})
+    private void truncate() {
+        if ( memory.size() <= limit )
+            return;
+        E[] array = (E[])memory.toArray();
+        if ( comparator.abortableSort(array) == Finish.ABORTED )
+            return;
+        int length = distinct ? removeAdjacentDuplicates(array) : array.length;
+        int n = (int)Math.min(limit, length);
+        if ( n == limit ) {
+            E last = array[n - 1];
+            if ( boundary == null || comparator.compare(last, boundary) < 0 )
+                boundary = last;
+        }
+        memory = new ArrayList<>(Arrays.asList(array).subList(0, n));
+        size -= array.length - n;
+        policy.reset();
+        for ( E item : memory )
+            policy.increment(item);
+    }
+
+    /** Move the different items of a sorted array to the start; return the number of them. */
+    private int removeAdjacentDuplicates(E[] array) {
+        if ( array.length == 0 )
+            return 0;
+        int j = 0;
+        for ( int i = 1 ; i < array.length ; i++ ) {
+            if ( comparator.compare(array[j], array[i]) != 0 )
+                array[++j] = array[i];
+        }
+        return j + 1;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<E> iter = super.iterator();
+        if ( distinct )
+            iter = Iter.distinctAdjacent(iter);
+        return Iter.limit(iter, limit);
+    }
+}
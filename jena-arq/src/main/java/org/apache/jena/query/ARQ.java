@@ -164,6 +164,52 @@ public class ARQ
     public static final Symbol enableExecutionTimeLogging =
         SystemARQ.allocSymbol("enableExecutionTimeLogging");
 
+    /**
+     * Integer: if set to a positive value, query execution passes bindings between the
+     * main query iterators in blocks of this size (see {@link org.apache.jena.sparql.engine.QueryIterator#nextBatch}).
+     * Results are read ahead by up to the size of a block. The default is to not do this.
+     */
+    public static final Symbol executionBatchSize =
+        SystemARQ.allocSymbol("executionBatchSize");
+
+    /**
+     * Boolean: if true, FILTER and BIND expressions are prepared once with
+     * {@link org.apache.jena.sparql.expr.compile.ExprCompiler} before being applied
+     * to each solution. The default is false.
+     */
+    public static final Symbol compileExpressions =
+        SystemARQ.allocSymbol("compileExpressions");
+
+    /**
+     * Boolean: if true, basic graph patterns over general graphs are executed step by step,
+     * sampling the intermediate results and changing the order of the remaining triple
+     * patterns, or using a hash join, when the estimated number of matches proves to be
+     * badly wrong. See {@link org.apache.jena.sparql.engine.main.solver.PatternMatchAdaptive}.
+     * Decisions are logged by query explain logging. The default is false.
+     */
+    public static final Symbol adaptiveExecution =
+        SystemARQ.allocSymbol("adaptiveExecution");
+
+    /**
+     * Cache parsed queries and optimized algebra, keyed by the query text.
+     * The context value is a {@link org.apache.jena.sparql.engine.QueryPlanCache},
+     * or "true" for the shared cache {@link org.apache.jena.sparql.engine.QueryPlanCache#get()}.
+     * The default is no caching.
+     */
+    public static final Symbol queryPlanCache =
+        SystemARQ.allocSymbol("queryPlanCache");
+
+    /**
+     * If true, SPARQL Update DELETE/INSERT WHERE operations pass the changes to the
+     * storage while the WHERE clause is being evaluated, instead of first collecting
+     * the results of the WHERE clause. The storage holds the changes and applies them
+     * when the WHERE clause has been evaluated.
+     * This only applies to storage that supports it; see {@link org.apache.jena.sparql.modify.UpdateChanges}.
+     * The default is false.
+     */
+    public static final Symbol updateStreamChanges =
+        SystemARQ.allocSymbol("updateStreamChanges");
+
     /** If true, XML result sets written will contain the graph bNode label
      *  See also inputGraphBNodeLabels
      */
@@ -315,6 +361,16 @@ public class ARQ
      */
     public static final Symbol httpServiceAllowed = SystemARQ.allocSymbol("httpServiceAllowed");
 
+    /**
+     * The number of SERVICE requests that one query execution may have in progress at
+     * the same time: requests for different input bindings of a SERVICE, and a SERVICE
+     * on either side of a join which is not evaluated by substitution.
+     * Requests are then made on other threads, so the service executors must not
+     * depend on the calling thread, for example on its transaction.
+     * The default is 1: one request at a time, on the query execution thread.
+     */
+    public static final Symbol serviceConcurrency = SystemARQ.allocSymbol("serviceConcurrency");
+
     //public static final Symbol httpQueryCompression  = SystemARQ.allocSymbol("httpQueryCompression");
 
     /** {@link HttpClient} to use. */
@@ -350,7 +406,8 @@ public class ARQ
      * choosing the value.
      * <p>
      * Operations currently affected by this symbol: <br>
-     * ORDER BY, SPARQL Update, CONSTRUCT (optionally)
+     * ORDER BY, GROUP BY (the number of groups), inner hash joins (the rows of the build side),
+     * SPARQL Update, CONSTRUCT (optionally)
      * <p>
      * A reasonable value here is 10000.
      * </p>
@@ -358,9 +415,22 @@ public class ARQ
      */
     // Some possible additions to the list:
     // Sort: DISTINCT, merge joins<br>
-    // Hash table: GROUP BY, MINUS, SERVICE, VALUES, and hash joins <br>
+    // Hash table: MINUS, SERVICE, VALUES, and left hash joins <br>
     public static final Symbol spillToDiskThreshold = SystemARQ.allocSymbol("spillToDiskThreshold");
 
+    /**
+     * Compress the temporary files written when {@link #spillToDiskThreshold} is exceeded.
+     * This trades CPU time for less disk space and I/O. The default is false.
+     */
+    public static final Symbol spillToDiskCompression = SystemARQ.allocSymbol("spillToDiskCompression");
+
+    /**
+     * Whether ORDER BY may sort using several threads.
+     * Sorting in parallel is only done when the sort conditions are variables.
+     * The default is true.
+     */
+    public static final Symbol parallelSort = SystemARQ.allocSymbol("parallelSort");
+
     // Optimizer controls.
 
     /**
@@ -430,7 +500,9 @@ public class ARQ
      */
     public static final Symbol optTopNSorting = SystemARQ.allocSymbol("optTopNSorting");
 
-    /** Threshold for doing a top N sort for ORDER-LIMIT.
+    /** Threshold for doing a top N sort for ORDER-LIMIT in an in-memory heap.
+     * Above this, the top N are kept in a sorted bag that is bounded to N
+     * and spills to disk according to {@link #spillToDiskThreshold}.
      * The default is a limit of 1000.
      * The context value should be a {@link java.lang.Number}.
      */
@@ -21,6 +21,8 @@ package org.apache.jena.riot;
 import static org.apache.jena.riot.RDFLanguages.NQUADS;
 import static org.apache.jena.riot.RDFLanguages.NTRIPLES;
 import static org.apache.jena.riot.RDFLanguages.RDFJSON;
+import static org.apache.jena.riot.RDFLanguages.TRIG;
+import static org.apache.jena.riot.RDFLanguages.TURTLE;
 import static org.apache.jena.riot.RDFLanguages.sameLang;
 
 import java.io.*;
@@ -30,9 +32,8 @@ import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
 
 import org.apache.jena.atlas.io.IO;
 import org.apache.jena.atlas.lib.InternalErrorException;
@@ -47,6 +48,8 @@ import org.apache.jena.query.Dataset;
 import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.lang.BlankNodeAllocatorHash;
+import org.apache.jena.riot.lang.LangBase;
 import org.apache.jena.riot.process.normalize.StreamCanonicalLangTag;
 import org.apache.jena.riot.process.normalize.StreamCanonicalLiterals;
 import org.apache.jena.riot.system.*;
@@ -109,6 +112,12 @@ public class RDFParser {
     private final Optional<Boolean>   checking;
     private final FactoryRDF          factory;
     private final ErrorHandler        errorHandler;
+    private final int                 parallel;
+    private final boolean             parallelOrdered;
+    private final long                checkpointInterval;
+    private final Consumer<ParserCheckpoint> checkpointAction;
+    private final ParserCheckpoint    resumeFrom;
+    private final BlankNodeAllocatorHash blankNodeAllocator;
     private final Context             context;
     // Some cases the parser is reusable (read a file), some are not (input streams).
     private boolean                 canUseThisParser = true;
@@ -204,7 +213,11 @@ public class RDFParser {
                             String parserBaseURI, boolean strict, Optional<Boolean> checking,
                             boolean canonicalLexicalValues, LangTagForm langTagForm,
                             boolean resolveURIs, IRIxResolver resolver, PrefixMap prefixMap,
-                            FactoryRDF factory, ErrorHandler errorHandler, Context context) {
+                            FactoryRDF factory, ErrorHandler errorHandler,
+                            int parallel, boolean parallelOrdered,
+                            long checkpointInterval, Consumer<ParserCheckpoint> checkpointAction,
+                            ParserCheckpoint resumeFrom, BlankNodeAllocatorHash blankNodeAllocator,
+                            Context context) {
         int x = countNonNull(uri, path, content, inputStream, javaReader);
         if ( x >= 2 )
             throw new IllegalArgumentException("Only one source allowed: one of uri, path, content, inputStream and javaReader must be set");
@@ -235,6 +248,12 @@ public class RDFParser {
         this.checking = checking;
         this.factory = factory;
         this.errorHandler = errorHandler;
+        this.parallel = parallel;
+        this.parallelOrdered = parallelOrdered;
+        this.checkpointInterval = checkpointInterval;
+        this.checkpointAction = checkpointAction;
+        this.resumeFrom = resumeFrom;
+        this.blankNodeAllocator = blankNodeAllocator;
         this.context = context;
     }
 
@@ -376,16 +395,25 @@ public class RDFParser {
             default : throw new InternalErrorException("langTagForm = "+langTagForm);
         }
 
+        Context cxt = context;
+        if ( checkpointAction != null ) {
+            CheckpointTracker tracker = new CheckpointTracker(destination, resumeFrom, checkpointInterval,
+                                                              checkpointAction, blankNodeAllocator);
+            destination = tracker;
+            cxt = ( context == null ) ? new Context() : context.copy();
+            cxt.set(SysRIOT.sysCheckpointHandler, tracker);
+        }
+
         if ( isNonNull(stringToParse, inputStream, javaReader) ) {
-            parseNotUri(destination);
+            parseNotUri(destination, cxt);
             return;
         }
         Objects.requireNonNull(baseURI);
-        parseURI(destination);
+        parseURI(destination, cxt);
     }
 
     /** Parse when there is a URI to guide the choice of syntax */
-    private void parseURI(StreamRDF destination) {
+    private void parseURI(StreamRDF destination, Context context) {
         // Source by uri or path.
         try (TypedInputStream input = openTypedInputStream(uri, path)) {
             ReaderRIOT readerRiot;
@@ -419,12 +447,18 @@ public class RDFParser {
                 if ( readerRiot == null )
                     throw new RiotException("No parser registered for content type: " + ct.getContentTypeStr());
             }
+            if ( resumeFrom != null )
+                skipToCheckpoint(ct, input);
+            if ( isParallel(ct) ) {
+                parseParallel(RDFLanguages.contentTypeToLang(ct), input, destination);
+                return;
+            }
             read(readerRiot, input, null, baseURI, context, ct, destination);
         }
     }
 
     /** Parse when there is no URI to guide the choice of syntax */
-    private void parseNotUri(StreamRDF destination) {
+    private void parseNotUri(StreamRDF destination, Context context) {
         // parse from bytes or chars, no indication of the syntax from the source.
         Lang lang = hintLang;
         if ( forceLang != null )
@@ -433,6 +467,15 @@ public class RDFParser {
         if ( ct == null )
             throw new RiotException("Failed to determine the RDF syntax (.lang or .base required)");
 
+        if ( resumeFrom != null ) {
+            if ( inputStream == null )
+                throw new RiotException("Resuming parsing requires an InputStream, file or URL");
+            skipToCheckpoint(ct, inputStream);
+        }
+        if ( inputStream != null && isParallel(ct) ) {
+            parseParallel(RDFLanguages.contentTypeToLang(ct), inputStream, destination);
+            return;
+        }
         ReaderRIOT readerRiot = createReader(ct);
         if ( readerRiot == null )
             throw new RiotException("No parser registered for content type: " + ct.getContentTypeStr());
@@ -443,6 +486,104 @@ public class RDFParser {
         read(readerRiot, inputStream, jr, baseURI, context, ct, destination);
     }
 
+    private boolean isParallel(ContentType ct) {
+        if ( parallel <= 1 )
+            return false;
+        // Checkpoints require statements to be processed in order.
+        if ( checkpointAction != null || resumeFrom != null )
+            return false;
+        Lang lang = RDFLanguages.contentTypeToLang(ct);
+        return lang != null && ParallelParser.isParallel(lang);
+    }
+
+    /** Parse N-Triples or N-Quads bytes on several threads. */
+    private void parseParallel(Lang lang, InputStream input, StreamRDF destination) {
+        ParallelParser parser = new ParallelParser(lang, factory, errorHandler,
+                                                   (chunkFactory, chunkErrorHandler) -> makeParserProfile(lang, chunkFactory, chunkErrorHandler),
+                                                   parallel, parallelOrdered);
+        parser.parse(input, destination);
+    }
+
+    /** Move the input to the byte offset of the checkpoint to resume from. */
+    private void skipToCheckpoint(ContentType ct, InputStream input) {
+        Lang lang = RDFLanguages.contentTypeToLang(ct);
+        if ( ! canCheckpoint(lang) )
+            throw new RiotException("Can not resume parsing "+( lang == null ? ct.getContentTypeStr() : lang.getLabel() ));
+        try {
+            input.skipNBytes(resumeFrom.getOffset());
+        } catch (EOFException ex) {
+            throw new RiotException("Checkpoint is beyond the end of the input: offset="+resumeFrom.getOffset());
+        } catch (IOException ex) {
+            IO.exception(ex);
+        }
+    }
+
+    private static boolean canCheckpoint(Lang lang) {
+        if ( lang == null )
+            return false;
+        return sameLang(TURTLE, lang) || sameLang(TRIG, lang) || sameLang(NTRIPLES, lang) || sameLang(NQUADS, lang);
+    }
+
+    /**
+     * Track the base and prefixes set by the data being parsed and
+     * report checkpoints at the interval requested.
+     */
+    private static class CheckpointTracker extends StreamRDFWrapper implements LangBase.CheckpointHandler {
+        private final long startOffset;
+        private final long startLine;
+        private final long interval;
+        private final Consumer<ParserCheckpoint> action;
+        private final BlankNodeAllocatorHash blankNodeAllocator;
+        private final Map<String, String> prefixes = new LinkedHashMap<>();
+        private String base = null;
+        private long lastOffset;
+
+        CheckpointTracker(StreamRDF other, ParserCheckpoint resumeFrom, long interval,
+                          Consumer<ParserCheckpoint> action, BlankNodeAllocatorHash blankNodeAllocator) {
+            super(other);
+            this.interval = interval;
+            this.action = action;
+            this.blankNodeAllocator = blankNodeAllocator;
+            if ( resumeFrom != null ) {
+                this.startOffset = resumeFrom.getOffset();
+                this.startLine = Math.max(1, resumeFrom.getLine());
+                this.base = resumeFrom.getBase();
+                this.prefixes.putAll(resumeFrom.getPrefixes());
+            } else {
+                this.startOffset = 0;
+                this.startLine = 1;
+            }
+            this.lastOffset = startOffset;
+        }
+
+        @Override
+        public void base(String base) {
+            this.base = base;
+            super.base(base);
+        }
+
+        @Override
+        public void prefix(String prefix, String iri) {
+            prefixes.put(prefix, iri);
+            super.prefix(prefix, iri);
+        }
+
+        @Override
+        public void checkpoint(long offset, long line) {
+            long x = startOffset + offset;
+            if ( x - lastOffset < interval )
+                return;
+            lastOffset = x;
+            UUID seed = null;
+            long count = 0;
+            if ( blankNodeAllocator != null ) {
+                seed = blankNodeAllocator.getSeed();
+                count = blankNodeAllocator.getCounter();
+            }
+            action.accept(ParserCheckpoint.create(x, startLine + line - 1, base, prefixes, seed, count));
+        }
+    }
+
     /** Call the RIOT reader, from either an InputStream or a Reader */
     private static void read(ReaderRIOT readerRiot, InputStream inputStream, Reader javaReader,
                              String baseUri, Context context,
@@ -527,6 +668,18 @@ public class RDFParser {
 
     // See also RiotLib.profile but this version has RDFParser specific features.
     private ParserProfile makeParserProfile(Lang lang) {
+        ParserProfile profile = makeParserProfile(lang, factory, errorHandler);
+        if ( resumeFrom != null ) {
+            // Base and prefixes at the checkpoint.
+            if ( resumeFrom.getBase() != null )
+                profile.setBaseIRI(resumeFrom.getBase());
+            PrefixMap pmap = profile.getPrefixMap();
+            resumeFrom.getPrefixes().forEach(pmap::add);
+        }
+        return profile;
+    }
+
+    private ParserProfile makeParserProfile(Lang lang, FactoryRDF factory, ErrorHandler errorHandler) {
         boolean resolve = resolveURIs;
         boolean allowRelative = false;
         boolean checking$ = strict;
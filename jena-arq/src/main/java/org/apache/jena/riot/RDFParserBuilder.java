@@ -26,14 +26,19 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.apache.jena.atlas.lib.IRILib;
 import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.NodeInterner;
 import org.apache.jena.irix.IRIs;
 import org.apache.jena.irix.IRIxResolver;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.riot.RDFParser.LangTagForm;
+import org.apache.jena.riot.lang.BlankNodeAllocator;
+import org.apache.jena.riot.lang.BlankNodeAllocatorFixedSeedHash;
+import org.apache.jena.riot.lang.BlankNodeAllocatorHash;
 import org.apache.jena.riot.lang.LabelToNode;
 import org.apache.jena.riot.system.*;
 import org.apache.jena.riot.system.stream.StreamManager;
@@ -105,6 +110,16 @@ public class RDFParserBuilder {
     // Construction for the StreamRDF
     private FactoryRDF factory = null;
     private LabelToNode labelToNode = null;
+    private boolean internNodes = false;
+
+    // Parallel parsing of N-Triples and N-Quads.
+    private int parallel = 1;
+    private boolean parallelOrdered = true;
+
+    // Checkpoints and resuming.
+    private long checkpointInterval = 0;
+    private Consumer<ParserCheckpoint> checkpointAction = null;
+    private ParserCheckpoint resumeFrom = null;
 
     // Bad news.
     private ErrorHandler errorHandler = null;
@@ -492,6 +507,102 @@ public class RDFParserBuilder {
         return this;
     }
 
+    /**
+     * Return canonical {@code Node} objects for URIs and literals, shared with other
+     * parser runs and graphs that use the process-wide {@link NodeInterner}.
+     * This reduces memory when loading data with many repeated terms into
+     * long-lived in-memory graphs.
+     * <br/>
+     * Only applies when the {@link FactoryRDF} is not set in the
+     * {@code RDFParserBuilder}.
+     * The default is false.
+     * @see RiotLib#factoryRDFInterning
+     * @param internNodes
+     * @return this
+     */
+    public RDFParserBuilder internNodes(boolean internNodes) {
+        this.internNodes = internNodes;
+        return this;
+    }
+
+    /**
+     * Parse N-Triples and N-Quads using a number of threads.
+     * The input is split into chunks of whole lines which are parsed in parallel.
+     * <br/>
+     * Only applies to N-Triples and N-Quads read from an {@code InputStream},
+     * a file or a URL; other syntaxes and sources are parsed on the caller's thread.
+     * Output is sent to the {@link StreamRDF} on the caller's thread.
+     * IRIs and literals are created by a node factory for each parser thread;
+     * blank nodes are created by the parser's {@link FactoryRDF}.
+     * <br/>
+     * The default is 1 (no parallel parsing).
+     * @see ParallelParser
+     * @see #parallelOrdered
+     * @param threads
+     * @return this
+     */
+    public RDFParserBuilder parallel(int threads) {
+        if ( threads < 1 )
+            throw new IllegalArgumentException("Threads must be one or more: "+threads);
+        this.parallel = threads;
+        return this;
+    }
+
+    /**
+     * When parsing in parallel, whether the output is in the same order as the input.
+     * If false, the output of each chunk is sent as soon as it has been parsed.
+     * The default is true.
+     * @see #parallel
+     * @param ordered
+     * @return this
+     */
+    public RDFParserBuilder parallelOrdered(boolean ordered) {
+        this.parallelOrdered = ordered;
+        return this;
+    }
+
+    /**
+     * Report checkpoints while parsing. A checkpoint is a point in the input between
+     * statements where parsing can be resumed with {@link #resume}. The action is
+     * called with a checkpoint after at least {@code interval} bytes of input since
+     * the last checkpoint; all triples and quads before the checkpoint have been sent
+     * to the {@link StreamRDF}.
+     * <br/>
+     * Checkpoints are reported for Turtle, TriG, N-Triples and N-Quads.
+     * N-Triples and N-Quads are not parsed in parallel when there are checkpoints.
+     * The blank node state is recorded unless a {@link FactoryRDF} or {@link LabelToNode}
+     * has been set.
+     * @see ParserCheckpoint
+     * @param interval Minimum number of bytes between checkpoints.
+     * @param action
+     * @return this
+     */
+    public RDFParserBuilder checkpoint(long interval, Consumer<ParserCheckpoint> action) {
+        if ( interval < 0 )
+            throw new IllegalArgumentException("Negative interval: "+interval);
+        this.checkpointInterval = interval;
+        this.checkpointAction = action;
+        return this;
+    }
+
+    /**
+     * Resume parsing from a checkpoint. The source must be the same bytes as the
+     * parse that reported the checkpoint, from an {@code InputStream}, a file or a
+     * URL. Parsing starts at the byte offset of the checkpoint with the base and
+     * prefixes set and blank node labels mapped as they were at the checkpoint.
+     * Prefixes are not sent to the {@link StreamRDF} again.
+     * <br/>
+     * Only Turtle, TriG, N-Triples and N-Quads can be resumed.
+     * Pass null to parse from the start.
+     * @see #checkpoint
+     * @param checkpoint
+     * @return this
+     */
+    public RDFParserBuilder resume(ParserCheckpoint checkpoint) {
+        this.resumeFrom = checkpoint;
+        return this;
+    }
+
     // There are no strict/unstrict differences.
     // Strict is passed through to the RIOT reader.
 //    /**
@@ -649,7 +760,15 @@ public class RDFParserBuilder {
             throw new RiotException("No source specified");
         Context context = contextAcc.context();
 
-        FactoryRDF factory$ = buildFactoryRDF();
+        // Checkpoints need to know the blank node allocator state.
+        BlankNodeAllocatorHash blankNodeAllocator = null;
+        if ( ( checkpointAction != null || resumeFrom != null ) && factory == null && labelToNode == null ) {
+            if ( resumeFrom != null && resumeFrom.getBlankNodeSeed() != null )
+                blankNodeAllocator = new BlankNodeAllocatorFixedSeedHash(resumeFrom.getBlankNodeSeed(), resumeFrom.getBlankNodeCount());
+            else
+                blankNodeAllocator = new BlankNodeAllocatorFixedSeedHash();
+        }
+        FactoryRDF factory$ = buildFactoryRDF(blankNodeAllocator);
         ErrorHandler errorHandler$ = errorHandler;
         if ( errorHandler$ == null )
             errorHandler$ = ErrorHandlerFactory.getDefaultErrorHandler();
@@ -681,14 +800,21 @@ public class RDFParserBuilder {
                              parserBaseURI, strict, checking,
                              canonicalValues, langTagForm,
                              resolveURIs, resolver, prefixMap,
-                             factory$, errorHandler$, context);
+                             factory$, errorHandler$, parallel, parallelOrdered,
+                             checkpointInterval, checkpointAction, resumeFrom, blankNodeAllocator,
+                             context);
     }
 
-    private FactoryRDF buildFactoryRDF() {
+    private FactoryRDF buildFactoryRDF(BlankNodeAllocator blankNodeAllocator) {
         FactoryRDF factory$ = factory;
         if ( factory$ == null ) {
-            if ( labelToNode != null )
-                factory$ = RiotLib.factoryRDF(labelToNode);
+            LabelToNode labelToNode$ = labelToNode;
+            if ( blankNodeAllocator != null )
+                labelToNode$ = LabelToNode.createScopeByDocument(blankNodeAllocator);
+            if ( internNodes )
+                factory$ = RiotLib.factoryRDFInterning(labelToNode$ != null ? labelToNode$ : SyntaxLabels.createLabelToNode());
+            else if ( labelToNode$ != null )
+                factory$ = RiotLib.factoryRDF(labelToNode$);
             else
                 factory$ = RiotLib.factoryRDF();
         }
@@ -720,6 +846,12 @@ public class RDFParserBuilder {
         builder.resolveURIs =       this.resolveURIs;
         builder.factory =           this.factory;
         builder.labelToNode =       this.labelToNode;
+        builder.internNodes =       this.internNodes;
+        builder.parallel =          this.parallel;
+        builder.parallelOrdered =   this.parallelOrdered;
+        builder.checkpointInterval = this.checkpointInterval;
+        builder.checkpointAction =  this.checkpointAction;
+        builder.resumeFrom =        this.resumeFrom;
         builder.errorHandler =      this.errorHandler;
         return builder;
     }
@@ -50,6 +50,13 @@ public class SysRIOT
      */
     public static final Symbol sysRdfReaderProperties      = Symbol.create(riotBase+"rdfReader_properties") ;
 
+    /**
+     * Context key for a {@link org.apache.jena.riot.lang.LangBase.CheckpointHandler}
+     * for the Turtle, TriG, N-Triples and N-Quads parsers.
+     * Use {@link RDFParserBuilder#checkpoint} to get checkpoints from parsing.
+     */
+    public static final Symbol sysCheckpointHandler        = Symbol.create(riotBase+"checkpointHandler") ;
+
     /** Context key for the StreamManager */
     public static Symbol sysStreamManager = Symbol.create(riotBase+"streamManager") ;
 
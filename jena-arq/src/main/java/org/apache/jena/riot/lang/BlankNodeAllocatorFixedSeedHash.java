@@ -48,6 +48,16 @@ public class BlankNodeAllocatorFixedSeedHash extends BlankNodeAllocatorHash {
         this.reset();
     }
 
+    /**
+     * Creates a new allocator which will use a fixed seed and continue from a
+     * count of blank nodes already created by {@link #create()}.
+     * Used to resume parsing from a checkpoint.
+     */
+    public BlankNodeAllocatorFixedSeedHash(UUID seed, long counter) {
+        this(seed);
+        setCounter(counter);
+    }
+
     @Override
     protected UUID freshSeed() {
         // NB - The parent constructor calls reset() so we have to provide a
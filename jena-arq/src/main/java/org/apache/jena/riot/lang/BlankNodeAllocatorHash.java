@@ -44,6 +44,7 @@ import org.apache.jena.graph.NodeFactory;
 public class BlankNodeAllocatorHash implements BlankNodeAllocator {
 
     private static int          CacheSize       = 1000;
+    private UUID                seed            = null;
     private byte[]              seedBytes       = null;
     private byte[]              counterBytes    = new byte[10];
     private Cache<String, Node> cache           = null;
@@ -78,6 +79,7 @@ public class BlankNodeAllocatorHash implements BlankNodeAllocator {
     @Override
     public void reset() {
         UUID seed = this.freshSeed();
+        this.seed = seed;
         long mostSigBits = seed.getMostSignificantBits();
         long leastSigBits = seed.getLeastSignificantBits();
         // Stamp on version and variant. Makes it an illegal UUID (unless all the bits are zero!)
@@ -91,6 +93,23 @@ public class BlankNodeAllocatorHash implements BlankNodeAllocator {
             cache.clear();
     }
 
+    /**
+     * The seed for the current run.
+     * An allocator with the same seed allocates the same blank nodes for the same labels.
+     */
+    public UUID getSeed() {
+        return seed;
+    }
+
+    /** The number of blank nodes created by {@link #create()}. */
+    public long getCounter() {
+        return counter;
+    }
+
+    /*package*/ void setCounter(long counter) {
+        this.counter = counter;
+    }
+
     @Override
     public Node alloc(String label) {
         Node n = cache.get(label, (x)->alloc(Bytes.string2bytes(x)));
@@ -52,6 +52,13 @@ public class LabelToNode extends MapWithScope<String, Node, Node>
     public static LabelToNode createScopeByDocumentHash(UUID seed)
     { return new LabelToNode(new FixedScopePolicy(), nodeAllocatorHash(seed)); }
 
+    /**
+     * Allocation from a single scope; just the label matters.
+     * Blank nodes are created by the given {@link BlankNodeAllocator}.
+     */
+    public static LabelToNode createScopeByDocument(BlankNodeAllocator allocator)
+    { return new LabelToNode(new FixedScopePolicy(), new Alloc(allocator)); }
+
     /**
      * Allocation, with a map from seen label to node. It uses the jena-core blank
      * node allocator and a map from label to blank node. This style works for any
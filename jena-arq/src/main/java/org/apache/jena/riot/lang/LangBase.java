@@ -26,6 +26,23 @@ import org.apache.jena.riot.tokens.Tokenizer ;
 public abstract class LangBase extends LangEngine implements LangRIOT
 {
     protected final StreamRDF dest;
+    private CheckpointHandler checkpointHandler = null;
+
+    /**
+     * Receives the points in the input where parsing can be resumed.
+     * @see org.apache.jena.riot.system.ParserCheckpoint
+     */
+    @FunctionalInterface
+    public interface CheckpointHandler {
+        /**
+         * Called before parsing a statement. All the output from earlier statements
+         * has been sent to the {@link StreamRDF}.
+         *
+         * @param offset Byte offset, as UTF-8, of the start of the statement.
+         * @param line Line number of the start of the statement.
+         */
+        public void checkpoint(long offset, long line);
+    }
 
     protected LangBase(Tokenizer tokens, ParserProfile profile, StreamRDF dest) {
         super(tokens, profile, profile.getErrorHandler());
@@ -47,6 +64,21 @@ public abstract class LangBase extends LangEngine implements LangRIOT
         }
     }
 
+    /** Set the handler for checkpoints; null for none. */
+    public void setCheckpointHandler(CheckpointHandler handler) {
+        this.checkpointHandler = handler;
+    }
+
+    /** Report a checkpoint, if there is a handler. Call between statements. */
+    protected final void checkpoint() {
+        if ( checkpointHandler == null )
+            return;
+        long offset = tokens.getByteOffset();
+        if ( offset < 0 || eof() )
+            return;
+        checkpointHandler.checkpoint(offset, peekToken().getLine());
+    }
+
     /** Run the parser - events have been handled. */
     protected abstract void runParser();
 }
@@ -50,6 +50,7 @@ public class LangNQuads extends LangNTuple<Quad> {
     @Override
     protected final void runParser() {
         while (hasNext()) {
+            checkpoint();
             Quad x = parseOne();
             if ( x != null )
                 dest.quad(x);
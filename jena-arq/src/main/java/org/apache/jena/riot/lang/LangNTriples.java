@@ -50,6 +50,7 @@ public final class LangNTriples extends LangNTuple<Triple>
     @Override
     protected final void runParser() {
         while (hasNext()) {
+            checkpoint();
             Triple x = parseOne();
             if ( x != null )
                 dest.triple(x);
@@ -72,6 +72,7 @@ public abstract class LangTurtleBase extends LangBase {
     @Override
     protected final void runParser() {
         while (moreTokens()) {
+            checkpoint();
             Token t = peekToken();
             if ( lookingAt(DIRECTIVE) ) {
                 directiveAtWord(); // @form.
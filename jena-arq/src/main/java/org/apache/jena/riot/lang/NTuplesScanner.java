@@ -0,0 +1,499 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.lang;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.RiotParseException;
+import org.apache.jena.riot.system.ErrorHandler;
+import org.apache.jena.riot.system.ErrorHandlerFactory;
+import org.apache.jena.riot.system.FactoryRDF;
+import org.apache.jena.riot.system.RiotLib;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * N-Triples and N-Quads parser working directly on UTF-8 bytes.
+ * <p>
+ * This is a fast path for the line-based syntaxes. It does not use a
+ * {@link org.apache.jena.riot.tokens.Tokenizer}; terms are found by scanning
+ * the byte buffer, and IRI and string contents without escapes are decoded
+ * straight from the buffer. There are no per-token objects; {@code Node}s are
+ * created by the {@link FactoryRDF}.
+ * <p>
+ * Each tuple must be on one line. There is no checking of IRIs or literals,
+ * which is the default for N-Triples and N-Quads with {@link LangNTriples}
+ * and {@link LangNQuads}. Column numbers in error messages count bytes.
+ */
+public final class NTuplesScanner {
+
+    private static final int BUFFER_SIZE = 128 * 1024;
+
+    // Byte classes. Scanning loops test one table entry per byte.
+    /** Bytes that end the simple scan of an IRI: '>', '\', and bytes not allowed in an IRI. */
+    private static final boolean[] IRI_STOP    = new boolean[256];
+    /** Bytes that end the simple scan of a string: '"', '\' and line ends. */
+    private static final boolean[] STRING_STOP = new boolean[256];
+    /** Bytes that may be in a blank node label. */
+    private static final boolean[] LABEL_CHAR  = new boolean[256];
+    /** Bytes that may be in a language tag, with base direction. */
+    private static final boolean[] LANG_CHAR   = new boolean[256];
+
+    static {
+        for ( int i = 0 ; i <= 0x20 ; i++ )
+            IRI_STOP[i] = true;
+        for ( char ch : "<>\"{}|^`\\".toCharArray() )
+            IRI_STOP[ch] = true;
+        for ( char ch : "\"\\\n\r".toCharArray() )
+            STRING_STOP[ch] = true;
+        for ( int i = 0x80 ; i < 0x100 ; i++ )
+            LABEL_CHAR[i] = true;
+        for ( char ch = 'a' ; ch <= 'z' ; ch++ ) {
+            LABEL_CHAR[ch] = true;
+            LANG_CHAR[ch] = true;
+            LABEL_CHAR[Character.toUpperCase(ch)] = true;
+            LANG_CHAR[Character.toUpperCase(ch)] = true;
+        }
+        for ( char ch = '0' ; ch <= '9' ; ch++ ) {
+            LABEL_CHAR[ch] = true;
+            LANG_CHAR[ch] = true;
+        }
+        for ( char ch : "_-.:".toCharArray() )
+            LABEL_CHAR[ch] = true;
+        LANG_CHAR['-'] = true;
+    }
+
+    private final boolean quads;
+    private final FactoryRDF factory;
+    private final ErrorHandler errorHandler;
+
+    // Parsing state.
+    private byte[] buffer;
+    private int pos;
+    private long line;
+    private int lineStart;
+    // Only used for strings and IRIs with escapes.
+    private final StringBuilder escaped = new StringBuilder();
+
+    /** Parse N-Triples or N-Quads, sending the output to a {@link StreamRDF}. */
+    public static void parse(InputStream input, Lang lang, StreamRDF output) {
+        new NTuplesScanner(lang, RiotLib.factoryRDF(), ErrorHandlerFactory.getDefaultErrorHandler()).parse(input, output);
+    }
+
+    public NTuplesScanner(Lang lang, FactoryRDF factory, ErrorHandler errorHandler) {
+        if ( RDFLanguages.sameLang(Lang.NQUADS, lang) )
+            this.quads = true;
+        else if ( RDFLanguages.sameLang(Lang.NTRIPLES, lang) )
+            this.quads = false;
+        else
+            throw new RiotException("Not N-Triples or N-Quads: "+lang);
+        this.factory = Objects.requireNonNull(factory);
+        this.errorHandler = Objects.requireNonNull(errorHandler);
+    }
+
+    /** Parse from an {@link InputStream}. The input stream is not closed. */
+    public void parse(InputStream input, StreamRDF output) {
+        output.start();
+        try {
+            buffer = new byte[BUFFER_SIZE];
+            line = 1;
+            int length = 0;
+            boolean eof = false;
+            boolean first = true;
+            for (;;) {
+                while ( !eof && length < buffer.length ) {
+                    int n = input.read(buffer, length, buffer.length - length);
+                    if ( n < 0 )
+                        eof = true;
+                    else
+                        length += n;
+                }
+                // Parse whole lines. Tuples do not span lines.
+                int end = eof ? length : lastNewline(buffer, length) + 1;
+                if ( end == 0 && length > 0 ) {
+                    // A line longer than the buffer.
+                    buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                    continue;
+                }
+                pos = 0;
+                if ( first ) {
+                    skipBOM(end);
+                    first = false;
+                }
+                lineStart = 0;
+                parseTuples(end, output);
+                if ( eof )
+                    break;
+                System.arraycopy(buffer, end, buffer, 0, length - end);
+                length -= end;
+            }
+        } catch (IOException ex) {
+            IO.exception(ex);
+        } finally {
+            buffer = null;
+            output.finish();
+        }
+    }
+
+    /** Parse from a byte array of UTF-8. */
+    public void parse(byte[] bytes, int offset, int length, StreamRDF output) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        output.start();
+        try {
+            buffer = bytes;
+            pos = offset;
+            lineStart = offset;
+            line = 1;
+            skipBOM(offset + length);
+            parseTuples(offset + length, output);
+        } finally {
+            buffer = null;
+            output.finish();
+        }
+    }
+
+    private static int lastNewline(byte[] bytes, int length) {
+        for ( int i = length - 1 ; i >= 0 ; i-- ) {
+            if ( bytes[i] == '\n' )
+                return i;
+        }
+        return -1;
+    }
+
+    private void skipBOM(int end) {
+        if ( end - pos >= 3 && buffer[pos] == (byte)0xEF && buffer[pos+1] == (byte)0xBB && buffer[pos+2] == (byte)0xBF ) {
+            pos += 3;
+            lineStart = pos;
+        }
+    }
+
+    private void parseTuples(int end, StreamRDF output) {
+        for (;;) {
+            skipBlankAndComments(end);
+            if ( pos >= end )
+                return;
+            parseTuple(end, output);
+        }
+    }
+
+    private void parseTuple(int end, StreamRDF output) {
+        Node s = parseSubject(end);
+        skipSpace(end);
+        Node p = parsePredicate(end);
+        skipSpace(end);
+        Node o = parseObject(end);
+        skipSpace(end);
+        if ( quads ) {
+            Node g = Quad.defaultGraphNodeGenerated;
+            if ( pos < end && buffer[pos] != '.' ) {
+                g = parseGraph(end);
+                skipSpace(end);
+            }
+            expectDot(end, "Quad");
+            output.quad(factory.createQuad(g, s, p, o));
+        } else {
+            expectDot(end, "Triple");
+            output.triple(factory.createTriple(s, p, o));
+        }
+    }
+
+    private void expectDot(int end, String label) {
+        if ( pos >= end || buffer[pos] != '.' )
+            throw error(label+" not terminated by DOT");
+        pos++;
+    }
+
+    // Between tuples: whitespace, line ends and comments.
+    private void skipBlankAndComments(int end) {
+        while ( pos < end ) {
+            byte b = buffer[pos];
+            if ( b == ' ' || b == '\t' || b == '\r' ) {
+                pos++;
+            } else if ( b == '\n' ) {
+                pos++;
+                line++;
+                lineStart = pos;
+            } else if ( b == '#' ) {
+                while ( pos < end && buffer[pos] != '\n' )
+                    pos++;
+            } else
+                return;
+        }
+    }
+
+    // Within a tuple: spaces and tabs only.
+    private void skipSpace(int end) {
+        while ( pos < end && ( buffer[pos] == ' ' || buffer[pos] == '\t' ) )
+            pos++;
+    }
+
+    private Node parseSubject(int end) {
+        byte b = peek(end);
+        if ( b == '<' && !isTripleTermStart(end) )
+            return factory.createURI(parseIRI(end));
+        if ( b == '_' )
+            return parseBlankNode(end);
+        throw error("Expected IRI or blank node for the subject");
+    }
+
+    private Node parsePredicate(int end) {
+        byte b = peek(end);
+        if ( b == '<' && !isTripleTermStart(end) )
+            return factory.createURI(parseIRI(end));
+        throw error("Expected IRI for the predicate");
+    }
+
+    private Node parseObject(int end) {
+        byte b = peek(end);
+        switch (b) {
+            case '<' :
+                if ( isTripleTermStart(end) )
+                    return parseTripleTerm(end);
+                return factory.createURI(parseIRI(end));
+            case '_' :
+                return parseBlankNode(end);
+            case '"' :
+                return parseLiteral(end);
+            default :
+                throw error("Expected an RDF term for the object");
+        }
+    }
+
+    private Node parseGraph(int end) {
+        byte b = peek(end);
+        if ( b == '<' && !isTripleTermStart(end) )
+            return factory.createURI(parseIRI(end));
+        if ( b == '_' )
+            return parseBlankNode(end);
+        throw error("Expected IRI or blank node for the graph");
+    }
+
+    private byte peek(int end) {
+        if ( pos >= end || buffer[pos] == '\n' )
+            throw error("Premature end of line");
+        return buffer[pos];
+    }
+
+    private boolean isTripleTermStart(int end) {
+        return pos + 2 < end && buffer[pos+1] == '<' && buffer[pos+2] == '(';
+    }
+
+    // <<( s p o )>>
+    private Node parseTripleTerm(int end) {
+        pos += 3;
+        skipSpace(end);
+        Node s = parseSubject(end);
+        skipSpace(end);
+        Node p = parsePredicate(end);
+        skipSpace(end);
+        Node o = parseObject(end);
+        skipSpace(end);
+        if ( pos + 2 >= end || buffer[pos] != ')' || buffer[pos+1] != '>' || buffer[pos+2] != '>' )
+            throw error("Triple term not terminated by )>>");
+        pos += 3;
+        return NodeFactory.createTripleTerm(s, p, o);
+    }
+
+    private String parseIRI(int end) {
+        // Looking at '<'
+        int start = ++pos;
+        while ( pos < end && !IRI_STOP[buffer[pos] & 0xFF] )
+            pos++;
+        if ( pos < end ) {
+            if ( buffer[pos] == '>' ) {
+                String str = new String(buffer, start, pos - start, UTF_8);
+                pos++;
+                return str;
+            }
+            if ( buffer[pos] == '\\' )
+                return parseIRIEscaped(start, end);
+        }
+        throw errorIRI(end);
+    }
+
+    private String parseIRIEscaped(int start, int end) {
+        escaped.setLength(0);
+        int segment = start;
+        for (;;) {
+            while ( pos < end && !IRI_STOP[buffer[pos] & 0xFF] )
+                pos++;
+            if ( pos >= end )
+                throw errorIRI(end);
+            byte b = buffer[pos];
+            if ( b == '>' ) {
+                appendUTF8(segment, pos);
+                pos++;
+                return escaped.toString();
+            }
+            if ( b != '\\' )
+                throw errorIRI(end);
+            appendUTF8(segment, pos);
+            pos++;
+            if ( pos >= end || ( buffer[pos] != 'u' && buffer[pos] != 'U' ) )
+                throw error("Bad escape in IRI");
+            escaped.appendCodePoint(parseUChar(end));
+            segment = pos;
+        }
+    }
+
+    private RiotParseException errorIRI(int end) {
+        if ( pos >= end || buffer[pos] == '\n' || buffer[pos] == '\r' )
+            return error("Unterminated IRI");
+        return error(String.format("Bad character in IRI: 0x%02X", buffer[pos] & 0xFF));
+    }
+
+    private Node parseBlankNode(int end) {
+        // Looking at '_'
+        if ( pos + 1 >= end || buffer[pos+1] != ':' )
+            throw error("Bad blank node: expected '_:'");
+        pos += 2;
+        int start = pos;
+        while ( pos < end && LABEL_CHAR[buffer[pos] & 0xFF] )
+            pos++;
+        // A label does not end in '.'
+        while ( pos > start && buffer[pos-1] == '.' )
+            pos--;
+        if ( pos == start )
+            throw error("Blank node label missing");
+        String label = new String(buffer, start, pos - start, UTF_8);
+        return factory.createBlankNode(label);
+    }
+
+    private Node parseLiteral(int end) {
+        String lex = parseString(end);
+        if ( pos < end ) {
+            byte b = buffer[pos];
+            if ( b == '@' ) {
+                int start = ++pos;
+                while ( pos < end && LANG_CHAR[buffer[pos] & 0xFF] )
+                    pos++;
+                if ( pos == start )
+                    throw error("Bad language tag");
+                String langTag = new String(buffer, start, pos - start, US_ASCII);
+                int idx = langTag.indexOf("--");
+                if ( idx >= 0 )
+                    return factory.createLangDirLiteral(lex, langTag.substring(0, idx), langTag.substring(idx + 2));
+                return factory.createLangLiteral(lex, langTag);
+            }
+            if ( b == '^' ) {
+                if ( pos + 2 >= end || buffer[pos+1] != '^' || buffer[pos+2] != '<' )
+                    throw error("Bad datatype: expected ^^<...>");
+                pos += 2;
+                String datatypeURI = parseIRI(end);
+                return factory.createTypedLiteral(lex, NodeFactory.getType(datatypeURI));
+            }
+        }
+        return factory.createStringLiteral(lex);
+    }
+
+    private String parseString(int end) {
+        // Looking at '"'
+        int start = ++pos;
+        while ( pos < end && !STRING_STOP[buffer[pos] & 0xFF] )
+            pos++;
+        if ( pos < end ) {
+            if ( buffer[pos] == '"' ) {
+                String str = new String(buffer, start, pos - start, UTF_8);
+                pos++;
+                return str;
+            }
+            if ( buffer[pos] == '\\' )
+                return parseStringEscaped(start, end);
+        }
+        throw error("Unterminated string");
+    }
+
+    private String parseStringEscaped(int start, int end) {
+        escaped.setLength(0);
+        int segment = start;
+        for (;;) {
+            while ( pos < end && !STRING_STOP[buffer[pos] & 0xFF] )
+                pos++;
+            if ( pos >= end || buffer[pos] == '\n' || buffer[pos] == '\r' )
+                throw error("Unterminated string");
+            appendUTF8(segment, pos);
+            if ( buffer[pos] == '"' ) {
+                pos++;
+                return escaped.toString();
+            }
+            // '\'
+            pos++;
+            if ( pos >= end )
+                throw error("Unterminated string");
+            byte b = buffer[pos];
+            switch (b) {
+                case 't' :  escaped.append('\t'); pos++; break;
+                case 'b' :  escaped.append('\b'); pos++; break;
+                case 'n' :  escaped.append('\n'); pos++; break;
+                case 'r' :  escaped.append('\r'); pos++; break;
+                case 'f' :  escaped.append('\f'); pos++; break;
+                case '"' :  escaped.append('"');  pos++; break;
+                case '\'' : escaped.append('\''); pos++; break;
+                case '\\' : escaped.append('\\'); pos++; break;
+                case 'u' : case 'U' :
+                    escaped.appendCodePoint(parseUChar(end));
+                    break;
+                default :
+                    throw error("Bad escape: \\"+(char)(b & 0xFF));
+            }
+            segment = pos;
+        }
+    }
+
+    private void appendUTF8(int start, int finish) {
+        if ( finish > start )
+            escaped.append(new String(buffer, start, finish - start, UTF_8));
+    }
+
+    // Looking at 'u' or 'U' after '\'
+    private int parseUChar(int end) {
+        int digits = ( buffer[pos] == 'u' ) ? 4 : 8;
+        pos++;
+        if ( pos + digits > end )
+            throw error("Bad unicode escape");
+        int cp = 0;
+        for ( int i = 0 ; i < digits ; i++ ) {
+            int d = Character.digit(buffer[pos++], 16);
+            if ( d < 0 )
+                throw error("Bad unicode escape");
+            cp = (cp << 4) | d;
+        }
+        if ( !Character.isValidCodePoint(cp) )
+            throw error("Bad unicode escape: not a code point");
+        return cp;
+    }
+
+    private RiotParseException error(String message) {
+        long col = pos - lineStart + 1;
+        errorHandler.fatal(message, line, col);
+        return new RiotParseException(message, line, col);
+    }
+}
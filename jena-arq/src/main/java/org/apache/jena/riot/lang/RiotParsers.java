@@ -130,6 +130,8 @@ public class RiotParsers {
 
         protected void read(Tokenizer tokenizer, StreamRDF output, Context context) {
             LangRIOT parser = create(tokenizer, output, context);
+            if ( context != null && parser instanceof LangBase langBase )
+                langBase.setCheckpointHandler(context.get(SysRIOT.sysCheckpointHandler));
             parser.parse();
         }
 
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.riot.system;
+
+import org.apache.jena.datatypes.RDFDatatype ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeInterner ;
+import org.apache.jena.riot.lang.LabelToNode ;
+
+/**
+ * A {@link FactoryRDF} that returns canonical nodes for URIs and literals, using a
+ * {@link NodeInterner}. Equal terms from this parse, and from other parses using the
+ * same interner, share one {@link Node} object.
+ * <p>
+ * Blank nodes are not interned; they are scoped to the parser run.
+ */
+public class FactoryRDFInterning extends FactoryRDFCaching {
+
+    private final NodeInterner interner ;
+
+    public FactoryRDFInterning() {
+        this(NodeInterner.get(), SyntaxLabels.createLabelToNode());
+    }
+
+    public FactoryRDFInterning(NodeInterner interner, LabelToNode labelMapping) {
+        super(DftNodeCacheSize, labelMapping) ;
+        this.interner = interner ;
+    }
+
+    @Override
+    public Node createURI(String uriStr) {
+        return interner.intern(super.createURI(uriStr)) ;
+    }
+
+    @Override
+    public Node createTypedLiteral(String lexical, RDFDatatype datatype) {
+        return interner.intern(super.createTypedLiteral(lexical, datatype)) ;
+    }
+
+    @Override
+    public Node createLangLiteral(String lexical, String langTag) {
+        return interner.intern(super.createLangLiteral(lexical, langTag)) ;
+    }
+
+    @Override
+    public Node createLangDirLiteral(String lexical, String langTag, String direction) {
+        return interner.intern(super.createLangDirLiteral(lexical, langTag, direction)) ;
+    }
+
+    @Override
+    public Node createStringLiteral(String lexical) {
+        return interner.intern(super.createStringLiteral(lexical)) ;
+    }
+}
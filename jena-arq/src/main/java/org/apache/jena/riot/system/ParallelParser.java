@@ -0,0 +1,374 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.system;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.RiotParseException;
+import org.apache.jena.riot.lang.LangNQuads;
+import org.apache.jena.riot.lang.LangNTriples;
+import org.apache.jena.riot.lang.LangRIOT;
+import org.apache.jena.riot.tokens.Tokenizer;
+import org.apache.jena.riot.tokens.TokenizerText;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Parallel parsing of N-Triples and N-Quads.
+ * <p>
+ * Each line of N-Triples and N-Quads is independent of the others so the input can
+ * be split into chunks of whole lines and the chunks parsed on separate threads.
+ * The input is read, and decompressed if necessary, on the caller's thread. Each
+ * parser thread has its own {@link Tokenizer} and node factory; blank node labels
+ * are allocated by the shared {@link FactoryRDF} so that the same label gives the
+ * same blank node across chunks.
+ * <p>
+ * The output is sent to the {@link StreamRDF} on the caller's thread, either in the
+ * order of the input or in the order chunks finish parsing.
+ * <p>
+ * Line numbers in error messages are for the whole input. The error handler is called
+ * from the parser threads, one call at a time.
+ *
+ * @see AsyncParser
+ */
+public class ParallelParser {
+
+    /** Target size, in bytes, of the chunks of input given to each parser. */
+    static final int dftChunkSize = 1024 * 1024;
+
+    /**
+     * Create the {@link ParserProfile} for one chunk of input.
+     * The profile must use the given factory and error handler.
+     */
+    @FunctionalInterface
+    public interface ChunkProfile {
+        public ParserProfile create(FactoryRDF factory, ErrorHandler errorHandler);
+    }
+
+    private final Lang lang;
+    private final FactoryRDF factory;
+    private final ErrorHandler errorHandler;
+    private final ChunkProfile chunkProfile;
+    private final int threads;
+    private final boolean ordered;
+    private final int chunkSize;
+
+    /**
+     * Parse N-Triples or N-Quads from an {@link InputStream}, using {@code threads}
+     * parser threads, and send the output, in the order of the input, to a {@link StreamRDF}.
+     */
+    public static void parse(InputStream input, Lang lang, StreamRDF output, int threads) {
+        FactoryRDF factory = RiotLib.factoryRDF();
+        ErrorHandler errorHandler = ErrorHandlerFactory.getDefaultErrorHandler();
+        ChunkProfile chunkProfile = (f, eh) -> RiotLib.createParserProfile(f, eh, false);
+        new ParallelParser(lang, factory, errorHandler, chunkProfile, threads, true).parse(input, output);
+    }
+
+    /** Parse N-Triples or N-Quads from a file, which may be compressed. */
+    public static void parse(String filename, Lang lang, StreamRDF output, int threads) {
+        try ( InputStream input = IO.openFileEx(filename) ) {
+            parse(input, lang, output, threads);
+        } catch (IOException ex) { IO.exception(ex); }
+    }
+
+    public ParallelParser(Lang lang, FactoryRDF factory, ErrorHandler errorHandler, ChunkProfile chunkProfile, int threads, boolean ordered) {
+        this(lang, factory, errorHandler, chunkProfile, threads, ordered, dftChunkSize);
+    }
+
+    /*package*/ ParallelParser(Lang lang, FactoryRDF factory, ErrorHandler errorHandler, ChunkProfile chunkProfile,
+                               int threads, boolean ordered, int chunkSize) {
+        if ( ! isParallel(lang) )
+            throw new RiotException("Not a line-based syntax: "+lang);
+        if ( threads < 1 )
+            throw new IllegalArgumentException("Threads must be one or more: "+threads);
+        this.lang = lang;
+        this.factory = Objects.requireNonNull(factory);
+        this.errorHandler = Objects.requireNonNull(errorHandler);
+        this.chunkProfile = Objects.requireNonNull(chunkProfile);
+        this.threads = threads;
+        this.ordered = ordered;
+        this.chunkSize = chunkSize;
+    }
+
+    /** Whether the syntax can be parsed by {@link ParallelParser}. */
+    public static boolean isParallel(Lang lang) {
+        return RDFLanguages.sameLang(Lang.NTRIPLES, lang) || RDFLanguages.sameLang(Lang.NQUADS, lang);
+    }
+
+    /** Parse the input, sending the output to a {@link StreamRDF} on the caller's thread. */
+    public void parse(InputStream input, StreamRDF output) {
+        // Chunks being parsed or waiting to be sent to the output.
+        int maxInProgress = 2 * threads;
+        ThreadLocal<FactoryRDF> chunkFactories = ThreadLocal.withInitial(() -> new ChunkFactoryRDF(factory));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, newThreadFactory());
+        CompletionService<Chunk> completion = new ExecutorCompletionService<>(executor);
+        Deque<Future<Chunk>> inProgress = new ArrayDeque<>();
+        LineChunks chunks = new LineChunks(input, chunkSize);
+        output.start();
+        try {
+            long startLine = 1;
+            int count = 0;
+            for (;;) {
+                byte[] bytes = chunks.next();
+                if ( bytes == null )
+                    break;
+                final long chunkStartLine = startLine;
+                startLine += countNewlines(bytes);
+                Callable<Chunk> task = () -> parseChunk(bytes, chunkStartLine, chunkFactories.get());
+                if ( ordered )
+                    inProgress.add(executor.submit(task));
+                else
+                    completion.submit(task);
+                count++;
+                if ( count >= maxInProgress ) {
+                    emit(ordered ? inProgress.poll() : completion.take(), output);
+                    count--;
+                }
+            }
+            for ( ; count > 0 ; count-- )
+                emit(ordered ? inProgress.poll() : completion.take(), output);
+        } catch (IOException ex) {
+            IO.exception(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RiotException("Interrupted", ex);
+        } finally {
+            executor.shutdownNow();
+            output.finish();
+        }
+    }
+
+    private static void emit(Future<Chunk> future, StreamRDF output) throws InterruptedException {
+        try {
+            future.get().output(output);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if ( cause instanceof RuntimeException runtimeException )
+                throw runtimeException;
+            if ( cause instanceof Error error )
+                throw error;
+            throw new RiotException(cause);
+        }
+    }
+
+    private Chunk parseChunk(byte[] bytes, long startLine, FactoryRDF chunkFactory) {
+        ChunkErrorHandler chunkErrorHandler = new ChunkErrorHandler(errorHandler, startLine - 1);
+        ParserProfile profile = chunkProfile.create(chunkFactory, chunkErrorHandler);
+        Tokenizer tokenizer = TokenizerText.create().source(new ByteArrayInputStream(bytes)).errorHandler(chunkErrorHandler).build();
+        Chunk chunk = new Chunk();
+        LangRIOT parser = RDFLanguages.sameLang(Lang.NTRIPLES, lang)
+                ? new LangNTriples(tokenizer, profile, chunk)
+                : new LangNQuads(tokenizer, profile, chunk);
+        try {
+            parser.parse();
+        } catch (RiotParseException ex) {
+            // Line numbers for the whole input, unless already from the error handler.
+            if ( ex != chunkErrorHandler.thrown && ex.getLine() >= 0 )
+                throw new RiotParseException(ex.getOriginalMessage(), ex.getLine() + startLine - 1, ex.getCol());
+            throw ex;
+        }
+        return chunk;
+    }
+
+    private static long countNewlines(byte[] bytes) {
+        long count = 0;
+        for ( byte b : bytes ) {
+            if ( b == '\n' )
+                count++;
+        }
+        return count;
+    }
+
+    private static ThreadFactory newThreadFactory() {
+        AtomicInteger counter = new AtomicInteger(0);
+        return runnable -> {
+            Thread thread = new Thread(runnable, "ParallelParser-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /** Split an input stream into chunks of whole lines. */
+    private static class LineChunks {
+        private final InputStream input;
+        private byte[] buffer;
+        private int length = 0;
+        private boolean eof = false;
+
+        LineChunks(InputStream input, int chunkSize) {
+            this.input = input;
+            this.buffer = new byte[chunkSize];
+        }
+
+        /** Return the next chunk, ending at the end of a line or the end of the input, or null if there is no more input. */
+        byte[] next() throws IOException {
+            for (;;) {
+                while ( !eof && length < buffer.length ) {
+                    int n = input.read(buffer, length, buffer.length - length);
+                    if ( n < 0 )
+                        eof = true;
+                    else
+                        length += n;
+                }
+                if ( length == 0 )
+                    return null;
+                int end = eof ? length : lastNewline() + 1;
+                if ( end == 0 ) {
+                    // A line longer than the buffer.
+                    buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                    continue;
+                }
+                byte[] chunk = Arrays.copyOf(buffer, end);
+                System.arraycopy(buffer, end, buffer, 0, length - end);
+                length -= end;
+                return chunk;
+            }
+        }
+
+        private int lastNewline() {
+            for ( int i = length - 1 ; i >= 0 ; i-- ) {
+                if ( buffer[i] == '\n' )
+                    return i;
+            }
+            return -1;
+        }
+    }
+
+    /** The output of parsing one chunk. */
+    private static class Chunk extends StreamRDFBase {
+        // Each syntax produces only one of triples or quads.
+        private final List<Triple> triples = new ArrayList<>();
+        private final List<Quad> quads = new ArrayList<>();
+
+        @Override
+        public void triple(Triple triple) {
+            triples.add(triple);
+        }
+
+        @Override
+        public void quad(Quad quad) {
+            quads.add(quad);
+        }
+
+        void output(StreamRDF output) {
+            triples.forEach(output::triple);
+            quads.forEach(output::quad);
+        }
+    }
+
+    /**
+     * Node factory for one parser thread. Blank nodes come from the shared factory
+     * so that blank node labels have the same meaning in all chunks.
+     */
+    private static class ChunkFactoryRDF extends FactoryRDFCaching {
+        private final FactoryRDF shared;
+
+        ChunkFactoryRDF(FactoryRDF shared) {
+            super(DftNodeCacheSize, null);
+            this.shared = shared;
+        }
+
+        @Override
+        public Node createBlankNode() {
+            synchronized(shared) {
+                return shared.createBlankNode();
+            }
+        }
+
+        @Override
+        public Node createBlankNode(String label) {
+            synchronized(shared) {
+                return shared.createBlankNode(label);
+            }
+        }
+
+        @Override
+        public Node createBlankNode(long mostSigBits, long leastSigBits) {
+            synchronized(shared) {
+                return shared.createBlankNode(mostSigBits, leastSigBits);
+            }
+        }
+
+        @Override
+        public void reset() {}
+    }
+
+    /** Adjust line numbers to be for the whole input and pass on to the shared error handler. */
+    private static class ChunkErrorHandler implements ErrorHandler {
+        private final ErrorHandler errorHandler;
+        private final long lineOffset;
+        // Exception from the shared error handler, which has whole input line numbers.
+        private RuntimeException thrown = null;
+
+        ChunkErrorHandler(ErrorHandler errorHandler, long lineOffset) {
+            this.errorHandler = errorHandler;
+            this.lineOffset = lineOffset;
+        }
+
+        private long line(long line) {
+            return ( line < 0 ) ? line : line + lineOffset;
+        }
+
+        @Override
+        public void warning(String message, long line, long col) {
+            synchronized(errorHandler) {
+                errorHandler.warning(message, line(line), col);
+            }
+        }
+
+        @Override
+        public void error(String message, long line, long col) {
+            try {
+                synchronized(errorHandler) {
+                    errorHandler.error(message, line(line), col);
+                }
+            } catch (RuntimeException ex) {
+                thrown = ex;
+                throw ex;
+            }
+        }
+
+        @Override
+        public void fatal(String message, long line, long col) {
+            try {
+                synchronized(errorHandler) {
+                    errorHandler.fatal(message, line(line), col);
+                }
+            } catch (RuntimeException ex) {
+                thrown = ex;
+                throw ex;
+            }
+        }
+    }
+}
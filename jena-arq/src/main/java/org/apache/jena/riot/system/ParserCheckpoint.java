@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.system;
+
+import java.util.*;
+
+import org.apache.jena.riot.RDFParserBuilder;
+import org.apache.jena.riot.RiotException;
+
+/**
+ * A point in the input where parsing can be resumed.
+ * <p>
+ * A checkpoint records the byte offset of the start of a statement, the line
+ * number, the base IRI and prefixes set by directives in the data so far, and the
+ * state of the blank node allocator so that blank node labels are mapped to the
+ * same blank nodes after resuming.
+ * <p>
+ * Checkpoints are reported by the parser and used to resume parsing with
+ * {@link RDFParserBuilder#checkpoint} and {@link RDFParserBuilder#resume}.
+ * They can be saved and restored with {@link #toProperties} and
+ * {@link #fromProperties}.
+ */
+public class ParserCheckpoint {
+
+    private static final String keyOffset         = "offset";
+    private static final String keyLine           = "line";
+    private static final String keyBase           = "base";
+    private static final String keyBlankNodeSeed  = "blankNodeSeed";
+    private static final String keyBlankNodeCount = "blankNodeCount";
+    private static final String keyPrefix         = "prefix.";
+
+    /**
+     * Create a checkpoint.
+     * The base and the blank node seed may be null.
+     */
+    public static ParserCheckpoint create(long offset, long line, String base, Map<String, String> prefixes,
+                                          UUID blankNodeSeed, long blankNodeCount) {
+        if ( offset < 0 )
+            throw new IllegalArgumentException("Negative offset: "+offset);
+        Objects.requireNonNull(prefixes);
+        return new ParserCheckpoint(offset, line, base, Collections.unmodifiableMap(new LinkedHashMap<>(prefixes)),
+                                    blankNodeSeed, blankNodeCount);
+    }
+
+    private final long offset;
+    private final long line;
+    private final String base;
+    private final Map<String, String> prefixes;
+    private final UUID blankNodeSeed;
+    private final long blankNodeCount;
+
+    private ParserCheckpoint(long offset, long line, String base, Map<String, String> prefixes,
+                             UUID blankNodeSeed, long blankNodeCount) {
+        this.offset = offset;
+        this.line = line;
+        this.base = base;
+        this.prefixes = prefixes;
+        this.blankNodeSeed = blankNodeSeed;
+        this.blankNodeCount = blankNodeCount;
+    }
+
+    /** Byte offset in the input of the start of the next statement. */
+    public long getOffset() {
+        return offset;
+    }
+
+    /** Line number in the input of the start of the next statement. */
+    public long getLine() {
+        return line;
+    }
+
+    /** The base IRI set by the data, or null if the data has not set the base. */
+    public String getBase() {
+        return base;
+    }
+
+    /** Prefixes set by the data. */
+    public Map<String, String> getPrefixes() {
+        return prefixes;
+    }
+
+    /** The seed of the blank node allocator, or null if not known. */
+    public UUID getBlankNodeSeed() {
+        return blankNodeSeed;
+    }
+
+    /** The number of blank nodes created without a label. */
+    public long getBlankNodeCount() {
+        return blankNodeCount;
+    }
+
+    /** Return the checkpoint as a {@link Properties} object. */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(keyOffset, Long.toString(offset));
+        properties.setProperty(keyLine, Long.toString(line));
+        if ( base != null )
+            properties.setProperty(keyBase, base);
+        if ( blankNodeSeed != null )
+            properties.setProperty(keyBlankNodeSeed, blankNodeSeed.toString());
+        properties.setProperty(keyBlankNodeCount, Long.toString(blankNodeCount));
+        prefixes.forEach((prefix, uri) -> properties.setProperty(keyPrefix+prefix, uri));
+        return properties;
+    }
+
+    /** Create a checkpoint from {@link Properties} written by {@link #toProperties}. */
+    public static ParserCheckpoint fromProperties(Properties properties) {
+        try {
+            String offsetStr = properties.getProperty(keyOffset);
+            if ( offsetStr == null )
+                throw new RiotException("No offset in checkpoint");
+            long offset = Long.parseLong(offsetStr);
+            long line = Long.parseLong(properties.getProperty(keyLine, "-1"));
+            String base = properties.getProperty(keyBase);
+            String seedStr = properties.getProperty(keyBlankNodeSeed);
+            UUID seed = ( seedStr == null ) ? null : UUID.fromString(seedStr);
+            long count = Long.parseLong(properties.getProperty(keyBlankNodeCount, "0"));
+            Map<String, String> prefixes = new TreeMap<>();
+            properties.stringPropertyNames().forEach(key -> {
+                if ( key.startsWith(keyPrefix) )
+                    prefixes.put(key.substring(keyPrefix.length()), properties.getProperty(key));
+            });
+            return create(offset, line, base, prefixes, seed, count);
+        } catch (IllegalArgumentException ex) {
+            throw new RiotException("Bad checkpoint: "+ex.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ParserCheckpoint[offset="+offset+", line="+line+"]";
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, line, base, prefixes, blankNodeSeed, blankNodeCount);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+        if ( getClass() != obj.getClass() )
+            return false;
+        ParserCheckpoint other = (ParserCheckpoint)obj;
+        return offset == other.offset && line == other.line && Objects.equals(base, other.base)
+               && Objects.equals(prefixes, other.prefixes) && Objects.equals(blankNodeSeed, other.blankNodeSeed)
+               && blankNodeCount == other.blankNodeCount;
+    }
+}
@@ -36,6 +36,7 @@ import org.apache.jena.atlas.lib.EscapeStr;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.NodeInterner;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.irix.IRIs;
 import org.apache.jena.irix.IRIx;
@@ -207,6 +208,14 @@ public class RiotLib {
         return new FactoryRDFCaching(FactoryRDFCaching.DftNodeCacheSize, labelMapping);
     }
 
+    /**
+     * Create a new {@code FactoryRDF} that interns URIs and literals
+     * with the process-wide {@link NodeInterner}.
+     */
+    public static FactoryRDF factoryRDFInterning(LabelToNode labelMapping) {
+        return new FactoryRDFInterning(NodeInterner.get(), labelMapping);
+    }
+
     /**
      * Create a new (not influenced by anything else) {@code FactoryRDF}
      * using the default label to blank node scheme.
@@ -40,4 +40,10 @@ public interface Tokenizer extends Iterator<Token>, Closeable
 
     public long getLine();
     public long getColumn();
+
+    /**
+     * The offset, in bytes of UTF-8, of the start of the most recent token read
+     * from the input, or -1 if not available.
+     */
+    public default long getByteOffset() { return -1; }
 }
@@ -62,6 +62,8 @@ public final class TokenizerText implements Tokenizer
 
     private Token token = null;
     private boolean finished = false;
+    // Byte offset of the start of the last token.
+    private long tokenByteOffset = -1;
 
     public static TokenizerTextBuilder create() { return new TokenizerTextBuilder(); }
 
@@ -170,6 +172,7 @@ public final class TokenizerText implements Tokenizer
 
     private Token parseToken() {
         token = new Token(getLine(), getColumn());
+        tokenByteOffset = reader.getBytePosition();
 
         int ch = reader.peekChar();
 
@@ -1239,6 +1242,11 @@ public final class TokenizerText implements Tokenizer
         buffer.append((char)ch);
     }
 
+    @Override
+    public long getByteOffset() {
+        return tokenByteOffset;
+    }
+
     @Override
     public long getColumn() {
         return reader.getColNum();
@@ -37,6 +37,11 @@ public class TokenizerWrapper implements Tokenizer {
         return get().getLine();
     }
 
+    @Override
+    public long getByteOffset() {
+        return get().getByteOffset();
+    }
+
     @Override
     public boolean hasNext() {
         return get().hasNext();
@@ -43,6 +43,8 @@ public class HttpNames
     public static final String hLocation            = "Location" ;
     public static final String hVary                = "Vary" ;
     public static final String hUserAgent           = "User-Agent" ;
+    public static final String hETag                = "ETag" ;
+    public static final String hIfNoneMatch         = "If-None-Match" ;
     public static final String charset              = "charset" ;
 
     // CORS:
@@ -203,6 +203,9 @@ public class ARQConstants
     public static final String allocPathVariables       = allocVarAnonMarker+"P" ;      // PathCompiler
     public static final String allocQueryVariables      = allocVarMarker ;              // Query
 
+    /** Marker for variables standing for literals in cached query plans */
+    public static final String allocVarParameter        = "@";                           // QueryPlanCache
+
     /** Marker for RDF-star variables */
     public static final String allocVarTripleTerm      = "~";                           // RX, SolverRX
 
@@ -252,6 +255,12 @@ public class ARQConstants
     /** Context key for the algebra expression of the query execution after optimization */
     public static final Symbol sysCurrentAlgebra        = Symbol.create(systemVarNS+"algebra") ;
 
+    /** Context key for the parameter values of an execution of a prepared query.
+     *  The values are substituted into the algebra after optimization.
+     *  The value of this key in a Context must be a Binding.
+     */
+    public static final Symbol sysQueryParameters       = Symbol.create(systemVarNS+"queryParameters") ;
+
 //    /** Context key for the algebra execution engine of the query execution */
 //    public static final Symbol sysCurrentOpExec   = Symbol.create(systemVarNS+"opExec") ;
 
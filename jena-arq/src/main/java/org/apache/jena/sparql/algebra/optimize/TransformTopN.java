@@ -28,6 +28,7 @@ import org.apache.jena.sparql.algebra.Op ;
 import org.apache.jena.sparql.algebra.TransformCopy ;
 import org.apache.jena.sparql.algebra.op.* ;
 import org.apache.jena.sparql.core.Var ;
+import org.apache.jena.sparql.engine.iterator.QueryIterTopN ;
 import org.apache.jena.sparql.expr.ExprVars ;
 
 /**
@@ -37,9 +38,9 @@ import org.apache.jena.sparql.expr.ExprVars ;
  */
 public class TransformTopN extends TransformCopy {
 
-    // This must be less than ARQ.spillToDiskThreshold.
-    // Otherwise DISTINCT ends up reordering.
-	private static final int defaultTopNSortingThreshold = 1000;
+    // At or above ARQ.topNSortingThreshold, QueryIterTopN keeps the top N in a bag
+    // that is bounded by ARQ.spillToDiskThreshold. Without a spill threshold that bag
+    // would hold up to 2N rows in memory, so only use (top) for N below the threshold.
 
 	/* For reference: from the algebra generation of a query, the order of operations is:
 	 *  Limit/Offset
@@ -120,7 +121,7 @@ public class TransformTopN extends TransformCopy {
          */
 
         /* Algorthm:
-         *    Test to see if the slice is small enough.
+         *    Test to see if the slice is small enough, or the top N can spill.
          *    Extract distinct/reduce, and projection details.
          *    Is it an (order)? If no - not applicable.
          *
@@ -144,12 +145,15 @@ public class TransformTopN extends TransformCopy {
         long offset = ( opSlice.getStart() != Query.NOLIMIT ) ? opSlice.getStart() : 0L ;
         long N = limit+offset ;
 
-        int threshold = defaultTopNSortingThreshold;
+        if ( N > Integer.MAX_VALUE )
+            return doNothing(opSlice, inSubOp) ;
+
+        int threshold = QueryIterTopN.defaultTopNSortingThreshold ;
         Number x = (Number)(ARQ.getContext().get(ARQ.topNSortingThreshold)) ;
         if ( x != null )
-            threshold = x.intValue();
+            threshold = x.intValue() ;
 
-        if ( N >= threshold )
+        if ( N >= threshold && ARQ.getContext().getLong(ARQ.spillToDiskThreshold, -1) < 0 )
             return doNothing(opSlice, inSubOp) ;
 
         boolean distinct = false ;
@@ -22,10 +22,12 @@ import java.util.Iterator;
 import java.util.Objects;
 
 import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphMemFactory;
 import org.apache.jena.graph.Node;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.sparql.core.mem.DatasetGraphInMemory;
+import org.apache.jena.sparql.core.mem2.DatasetGraphQuadMem;
 import org.apache.jena.sparql.graph.GraphFactory;
 import org.apache.jena.sys.JenaSystem;
 
@@ -97,6 +99,38 @@ public class DatasetGraphFactory
         return new DatasetGraphMapLink(dftGraph, graphMakerMem);
     }
 
+    /**
+     * Create a general-purpose {@link DatasetGraph} where the default graph and any graphs created
+     * when adding quads are stored outside the Java heap.
+     * <p>
+     * This is intended for very large, short-lived datasets. Close the dataset to release the off-heap memory
+     * of all graphs.
+     * <p>
+     * Otherwise, this dataset behaves like {@link #createGeneral()}.
+     *
+     * @see GraphMemFactory#createGraphMemOffHeap()
+     * @return a general-purpose Dataset backed by off-heap graphs
+     */
+    public static DatasetGraph createGeneralOffHeap() {
+        return new DatasetGraphMapLink(graphMakerMemOffHeap.create(null), graphMakerMemOffHeap);
+    }
+
+    /**
+     * Create an in-memory {@link DatasetGraph} that stores quads in one set of indexes, with one node
+     * dictionary for all graphs.
+     * <p>
+     * This uses less memory than {@link #createGeneral()} when many named graphs share terms,
+     * and pattern matches across all graphs are a single index scan.
+     * <p>
+     * This dataset does not support serialized transactions (it only provides MRSW locking).
+     *
+     * @see DatasetGraphQuadMem
+     * @return a quad-based in-memory Dataset
+     */
+    public static DatasetGraph createQuadMem() {
+        return new DatasetGraphQuadMem();
+    }
+
     /**
      * Clone the structure of a {@link DatasetGraph}.
      */
@@ -140,4 +174,7 @@ public class DatasetGraphFactory
 
     /** A graph maker that creates unnamed Jena default graphs */
     public static GraphMaker graphMakerMem = (name) -> GraphFactory.createDefaultGraph();
+
+    /** A graph maker that creates graphs stored outside the Java heap */
+    public static GraphMaker graphMakerMemOffHeap = (name) -> GraphMemFactory.createGraphMemOffHeap();
 }
@@ -19,6 +19,7 @@
 package org.apache.jena.sparql.core;
 
 import java.util.Iterator ;
+import java.util.function.Consumer ;
 
 import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.lib.Sync ;
@@ -122,6 +123,22 @@ public class GraphView extends GraphBase implements NamedGraph, Sync
         return WrappedIterator.createNoRemove(iter) ;
     }
 
+    /**
+     * Performs the action for each match without the triple iterator and wrapper of
+     * {@link #find(Node, Node, Node)}: quads from the dataset are passed on as triples.
+     */
+    @Override
+    public void forEachMatch(Node s, Node p, Node o, Consumer<Triple> action) {
+        if ( Quad.isUnionGraph(graphName) ) {
+            // Needs distinct.
+            super.forEachMatch(s, p, o, action);
+            return;
+        }
+        checkOpen();
+        Node g = graphNode(graphName) ;
+        dsg.find(g, s, p, o).forEachRemaining(quad -> action.accept(quad.asTriple())) ;
+    }
+
     private static Node graphNode(Node gn) {
         return ( gn == null ) ? Quad.defaultGraphNodeGenerated : gn ;
     }
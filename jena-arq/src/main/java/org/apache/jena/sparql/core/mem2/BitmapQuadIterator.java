@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.core.mem2;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.jena.mem2.collection.FastHashSet;
+import org.apache.jena.sparql.core.Quad;
+import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Iterator over the quads whose indices are in a bitmap.
+ * Like {@code RoaringBitmapTripleIterator}, the iterator fails if the set of quads changes.
+ */
+final class BitmapQuadIterator implements Iterator<Quad> {
+
+    private static final int BUFFER_SIZE = 64;
+    private final FastHashSet<Quad> quads;
+    private final int initialSize;
+    private final BatchIterator batchIterator;
+    private final int[] buffer = new int[BUFFER_SIZE];
+    private int bufferIndex = 0;
+
+    BitmapQuadIterator(final RoaringBitmap bitmap, final FastHashSet<Quad> quads) {
+        this.batchIterator = bitmap.getBatchIterator();
+        this.quads = quads;
+        this.initialSize = quads.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (bufferIndex > 0)
+            return true;
+        if (batchIterator.hasNext())
+            bufferIndex = batchIterator.nextBatch(buffer);
+        return bufferIndex > 0;
+    }
+
+    @Override
+    public Quad next() {
+        if (quads.size() != initialSize)
+            throw new ConcurrentModificationException();
+        if (!hasNext())
+            throw new NoSuchElementException();
+        return quads.getKeyAt(buffer[--bufferIndex]);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.core.mem2;
+
+import java.util.Iterator;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.riot.system.PrefixMapStd;
+import org.apache.jena.sparql.core.*;
+
+/**
+ * An in-memory {@link DatasetGraph} that stores quads, not graphs.
+ * <p>
+ * All graphs, including the default graph, are held in one {@link QuadStore}, with one node dictionary shared by
+ * all graphs. Compared to {@link DatasetGraphMapLink}, which holds a separate in-memory graph with its own indexes
+ * for each named graph, a node used in many graphs is held once, and a pattern match across the graphs
+ * ({@code find(ANY, s, p, o)}, {@code GRAPH ?g { ... }}) is a single index scan instead of a scan of each graph.
+ * <p>
+ * The default graph is stored under the name {@link Quad#defaultGraphIRI}.
+ * Graphs exist while they have at least one quad; they are not linked to the graphs passed to {@link #addGraph}.
+ * <p>
+ * This dataset provides MRSW locking, not serialized transactions. Abort is not supported.
+ *
+ * @see DatasetGraphFactory#createQuadMem()
+ */
+public class DatasetGraphQuadMem extends DatasetGraphTriplesQuads {
+
+    private final QuadStore store = new QuadStore();
+    private final PrefixMap prefixes = new PrefixMapStd();
+
+    public DatasetGraphQuadMem() {}
+
+    // ----
+    private final Transactional txn                     = TransactionalLock.createMRSW();
+    private final Transactional txn()                   { return txn; }
+    @Override public void begin()                       { txn().begin(); }
+    @Override public void begin(TxnType txnType)        { txn().begin(txnType); }
+    @Override public void begin(ReadWrite mode)         { txn().begin(mode); }
+    @Override public boolean promote(Promote txnType)   { return txn().promote(txnType); }
+    @Override public void commit()                      { txn().commit(); }
+    @Override public void abort()                       { txn().abort(); }
+    @Override public boolean isInTransaction()          { return txn().isInTransaction(); }
+    @Override public void end()                         { txn().end(); }
+    @Override public ReadWrite transactionMode()        { return txn().transactionMode(); }
+    @Override public TxnType transactionType()          { return txn().transactionType(); }
+    @Override public boolean supportsTransactions()     { return true; }
+    @Override public boolean supportsTransactionAbort() { return false; }
+    // ----
+
+    @Override
+    public Graph getDefaultGraph() {
+        return GraphView.createDefaultGraph(this);
+    }
+
+    @Override
+    public Graph getGraph(Node graphNode) {
+        return GraphView.createNamedGraph(this, graphNode);
+    }
+
+    @Override
+    public Graph getUnionGraph() {
+        return GraphView.createUnionGraph(this);
+    }
+
+    @Override
+    public Iterator<Node> listGraphNodes() {
+        return store.listGraphNodes().filter(gn -> !Quad.isDefaultGraph(gn)).iterator();
+    }
+
+    @Override
+    public boolean containsGraph(Node graphNode) {
+        if ( Quad.isDefaultGraph(graphNode) || Quad.isUnionGraph(graphNode) )
+            return true;
+        return store.containsGraph(graphNode);
+    }
+
+    @Override
+    public PrefixMap prefixes() {
+        return prefixes;
+    }
+
+    /** Number of named graphs. */
+    @Override
+    public long size() {
+        long size = store.listGraphNodes().count();
+        return store.containsGraph(Quad.defaultGraphIRI) ? size - 1 : size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    protected void addToDftGraph(Node s, Node p, Node o) {
+        store.add(Quad.defaultGraphIRI, s, p, o);
+    }
+
+    @Override
+    protected void addToNamedGraph(Node g, Node s, Node p, Node o) {
+        store.add(g, s, p, o);
+    }
+
+    @Override
+    protected void deleteFromDftGraph(Node s, Node p, Node o) {
+        store.delete(Quad.defaultGraphIRI, s, p, o);
+    }
+
+    @Override
+    protected void deleteFromNamedGraph(Node g, Node s, Node p, Node o) {
+        store.delete(g, s, p, o);
+    }
+
+    @Override
+    protected Iterator<Quad> findAny(Node s, Node p, Node o) {
+        // One scan over all graphs, default graph included.
+        return store.find(Node.ANY, s, p, o);
+    }
+
+    @Override
+    protected Iterator<Quad> findInDftGraph(Node s, Node p, Node o) {
+        return store.find(Quad.defaultGraphIRI, s, p, o);
+    }
+
+    @Override
+    protected Iterator<Quad> findInSpecificNamedGraph(Node g, Node s, Node p, Node o) {
+        return store.find(g, s, p, o);
+    }
+
+    @Override
+    protected Iterator<Quad> findInAnyNamedGraphs(Node s, Node p, Node o) {
+        return store.findExcept(Quad.defaultGraphIRI, s, p, o);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.core.mem2;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.mem2.collection.FastHashSet;
+
+/**
+ * Mapping between nodes and small int ids, shared by all graphs of a {@link QuadStore}.
+ * <p>
+ * The id of a node is its index in the set. Ids of removed nodes are reused.
+ * All ids are less than {@link #idLimit()}.
+ */
+final class NodeDictionary extends FastHashSet<Node> {
+
+    NodeDictionary() {
+        super();
+    }
+
+    @Override
+    protected Node[] newKeysArray(int size) {
+        return new Node[size];
+    }
+
+    /**
+     * @return the id of the node or -1 if the node is not in the dictionary
+     */
+    int getId(final Node node) {
+        return indexOf(node);
+    }
+
+    /**
+     * @return the id of the node, which is added to the dictionary if needed
+     */
+    int getOrCreateId(final Node node) {
+        final var index = addAndGetIndex(node);
+        return index < 0 ? ~index : index;
+    }
+
+    /**
+     * @return the node for the id or null if the id is not in use
+     */
+    Node getNode(final int id) {
+        return getKeyAt(id);
+    }
+
+    /**
+     * Upper bound (exclusive) of all ids in use.
+     */
+    int idLimit() {
+        return keysPos;
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.core.mem2;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.mem2.collection.FastHashSet;
+import org.apache.jena.sparql.core.Quad;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * A set of quads with one node dictionary for all graphs.
+ * <p>
+ * Internal structure:
+ * - a {@link NodeDictionary} that maps each node to an int id. Stored quads use the node objects of the
+ * dictionary, so a term used in many graphs is held once.
+ * - one indexed hash set that holds all quads (the same kind of set that {@code RoaringTripleStore} uses)
+ * - for each position (graph, subject, predicate, object), an array from node id to a {@link RoaringBitmap}
+ * of the indices of the quads in the set
+ * <p>
+ * The graph bitmaps are the G-first index: the quads of one graph, which are intersected with the
+ * bitmaps of the other bound positions. The subject, predicate and object bitmaps span all graphs and are the
+ * G-last index: a pattern with the graph as a wildcard is answered by one scan, and the graph name is read from
+ * each matching quad. There is no iteration over the graphs.
+ * <p>
+ * A node is removed from the dictionary when the last quad using it is deleted.
+ * This class is not thread safe.
+ */
+final class QuadStore {
+
+    private static final int G = 0;
+    private static final int S = 1;
+    private static final int P = 2;
+    private static final int O = 3;
+    private static final int INITIAL_INDEX_SIZE = 16;
+
+    private final NodeDictionary nodes = new NodeDictionary();
+    private final QuadSet quads = new QuadSet();
+    /** Position, then node id. Null for no quads. */
+    private final RoaringBitmap[][] bitmaps = new RoaringBitmap[4][INITIAL_INDEX_SIZE];
+
+    private static boolean isWildcard(final Node node) {
+        return node == null || Node.ANY.equals(node);
+    }
+
+    /**
+     * Add a quad.
+     *
+     * @return true if the quad was not in the store before
+     */
+    boolean add(final Node g, final Node s, final Node p, final Node o) {
+        final int gi = nodes.getOrCreateId(g);
+        final int si = nodes.getOrCreateId(s);
+        final int pi = nodes.getOrCreateId(p);
+        final int oi = nodes.getOrCreateId(o);
+        final var quad = Quad.create(nodes.getNode(gi), nodes.getNode(si), nodes.getNode(pi), nodes.getNode(oi));
+        final int index = quads.addAndGetIndex(quad);
+        if (index < 0) { /*quad already exists, so all nodes existed too*/
+            return false;
+        }
+        ensureIndexCapacity(nodes.idLimit());
+        addIndex(G, gi, index);
+        addIndex(S, si, index);
+        addIndex(P, pi, index);
+        addIndex(O, oi, index);
+        return true;
+    }
+
+    /**
+     * Delete a quad.
+     *
+     * @return true if the quad was in the store
+     */
+    boolean delete(final Node g, final Node s, final Node p, final Node o) {
+        final int index = quads.removeAndGetIndex(Quad.create(g, s, p, o));
+        if (index < 0) { /*quad does not exist*/
+            return false;
+        }
+        final int gi = nodes.getId(g);
+        final int si = nodes.getId(s);
+        final int pi = nodes.getId(p);
+        final int oi = nodes.getId(o);
+        removeIndex(G, gi, index);
+        removeIndex(S, si, index);
+        removeIndex(P, pi, index);
+        removeIndex(O, oi, index);
+        releaseIfUnused(gi);
+        releaseIfUnused(si);
+        releaseIfUnused(pi);
+        releaseIfUnused(oi);
+        return true;
+    }
+
+    private void ensureIndexCapacity(final int idLimit) {
+        if (idLimit <= bitmaps[G].length) {
+            return;
+        }
+        var newSize = bitmaps[G].length;
+        while (newSize < idLimit) {
+            newSize = (newSize >> 1) + newSize;
+        }
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i] = Arrays.copyOf(bitmaps[i], newSize);
+        }
+    }
+
+    private void addIndex(final int position, final int id, final int index) {
+        var bitmap = bitmaps[position][id];
+        if (bitmap == null) {
+            bitmap = new RoaringBitmap();
+            bitmaps[position][id] = bitmap;
+        }
+        bitmap.add(index);
+    }
+
+    private void removeIndex(final int position, final int id, final int index) {
+        final var bitmap = bitmaps[position][id];
+        bitmap.remove(index);
+        if (bitmap.isEmpty()) {
+            bitmaps[position][id] = null;
+        }
+    }
+
+    private void releaseIfUnused(final int id) {
+        if (bitmaps[G][id] == null && bitmaps[S][id] == null && bitmaps[P][id] == null && bitmaps[O][id] == null) {
+            final var node = nodes.getNode(id);
+            if (node != null) { /*the same node may be in more than one position of the deleted quad*/
+                nodes.removeUnchecked(node);
+            }
+        }
+    }
+
+    boolean contains(final Node g, final Node s, final Node p, final Node o) {
+        if (isWildcard(g) || isWildcard(s) || isWildcard(p) || isWildcard(o)) {
+            return find(g, s, p, o).hasNext();
+        }
+        return quads.containsKey(Quad.create(g, s, p, o));
+    }
+
+    /**
+     * Find quads. {@link Node#ANY} or null is a wildcard.
+     */
+    Iterator<Quad> find(final Node g, final Node s, final Node p, final Node o) {
+        return find(g, s, p, o, null);
+    }
+
+    /**
+     * Find quads in all graphs except one.
+     * This is one scan over the G-last index, with the bitmap of the excluded graph removed.
+     */
+    Iterator<Quad> findExcept(final Node excludedGraph, final Node s, final Node p, final Node o) {
+        return find(Node.ANY, s, p, o, excludedGraph);
+    }
+
+    private Iterator<Quad> find(final Node g, final Node s, final Node p, final Node o, final Node excludedGraph) {
+        final var matchBitmaps = new RoaringBitmap[4];
+        int count = 0;
+        final Node[] pattern = {g, s, p, o};
+        for (int position = G; position <= O; position++) {
+            final var node = pattern[position];
+            if (isWildcard(node)) {
+                continue;
+            }
+            final int id = nodes.getId(node);
+            if (id < 0 || bitmaps[position][id] == null) {
+                return Iter.nullIterator();
+            }
+            matchBitmaps[count++] = bitmaps[position][id];
+        }
+        final RoaringBitmap excluded = excludedGraphBitmap(excludedGraph);
+        if (count == 4) {
+            final var quad = Quad.create(g, s, p, o);
+            return quads.containsKey(quad) ? Iter.singletonIterator(quad) : Iter.nullIterator();
+        }
+        if (count == 0) {
+            final Iterator<Quad> all = quads.keyIterator();
+            if (excluded == null) {
+                return all;
+            }
+            return Iter.filter(all, quad -> !quad.getGraph().equals(excludedGraph));
+        }
+        RoaringBitmap matches = count == 1
+                ? matchBitmaps[0]
+                : FastAggregation.naive_and(Arrays.copyOf(matchBitmaps, count));
+        if (excluded != null) {
+            matches = RoaringBitmap.andNot(matches, excluded);
+        }
+        return new BitmapQuadIterator(matches, quads);
+    }
+
+    private RoaringBitmap excludedGraphBitmap(final Node excludedGraph) {
+        if (excludedGraph == null) {
+            return null;
+        }
+        final int id = nodes.getId(excludedGraph);
+        return id < 0 ? null : bitmaps[G][id];
+    }
+
+    /**
+     * The graph names with at least one quad.
+     */
+    Stream<Node> listGraphNodes() {
+        final var graphBitmaps = bitmaps[G];
+        return IntStream.range(0, nodes.idLimit())
+                .filter(id -> graphBitmaps[id] != null)
+                .mapToObj(nodes::getNode);
+    }
+
+    boolean containsGraph(final Node graphNode) {
+        final int id = nodes.getId(graphNode);
+        return id >= 0 && bitmaps[G][id] != null;
+    }
+
+    /**
+     * Number of quads in the graph.
+     */
+    int countQuads(final Node graphNode) {
+        final int id = nodes.getId(graphNode);
+        return id < 0 || bitmaps[G][id] == null ? 0 : bitmaps[G][id].getCardinality();
+    }
+
+    int size() {
+        return quads.size();
+    }
+
+    boolean isEmpty() {
+        return quads.isEmpty();
+    }
+
+    /**
+     * Number of distinct nodes held.
+     */
+    int countNodes() {
+        return nodes.size();
+    }
+
+    void clear() {
+        nodes.clear();
+        quads.clear();
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i] = new RoaringBitmap[INITIAL_INDEX_SIZE];
+        }
+    }
+
+    /**
+     * Set of quads, where each quad has an index.
+     */
+    private static class QuadSet extends FastHashSet<Quad> {
+
+        @Override
+        protected Quad[] newKeysArray(int size) {
+            return new Quad[size];
+        }
+    }
+}
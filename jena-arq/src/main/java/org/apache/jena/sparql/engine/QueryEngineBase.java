@@ -31,6 +31,7 @@ import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DynamicDatasets;
 import org.apache.jena.sparql.core.Substitute;
 import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
 import org.apache.jena.sparql.engine.binding.BindingRoot;
 import org.apache.jena.sparql.mgt.Explain;
 import org.apache.jena.sparql.util.Context;
@@ -120,15 +121,29 @@ public abstract class QueryEngineBase implements OpEval, Closeable
             // Don't reset the startBinding because it also is
             // needed in the output.
         }
-        op = modifyOp(op);
+        QueryPlanCache cache = ( query != null && startBinding.isEmpty() ) ? QueryPlanCache.get(context) : null;
+        if ( cache != null ) {
+            op = cache.optimize(query, op, originalDataset, getClass(), context, this::modifyOp);
+            // Record the plan, as some engines do in modifyOp, which is not called on a cache hit.
+            setOp(op);
+        } else
+            op = modifyOp(op);
+
+        // Prepared query: the parameters go into the optimized algebra.
+        Binding input = startBinding;
+        Binding parameters = context.get(ARQConstants.sysQueryParameters);
+        if ( parameters != null && !parameters.isEmpty() ) {
+            op = Substitute.substitute(op, parameters);
+            input = BindingFactory.builder(startBinding).addAll(parameters).build();
+        }
 
         QueryIterator queryIterator = null;
         if ( dataset != null )
             // Null means setting up but not executing a query.
-            queryIterator = evaluate(op, dataset, startBinding, context);
+            queryIterator = evaluate(op, dataset, input, context);
         else
             // Bypass management interface
-            queryIterator = evaluateNoMgt(op, dataset, startBinding, context);
+            queryIterator = evaluateNoMgt(op, dataset, input, context);
         // This could be an automagic iterator to catch close.
         return new PlanOp(getOp(), this, queryIterator);
     }
@@ -20,6 +20,7 @@ package org.apache.jena.sparql.engine;
 
 import org.apache.jena.atlas.iterator.IteratorCloseable;
 import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingBlock ;
 import org.apache.jena.sparql.util.PrintSerializable ;
 
 /** Root of query iterators in ARQ. */
@@ -29,6 +30,23 @@ public interface QueryIterator extends IteratorCloseable<Binding>, PrintSerializ
     /** Get next binding */
     public Binding nextBinding() ;
 
+    /**
+     * Add the next bindings to the block, up to the capacity of the block.
+     * Returns the number of bindings added. If the block was not full, fewer are
+     * added only when there are no more bindings, so 0 means the iterator has finished.
+     * <p>
+     * This is an alternative to {@link #hasNext()} and {@link #nextBinding()} that moves
+     * many bindings in one call. The two styles can be mixed.
+     */
+    public default int nextBatch(BindingBlock block) {
+        int n = 0;
+        while ( !block.isFull() && hasNext() ) {
+            block.add(nextBinding());
+            n++;
+        }
+        return n;
+    }
+
     /**
      * Cancels the query as soon as is possible for the given iterator
      */
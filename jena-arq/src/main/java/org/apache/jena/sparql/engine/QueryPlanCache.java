@@ -0,0 +1,392 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import org.apache.jena.atlas.lib.Cache;
+import org.apache.jena.atlas.lib.CacheFactory;
+import org.apache.jena.atlas.lib.cache.CacheInfo;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.Syntax;
+import org.apache.jena.sparql.ARQConstants;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.TransformCopy;
+import org.apache.jena.sparql.algebra.Transformer;
+import org.apache.jena.sparql.algebra.optimize.OptimizerStd;
+import org.apache.jena.sparql.algebra.op.OpBGP;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Substitute;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.BindingBuilder;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.Symbol;
+import org.apache.jena.vocabulary.RDF;
+
+/**
+ * A bounded cache of parsed queries and of the optimized algebra for queries.
+ * <p>
+ * Parsed queries are keyed by the query string, with the whitespace and comments
+ * outside of strings and IRIs normalized, together with the base IRI and the syntax.
+ * The {@link Query} objects are shared and must not be modified.
+ * <p>
+ * Optimized algebra is keyed by the query, the dataset (by identity), the query engine
+ * and the context settings that affect optimization: {@link ARQ#optimization}, the
+ * {@code opt*} settings of {@link ARQ}, the property function settings and the optimizer
+ * in the context. The cache only holds a weak reference to the dataset. Datasets
+ * created for one execution, such as per-request wrappers and views, do not share plans.
+ * If literals are parameterized, the literals in the triple patterns are replaced
+ * by variables before optimization and put back into the optimized algebra afterwards
+ * so queries that only differ in those literals share a plan.
+ * <p>
+ * The cache assumes the global optimizer ({@link org.apache.jena.sparql.algebra.optimize.Optimize#setFactory})
+ * does not change.
+ * <p>
+ * Caching is enabled with the context setting {@link ARQ#queryPlanCache}.
+ */
+public class QueryPlanCache {
+
+    /** Default number of queries and of plans in a cache. */
+    public static final int DefaultSize = 1000;
+
+    private static volatile QueryPlanCache shared = null;
+
+    /** The shared cache, used when the context setting {@link ARQ#queryPlanCache} is "true". */
+    public static QueryPlanCache get() {
+        if ( shared == null ) {
+            synchronized(QueryPlanCache.class) {
+                if ( shared == null )
+                    shared = new QueryPlanCache(DefaultSize, false);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * The cache for a context: the context value of {@link ARQ#queryPlanCache} if it is a
+     * {@code QueryPlanCache}, the shared cache if it is "true", otherwise null for no caching.
+     */
+    public static QueryPlanCache get(Context context) {
+        if ( context == null )
+            return null;
+        Object x = context.get(ARQ.queryPlanCache);
+        if ( x == null )
+            return null;
+        if ( x instanceof QueryPlanCache cache )
+            return cache;
+        if ( context.isTrue(ARQ.queryPlanCache) )
+            return get();
+        return null;
+    }
+
+    private record QueryKey(String queryString, String baseURI, Syntax syntax) {}
+
+    /** The context settings, other than the {@code opt*} settings of {@link ARQ}, that the optimizer reads. */
+    private static final Set<Symbol> optimizerSymbols = Set.of(ARQ.enablePropertyFunctions,
+                                                               ARQ.propertyFunctions,
+                                                               ARQConstants.registryPropertyFunctions,
+                                                               ARQConstants.sysOptimizer,
+                                                               ARQConstants.sysOptimizerFactory,
+                                                               OptimizerStd.filterPlacementOldName);
+    private static final String optimizerSymbolPrefix = ARQ.arqParamNS + "opt";
+
+    private static final class PlanKey {
+        private final Object query;
+        // Weak so that the cache does not keep datasets alive. Null for no dataset.
+        private final WeakReference<DatasetGraph> dataset;
+        private final int datasetHash;
+        private final Class<?> engine;
+        private final Map<Symbol, Object> settings;
+
+        PlanKey(Object query, DatasetGraph dataset, Class<?> engine, Map<Symbol, Object> settings) {
+            this.query = query;
+            this.dataset = ( dataset == null ) ? null : new WeakReference<>(dataset);
+            this.datasetHash = System.identityHashCode(dataset);
+            this.engine = engine;
+            this.settings = settings;
+        }
+
+        private boolean sameDataset(PlanKey other) {
+            if ( dataset == null || other.dataset == null )
+                return dataset == other.dataset;
+            DatasetGraph dsg = dataset.get();
+            // A dataset that has been garbage collected matches nothing.
+            return dsg != null && dsg == other.dataset.get();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof PlanKey key
+                    && datasetHash == key.datasetHash
+                    && engine == key.engine
+                    && sameDataset(key)
+                    && query.equals(key.query)
+                    && settings.equals(key.settings);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, datasetHash, engine, settings);
+        }
+    }
+
+    /** The context settings that affect the optimized algebra. */
+    private static Map<Symbol, Object> optimizerSettings(Context context) {
+        if ( context == null )
+            return Map.of();
+        Map<Symbol, Object> settings = new HashMap<>();
+        for ( Symbol symbol : context.keys() ) {
+            if ( symbol.getSymbol().startsWith(optimizerSymbolPrefix) || optimizerSymbols.contains(symbol) ) {
+                Object value = context.get(symbol);
+                if ( value != null )
+                    settings.put(symbol, value);
+            }
+        }
+        return settings;
+    }
+
+    private final Cache<QueryKey, Query> queries;
+    private final Cache<PlanKey, Op> plans;
+    private final boolean parameterizeLiterals;
+    private final LongAdder queryHits = new LongAdder();
+    private final LongAdder queryMisses = new LongAdder();
+    private final LongAdder planHits = new LongAdder();
+    private final LongAdder planMisses = new LongAdder();
+
+    /**
+     * Create a cache holding up to {@code size} parsed queries and {@code size} plans.
+     * If {@code parameterizeLiterals} is true, queries that only differ in the literals
+     * of triple patterns share a plan.
+     */
+    public QueryPlanCache(int size, boolean parameterizeLiterals) {
+        this.queries = CacheFactory.createCache(size);
+        this.plans = CacheFactory.createCache(size);
+        this.parameterizeLiterals = parameterizeLiterals;
+    }
+
+    /** Parse a query, or return the query from an earlier parse of the same query string. */
+    public Query parse(String queryString, String baseURI, Syntax syntax) {
+        QueryKey key = new QueryKey(normalize(queryString), baseURI, syntax);
+        Query query = queries.getIfPresent(key);
+        if ( query != null ) {
+            queryHits.increment();
+            return query;
+        }
+        queryMisses.increment();
+        query = QueryFactory.create(queryString, baseURI, syntax);
+        // Set before the query is shared.
+        query.ensureResultVars();
+        queries.put(key, query);
+        return query;
+    }
+
+    /**
+     * Return the optimized algebra for a query, from the cache if possible.
+     * {@code op} is the algebra for the query, {@code context} is the context of the
+     * execution and {@code optimizer} is the optimization step of the query engine.
+     */
+    public Op optimize(Query query, Op op, DatasetGraph dataset, Class<?> engine, Context context, UnaryOperator<Op> optimizer) {
+        Map<Symbol, Object> settings = optimizerSettings(context);
+        if ( ! parameterizeLiterals )
+            return lookup(new PlanKey(query, dataset, engine, settings), ()->optimizer.apply(op));
+        List<Node> literals = new ArrayList<>();
+        Op template = parameterize(op, context, literals);
+        Op plan = lookup(new PlanKey(template, dataset, engine, settings), ()->optimizer.apply(template));
+        if ( literals.isEmpty() )
+            return plan;
+        BindingBuilder builder = BindingFactory.builder();
+        for ( int i = 0 ; i < literals.size() ; i++ )
+            builder.add(paramVar(i), literals.get(i));
+        return Substitute.substitute(plan, builder.build());
+    }
+
+    private Op lookup(PlanKey key, Supplier<Op> optimizer) {
+        Op plan = plans.getIfPresent(key);
+        if ( plan != null ) {
+            planHits.increment();
+            return plan;
+        }
+        planMisses.increment();
+        plan = optimizer.get();
+        plans.put(key, plan);
+        return plan;
+    }
+
+    /** Statistics for parsed queries. */
+    public CacheInfo queryStats() {
+        return stats(queryHits.sum(), queryMisses.sum());
+    }
+
+    /** Statistics for plans. */
+    public CacheInfo planStats() {
+        return stats(planHits.sum(), planMisses.sum());
+    }
+
+    private static CacheInfo stats(long hits, long misses) {
+        long requests = hits + misses;
+        double hitRate = ( requests == 0 ) ? 1.0 : (double)hits / requests;
+        return new CacheInfo(requests, hits, misses, hitRate);
+    }
+
+    /** Number of parsed queries in the cache. */
+    public long queryCacheSize() {
+        return queries.size();
+    }
+
+    /** Number of plans in the cache. */
+    public long planCacheSize() {
+        return plans.size();
+    }
+
+    /** Remove all entries. The statistics are not reset. */
+    public void clear() {
+        queries.clear();
+        plans.clear();
+    }
+
+    /**
+     * Replace the literals in triple patterns by variables, adding the literals to
+     * {@code literals}; the i'th literal is replaced by {@code paramVar(i)}. Property functions and RDF lists (which are often arguments to
+     * property functions) are left unchanged.
+     */
+    private static Op parameterize(Op op, Context context, List<Node> literals) {
+        PropertyFunctionRegistry registry = PropertyFunctionRegistry.chooseRegistry(context != null ? context : ARQ.getContext());
+        TransformCopy transform = new TransformCopy() {
+            @Override
+            public Op transform(OpBGP opBGP) {
+                BasicPattern pattern = new BasicPattern();
+                boolean changed = false;
+                for ( Triple triple : opBGP.getPattern() ) {
+                    Node p = triple.getPredicate();
+                    if ( p.isURI() && ( registry.manages(p.getURI()) || p.equals(RDF.Nodes.first) || p.equals(RDF.Nodes.rest) ) ) {
+                        pattern.add(triple);
+                        continue;
+                    }
+                    Node s = param(triple.getSubject(), literals);
+                    Node o = param(triple.getObject(), literals);
+                    if ( s != triple.getSubject() || o != triple.getObject() ) {
+                        triple = Triple.create(s, p, o);
+                        changed = true;
+                    }
+                    pattern.add(triple);
+                }
+                return changed ? new OpBGP(pattern) : super.transform(opBGP);
+            }
+        };
+        return Transformer.transform(transform, op);
+    }
+
+    private static Node param(Node node, List<Node> literals) {
+        if ( ! node.isLiteral() )
+            return node;
+        Var var = paramVar(literals.size());
+        literals.add(node);
+        return var;
+    }
+
+    private static Var paramVar(int i) {
+        return Var.alloc(ARQConstants.allocVarParameter + i);
+    }
+
+    /**
+     * Normalize the text of a query: runs of whitespace and comments outside of strings
+     * and IRIs become a single space, and leading and trailing whitespace is removed.
+     */
+    static String normalize(String queryString) {
+        StringBuilder sb = new StringBuilder(queryString.length());
+        int len = queryString.length();
+        boolean space = false;
+        int i = 0;
+        while ( i < len ) {
+            char ch = queryString.charAt(i);
+            if ( Character.isWhitespace(ch) ) {
+                space = true;
+                i++;
+                continue;
+            }
+            if ( ch == '#' ) {
+                // Comment to end of line.
+                while ( i < len && queryString.charAt(i) != '\n' && queryString.charAt(i) != '\r' )
+                    i++;
+                space = true;
+                continue;
+            }
+            if ( space && sb.length() > 0 )
+                sb.append(' ');
+            space = false;
+            int end = i+1;
+            if ( ch == '"' || ch == '\'' )
+                end = endOfString(queryString, i);
+            else if ( ch == '<' )
+                end = endOfIRI(queryString, i);
+            else if ( ch == '\\' )
+                end = Math.min(i+2, len);
+            sb.append(queryString, i, end);
+            i = end;
+        }
+        return sb.toString();
+    }
+
+    /** The index after the string starting at {@code start}. */
+    private static int endOfString(String s, int start) {
+        char quote = s.charAt(start);
+        int len = s.length();
+        boolean isLong = start+2 < len && s.charAt(start+1) == quote && s.charAt(start+2) == quote;
+        int i = isLong ? start+3 : start+1;
+        while ( i < len ) {
+            char ch = s.charAt(i);
+            if ( ch == '\\' ) {
+                i += 2;
+                continue;
+            }
+            if ( ch == quote ) {
+                if ( ! isLong )
+                    return i+1;
+                if ( i+2 < len && s.charAt(i+1) == quote && s.charAt(i+2) == quote )
+                    return i+3;
+            }
+            i++;
+        }
+        return len;
+    }
+
+    /** The index after the IRI starting at {@code start}, or after the '<' if it is not an IRI. */
+    private static int endOfIRI(String s, int start) {
+        int len = s.length();
+        for ( int i = start+1 ; i < len ; i++ ) {
+            char ch = s.charAt(i);
+            if ( ch == '>' )
+                return i+1;
+            if ( Character.isWhitespace(ch) || ch == '<' || ch == '"' || ch == '{' || ch == '}' )
+                break;
+        }
+        return start+1;
+    }
+}
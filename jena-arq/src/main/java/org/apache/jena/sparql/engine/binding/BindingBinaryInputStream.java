@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.engine.binding;
+
+import static org.apache.jena.sparql.engine.binding.BindingBinaryOutputStream.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.iterator.IteratorCloseable;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.TextDirection;
+import org.apache.jena.sparql.ARQException;
+import org.apache.jena.sparql.core.Var;
+
+/** Reader of bindings written by {@link BindingBinaryOutputStream}. */
+public class BindingBinaryInputStream implements IteratorCloseable<Binding> {
+    private final InputStream in;
+    private final List<String> table = new ArrayList<>();
+    private final byte[] buffer = new byte[16 * 1024];
+    private int pos = 0;
+    private int limit = 0;
+    private boolean finished = false;
+    private Binding slot = null;
+    private final BindingBuilder builder = Binding.builder();
+
+    public BindingBinaryInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if ( slot != null )
+            return true;
+        if ( finished )
+            return false;
+        if ( !fill() ) {
+            finished = true;
+            return false;
+        }
+        slot = readBinding();
+        return true;
+    }
+
+    @Override
+    public Binding next() {
+        if ( !hasNext() )
+            throw new NoSuchElementException();
+        Binding b = slot;
+        slot = null;
+        return b;
+    }
+
+    private Binding readBinding() {
+        int size = readInt();
+        builder.reset();
+        for ( int i = 0 ; i < size ; i++ ) {
+            Var v = Var.alloc(readTableString());
+            builder.add(v, readNode());
+        }
+        return builder.build();
+    }
+
+    private Node readNode() {
+        int type = readByte();
+        switch (type) {
+            case T_IRI:
+                return NodeFactory.createURI(readTableString());
+            case T_BNODE:
+                return NodeFactory.createBlankNode(readString());
+            case T_STRING:
+                return NodeFactory.createLiteralString(readString());
+            case T_LANG: {
+                String lex = readString();
+                return NodeFactory.createLiteralLang(lex, readTableString());
+            }
+            case T_DIRLANG: {
+                String lex = readString();
+                String lang = readTableString();
+                return NodeFactory.createLiteralDirLang(lex, lang, TextDirection.create(readTableString()));
+            }
+            case T_DATATYPE: {
+                String lex = readString();
+                return NodeFactory.createLiteralDT(lex, TypeMapper.getInstance().getSafeTypeByName(readTableString()));
+            }
+            case T_TRIPLE: {
+                Node s = readNode();
+                Node p = readNode();
+                Node o = readNode();
+                return NodeFactory.createTripleTerm(s, p, o);
+            }
+            case T_VAR:
+                return Var.alloc(readTableString());
+            default:
+                throw new ARQException("Bad binary binding data: node type " + type);
+        }
+    }
+
+    private String readTableString() {
+        int idx = readInt();
+        if ( idx != 0 )
+            return table.get(idx - 1);
+        String string = readString();
+        if ( table.size() < TABLE_SIZE )
+            table.add(string);
+        return string;
+    }
+
+    private String readString() {
+        int len = readInt();
+        if ( limit - pos >= len ) {
+            String string = new String(buffer, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return string;
+        }
+        byte[] bytes = new byte[len];
+        int n = 0;
+        while ( n < len ) {
+            require();
+            int x = Math.min(len - n, limit - pos);
+            System.arraycopy(buffer, pos, bytes, n, x);
+            pos += x;
+            n += x;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readInt() {
+        int value = 0;
+        for ( int shift = 0 ; ; shift += 7 ) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ( (b & 0x80) == 0 )
+                return value;
+        }
+    }
+
+    private int readByte() {
+        require();
+        return buffer[pos++] & 0xFF;
+    }
+
+    private void require() {
+        if ( !fill() )
+            throw new ARQException("Bad binary binding data: unexpected end of input");
+    }
+
+    /** Ensure there is at least one byte in the buffer. Return false at the end of input. */
+    private boolean fill() {
+        if ( pos < limit )
+            return true;
+        try {
+            int n = in.read(buffer);
+            while ( n == 0 )
+                n = in.read(buffer);
+            if ( n < 0 )
+                return false;
+            pos = 0;
+            limit = n;
+            return true;
+        } catch (IOException ex) { throw new RuntimeIOException(ex); }
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        IO.close(in);
+    }
+}
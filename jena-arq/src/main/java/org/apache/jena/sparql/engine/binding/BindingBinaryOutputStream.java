@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.engine.binding;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.lib.Sink;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.TextDirection;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.ARQException;
+import org.apache.jena.sparql.core.Var;
+
+/**
+ * Writer of bindings in a compact binary form, for temporary files.
+ * Read with {@link BindingBinaryInputStream}.
+ * <p>
+ * The format is not a stable interchange format; it is only for data written and
+ * read by the same system.
+ * <p>
+ * Each binding is the number of variables, followed by each variable name and its value.
+ * Numbers are written as unsigned variable length integers. Strings are written as the length of
+ * their UTF-8 encoding followed by the bytes. Variable names, IRIs, language tags and datatypes
+ * are entered into a table as they are first written, and thereafter written as their index in
+ * the table. The table has at most {@link #TABLE_SIZE} entries.
+ */
+public class BindingBinaryOutputStream implements Sink<Binding> {
+    /*package*/ static final int TABLE_SIZE = 64 * 1024;
+
+    /*package*/ static final int T_IRI      = 1;
+    /*package*/ static final int T_BNODE    = 2;
+    /*package*/ static final int T_STRING   = 3;
+    /*package*/ static final int T_LANG     = 4;
+    /*package*/ static final int T_DIRLANG  = 5;
+    /*package*/ static final int T_DATATYPE = 6;
+    /*package*/ static final int T_TRIPLE   = 7;
+    /*package*/ static final int T_VAR      = 8;
+
+    private final OutputStream out;
+    private final Map<String, Integer> table = new HashMap<>();
+    private final List<Var> vars = new ArrayList<>();
+    private final List<Node> values = new ArrayList<>();
+    private byte[] buffer = new byte[256];
+    private int length = 0;
+
+    public BindingBinaryOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void send(Binding binding) {
+        vars.clear();
+        values.clear();
+        binding.forEach((v, n) -> {
+            if ( n != null ) {
+                vars.add(v);
+                values.add(n);
+            }
+        });
+        writeInt(vars.size());
+        for ( int i = 0 ; i < vars.size() ; i++ ) {
+            writeTableString(vars.get(i).getVarName());
+            writeNode(values.get(i));
+        }
+        if ( length > 8 * 1024 )
+            writeBuffer();
+    }
+
+    private void writeNode(Node node) {
+        if ( node.isURI() ) {
+            writeByte(T_IRI);
+            writeTableString(node.getURI());
+        } else if ( node.isBlank() ) {
+            writeByte(T_BNODE);
+            writeString(node.getBlankNodeLabel());
+        } else if ( node.isLiteral() ) {
+            String lang = node.getLiteralLanguage();
+            if ( lang != null && !lang.isEmpty() ) {
+                TextDirection dir = node.getLiteralBaseDirection();
+                writeByte(dir == null ? T_LANG : T_DIRLANG);
+                writeString(node.getLiteralLexicalForm());
+                writeTableString(lang);
+                if ( dir != null )
+                    writeTableString(dir.direction());
+            } else if ( node.getLiteralDatatype().equals(XSDDatatype.XSDstring) ) {
+                writeByte(T_STRING);
+                writeString(node.getLiteralLexicalForm());
+            } else {
+                writeByte(T_DATATYPE);
+                writeString(node.getLiteralLexicalForm());
+                writeTableString(node.getLiteralDatatypeURI());
+            }
+        } else if ( node.isTripleTerm() ) {
+            Triple t = node.getTriple();
+            writeByte(T_TRIPLE);
+            writeNode(t.getSubject());
+            writeNode(t.getPredicate());
+            writeNode(t.getObject());
+        } else if ( node.isVariable() ) {
+            writeByte(T_VAR);
+            writeTableString(node.getName());
+        } else {
+            throw new ARQException("Can't write node: " + node);
+        }
+    }
+
+    /** Write a string that goes in the table: 0 and the string if it is new, else the index plus one. */
+    private void writeTableString(String string) {
+        Integer idx = table.get(string);
+        if ( idx != null ) {
+            writeInt(idx + 1);
+            return;
+        }
+        writeInt(0);
+        writeString(string);
+        if ( table.size() < TABLE_SIZE )
+            table.put(string, table.size());
+    }
+
+    private void writeString(String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void writeInt(int value) {
+        ensure(5);
+        while ( (value & ~0x7F) != 0 ) {
+            buffer[length++] = (byte)((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte)value;
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[length++] = (byte)value;
+    }
+
+    private void ensure(int bytes) {
+        if ( length + bytes > buffer.length ) {
+            int n = buffer.length;
+            while ( length + bytes > n )
+                n = 2 * n;
+            byte[] b = new byte[n];
+            System.arraycopy(buffer, 0, b, 0, length);
+            buffer = b;
+        }
+    }
+
+    private void writeBuffer() {
+        try {
+            out.write(buffer, 0, length);
+            length = 0;
+        } catch (IOException ex) { throw new RuntimeIOException(ex); }
+    }
+
+    @Override
+    public void flush() {
+        writeBuffer();
+        IO.flush(out);
+    }
+
+    @Override
+    public void close() {
+        writeBuffer();
+        IO.close(out);
+    }
+}
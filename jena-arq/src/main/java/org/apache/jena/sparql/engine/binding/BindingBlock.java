@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.engine.binding;
+
+import java.util.Arrays;
+
+import org.apache.jena.sparql.engine.QueryIterator;
+
+/**
+ * A block of bindings with a fixed capacity, filled by {@link QueryIterator#nextBatch}.
+ * A block is reused, by calling {@link #clear()}, to pass many bindings between
+ * query iterators without a call for each binding.
+ */
+public final class BindingBlock {
+    /** Default number of bindings in a block. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Binding[] rows;
+    private int size = 0;
+
+    public BindingBlock() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BindingBlock(int capacity) {
+        if ( capacity < 1 )
+            throw new IllegalArgumentException("Capacity must be at least one: " + capacity);
+        this.rows = new Binding[capacity];
+    }
+
+    public int capacity() {
+        return rows.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == rows.length;
+    }
+
+    /** Number of bindings that can be added. */
+    public int remaining() {
+        return rows.length - size;
+    }
+
+    public Binding get(int idx) {
+        return rows[idx];
+    }
+
+    public void set(int idx, Binding binding) {
+        rows[idx] = binding;
+    }
+
+    public void add(Binding binding) {
+        rows[size++] = binding;
+    }
+
+    /** Keep the first {@code newSize} bindings. */
+    public void truncate(int newSize) {
+        Arrays.fill(rows, newSize, size, null);
+        size = newSize;
+    }
+
+    public void clear() {
+        truncate(0);
+    }
+}
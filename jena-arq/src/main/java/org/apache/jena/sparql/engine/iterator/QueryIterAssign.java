@@ -18,9 +18,13 @@
 
 package org.apache.jena.sparql.engine.iterator;
 
+import java.util.HashMap ;
+import java.util.Map ;
+
 import org.apache.jena.atlas.io.IndentedWriter ;
 import org.apache.jena.atlas.lib.Lib ;
 import org.apache.jena.graph.Node ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.query.QueryExecException ;
 import org.apache.jena.sparql.ARQInternalErrorException;
 import org.apache.jena.sparql.core.Var ;
@@ -30,6 +34,11 @@ import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.binding.BindingBuilder;
 import org.apache.jena.sparql.expr.Expr ;
+import org.apache.jena.sparql.expr.ExprEvalException ;
+import org.apache.jena.sparql.expr.NodeValue ;
+import org.apache.jena.sparql.expr.compile.CompiledExpr ;
+import org.apache.jena.sparql.expr.compile.ExprCompiler ;
+import org.apache.jena.sparql.function.scripting.ScriptDenyException ;
 import org.apache.jena.sparql.serializer.SerializationContext ;
 
 /** Extend each solution by a (var, expression) */
@@ -38,6 +47,8 @@ public class QueryIterAssign extends QueryIterProcessBinding
 {
     private VarExprList exprs ;
     private final boolean mustBeNewVar ;
+    // Null if not compiling expressions.
+    private final Map<Var, CompiledExpr> compiled ;
 
     public QueryIterAssign(QueryIterator input, Var var, Expr expr, ExecutionContext qCxt) {
         this(input, new VarExprList(var, expr) , qCxt, false) ;
@@ -51,6 +62,30 @@ public class QueryIterAssign extends QueryIterProcessBinding
         super(input, qCxt) ;
         this.exprs = exprs ;
         this.mustBeNewVar = mustBeNewVar ;
+        this.compiled = qCxt.getContext().isTrue(ARQ.compileExpressions) ? compile(exprs) : null ;
+    }
+
+    private static Map<Var, CompiledExpr> compile(VarExprList exprs) {
+        Map<Var, CompiledExpr> x = new HashMap<>() ;
+        exprs.forEachExpr((v, e) -> x.put(v, ExprCompiler.compile(e))) ;
+        return x ;
+    }
+
+    /** As {@link VarExprList#get(Var, Binding, org.apache.jena.sparql.function.FunctionEnv)} */
+    private Node eval(Var v, Binding binding) {
+        if ( compiled == null )
+            return exprs.get(v, binding, getExecContext()) ;
+        CompiledExpr expr = compiled.get(v) ;
+        if ( expr == null )
+            return binding.get(v) ;
+        try {
+            NodeValue nv = expr.eval(binding, getExecContext()) ;
+            return nv == null ? null : nv.asNode() ;
+        } catch (ScriptDenyException ex) {
+            throw ex ;
+        } catch (ExprEvalException ex) {
+            return null ;
+        }
     }
 
     @Override
@@ -59,7 +94,7 @@ public class QueryIterAssign extends QueryIterProcessBinding
         for ( Var v : exprs.getVars() ) {
             // if "binding", not "b" used, we get (Lisp) "let"
             // semantics, not the desired "let*" semantics
-            Node n = exprs.get(v, b.snapshot(), getExecContext());
+            Node n = eval(v, b.snapshot());
 
             if ( n == null )
                 // Expression failed to evaluate - no assignment
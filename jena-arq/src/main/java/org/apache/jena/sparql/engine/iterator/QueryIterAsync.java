@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.iterator;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.atlas.lib.ThreadLib;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.query.QueryExecException;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+
+/**
+ * A QueryIterator whose results are calculated on another thread, starting when
+ * this iterator is created. The results are passed to this iterator through a
+ * bounded queue; the other thread waits when the queue is full.
+ * <p>
+ * The producer is called with an {@link ExecutionContext} for the other thread.
+ * It shares the query context and dataset but has its own iterator tracking.
+ * <p>
+ * {@link #cancel()} stops the other thread and wakes a thread waiting for results.
+ */
+public class QueryIterAsync extends QueryIter {
+
+    public static QueryIterator create(Function<ExecutionContext, QueryIterator> producer, ExecutionContext execCxt) {
+        return new QueryIterAsync(producer, execCxt);
+    }
+
+    /**
+     * Join two iterators, one or both of which may be a {@code QueryIterAsync}, when the
+     * first result is needed. Joins may read their inputs when created, which is while the
+     * query plan is being built; the query execution can only cancel the iterators once
+     * the plan has been built.
+     */
+    public static QueryIterator join(QueryIterator left, QueryIterator right, BinaryOperator<QueryIterator> join,
+                                     ExecutionContext execCxt) {
+        return new QueryIterJoinDeferred(left, right, join, execCxt);
+    }
+
+    private static class QueryIterJoinDeferred extends QueryIter2 {
+        private final BinaryOperator<QueryIterator> join;
+        private volatile QueryIterator joined = null;
+
+        QueryIterJoinDeferred(QueryIterator left, QueryIterator right, BinaryOperator<QueryIterator> join, ExecutionContext execCxt) {
+            super(left, right, execCxt);
+            this.join = join;
+        }
+
+        @Override
+        protected boolean hasNextBinding() {
+            if ( joined == null )
+                joined = join.apply(getLeft(), getRight());
+            return joined.hasNext();
+        }
+
+        @Override
+        protected Binding moveToNextBinding() {
+            if ( !hasNextBinding() )
+                throw new NoSuchElementException(Lib.className(this) + ".next()/finished");
+            return joined.next();
+        }
+
+        @Override
+        protected void requestSubCancel() {
+            performRequestCancel(joined);
+        }
+
+        @Override
+        protected void closeSubIterator() {
+            performClose(joined);
+        }
+    }
+
+    private final Results results;
+
+    private QueryIterAsync(Function<ExecutionContext, QueryIterator> producer, ExecutionContext execCxt) {
+        super(execCxt);
+        this.results = Results.start(producer, execCxt);
+    }
+
+    @Override
+    protected boolean hasNextBinding() {
+        return results.hasNext();
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        if ( !hasNextBinding() )
+            throw new NoSuchElementException(Lib.className(this) + ".next()/finished");
+        return results.next();
+    }
+
+    @Override
+    protected void closeIterator() {
+        results.stop();
+    }
+
+    @Override
+    protected void requestCancel() {
+        results.stop();
+    }
+
+    /**
+     * The results of a producer running on another thread.
+     * This is read by one thread; {@link #stop} can be called from any thread.
+     */
+    /*package*/ static final class Results {
+        // Rows held in the queue for each producer.
+        private static final int QueueSize = 1000;
+        private static final Object END = new Object();
+        // Only used to wake a reader.
+        private static final Object STOP = new Object();
+        private record Failure(Throwable cause) {}
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QueueSize);
+        private volatile boolean stopped = false;
+        private Future<?> future;
+        // The next item from the queue, not yet returned. END is kept once seen.
+        private Object slot = null;
+
+        /** Run the producer on another thread, passing its results through the queue. */
+        /*package*/ static Results start(Function<ExecutionContext, QueryIterator> producer, ExecutionContext execCxt) {
+            ExecutionContext threadCxt = ExecutionContext.fromFunctionEnv(execCxt);
+            threadCxt.setExecutor(execCxt.getExecutor());
+            Results results = new Results();
+            results.future = ThreadLib.getExecutionService().submit(() -> results.produce(producer, threadCxt));
+            return results;
+        }
+
+        private Results() {}
+
+        private void produce(Function<ExecutionContext, QueryIterator> producer, ExecutionContext threadCxt) {
+            try {
+                QueryIterator qIter = producer.apply(threadCxt);
+                try {
+                    while ( !stopped && qIter.hasNext() )
+                        queue.put(qIter.nextBinding());
+                } finally {
+                    qIter.close();
+                }
+                queue.put(END);
+            } catch (InterruptedException ex) {
+                // Stopped.
+            } catch (Throwable th) {
+                if ( stopped )
+                    return;
+                try { queue.put(new Failure(th)); }
+                catch (InterruptedException ex) { /* Stopped */ }
+            }
+        }
+
+        /**
+         * Wait for the next result, passing on any exception from the other thread.
+         * Throws {@link QueryCancelledException} if stopped.
+         */
+        /*package*/ boolean hasNext() {
+            if ( slot == null ) {
+                try {
+                    slot = queue.take();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    stop();
+                    throw new QueryCancelledException();
+                }
+            }
+            if ( stopped )
+                throw new QueryCancelledException();
+            if ( slot instanceof Failure failure ) {
+                Throwable cause = failure.cause();
+                if ( cause instanceof RuntimeException runtimeEx )
+                    throw runtimeEx;
+                if ( cause instanceof Error error )
+                    throw error;
+                throw new QueryExecException(cause);
+            }
+            return slot != END;
+        }
+
+        /*package*/ Binding next() {
+            if ( !hasNext() )
+                throw new NoSuchElementException("QueryIterAsync.Results.next()");
+            Binding binding = (Binding)slot;
+            slot = null;
+            return binding;
+        }
+
+        /** Stop the producer, interrupting it, and wake the reader if it is waiting. */
+        /*package*/ void stop() {
+            stopped = true;
+            future.cancel(true);
+            // If the queue is full, the reader is not waiting and sees "stopped" next time.
+            queue.offer(STOP);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.engine.iterator;
+
+import org.apache.jena.atlas.io.IndentedWriter;
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingBlock;
+import org.apache.jena.sparql.serializer.SerializationContext;
+
+/**
+ * Takes the bindings of the input a block at a time, using {@link QueryIterator#nextBatch},
+ * and returns them one at a time.
+ * <p>
+ * The input iterators then pass blocks of bindings between each other.
+ * This reads ahead by up to the size of the block.
+ *
+ * @see ARQ#executionBatchSize
+ */
+public class QueryIterBatched extends QueryIter1 {
+    private final BindingBlock block;
+    private int idx = 0;
+
+    public QueryIterBatched(QueryIterator input, int batchSize, ExecutionContext execCxt) {
+        super(input, execCxt);
+        this.block = new BindingBlock(batchSize);
+    }
+
+    @Override
+    protected boolean hasNextBinding() {
+        if ( idx < block.size() )
+            return true;
+        block.clear();
+        idx = 0;
+        return getInput().nextBatch(block) > 0;
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        Binding binding = block.get(idx);
+        block.set(idx, null);
+        idx++;
+        return binding;
+    }
+
+    @Override
+    protected boolean moveToNextBatch(BindingBlock output) {
+        // Rows already taken from the input.
+        while ( idx < block.size() && !output.isFull() ) {
+            output.add(block.get(idx));
+            block.set(idx, null);
+            idx++;
+        }
+        if ( output.isFull() )
+            return true;
+        getInput().nextBatch(output);
+        return output.isFull();
+    }
+
+    @Override
+    protected void requestSubCancel() {}
+
+    @Override
+    protected void closeSubIterator() {
+        block.clear();
+        idx = 0;
+    }
+
+    @Override
+    protected void details(IndentedWriter out, SerializationContext sCxt) {
+        out.println(Lib.className(this) + "/" + block.capacity());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.iterator;
+
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+
+/**
+ * Execute the subclass operation for each Binding in the input iterator, as
+ * {@link QueryIterRepeatApply} does, but with up to {@code concurrency} operations
+ * running at the same time on other threads. Results are returned in the order of
+ * the input.
+ * <p>
+ * Each operation runs on its own thread, with an {@link ExecutionContext} for that
+ * thread, and passes its results through a bounded queue as {@link QueryIterAsync} does.
+ * An operation that is ahead of the one being read waits when its queue is full.
+ */
+public abstract class QueryIterConcurrentApply extends QueryIter1 {
+    private final int concurrency;
+    // Accessed by requestCancel which may be on another thread.
+    private final Deque<QueryIterAsync.Results> pending = new ConcurrentLinkedDeque<>();
+    private QueryIterAsync.Results current = null;
+
+    protected QueryIterConcurrentApply(QueryIterator input, int concurrency, ExecutionContext execCxt) {
+        super(input, execCxt);
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /** The operation for one input binding. This is called on another thread. */
+    protected abstract QueryIterator nextStage(Binding binding, ExecutionContext execCxt);
+
+    @Override
+    protected boolean hasNextBinding() {
+        for ( ;; ) {
+            if ( current != null && current.hasNext() )
+                return true;
+            if ( current != null )
+                pending.pollFirst();
+            current = null;
+            startStages();
+            // Stays in "pending" until finished so that it can be stopped.
+            current = pending.peekFirst();
+            if ( current == null )
+                return false;
+        }
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        if ( !hasNextBinding() )
+            throw new NoSuchElementException(Lib.className(this) + ".next()/finished");
+        return current.next();
+    }
+
+    /** Start operations for the input until there are {@code concurrency} in progress. */
+    private void startStages() {
+        QueryIterator input = getInput();
+        if ( input == null )
+            return;
+        while ( pending.size() < concurrency && input.hasNext() ) {
+            Binding binding = input.nextBinding();
+            pending.addLast(QueryIterAsync.Results.start(cxt -> nextStage(binding, cxt), getExecContext()));
+        }
+    }
+
+    private void cancelStages() {
+        for ( QueryIterAsync.Results results = pending.pollFirst() ; results != null ; results = pending.pollFirst() )
+            results.stop();
+    }
+
+    @Override
+    protected void closeSubIterator() {
+        cancelStages();
+    }
+
+    @Override
+    protected void requestSubCancel() {
+        cancelStages();
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.jena.atlas.lib.Lib ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingBlock ;
 import org.apache.jena.sparql.serializer.SerializationContext ;
 
 
@@ -64,6 +65,21 @@ public class QueryIterConvert extends QueryIter1
         return converter.convert(getInput().nextBinding()) ;
     }
 
+    @Override
+    protected boolean moveToNextBatch(BindingBlock block)
+    {
+        QueryIterator input = getInput() ;
+        while ( !block.isFull() )
+        {
+            int start = block.size() ;
+            if ( input.nextBatch(block) == 0 )
+                return false ;
+            for ( int i = start ; i < block.size() ; i++ )
+                block.set(i, converter.convert(block.get(i))) ;
+        }
+        return true ;
+    }
+
     @Override
     protected void details(IndentedWriter out, SerializationContext cxt)
     { 
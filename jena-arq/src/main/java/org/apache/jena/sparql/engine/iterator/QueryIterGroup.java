@@ -23,12 +23,17 @@ import java.util.Collection ;
 import java.util.Iterator ;
 import java.util.List ;
 
+import org.apache.jena.atlas.data.BagFactory ;
+import org.apache.jena.atlas.data.DataBag ;
+import org.apache.jena.atlas.data.ThresholdPolicyFactory ;
+
 import org.apache.commons.collections4.MultiMapUtils;
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.iterator.IteratorDelayedInitialization ;
 import org.apache.jena.atlas.lib.Pair ;
 import org.apache.jena.graph.Node ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.core.VarExprList ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
@@ -39,20 +44,51 @@ import org.apache.jena.sparql.engine.binding.BindingFactory ;
 import org.apache.jena.sparql.expr.ExprAggregator ;
 import org.apache.jena.sparql.expr.NodeValue ;
 import org.apache.jena.sparql.expr.aggregate.Accumulator ;
+import org.apache.jena.sparql.system.SerializationFactoryFinder ;
 
+/**
+ * GROUP BY and aggregation.
+ * <p>
+ * Groups are calculated in memory, in a hash table of group key to accumulators.
+ * If {@link ARQ#spillToDiskThreshold} is set, at most that many groups are kept in memory.
+ * Once the limit is reached, input rows for groups that are already in memory are still
+ * aggregated in memory; rows for any other group are written to disk, split by a hash of the
+ * group key into a number of partitions. The groups in memory are returned first, then each
+ * partition is aggregated in the same way, spilling again into finer partitions if needed.
+ * Each group is aggregated in exactly one pass, so accumulators never need to be merged or written
+ * to disk.
+ */
 public class QueryIterGroup extends QueryIterPlainWrapper
 {
+    /** Number of partitions for input rows spilled by one pass. */
+    private static final int SPILL_PARTITIONS = 16 ;
+    /**
+     * Maximum depth of repartitioning. Beyond this, a partition is aggregated in memory
+     * (the keys hash to the same partition at every level, which is unlikely).
+     */
+    private static final int MAX_SPILL_DEPTH = 8 ;
+
 	private final QueryIterator embeddedIterator;
+	/*package*/ final List<DataBag<Binding>> spillBags;
 
 	public QueryIterGroup(QueryIterator qIter,
                           VarExprList groupVars,
                           List<ExprAggregator> aggregators,
                           ExecutionContext execCxt) {
+        this(qIter, groupVars, aggregators, execCxt, new ArrayList<>());
+    }
+
+    private QueryIterGroup(QueryIterator qIter,
+                           VarExprList groupVars,
+                           List<ExprAggregator> aggregators,
+                           ExecutionContext execCxt,
+                           List<DataBag<Binding>> spillBags) {
 	    // Delayed initalization
 	    // Does the group calculation when first used (typically hasNext)
-        super(calc(qIter, groupVars, aggregators, execCxt),
+        super(calc(qIter, groupVars, aggregators, execCxt, spillBags),
               execCxt);
         this.embeddedIterator = qIter;
+        this.spillBags = spillBags;
     }
 
     @Override
@@ -64,6 +100,8 @@ public class QueryIterGroup extends QueryIterPlainWrapper
     @Override
     protected void closeIterator() {
         this.embeddedIterator.close();
+        spillBags.forEach(DataBag::close);
+        spillBags.clear();
         super.closeIterator();
     }
 
@@ -72,7 +110,8 @@ public class QueryIterGroup extends QueryIterPlainWrapper
     private static Iterator<Binding> calc(final QueryIterator iter,
                                           final VarExprList groupVarExpr,
                                           final List<ExprAggregator> aggregators,
-                                          final ExecutionContext execCxt) {
+                                          final ExecutionContext execCxt,
+                                          final List<DataBag<Binding>> spillBags) {
         return new IteratorDelayedInitialization<Binding>() {
             @Override
             protected Iterator<Binding> initializeIterator() {
@@ -105,57 +144,137 @@ public class QueryIterGroup extends QueryIterPlainWrapper
                 }
 
                 // Case: there is input.
-                // Phase 1 : Create keys and aggregators per key, and pump bindings through the aggregators.
-                MultiValuedMap<Binding, Pair<Var, Accumulator>> accumulators = MultiMapUtils.newListValuedHashMap();
-                while (iter.hasNext()) {
-                    Binding b = iter.nextBinding();
-                    Binding key = genKey(groupVarExpr, b, execCxt);
-
-                    if ( !hasAggregators ) {
-                        // Put in a dummy to remember the input.
-                        accumulators.put(key, placeholder);
-                        continue;
-                    }
+                // No GROUP BY means one group, which is never spilled.
+                long maxGroups = hasGroupBy ? groupThreshold(execCxt) : Long.MAX_VALUE;
+                return aggregate(iter, groupVarExpr, aggregators, execCxt, maxGroups, 0, spillBags);
+            }
+        };
+    }
 
-                    // Create if does not exist.
-                    if ( !accumulators.containsKey(key) ) {
-                        for ( ExprAggregator agg : aggregators ) {
-                            Accumulator x = agg.getAggregator().createAccumulator();
-                            Var v = agg.getVar();
-                            accumulators.put(key, Pair.create(v, x));
-                        }
-                    }
+    /** The maximum number of groups in memory, from the context. */
+    private static long groupThreshold(ExecutionContext execCxt) {
+        if ( execCxt == null )
+            return Long.MAX_VALUE;
+        long threshold = execCxt.getContext().getLong(ARQ.spillToDiskThreshold, -1);
+        if ( threshold < 0 )
+            return Long.MAX_VALUE;
+        // At least one group so that each pass makes progress.
+        return Math.max(1, threshold);
+    }
+
+    /**
+     * One pass of grouping over the input.
+     * Returns the groups aggregated in memory, followed by the groups of any rows spilled to disk.
+     */
+    private static Iterator<Binding> aggregate(Iterator<Binding> iter,
+                                               VarExprList groupVarExpr,
+                                               List<ExprAggregator> aggregators,
+                                               ExecutionContext execCxt,
+                                               long maxGroups,
+                                               int depth,
+                                               List<DataBag<Binding>> spillBags) {
+        boolean hasAggregators = ( aggregators != null && ! aggregators.isEmpty() );
+        // Partitions for rows of groups that do not fit in memory; created on first use.
+        List<DataBag<Binding>> partitions = null;
+        long groupLimit = ( depth < MAX_SPILL_DEPTH ) ? maxGroups : Long.MAX_VALUE;
+
+        // Phase 1 : Create keys and aggregators per key, and pump bindings through the aggregators.
+        MultiValuedMap<Binding, Pair<Var, Accumulator>> accumulators = MultiMapUtils.newListValuedHashMap();
+        while (iter.hasNext()) {
+            Binding b = iter.next();
+            Binding key = genKey(groupVarExpr, b, execCxt);
 
-                    // Do the per-accumulator calculation.
-                    for ( Pair<Var, Accumulator> pair : accumulators.get(key) )
-                        pair.getRight().accumulate(b, execCxt);
+            // Create if does not exist.
+            if ( !accumulators.containsKey(key) ) {
+                if ( accumulators.keySet().size() >= groupLimit ) {
+                    // Too many groups. Spill the row to a partition to aggregate later.
+                    if ( partitions == null )
+                        partitions = createPartitions(maxGroups, spillBags, execCxt);
+                    partitions.get(partition(key, depth)).add(b);
+                    continue;
                 }
+                if ( !hasAggregators ) {
+                    // Put in a dummy to remember the input.
+                    accumulators.put(key, placeholder);
+                    continue;
+                }
+                for ( ExprAggregator agg : aggregators ) {
+                    Accumulator x = agg.getAggregator().createAccumulator();
+                    Var v = agg.getVar();
+                    accumulators.put(key, Pair.create(v, x));
+                }
+            }
 
-                // Phase 2 : There was input and so there are some groups.
-                // For each bucket, get binding, add aggregator values to the binding.
-                // We used AccNull so there are always accumulators.
+            if ( !hasAggregators )
+                continue;
 
-                if ( !hasAggregators )
-                    // We used placeholder so there are always the key.
-                    return accumulators.keySet().iterator();
+            // Do the per-accumulator calculation.
+            for ( Pair<Var, Accumulator> pair : accumulators.get(key) )
+                pair.getRight().accumulate(b, execCxt);
+        }
 
-                List<Binding> results = new ArrayList<>();
-                for ( Binding k : accumulators.keySet() ) {
-                    BindingBuilder builder2 = Binding.builder(k);
-                    Collection<Pair<Var, Accumulator>> accs = accumulators.get(k);
+        Iterator<Binding> results = results(accumulators, hasAggregators);
+        if ( partitions == null )
+            return results;
 
-                    for ( Pair<Var, Accumulator> pair : accs ) {
-                        NodeValue value = pair.getRight().getValue();
-                        if ( value == null )
-                            continue;
-                        Var v = pair.getLeft();
-                        builder2.add(v, value.asNode());
-                    }
-                    results.add(builder2.build());
-                }
-                return results.iterator();
+        // Phase 3 : Each partition holds all the rows of its groups. Group each partition in turn.
+        Iterator<Binding> spilled = Iter.flatMap(partitions.iterator(), bag -> {
+            Iterator<Binding> x = ( bag.size() == 0 )
+                    ? Iter.nullIterator()
+                    : aggregate(bag.iterator(), groupVarExpr, aggregators, execCxt, maxGroups, depth + 1, spillBags);
+            // The pass has read the partition.
+            bag.close();
+            spillBags.remove(bag);
+            return x;
+        });
+        return Iter.concat(results, spilled);
+    }
+
+    private static Iterator<Binding> results(MultiValuedMap<Binding, Pair<Var, Accumulator>> accumulators, boolean hasAggregators) {
+        // Phase 2 : There was input and so there are some groups.
+        // For each bucket, get binding, add aggregator values to the binding.
+        // We used AccNull so there are always accumulators.
+
+        if ( !hasAggregators )
+            // We used placeholder so there are always the key.
+            return accumulators.keySet().iterator();
+
+        List<Binding> results = new ArrayList<>();
+        for ( Binding k : accumulators.keySet() ) {
+            BindingBuilder builder2 = Binding.builder(k);
+            Collection<Pair<Var, Accumulator>> accs = accumulators.get(k);
+
+            for ( Pair<Var, Accumulator> pair : accs ) {
+                NodeValue value = pair.getRight().getValue();
+                if ( value == null )
+                    continue;
+                Var v = pair.getLeft();
+                builder2.add(v, value.asNode());
             }
-        };
+            results.add(builder2.build());
+        }
+        return results.iterator();
+    }
+
+    private static List<DataBag<Binding>> createPartitions(long maxGroups, List<DataBag<Binding>> spillBags, ExecutionContext execCxt) {
+        // Bound the rows held in memory over all partitions, before each writes to disk.
+        long threshold = Math.max(1, maxGroups / SPILL_PARTITIONS);
+        List<DataBag<Binding>> partitions = new ArrayList<>(SPILL_PARTITIONS);
+        for ( int i = 0 ; i < SPILL_PARTITIONS ; i++ ) {
+            DataBag<Binding> bag = BagFactory.newDefaultBag(ThresholdPolicyFactory.count(threshold),
+                                                            SerializationFactoryFinder.bindingSerializationFactory(execCxt.getContext()));
+            partitions.add(bag);
+            spillBags.add(bag);
+        }
+        return partitions;
+    }
+
+    /** The partition of a group key; a different hash function for each depth. */
+    private static int partition(Binding key, int depth) {
+        int h = key.hashCode() ^ (depth * 0x9E3779B9);
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return Math.floorMod(h, SPILL_PARTITIONS);
     }
 
     static private Binding genKey(VarExprList vars, Binding binding, ExecutionContext execCxt) {
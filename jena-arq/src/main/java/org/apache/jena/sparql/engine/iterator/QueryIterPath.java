@@ -18,14 +18,18 @@
 
 package org.apache.jena.sparql.engine.iterator;
 
+import java.util.function.Function ;
+
 import org.apache.jena.atlas.io.IndentedWriter ;
 import org.apache.jena.atlas.lib.Lib ;
+import org.apache.jena.graph.Node ;
 import org.apache.jena.sparql.core.TriplePath ;
 import org.apache.jena.sparql.core.Var ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.path.PathLib ;
+import org.apache.jena.sparql.path.eval.PathLinks ;
 import org.apache.jena.sparql.serializer.SerializationContext ;
 
 public class QueryIterPath extends QueryIterRepeatApply
@@ -35,16 +39,28 @@ public class QueryIterPath extends QueryIterRepeatApply
     private Var varObject = null ;
     
 
+    private final Function<Node, PathLinks<?>> pathLinks ;
+
     public QueryIterPath(TriplePath triplePath, QueryIterator input, ExecutionContext context)
+    {
+        this(triplePath, input, context, null) ;
+    }
+
+    /**
+     * Path evaluation where the storage provides the links of a property for transitive paths.
+     * @see PathLib#execTriplePath(Binding, TriplePath, ExecutionContext, Function)
+     */
+    public QueryIterPath(TriplePath triplePath, QueryIterator input, ExecutionContext context, Function<Node, PathLinks<?>> pathLinks)
     {
         super(input, context) ;
         this.triplePath = triplePath ;
+        this.pathLinks = pathLinks ;
     }
 
     @Override
     protected QueryIterator nextStage(Binding binding)
     {
-        QueryIterator qIter = PathLib.execTriplePath(binding, triplePath, getExecContext()) ;
+        QueryIterator qIter = PathLib.execTriplePath(binding, triplePath, getExecContext(), pathLinks) ;
         return qIter ; 
     }
     
@@ -26,6 +26,7 @@ import org.apache.jena.atlas.lib.Lib ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator;
 import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingBlock ;
 import org.apache.jena.sparql.serializer.SerializationContext ;
 
 /** Turn an normal java.util.Iterator (of Bindings) into a QueryIterator */
@@ -61,6 +62,17 @@ public class QueryIterPlainWrapper extends QueryIter
     @Override
     protected Binding moveToNextBinding() { return iterator.next(); }
 
+    @Override
+    protected boolean moveToNextBatch(BindingBlock block) {
+        Iterator<Binding> iter = iterator;
+        while ( !block.isFull() ) {
+            if ( !iter.hasNext() )
+                return false;
+            block.add(iter.next());
+        }
+        return true;
+    }
+
     @Override
     protected void closeIterator() {
         if ( iterator != null ) {
@@ -27,6 +27,7 @@ import org.apache.jena.sparql.ARQInternalErrorException ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingBlock ;
 
 /**
  * An iterator that applies a condition. The condition may return a different
@@ -87,6 +88,32 @@ public abstract class QueryIterProcessBinding extends QueryIter1 {
         return false ;
     }
 
+    /**
+     * Take bindings from the input a block at a time, and process them in the block.
+     */
+    @Override
+    protected boolean moveToNextBatch(BindingBlock block) {
+        if ( nextBinding != null ) {
+            block.add(nextBinding) ;
+            nextBinding = null ;
+        }
+        QueryIterator input = getInput() ;
+        while ( !block.isFull() ) {
+            checkCancelled() ;
+            int start = block.size() ;
+            if ( input.nextBatch(block) == 0 )
+                return false ;
+            int w = start ;
+            for ( int i = start ; i < block.size() ; i++ ) {
+                Binding output = accept(block.get(i)) ;
+                if ( output != null )
+                    block.set(w++, output) ;
+            }
+            block.truncate(w) ;
+        }
+        return true ;
+    }
+
     private final void checkCancelled() {
         if ( signalCancel != null && signalCancel.get() ) {
             this.cancel();
@@ -26,8 +26,10 @@ import org.apache.jena.atlas.data.BagFactory;
 import org.apache.jena.atlas.data.SortedDataBag;
 import org.apache.jena.atlas.data.ThresholdPolicy;
 import org.apache.jena.atlas.data.ThresholdPolicyFactory;
+import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.atlas.iterator.IteratorDelayedInitialization;
 import org.apache.jena.atlas.lib.Closeable;
+import org.apache.jena.query.ARQ;
 import org.apache.jena.query.QueryCancelledException;
 import org.apache.jena.query.SortCondition;
 import org.apache.jena.sparql.engine.ExecutionContext;
@@ -46,6 +48,7 @@ import org.apache.jena.sparql.system.SerializationFactoryFinder;
 public class QueryIterSort extends QueryIterPlainWrapper {
     private final QueryIterator embeddedIterator;
     /*package*/ final SortedDataBag<Binding> db;
+    private final boolean parallel;
 
     public QueryIterSort(QueryIterator qIter, List<SortCondition> conditions, ExecutionContext context) {
         this(qIter, new BindingComparator(conditions, context), context);
@@ -55,10 +58,28 @@ public class QueryIterSort extends QueryIterPlainWrapper {
         super(null, context);
         this.embeddedIterator = qIter;
         ThresholdPolicy<Binding> policy = ThresholdPolicyFactory.policyFromContext(context.getContext());
-        this.db = BagFactory.newSortedBag(policy, SerializationFactoryFinder.bindingSerializationFactory(), comparator);
+        this.parallel = canSortInParallel(comparator, context);
+        this.db = BagFactory.newSortedBag(policy, SerializationFactoryFinder.bindingSerializationFactory(context.getContext()),
+                                          comparator, parallel);
         this.setIterator(new SortedBindingIterator(qIter));
     }
 
+    /**
+     * Sorting in parallel needs a comparator that can be called from several threads.
+     * Comparing by the values of variables is safe; evaluating general expressions may not be.
+     */
+    private static boolean canSortInParallel(Comparator<Binding> comparator, ExecutionContext context) {
+        if ( context.getContext().isFalse(ARQ.parallelSort) )
+            return false;
+        if ( !(comparator instanceof BindingComparator bindingComparator) )
+            return false;
+        for ( SortCondition sc : bindingComparator.getConditions() ) {
+            if ( !sc.getExpression().isVariable() )
+                return false;
+        }
+        return true;
+    }
+
     @Override
     public void requestCancel() {
         this.db.cancel();
@@ -83,7 +104,9 @@ public class QueryIterSort extends QueryIterPlainWrapper {
         @Override
         protected Iterator<Binding> initializeIterator() {
             try {
-                db.addAll(qIter);
+                // Bindings may be backed by storage that can only be accessed
+                // from this thread. Sorting in parallel uses detached copies.
+                db.addAll(parallel ? Iter.map(qIter, Binding::detach) : qIter);
                 return db.iterator();
             }
             // Should we catch other exceptions too? Theoretically
@@ -26,8 +26,13 @@ import java.util.Iterator ;
 import java.util.List ;
 import java.util.PriorityQueue ;
 
+import org.apache.jena.atlas.data.BagFactory ;
+import org.apache.jena.atlas.data.ThresholdPolicy ;
+import org.apache.jena.atlas.data.ThresholdPolicyFactory ;
+import org.apache.jena.atlas.data.TopNDataBag ;
 import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.iterator.IteratorDelayedInitialization ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.query.Query ;
 import org.apache.jena.query.QueryCancelledException;
 import org.apache.jena.query.QueryExecException ;
@@ -36,6 +41,7 @@ import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.binding.BindingComparator ;
+import org.apache.jena.sparql.system.SerializationFactoryFinder ;
 
 public class QueryIterTopN extends QueryIterPlainWrapper
 {
@@ -43,9 +49,21 @@ public class QueryIterTopN extends QueryIterPlainWrapper
      * To do that we keep a priority heap of upto N elements, ordered descending.
      * To keep another element, it must be less than the max so far.
      * This leaves the least N in the heap.
+     *
+     * For N at or above the threshold (ARQ.topNSortingThreshold), the elements are kept in
+     * a TopNDataBag instead. It sorts in batches, keeps the least N of each batch, and drops
+     * any later element that is not less than the N'th least so far, without storing it.
+     * The bag spills to disk, with the usual ARQ.spillToDiskThreshold, so a large N,
+     * usually a deep OFFSET, does not need to be in memory. For DISTINCT, the bag removes
+     * duplicates itself, so there is no unbounded set of the rows seen.
      */
+
+    /** Default for {@link ARQ#topNSortingThreshold}. */
+    public static final int defaultTopNSortingThreshold = 1000;
+
 	private final QueryIterator embeddedIterator;      // Keep a record of the underlying source for .cancel.
     private PriorityQueue<Binding> heap ;
+    private TopNDataBag<Binding> db = null ;
     private long limit ;
     private final boolean distinct ;
 
@@ -55,7 +73,6 @@ public class QueryIterTopN extends QueryIterPlainWrapper
 
     public QueryIterTopN(QueryIterator qIter, Comparator<Binding> comparator, long numItems, boolean distinct, ExecutionContext context) {
         super(null, context) ;
-        this.embeddedIterator = qIter ;
         this.distinct = distinct ;
 
         limit = numItems ;
@@ -65,6 +82,9 @@ public class QueryIterTopN extends QueryIterPlainWrapper
         if ( limit < 0 )
             throw new QueryExecException("Negative LIMIT: " + limit) ;
 
+        boolean useBag = ( limit > 0 && limit >= heapThreshold(context) ) ;
+        this.embeddedIterator = qIter ;
+
         if ( limit == 0 ) {
             // Keep Java happy.
             Iterator<Binding> iter0 = Iter.nullIterator() ;
@@ -73,23 +93,63 @@ public class QueryIterTopN extends QueryIterPlainWrapper
             return ;
         }
 
+        if ( useBag ) {
+            ThresholdPolicy<Binding> policy = ThresholdPolicyFactory.policyFromContext(context.getContext()) ;
+            // For DISTINCT, order rows that are equal for the sort conditions by their terms,
+            // so duplicates are adjacent and the bag can drop them.
+            Comparator<Binding> bagComparator = distinct
+                ? comparator.thenComparing(BindingComparator::compareBindingsSyntactic)
+                : comparator ;
+            this.db = BagFactory.newTopNBag(policy, SerializationFactoryFinder.bindingSerializationFactory(context.getContext()),
+                                            bagComparator, limit, distinct) ;
+            this.setIterator(bagTopN(qIter)) ;
+            return ;
+        }
+
         // Keep heap with maximum accessible.
         this.heap = new PriorityQueue<>((int)numItems, comparator.reversed()) ;
         this.setIterator(sortTopN(qIter, comparator)) ;
     }
 
+    private static long heapThreshold(ExecutionContext context) {
+        Number x = (Number)context.getContext().get(ARQ.topNSortingThreshold) ;
+        return ( x != null ) ? x.longValue() : defaultTopNSortingThreshold ;
+    }
+
     @Override
     public void requestCancel() {
+        if ( db != null )
+            db.cancel() ;
         this.embeddedIterator.cancel() ;
         super.requestCancel() ;
     }
 
     @Override
     protected void closeIterator() {
+        if ( db != null )
+            db.close() ;
         this.embeddedIterator.close();
         super.closeIterator();
     }
 
+    private Iterator<Binding> bagTopN(final QueryIterator qIter) {
+        return new IteratorDelayedInitialization<Binding>() {
+            @Override
+            protected Iterator<Binding> initializeIterator() {
+                try {
+                    db.addAll(qIter) ;
+                    qIter.close() ;
+                    return db.iterator() ;
+                }
+                catch (QueryCancelledException e) {
+                    QueryIterTopN.this.close() ;
+                    this.close() ;
+                    throw e ;
+                }
+            }
+        } ;
+    }
+
     private Iterator<Binding> sortTopN(final QueryIterator qIter, final Comparator<Binding> comparator) {
         return new IteratorDelayedInitialization<Binding>() {
             @Override
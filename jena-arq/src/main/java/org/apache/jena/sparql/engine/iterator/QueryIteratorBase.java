@@ -28,6 +28,7 @@ import org.apache.jena.query.QueryException;
 import org.apache.jena.query.QueryFatalException;
 import org.apache.jena.sparql.engine.QueryIterator;
 import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingBlock;
 import org.apache.jena.sparql.util.PrintSerializableBase;
 
 /**
@@ -90,6 +91,25 @@ public abstract class QueryIteratorBase
      */
     protected abstract Binding moveToNextBinding();
 
+    /**
+     * Add bindings to the block, until the block is full or there are no more bindings.
+     * Return false if there are no more bindings.
+     * <p>
+     * The default implementation calls {@link #hasNextBinding()} and
+     * {@link #moveToNextBinding()}. Override to process many bindings at once.
+     */
+    protected boolean moveToNextBatch(BindingBlock block) {
+        while ( !block.isFull() ) {
+            if ( !hasNextBinding() )
+                return false;
+            Binding binding = moveToNextBinding();
+            if ( binding == null )
+                throw new NoSuchElementException(Lib.className(this));
+            block.add(binding);
+        }
+        return true;
+    }
+
     /** Close the iterator. */
     protected abstract void closeIterator();
 
@@ -177,6 +197,30 @@ public abstract class QueryIteratorBase
         }
     }
 
+    /**
+     * final - subclasses implement moveToNextBatch().
+     * Cancellation is checked once for each batch.
+     */
+    @Override
+    public final int nextBatch(BindingBlock block) {
+        if ( finished || block.isFull() )
+            return 0;
+        if ( cancelOnce || requestingCancel() ) {
+            close();
+            throw new QueryCancelledException();
+        }
+        try {
+            int start = block.size();
+            boolean more = moveToNextBatch(block);
+            if ( !more )
+                close();
+            return block.size() - start;
+        } catch (QueryFatalException ex) {
+            Log.error(this, "QueryFatalException", ex);
+            throw ex;
+        }
+    }
+
     @Override
     public final void remove() {
         Log.warn(this, "Call to QueryIterator.remove() : " + Lib.className(this) + ".remove");
@@ -27,6 +27,7 @@ import org.apache.jena.query.QueryException;
 import org.apache.jena.sparql.SystemARQ;
 import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
+import org.apache.jena.sparql.engine.binding.BindingBlock ;
 import org.apache.jena.sparql.serializer.SerializationContext ;
 import org.apache.jena.sparql.util.Symbol;
 
@@ -63,6 +64,13 @@ public class QueryIteratorCheck extends QueryIteratorWrapper
         this.execCxt = execCxt;
     }
 
+    @Override
+    protected boolean moveToNextBatch(BindingBlock block) {
+        // Pass on to the wrapped iterator. It fills the block unless it has finished.
+        iterator.nextBatch(block);
+        return block.isFull();
+    }
+
     @Override
     public void close() {
         super.close();
@@ -21,6 +21,7 @@ package org.apache.jena.sparql.engine.iterator;
 import org.apache.jena.atlas.lib.Timer ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.binding.BindingBlock ;
 import org.slf4j.Logger ;
 import org.slf4j.LoggerFactory ;
 
@@ -44,6 +45,14 @@ public class QueryIteratorTiming extends QueryIteratorWrapper
     @Override
     protected Binding moveToNextBinding() { start() ; return super.moveToNextBinding() ; }
     
+    @Override
+    protected boolean moveToNextBatch(BindingBlock block)
+    {
+        start() ;
+        iterator.nextBatch(block) ;
+        return block.isFull() ;
+    }
+
     @Override
     protected void closeIterator()
     {
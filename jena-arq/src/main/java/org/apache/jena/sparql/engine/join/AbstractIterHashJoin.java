@@ -18,6 +18,7 @@
 
 package org.apache.jena.sparql.engine.join;
 
+import java.util.ArrayList ;
 import java.util.Iterator ;
 import java.util.List ;
 
@@ -34,6 +35,10 @@ import org.apache.jena.sparql.engine.iterator.QueryIterPeek ;
  *
  * This code materializes one input into the probe table
  * then hash joins the other input from the stream side.
+ * <p>
+ * If the join has a {@link #partitioning() partitioning} and the probe input has more rows than
+ * {@link org.apache.jena.query.ARQ#spillToDiskThreshold}, both inputs are partitioned
+ * to disk instead (see {@link HashJoinSpill}).
  */
 
 public abstract class AbstractIterHashJoin extends QueryIter2 {
@@ -52,8 +57,11 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
     private boolean                     yielded ;       // Flag to note when current probe causes a result.
     // Hanlde any "post join" additions.
     private Iterator<Binding>           iterTail        = null ;
+    // Results when the inputs have been partitioned to disk.
+    private HashJoinSpill               spill           = null ;
+    private Iterator<Binding>           iterSpill       = null ;
 
-    enum Phase { INIT, HASH , STREAM, TRAILER, DONE }
+    enum Phase { INIT, HASH , STREAM, TRAILER, SPILL, DONE }
     Phase state = Phase.INIT ;
 
     private Binding slot = null ;
@@ -97,6 +105,26 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
 
     private void buildHashTable(QueryIterator iter1) {
         state = Phase.HASH ;
+        // Partitioning needs a join key.
+        Partitioning partitioning = joinKey.isEmpty() ? null : partitioning() ;
+        long threshold = ( partitioning != null ) ? HashJoinSpill.threshold(getExecContext()) : Long.MAX_VALUE ;
+        if ( threshold != Long.MAX_VALUE ) {
+            List<Binding> rows = new ArrayList<>() ;
+            while ( iter1.hasNext() ) {
+                if ( rows.size() >= threshold ) {
+                    // Too many rows to hold in memory.
+                    spill = new HashJoinSpill(joinKey, partitioning, threshold, getExecContext()) ;
+                    iterSpill = spill.join(rows, iter1, iterStream) ;
+                    state = Phase.SPILL ;
+                    return ;
+                }
+                s_countProbe ++ ;
+                rows.add(iter1.next()) ;
+            }
+            rows.forEach(hashTable::put) ;
+            state = Phase.STREAM ;
+            return ;
+        }
         iter1.forEachRemaining(row1 -> {
             s_countProbe ++ ;
             hashTable.put(row1) ;
@@ -136,9 +164,13 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
                 throw new IllegalStateException() ;
             case INIT :
                 doInit();
+                if ( state == Phase.SPILL )
+                    return doOneSpill() ;
                 break;
             case TRAILER :
                 return doOneTail() ;
+            case SPILL :
+                return doOneSpill() ;
             case STREAM :
         }
 
@@ -205,6 +237,39 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
         return null ;
     }
 
+    private Binding doOneSpill() {
+        if ( iterSpill.hasNext() ) {
+            s_countResults ++ ;
+            return iterSpill.next() ;
+        }
+        state = Phase.DONE ;
+        iterSpill = null ;
+        spill.close() ;
+        return null ;
+    }
+
+    /**
+     * How to partition the inputs of this join to disk when the probe side is large,
+     * or null if this join keeps the probe side in memory.
+     * Partitioning is only possible if each result depends on one probe row and one
+     * stream row, so not for outer joins.
+     */
+    protected Partitioning partitioning() {
+        return null ;
+    }
+
+    /** Partitioning of the inputs of a hash join to disk. */
+    public interface Partitioning {
+        /** The level of partitioning of the inputs of this join, 0 for a join of the original inputs. */
+        public int depth() ;
+
+        /**
+         * Create the join of two partitions of the inputs, with the given level of partitioning.
+         * A join at the maximum level of partitioning must not partition again.
+         */
+        public QueryIterator join(JoinKey joinKey, QueryIterator probe, QueryIterator stream, int depth) ;
+    }
+
     /**
      * Signal about to return a result.
      * @param rowCurrentProbe
@@ -240,7 +305,11 @@ public abstract class AbstractIterHashJoin extends QueryIter2 {
         }
         // In case it's a peek iterator.
         iterStream.close() ;
-        hashTable.clear();
+        // Null if closed before the first row, e.g. cancelled.
+        if ( hashTable != null )
+            hashTable.clear();
+        if ( spill != null )
+            spill.close() ;
     }
 
     @Override
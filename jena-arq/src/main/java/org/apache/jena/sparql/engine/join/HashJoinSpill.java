@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.engine.join;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.jena.atlas.data.BagFactory;
+import org.apache.jena.atlas.data.DataBag;
+import org.apache.jena.atlas.data.ThresholdPolicyFactory;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.engine.join.AbstractIterHashJoin.Partitioning;
+import org.apache.jena.sparql.system.SerializationFactoryFinder;
+
+/**
+ * Grace hash join: the inputs of a hash join partitioned to disk when the probe side
+ * is larger than {@link ARQ#spillToDiskThreshold}.
+ * <p>
+ * Rows that bind all the join key variables are split by the hash of the key into
+ * {@link #PARTITIONS} partitions, for both inputs. Rows of different partitions can not join,
+ * so each pair of partitions is joined on its own, with a new hash join that may partition again.
+ * <p>
+ * A row that does not bind all the join key variables can join with rows of any partition.
+ * These rows are spilled as well, and joined separately:
+ * <ul>
+ * <li>probe rows without the full key, with all stream rows,</li>
+ * <li>stream rows without the full key, with the probe rows with the full key.</li>
+ * </ul>
+ * These are block joins: the rows without the full key are read in blocks of at most the
+ * threshold number of rows, and each block is joined in memory with another pass over the
+ * other rows. So the memory used is bounded, but the other rows are read once per block.
+ * <p>
+ * Each pair of probe row and stream row is considered exactly once. This is only correct for
+ * inner joins, where a result depends on just one pair of rows.
+ * <p>
+ * The spill files are written with the {@link SerializationFactoryFinder#bindingSerializationFactory(org.apache.jena.sparql.util.Context)
+ * binding serialization} and deleted by {@link #close()}.
+ */
+class HashJoinSpill {
+    /** Number of partitions of each input. */
+    static final int PARTITIONS = 16;
+    /**
+     * Maximum depth of partitioning. Beyond this, the partitions are joined in memory
+     * (all the keys hash to the same partition at every level, which is unlikely).
+     */
+    static final int MAX_DEPTH = 4;
+
+    private final JoinKey joinKey;
+    private final Partitioning partitioning;
+    private final int depth;
+    private final ExecutionContext execCxt;
+    private final long threshold;
+    private final List<DataBag<Binding>> bags = new ArrayList<>();
+
+    HashJoinSpill(JoinKey joinKey, Partitioning partitioning, long threshold, ExecutionContext execCxt) {
+        this.joinKey = joinKey;
+        this.partitioning = partitioning;
+        this.depth = partitioning.depth();
+        this.threshold = threshold;
+        this.execCxt = execCxt;
+    }
+
+    /**
+     * The threshold on the number of probe rows in memory, or {@code Long.MAX_VALUE} for no spilling.
+     */
+    static long threshold(ExecutionContext execCxt) {
+        if ( execCxt == null || execCxt.getContext() == null )
+            return Long.MAX_VALUE;
+        long threshold = execCxt.getContext().getLong(ARQ.spillToDiskThreshold, -1);
+        if ( threshold < 0 )
+            return Long.MAX_VALUE;
+        return Math.max(1, threshold);
+    }
+
+    /**
+     * Partition both inputs and return the joined results.
+     * The probe rows are those already read ({@code probeRows}) followed by the rest of {@code probe}.
+     * Both inputs are read completely before returning.
+     */
+    Iterator<Binding> join(List<Binding> probeRows, Iterator<Binding> probe, Iterator<Binding> stream) {
+        List<DataBag<Binding>> probePartitions = newPartitions();
+        List<DataBag<Binding>> streamPartitions = newPartitions();
+        DataBag<Binding> probeNoKey = newBag();
+        DataBag<Binding> streamNoKey = newBag();
+
+        for ( Binding row : probeRows )
+            partition(row, probePartitions, probeNoKey);
+        probeRows.clear();
+        probe.forEachRemaining(row -> partition(row, probePartitions, probeNoKey));
+        stream.forEachRemaining(row -> partition(row, streamPartitions, streamNoKey));
+
+        // Each join is set up only when the previous ones are done.
+        List<Supplier<Iterator<Binding>>> joins = new ArrayList<>();
+        for ( int i = 0 ; i < PARTITIONS ; i++ ) {
+            DataBag<Binding> probeBag = probePartitions.get(i);
+            DataBag<Binding> streamBag = streamPartitions.get(i);
+            if ( probeBag.size() == 0 || streamBag.size() == 0 )
+                continue;
+            joins.add(() -> partitioning.join(joinKey, iterator(probeBag), iterator(streamBag), depth + 1));
+        }
+        Iterator<Binding> results = Iter.flatMap(joins.iterator(), Supplier::get);
+        // Probe rows without the full key: join with all stream rows.
+        if ( probeNoKey.size() > 0 ) {
+            Supplier<Iterator<Binding>> allStream = () -> Iter.concat(Iter.flatMap(streamPartitions.iterator(), DataBag::iterator),
+                                                                      streamNoKey.iterator());
+            results = Iter.concat(results, blockJoin(probeNoKey, allStream));
+        }
+        // Stream rows without the full key: join with the probe rows that have the full key.
+        if ( streamNoKey.size() > 0 ) {
+            Supplier<Iterator<Binding>> fullKeyProbe = () -> Iter.flatMap(probePartitions.iterator(), DataBag::iterator);
+            results = Iter.concat(results, blockJoin(streamNoKey, fullKeyProbe));
+        }
+        return results;
+    }
+
+    /**
+     * Join the rows of a bag, in blocks of at most {@link #threshold} rows held in memory,
+     * with the rows from {@code other}, which is read again for each block.
+     */
+    private Iterator<Binding> blockJoin(DataBag<Binding> rows, Supplier<Iterator<Binding>> other) {
+        Iterator<Binding> iter = rows.iterator();
+        Iterator<List<Binding>> blocks = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iter.hasNext();
+            }
+
+            @Override
+            public List<Binding> next() {
+                List<Binding> block = new ArrayList<>();
+                while ( block.size() < threshold && iter.hasNext() )
+                    block.add(iter.next());
+                return block;
+            }
+        };
+        return Iter.flatMap(blocks, block -> partitioning.join(joinKey, wrap(block.iterator()), wrap(other.get()), MAX_DEPTH));
+    }
+
+    private void partition(Binding row, List<DataBag<Binding>> partitions, DataBag<Binding> noKey) {
+        for ( Var v : joinKey ) {
+            if ( !row.contains(v) ) {
+                noKey.add(row);
+                return;
+            }
+        }
+        partitions.get(partition(JoinLib.hash(joinKey, row))).add(row);
+    }
+
+    /** The partition for a key hash; a different hash function for each depth. */
+    private int partition(Object keyHash) {
+        long h = keyHash.hashCode() ^ (depth * 0x9E3779B97F4A7C15L);
+        h *= 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 29;
+        return (int)Math.floorMod(h, (long)PARTITIONS);
+    }
+
+    private QueryIterator iterator(DataBag<Binding> bag) {
+        return wrap(bag.iterator());
+    }
+
+    private QueryIterator wrap(Iterator<Binding> iter) {
+        return QueryIterPlainWrapper.create(iter, execCxt);
+    }
+
+    private List<DataBag<Binding>> newPartitions() {
+        List<DataBag<Binding>> partitions = new ArrayList<>(PARTITIONS);
+        for ( int i = 0 ; i < PARTITIONS ; i++ )
+            partitions.add(newBag());
+        return partitions;
+    }
+
+    private DataBag<Binding> newBag() {
+        // Bound the rows held in memory over all partitions, before each writes to disk.
+        long bagThreshold = Math.max(1, threshold / PARTITIONS);
+        DataBag<Binding> bag = BagFactory.newDefaultBag(ThresholdPolicyFactory.count(bagThreshold),
+                                                        SerializationFactoryFinder.bindingSerializationFactory(execCxt.getContext()));
+        bags.add(bag);
+        return bag;
+    }
+
+    /** Delete all spill files. */
+    void close() {
+        bags.forEach(DataBag::close);
+        bags.clear();
+    }
+}
@@ -64,8 +64,37 @@ public class QueryIterHashJoin extends AbstractIterHashJoin {
         return create(null, left, right, execCxt) ;
     }
 
+    private final int spillDepth ;
+
     private QueryIterHashJoin(JoinKey joinKey, QueryIterator left, QueryIterator right, ExecutionContext execCxt) {
+        this(joinKey, left, right, execCxt, 0) ;
+    }
+
+    private QueryIterHashJoin(JoinKey joinKey, QueryIterator left, QueryIterator right, ExecutionContext execCxt, int spillDepth) {
         super(joinKey, left, right, execCxt) ;
+        this.spillDepth = spillDepth ;
+    }
+
+    @Override
+    protected Partitioning partitioning() {
+        if ( spillDepth >= HashJoinSpill.MAX_DEPTH )
+            return null ;
+        return new Partitioning() {
+            @Override
+            public int depth() {
+                return spillDepth ;
+            }
+
+            @Override
+            public QueryIterator join(JoinKey joinKey, QueryIterator probe, QueryIterator stream, int depth) {
+                if ( ! probe.hasNext() || ! stream.hasNext() ) {
+                    probe.close() ;
+                    stream.close() ;
+                    return QueryIterNullIterator.create(getExecContext()) ;
+                }
+                return new QueryIterHashJoin(joinKey, probe, stream, getExecContext(), depth) ;
+            }
+        } ;
     }
 
     @Override
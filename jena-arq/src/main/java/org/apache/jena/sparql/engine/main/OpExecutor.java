@@ -210,13 +210,42 @@ public class OpExecutor {
             QueryIterator qIter = Join.join(left, right, execCxt);
             return qIter;
         }
+        QueryIterator rightInput = root();
+        if ( isServiceAsync(opJoin.getLeft(), input) || isServiceAsync(opJoin.getRight(), rightInput) ) {
+            QueryIterator left = execServiceAsync(opJoin.getLeft(), input);
+            QueryIterator right = execServiceAsync(opJoin.getRight(), rightInput);
+            return QueryIterAsync.join(left, right, (l, r) -> Join.join(l, r, execCxt), execCxt);
+        }
         QueryIterator left = exec(opJoin.getLeft(), input);
-        QueryIterator right = exec(opJoin.getRight(), root());
+        QueryIterator right = exec(opJoin.getRight(), rightInput);
         // Join key.
         QueryIterator qIter = Join.join(left, right, execCxt);
         return qIter;
     }
 
+    /**
+     * Whether {@link #execServiceAsync} starts the op on another thread:
+     * it is a SERVICE on the root input and {@link ARQ#serviceConcurrency} allows more than one request.
+     */
+    protected boolean isServiceAsync(Op op, QueryIterator input) {
+        return op instanceof OpService && input instanceof QueryIterRoot
+               && execCxt.getContext().getInt(ARQ.serviceConcurrency, 1) > 1;
+    }
+
+    /**
+     * Execute one side of a join that is not evaluated by substitution.
+     * If it is a SERVICE on the root input and {@link ARQ#serviceConcurrency} allows more than one
+     * request, the SERVICE is started on another thread so the two sides run at the same time.
+     * The join of the two sides should then be made with {@link QueryIterAsync#join}.
+     */
+    protected QueryIterator execServiceAsync(Op op, QueryIterator input) {
+        if ( isServiceAsync(op, input) ) {
+            input.close();
+            return QueryIterAsync.create(threadCxt -> QC.execute(op, QueryIterRoot.create(threadCxt), threadCxt), execCxt);
+        }
+        return exec(op, input);
+    }
+
     // Pass iterator from one step directly into the next.
     protected QueryIterator execute(OpSequence opSequence, QueryIterator input) {
         QueryIterator qIter = input;
@@ -228,8 +257,14 @@ public class OpExecutor {
     }
 
     protected QueryIterator execute(OpLeftJoin opLeftJoin, QueryIterator input) {
+        QueryIterator rightInput = root();
+        if ( isServiceAsync(opLeftJoin.getLeft(), input) || isServiceAsync(opLeftJoin.getRight(), rightInput) ) {
+            QueryIterator left = execServiceAsync(opLeftJoin.getLeft(), input);
+            QueryIterator right = execServiceAsync(opLeftJoin.getRight(), rightInput);
+            return QueryIterAsync.join(left, right, (l, r) -> Join.leftJoin(l, r, opLeftJoin.getExprs(), execCxt), execCxt);
+        }
         QueryIterator left = exec(opLeftJoin.getLeft(), input);
-        QueryIterator right = exec(opLeftJoin.getRight(), root());
+        QueryIterator right = exec(opLeftJoin.getRight(), rightInput);
         QueryIterator qIter = Join.leftJoin(left, right, opLeftJoin.getExprs(), execCxt);
         return qIter;
     }
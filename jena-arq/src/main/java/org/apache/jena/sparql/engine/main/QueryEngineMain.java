@@ -26,6 +26,7 @@ import org.apache.jena.sparql.algebra.optimize.Optimize;
 import org.apache.jena.sparql.core.DatasetGraph ;
 import org.apache.jena.sparql.engine.* ;
 import org.apache.jena.sparql.engine.binding.Binding ;
+import org.apache.jena.sparql.engine.iterator.QueryIterBatched ;
 import org.apache.jena.sparql.engine.iterator.QueryIterRoot ;
 import org.apache.jena.sparql.engine.iterator.QueryIteratorCheck ;
 import org.apache.jena.sparql.engine.iterator.QueryIteratorTiming ;
@@ -53,6 +54,9 @@ public class QueryEngineMain extends QueryEngineBase
             ( input.isEmpty() ) ? QueryIterRoot.create(execCxt)
                                 : QueryIterRoot.create(input, execCxt);
         QueryIterator qIter = QC.execute(op, qIter1, execCxt) ;
+        int batchSize = context.getInt(ARQ.executionBatchSize, 0) ;
+        if ( batchSize > 0 )
+            qIter = new QueryIterBatched(qIter, batchSize, execCxt) ;
         // Wrap with something to check for closed iterators.
         qIter = QueryIteratorCheck.check(qIter, execCxt) ;
         // Need call back.
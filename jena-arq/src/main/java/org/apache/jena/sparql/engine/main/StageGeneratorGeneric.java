@@ -20,6 +20,7 @@ package org.apache.jena.sparql.engine.main;
 
 import org.apache.jena.atlas.lib.Lib ;
 import org.apache.jena.atlas.logging.Log ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.query.QueryCancelledException;
 import org.apache.jena.sparql.core.BasicPattern ;
 import org.apache.jena.sparql.core.Substitute ;
@@ -27,6 +28,7 @@ import org.apache.jena.sparql.engine.ExecutionContext ;
 import org.apache.jena.sparql.engine.QueryIterator ;
 import org.apache.jena.sparql.engine.binding.Binding ;
 import org.apache.jena.sparql.engine.iterator.QueryIterPeek ;
+import org.apache.jena.sparql.engine.main.solver.PatternMatchAdaptive;
 import org.apache.jena.sparql.engine.main.solver.PatternMatchData;
 import org.apache.jena.sparql.engine.optimizer.reorder.ReorderLib ;
 import org.apache.jena.sparql.engine.optimizer.reorder.ReorderProc ;
@@ -86,6 +88,8 @@ public class StageGeneratorGeneric implements StageGenerator {
             pattern = reorderProc.reorder(pattern) ;
         }
         Explain.explain("Reorder/generic", pattern, execCxt.getContext()) ;
+        if ( execCxt.getContext().isTrue(ARQ.adaptiveExecution) && pattern.size() >= 2 )
+            return PatternMatchAdaptive.execute(execCxt.getActiveGraph(), pattern, input, null, reorder, execCxt) ;
         return PatternMatchData.execute(execCxt.getActiveGraph(), pattern, input, null, execCxt) ;
     }
 }
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.main.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.core.Substitute;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.iterator.QueryIterConcat;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.engine.iterator.QueryIterRoot;
+import org.apache.jena.sparql.engine.join.Join;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderTransformation;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderWeighted;
+import org.apache.jena.sparql.mgt.Explain;
+import org.apache.jena.sparql.util.FmtUtils;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * Execution of a basic graph pattern that revisits the order of the triple patterns
+ * as it goes.
+ * <p>
+ * The pattern is executed one triple pattern at a time, starting from the static
+ * order. Before each step, the first {@link #SampleSize} solutions so far are
+ * buffered, and the number of matches per solution of the next triple pattern is
+ * measured on some of these solutions.
+ * <p>
+ * Only the weights of a {@link ReorderWeighted}, which come from statistics of the
+ * data, are estimates of the number of matches. With a {@code ReorderWeighted}, the
+ * measured matches are compared with the weight of the triple pattern. If they differ
+ * by more than {@link #MisestimateFactor}, the remaining triple patterns are measured
+ * the same way and the one with the fewest matches goes next.
+ * <p>
+ * Other reorder transformations, such as the fixed weights of
+ * {@link org.apache.jena.sparql.engine.optimizer.reorder.ReorderFixed ReorderFixed}
+ * (the default for general graphs), only rank triple patterns; their weights can not
+ * be compared with numbers of matches. Then the remaining triple patterns are always
+ * measured, and another triple pattern goes next only if the next triple pattern
+ * has more than {@link #MisestimateFactor} times as many matches. This costs more
+ * probes at each step.
+ * <p>
+ * If the sample is full (there are many solutions so far), and the next triple
+ * pattern has fewer matches in the whole graph than there are solutions, the step is
+ * a hash join with the matches of the triple pattern, rather than a lookup for each
+ * solution.
+ * <p>
+ * Decisions are logged with {@link Explain}.
+ */
+public class PatternMatchAdaptive {
+
+    /** Number of solutions buffered before each step. */
+    public static int SampleSize = 1000;
+
+    /** Number of buffered solutions used to measure the matches of a triple pattern. */
+    public static int ProbeSize = 20;
+
+    /** Ratio between the estimated and measured matches that causes the order to be revisited. */
+    public static double MisestimateFactor = 10;
+
+    /**
+     * Execute a basic graph pattern, given an iterator of bindings as input.
+     * The pattern should already be in the order chosen by {@code reorder}.
+     */
+    public static QueryIterator execute(Graph graph, BasicPattern pattern,
+                                        QueryIterator input, Predicate<Triple> filter,
+                                        ReorderTransformation reorder, ExecutionContext execCxt) {
+        List<Triple> remaining = new ArrayList<>(pattern.getList());
+        QueryIterator chain = input;
+        while ( ! remaining.isEmpty() ) {
+            Sample sample = new Sample(chain, execCxt);
+            chain = sample.iterator();
+            if ( sample.rows.isEmpty() )
+                return chain;
+            if ( remaining.size() > 1 )
+                revisit(graph, remaining, sample.rows, reorder, execCxt);
+            chain = step(graph, remaining.remove(0), chain, sample, filter, execCxt);
+        }
+        return chain;
+    }
+
+    /** Move the triple pattern to execute next to the front of {@code remaining}. */
+    private static void revisit(Graph graph, List<Triple> remaining, List<Binding> rows,
+                                ReorderTransformation reorder, ExecutionContext execCxt) {
+        Triple next = remaining.get(0);
+        double actual = matches(graph, next, rows);
+        if ( reorder instanceof ReorderWeighted weighted ) {
+            // Statistics: the weight is an estimate of the matches.
+            double estimate = weighted.weight(Substitute.substitute(next, rows.get(0)));
+            if ( ! misestimated(estimate, actual) )
+                return;
+            int idx = choose(graph, remaining, rows);
+            if ( idx != 0 ) {
+                Explain.explain(execCxt.getContext(), "Adaptive BGP: %s estimated %.1f, actual %.1f per solution: next %s",
+                                str(next), estimate, actual, str(remaining.get(idx)));
+                remaining.add(0, remaining.remove(idx));
+            }
+            return;
+        }
+        // The weights only rank the triple patterns: compare measured matches.
+        int idx = choose(graph, remaining, rows);
+        if ( idx == 0 )
+            return;
+        Triple best = remaining.get(idx);
+        double bestActual = matches(graph, best, rows);
+        if ( actual > Math.max(bestActual, 1) * MisestimateFactor ) {
+            Explain.explain(execCxt.getContext(), "Adaptive BGP: %s has %.1f, %s has %.1f matches per solution: next %s",
+                            str(next), actual, str(best), bestActual, str(best));
+            remaining.add(0, remaining.remove(idx));
+        }
+    }
+
+    /** Execute one triple pattern, by substitution or by hash join. */
+    private static QueryIterator step(Graph graph, Triple triple, QueryIterator chain, Sample sample,
+                                      Predicate<Triple> filter, ExecutionContext execCxt) {
+        BasicPattern bgp = BasicPattern.wrap(List.of(triple));
+        if ( ! sample.complete && connected(triple, sample.rows.get(0)) ) {
+            long total = count(graph, triple, SampleSize);
+            if ( total < SampleSize ) {
+                Explain.explain(execCxt.getContext(), "Adaptive BGP: %s has %d matches, there are more than %d solutions: hash join",
+                                str(triple), total, SampleSize);
+                // The hash join builds the table from its left argument.
+                QueryIterator matches = PatternMatchData.execute(graph, bgp, QueryIterRoot.create(execCxt), filter, execCxt);
+                return Join.hashJoin(matches, chain, execCxt);
+            }
+        }
+        return PatternMatchData.execute(graph, bgp, chain, filter, execCxt);
+    }
+
+    /** Index of the triple pattern with the fewest matches per solution, among those connected to the solutions. */
+    private static int choose(Graph graph, List<Triple> triples, List<Binding> rows) {
+        Binding row = rows.get(0);
+        boolean anyConnected = triples.stream().anyMatch(t->connected(t, row));
+        int idx = 0;
+        double min = Double.MAX_VALUE;
+        for ( int i = 0 ; i < triples.size() ; i++ ) {
+            Triple t = triples.get(i);
+            if ( anyConnected && ! connected(t, row) )
+                continue;
+            double x = matches(graph, t, rows);
+            if ( x < min ) {
+                min = x;
+                idx = i;
+            }
+        }
+        return idx;
+    }
+
+    private static boolean misestimated(double estimate, double actual) {
+        double e = Math.max(estimate, 1);
+        double a = Math.max(actual, 1);
+        return e > a * MisestimateFactor || a > e * MisestimateFactor;
+    }
+
+    /** Average number of matches of the triple pattern for the first few rows. */
+    private static double matches(Graph graph, Triple triple, List<Binding> rows) {
+        int n = Math.min(rows.size(), ProbeSize);
+        long total = 0;
+        for ( int i = 0 ; i < n ; i++ )
+            total += count(graph, Substitute.substitute(triple, rows.get(i)), SampleSize);
+        return (double)total / n;
+    }
+
+    /** Count the matches of a triple pattern, stopping at the limit. */
+    private static long count(Graph graph, Triple triple, long limit) {
+        ExtendedIterator<Triple> iter = graph.find(any(triple.getSubject()), any(triple.getPredicate()), any(triple.getObject()));
+        try {
+            long x = 0;
+            while ( x < limit && iter.hasNext() ) {
+                iter.next();
+                x++;
+            }
+            return x;
+        } finally { iter.close(); }
+    }
+
+    private static Node any(Node node) {
+        if ( Var.isVar(node) || ( node.isTripleTerm() && ! node.isConcrete() ) )
+            return Node.ANY;
+        return node;
+    }
+
+    /** Whether the triple pattern has no variables, or a variable bound in the row. */
+    private static boolean connected(Triple triple, Binding row) {
+        boolean hasVar = false;
+        for ( Node n : new Node[] {triple.getSubject(), triple.getPredicate(), triple.getObject()} ) {
+            if ( Var.isVar(n) ) {
+                hasVar = true;
+                if ( row.contains(Var.alloc(n)) )
+                    return true;
+            }
+        }
+        return ! hasVar;
+    }
+
+    private static String str(Triple triple) {
+        return FmtUtils.stringForTriple(triple);
+    }
+
+    /** The first {@link #SampleSize} rows of an iterator, and an iterator of all the rows. */
+    private static class Sample {
+        final List<Binding> rows = new ArrayList<>();
+        final boolean complete;
+        private final QueryIterator rest;
+        private final ExecutionContext execCxt;
+
+        Sample(QueryIterator input, ExecutionContext execCxt) {
+            this.execCxt = execCxt;
+            while ( rows.size() < SampleSize && input.hasNext() )
+                rows.add(input.next());
+            complete = ! input.hasNext();
+            if ( complete ) {
+                input.close();
+                rest = null;
+            } else
+                rest = input;
+        }
+
+        QueryIterator iterator() {
+            QueryIterator buffered = QueryIterPlainWrapper.create(rows.iterator(), execCxt);
+            if ( rest == null )
+                return buffered;
+            QueryIterConcat concat = new QueryIterConcat(execCxt);
+            concat.add(buffered);
+            concat.add(rest);
+            return concat;
+        }
+    }
+}
@@ -217,6 +217,14 @@ public abstract class ReorderTransformationSubstitution implements ReorderTransf
     /** Return the weight of the pattern, or -1 if no knowledge for it */
     protected abstract double weight(PatternTriple pt) ;
 
+    /**
+     * Return the weight of a single triple pattern, or -1 if no knowledge for it.
+     * Variables are treated as unbound; any other node is a term.
+     */
+    public double weight(Triple triple) {
+        return weight(new PatternTriple(triple)) ;
+    }
+
     protected enum DefaultChoice { ZERO, LAST, FIRST , NUMERIC ; }
     /** What to do if the {@link weight} comes back as "not found".
      * Choices are:
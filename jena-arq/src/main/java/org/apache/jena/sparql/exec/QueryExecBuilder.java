@@ -82,6 +82,17 @@ public interface QueryExecBuilder extends QueryExecMod {
     @Override
     public QueryExec build();
 
+    /**
+     * Prepare the query for repeated execution with different parameters.
+     * Executions do not parse or optimize the query again.
+     * Further changes to the builder do not affect the {@link QueryExecPrepared}.
+     *
+     * @throws UnsupportedOperationException if the builder does not support prepared queries.
+     */
+    public default QueryExecPrepared prepare() {
+        throw new UnsupportedOperationException("Prepared queries are not supported by "+getClass().getSimpleName());
+    }
+
     // build-and-use short cuts
 
     /**
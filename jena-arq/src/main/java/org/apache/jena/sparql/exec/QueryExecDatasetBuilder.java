@@ -33,6 +33,7 @@ import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.sparql.core.Var;
 import org.apache.jena.sparql.engine.QueryEngineFactory;
 import org.apache.jena.sparql.engine.QueryEngineRegistry;
+import org.apache.jena.sparql.engine.QueryPlanCache;
 import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.engine.Timeouts;
 import org.apache.jena.sparql.engine.Timeouts.Timeout;
@@ -98,7 +99,10 @@ public class QueryExecDatasetBuilder implements QueryExecMod, QueryExecBuilder {
     @Override
     public QueryExecDatasetBuilder query(String queryString, Syntax syntax) {
         this.queryString = queryString;
-        this.query = QueryFactory.create(queryString, syntax);
+        QueryPlanCache cache = QueryPlanCache.get(ARQ.getContext());
+        this.query = ( cache == null )
+                ? QueryFactory.create(queryString, syntax)
+                : cache.parse(queryString, null, syntax);
         return this;
     }
 
@@ -221,4 +225,34 @@ public class QueryExecDatasetBuilder implements QueryExecMod, QueryExecBuilder {
                                                timeout, initialBinding);
         return qExec;
     }
+
+    @Override
+    public QueryExecPrepared prepare() {
+        Objects.requireNonNull(query, "No query for QueryExecPrepared");
+        query.ensureResultVars();
+        Context cxt = getContext();
+
+        QueryEngineFactory qeFactory = QueryEngineRegistry.findFactory(query, dataset, cxt);
+        if ( qeFactory == null ) {
+            Log.warn(QueryExecDatasetBuilder.class, "Failed to find a QueryEngineFactory");
+            return null;
+        }
+
+        // Substitutions fixed for all executions.
+        Query queryActual = query;
+        String queryStringActual = queryString;
+        if ( substitutionMap != null && ! substitutionMap.isEmpty() ) {
+            queryActual = QueryTransformOps.replaceVars(query, substitutionMap);
+            queryStringActual = null;
+        }
+
+        Timeouts.applyDefaultQueryTimeoutFromContext(this.timeoutBuilder, cxt);
+
+        if ( dataset != null )
+            cxt.set(ARQConstants.sysCurrentDataset, DatasetFactory.wrap(dataset));
+        cxt.set(ARQConstants.sysCurrentQuery, queryActual);
+
+        Timeout timeout = timeoutBuilder.build();
+        return new QueryExecPrepared(queryActual, queryStringActual, dataset, cxt, qeFactory, timeout);
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.exec;
+
+import java.util.Objects;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.Query;
+import org.apache.jena.sparql.ARQConstants;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.QueryEngineFactory;
+import org.apache.jena.sparql.engine.QueryPlanCache;
+import org.apache.jena.sparql.engine.Timeouts.Timeout;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * A query prepared for repeated execution on a local dataset.
+ * <p>
+ * The query is parsed once and its algebra is optimized by the first execution.
+ * Later executions reuse the optimized algebra.
+ * <p>
+ * Each execution can have parameters, which are values for variables of the query.
+ * The values are substituted into the optimized algebra
+ * (see {@link org.apache.jena.sparql.core.Substitute}) and are included in the results
+ * as if the query pattern had bound the variables. Unlike
+ * {@link QueryExecBuilder#substitution(Binding)}, which rewrites the query, an execution
+ * with parameters is not parsed or optimized again.
+ * <p>
+ * A {@code QueryExecPrepared} can be used by several threads at the same time.
+ *
+ * @see QueryExecBuilder#prepare()
+ */
+public class QueryExecPrepared {
+
+    private final Query query;
+    private final String queryString;
+    private final DatasetGraph dataset;
+    private final Context context;
+    private final QueryEngineFactory qeFactory;
+    private final Timeout timeout;
+    // Holds the optimized algebra for the query.
+    private final QueryPlanCache plan = new QueryPlanCache(1, false);
+
+    /*package*/ QueryExecPrepared(Query query, String queryString, DatasetGraph dataset, Context context,
+                                  QueryEngineFactory qeFactory, Timeout timeout) {
+        this.query = query;
+        this.queryString = queryString;
+        this.dataset = dataset;
+        this.context = context;
+        this.qeFactory = qeFactory;
+        this.timeout = timeout;
+    }
+
+    /** The query. It must not be modified. */
+    public Query getQuery() {
+        return query;
+    }
+
+    /** The dataset the query is executed on. */
+    public DatasetGraph getDataset() {
+        return dataset;
+    }
+
+    /** Create an execution of the query with no parameters. */
+    public QueryExec exec() {
+        return exec(BindingFactory.root());
+    }
+
+    /** Create an execution of the query with one parameter. */
+    public QueryExec exec(String varName, Node value) {
+        return exec(BindingFactory.binding(Var.alloc(varName), value));
+    }
+
+    /** Create an execution of the query with the parameters given by a binding. */
+    public QueryExec exec(Binding parameters) {
+        Objects.requireNonNull(parameters, "parameters");
+        Context cxt = context.copy();
+        cxt.set(ARQ.queryPlanCache, plan);
+        if ( ! parameters.isEmpty() )
+            cxt.set(ARQConstants.sysQueryParameters, parameters);
+        return new QueryExecDataset(query, queryString, dataset, cxt, qeFactory, timeout, null);
+    }
+}
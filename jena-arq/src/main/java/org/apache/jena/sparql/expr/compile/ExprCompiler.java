@@ -0,0 +1,546 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.expr.compile;
+
+import java.util.Set;
+
+import org.apache.jena.atlas.lib.StrUtils;
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.impl.LiteralLabel;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.expr.*;
+import org.apache.jena.sparql.expr.nodevalue.XSDFuncOp;
+import org.apache.jena.sparql.function.FunctionEnv;
+import org.apache.jena.sparql.util.NodeUtils;
+
+/**
+ * Prepare an expression for repeated evaluation, as in a FILTER or BIND applied to
+ * every solution of a query.
+ * <p>
+ * The expression tree is turned into a tree of {@link CompiledExpr} objects once.
+ * Common cases have code specialised to the kinds of the arguments:
+ * <ul>
+ * <li>comparison of a variable with an integer or double constant,</li>
+ * <li>{@code =} and {@code !=} between a variable and a string constant,</li>
+ * <li>integer {@code +}, {@code -} and {@code *} of variables and constants,</li>
+ * <li>{@code STRSTARTS}, {@code STRENDS} and {@code CONTAINS} with a string constant,</li>
+ * <li>{@code &&}, {@code ||}, {@code !} and {@code BOUND}.</li>
+ * </ul>
+ * These work directly on the RDF terms in the binding and do not create
+ * {@link NodeValue NodeValues}. When the terms are not of the expected kind, the
+ * general function code is called. Expressions that are not covered at all are
+ * evaluated by {@link Expr#eval}.
+ * <p>
+ * The compiled form gives the same results, and the same errors, as the expression.
+ *
+ * @see org.apache.jena.query.ARQ#compileExpressions
+ */
+public final class ExprCompiler {
+
+    private ExprCompiler() {}
+
+    // Functions without special evaluation (evalSpecial), where evaluating the arguments
+    // then calling eval(NodeValue...) is the same as Expr.eval.
+    private static final Set<Class<? extends ExprFunction1>> plainFunctions1 =
+            Set.of(E_Str.class, E_StrLength.class, E_StrUpperCase.class, E_StrLowerCase.class,
+                   E_Lang.class, E_Datatype.class,
+                   E_IsIRI.class, E_IsURI.class, E_IsLiteral.class, E_IsBlank.class, E_IsNumeric.class,
+                   E_UnaryMinus.class, E_UnaryPlus.class);
+
+    private static final Set<Class<? extends ExprFunction2>> plainFunctions2 =
+            Set.of(E_Equals.class, E_NotEquals.class,
+                   E_LessThan.class, E_LessThanOrEqual.class, E_GreaterThan.class, E_GreaterThanOrEqual.class,
+                   E_Add.class, E_Subtract.class, E_Multiply.class, E_Divide.class,
+                   E_StrStartsWith.class, E_StrEndsWith.class, E_StrContains.class,
+                   E_StrBefore.class, E_StrAfter.class, E_LangMatches.class, E_SameTerm.class);
+
+    /** Compile an expression. */
+    public static CompiledExpr compile(Expr expr) {
+        if ( expr instanceof NodeValue ) {
+            NodeValue nv = (NodeValue)expr;
+            return (binding, env) -> nv;
+        }
+        if ( isPlainVar(expr) )
+            return new Variable(expr.asVar());
+        if ( expr instanceof E_LogicalAnd )
+            return and(compile(((E_LogicalAnd)expr).getArg1()), compile(((E_LogicalAnd)expr).getArg2()));
+        if ( expr instanceof E_LogicalOr )
+            return or(compile(((E_LogicalOr)expr).getArg1()), compile(((E_LogicalOr)expr).getArg2()));
+        if ( expr instanceof E_LogicalNot )
+            return not(compile(((E_LogicalNot)expr).getArg()));
+        if ( expr instanceof E_Bound )
+            return bound((E_Bound)expr);
+        if ( expr instanceof ExprFunction2 && plainFunctions2.contains(expr.getClass()) )
+            return function2((ExprFunction2)expr);
+        if ( expr instanceof ExprFunction1 && plainFunctions1.contains(expr.getClass()) ) {
+            ExprFunction1 function = (ExprFunction1)expr;
+            CompiledExpr arg = compile(function.getArg());
+            return (binding, env) -> function.eval(arg.eval(binding, env), env);
+        }
+        // Everything else: the expression evaluates itself.
+        return expr::eval;
+    }
+
+    private static boolean isPlainVar(Expr expr) {
+        // Not subclasses such as ExprAggregator.
+        return expr != null && expr.getClass() == ExprVar.class;
+    }
+
+    // ---- Logical operators: as E_LogicalAnd, E_LogicalOr and E_LogicalNot.
+
+    private static CompiledExpr and(CompiledExpr left, CompiledExpr right) {
+        return new CompiledTest() {
+            @Override
+            public boolean test(Binding binding, FunctionEnv env) {
+                ExprEvalException error = null;
+                try {
+                    if ( !left.test(binding, env) )
+                        return false;
+                } catch (ExprEvalException ex) {
+                    error = ex;
+                }
+                try {
+                    if ( !right.test(binding, env) )
+                        return false;
+                    if ( error != null )
+                        throw error;
+                    return true;
+                } catch (ExprEvalException ex) {
+                    if ( error != null )
+                        throw error;
+                    throw ex;
+                }
+            }
+        };
+    }
+
+    private static CompiledExpr or(CompiledExpr left, CompiledExpr right) {
+        return new CompiledTest() {
+            @Override
+            public boolean test(Binding binding, FunctionEnv env) {
+                ExprEvalException error = null;
+                try {
+                    if ( left.test(binding, env) )
+                        return true;
+                } catch (ExprEvalException ex) {
+                    error = ex;
+                }
+                try {
+                    if ( right.test(binding, env) )
+                        return true;
+                    if ( error != null )
+                        throw error;
+                    return false;
+                } catch (ExprEvalException ex) {
+                    if ( error != null )
+                        throw error;
+                    throw ex;
+                }
+            }
+        };
+    }
+
+    private static CompiledExpr not(CompiledExpr arg) {
+        return new CompiledTest() {
+            @Override
+            public boolean test(Binding binding, FunctionEnv env) {
+                return !arg.test(binding, env);
+            }
+        };
+    }
+
+    private static CompiledExpr bound(E_Bound expr) {
+        Expr arg = expr.getArg();
+        if ( arg.isConstant() )
+            return (binding, env) -> NodeValue.TRUE;
+        if ( arg.isVariable() ) {
+            Var var = arg.asVar();
+            return new CompiledTest() {
+                @Override
+                public boolean test(Binding binding, FunctionEnv env) {
+                    return binding.contains(var);
+                }
+            };
+        }
+        return expr::eval;
+    }
+
+    // ---- Functions of two arguments.
+
+    private static CompiledExpr function2(ExprFunction2 function) {
+        Expr arg1 = function.getArg1();
+        Expr arg2 = function.getArg2();
+        if ( isPlainVar(arg1) && arg2 instanceof NodeValue ) {
+            CompiledExpr x = varConstant(function, arg1.asVar(), (NodeValue)arg2, false);
+            if ( x != null )
+                return x;
+        }
+        if ( isPlainVar(arg2) && arg1 instanceof NodeValue ) {
+            CompiledExpr x = varConstant(function, arg2.asVar(), (NodeValue)arg1, true);
+            if ( x != null )
+                return x;
+        }
+        if ( isIntegerOperand(arg1) && isIntegerOperand(arg2) ) {
+            Arithmetic op = Arithmetic.of(function);
+            if ( op != null )
+                return new IntegerArithmetic(function, op, arg1, arg2);
+        }
+        CompiledExpr left = compile(arg1);
+        CompiledExpr right = compile(arg2);
+        return (binding, env) -> {
+            NodeValue x = left.eval(binding, env);
+            NodeValue y = right.eval(binding, env);
+            return function.eval(x, y, env);
+        };
+    }
+
+    /** Specialised code for "function(?var, constant)" or "function(constant, ?var)", or null. */
+    private static CompiledExpr varConstant(ExprFunction2 function, Var var, NodeValue constant, boolean constantFirst) {
+        Comparison cmp = Comparison.of(function);
+        if ( cmp != null ) {
+            if ( constantFirst )
+                cmp = cmp.reverse();
+            if ( constant.isInteger() && constant.getInteger().bitLength() < Long.SIZE )
+                return new CompareInteger(function, var, constant, constantFirst, cmp, constant.getInteger().longValue());
+            if ( constant.isDouble() && !Double.isNaN(constant.getDouble()) )
+                return new CompareDouble(function, var, constant, constantFirst, cmp, constant.getDouble());
+            if ( isXSDString(constant) && ( cmp == Comparison.EQ || cmp == Comparison.NE ) )
+                return new CompareString(function, var, constant, constantFirst, cmp, constant.getString());
+            return null;
+        }
+        if ( !constantFirst && isXSDString(constant) ) {
+            if ( function instanceof E_StrStartsWith )
+                return new StringTest(function, var, constant, String::startsWith);
+            if ( function instanceof E_StrEndsWith )
+                return new StringTest(function, var, constant, String::endsWith);
+            if ( function instanceof E_StrContains )
+                return new StringTest(function, var, constant, StrUtils::contains);
+        }
+        return null;
+    }
+
+    private static boolean isXSDString(NodeValue nv) {
+        if ( !nv.isString() )
+            return false;
+        Node n = nv.asNode();
+        return n.isLiteral() && XSDDatatype.XSDstring.equals(n.getLiteralDatatype());
+    }
+
+    private static boolean isIntegerOperand(Expr expr) {
+        if ( isPlainVar(expr) )
+            return true;
+        if ( expr instanceof NodeValue ) {
+            NodeValue nv = (NodeValue)expr;
+            return nv.isInteger() && nv.getInteger().bitLength() < Long.SIZE;
+        }
+        return false;
+    }
+
+    /**
+     * The value of a well-formed literal of xsd:integer, or a derived type, if it
+     * fits in a long, else null. This is the same value as the NodeValue for the term.
+     */
+    private static Number integerValue(Node node) {
+        if ( node == null || !node.isLiteral() )
+            return null;
+        LiteralLabel lit = node.getLiteral();
+        RDFDatatype dt = lit.getDatatype();
+        if ( !( dt instanceof XSDDatatype ) || !XSDFuncOp.isIntegerDatatype((XSDDatatype)dt) || !lit.isWellFormed() )
+            return null;
+        Object value = lit.getValue();
+        if ( value instanceof Integer || value instanceof Long )
+            return (Number)value;
+        return null;
+    }
+
+    /** The value of a well-formed xsd:double literal, if it is not NaN, else null. */
+    private static Number doubleValue(Node node) {
+        if ( node == null || !node.isLiteral() )
+            return null;
+        LiteralLabel lit = node.getLiteral();
+        if ( !XSDDatatype.XSDdouble.equals(lit.getDatatype()) || !lit.isWellFormed() )
+            return null;
+        Object value = lit.getValue();
+        if ( !( value instanceof Number ) || Double.isNaN(((Number)value).doubleValue()) )
+            return null;
+        return (Number)value;
+    }
+
+    // ---- Compiled forms.
+
+    /** A compiled expression that is naturally a boolean test. */
+    private static abstract class CompiledTest implements CompiledExpr {
+        @Override
+        public abstract boolean test(Binding binding, FunctionEnv env);
+
+        @Override
+        public NodeValue eval(Binding binding, FunctionEnv env) {
+            return NodeValue.booleanReturn(test(binding, env));
+        }
+    }
+
+    /** As {@link ExprVar#eval}. */
+    private static final class Variable implements CompiledExpr {
+        private final Var var;
+
+        Variable(Var var) {
+            this.var = var;
+        }
+
+        @Override
+        public NodeValue eval(Binding binding, FunctionEnv env) {
+            if ( binding == null )
+                throw new VariableNotBoundException("Not bound: (no binding): " + var);
+            Node n = binding.get(var);
+            if ( n == null )
+                throw new VariableNotBoundException("Not bound: variable " + var);
+            return NodeValue.makeNode(n);
+        }
+    }
+
+    private enum Comparison {
+        EQ, NE, LT, LE, GT, GE;
+
+        static Comparison of(ExprFunction2 function) {
+            if ( function instanceof E_Equals )             return EQ;
+            if ( function instanceof E_NotEquals )          return NE;
+            if ( function instanceof E_LessThan )           return LT;
+            if ( function instanceof E_LessThanOrEqual )    return LE;
+            if ( function instanceof E_GreaterThan )        return GT;
+            if ( function instanceof E_GreaterThanOrEqual ) return GE;
+            return null;
+        }
+
+        /** The comparison with the arguments swapped. */
+        Comparison reverse() {
+            switch (this) {
+                case LT: return GT;
+                case LE: return GE;
+                case GT: return LT;
+                case GE: return LE;
+                default: return this;
+            }
+        }
+
+        /** Apply to the result of {@code Integer.compare} style comparison. */
+        boolean accept(int r) {
+            switch (this) {
+                case EQ: return r == 0;
+                case NE: return r != 0;
+                case LT: return r < 0;
+                case LE: return r <= 0;
+                case GT: return r > 0;
+                case GE: return r >= 0;
+                default: throw new IllegalStateException();
+            }
+        }
+    }
+
+    private static final int NOT_APPLICABLE = -1;
+
+    /** Compare a variable with a constant; the general function is used when the value is not of the expected kind. */
+    private static abstract class CompareVarConstant extends CompiledTest {
+        private final ExprFunction2 function;
+        private final Var var;
+        private final Variable variable;
+        private final NodeValue constant;
+        private final boolean constantFirst;
+        protected final Comparison cmp;
+
+        CompareVarConstant(ExprFunction2 function, Var var, NodeValue constant, boolean constantFirst, Comparison cmp) {
+            this.function = function;
+            this.var = var;
+            this.variable = new Variable(var);
+            this.constant = constant;
+            this.constantFirst = constantFirst;
+            this.cmp = cmp;
+        }
+
+        /** Return 1 (true), 0 (false) or {@link #NOT_APPLICABLE}. */
+        protected abstract int fastTest(Node node);
+
+        @Override
+        public boolean test(Binding binding, FunctionEnv env) {
+            int r = binding == null ? NOT_APPLICABLE : fastTest(binding.get(var));
+            if ( r != NOT_APPLICABLE )
+                return r == 1;
+            return XSDFuncOp.booleanEffectiveValue(general(binding, env));
+        }
+
+        @Override
+        public NodeValue eval(Binding binding, FunctionEnv env) {
+            int r = binding == null ? NOT_APPLICABLE : fastTest(binding.get(var));
+            if ( r != NOT_APPLICABLE )
+                return NodeValue.booleanReturn(r == 1);
+            return general(binding, env);
+        }
+
+        private NodeValue general(Binding binding, FunctionEnv env) {
+            NodeValue x = variable.eval(binding, env);
+            return constantFirst ? function.eval(constant, x, env) : function.eval(x, constant, env);
+        }
+
+        protected static int result(boolean b) {
+            return b ? 1 : 0;
+        }
+    }
+
+    private static final class CompareInteger extends CompareVarConstant {
+        private final long value;
+
+        CompareInteger(ExprFunction2 function, Var var, NodeValue constant, boolean constantFirst, Comparison cmp, long value) {
+            super(function, var, constant, constantFirst, cmp);
+            this.value = value;
+        }
+
+        @Override
+        protected int fastTest(Node node) {
+            Number n = integerValue(node);
+            if ( n == null )
+                return NOT_APPLICABLE;
+            return result(cmp.accept(Long.compare(n.longValue(), value)));
+        }
+    }
+
+    private static final class CompareDouble extends CompareVarConstant {
+        private final double value;
+
+        CompareDouble(ExprFunction2 function, Var var, NodeValue constant, boolean constantFirst, Comparison cmp, double value) {
+            super(function, var, constant, constantFirst, cmp);
+            this.value = value;
+        }
+
+        @Override
+        protected int fastTest(Node node) {
+            Number n = doubleValue(node);
+            if ( n == null )
+                return NOT_APPLICABLE;
+            // As XSDFuncOp.compareNumeric, which uses Double.compare (-0.0 is less than 0.0).
+            return result(cmp.accept(Double.compare(n.doubleValue(), value)));
+        }
+    }
+
+    private static final class CompareString extends CompareVarConstant {
+        private final String value;
+
+        CompareString(ExprFunction2 function, Var var, NodeValue constant, boolean constantFirst, Comparison cmp, String value) {
+            super(function, var, constant, constantFirst, cmp);
+            this.value = value;
+        }
+
+        @Override
+        protected int fastTest(Node node) {
+            if ( node == null || !node.isLiteral() || !XSDDatatype.XSDstring.equals(node.getLiteralDatatype()) )
+                return NOT_APPLICABLE;
+            return result(cmp.accept(value.equals(node.getLiteralLexicalForm()) ? 0 : 1));
+        }
+    }
+
+    private interface StringOp {
+        boolean apply(String string, String match);
+    }
+
+    /** STRSTARTS, STRENDS, CONTAINS of a variable and a string constant. */
+    private static final class StringTest extends CompareVarConstant {
+        private final String match;
+        private final StringOp op;
+
+        StringTest(ExprFunction2 function, Var var, NodeValue constant, StringOp op) {
+            super(function, var, constant, false, null);
+            this.match = constant.getString();
+            this.op = op;
+        }
+
+        @Override
+        protected int fastTest(Node node) {
+            // The argument compatibility rules: a string, or a language tagged string, with a string.
+            if ( node == null || !node.isLiteral() )
+                return NOT_APPLICABLE;
+            if ( !XSDDatatype.XSDstring.equals(node.getLiteralDatatype()) && !NodeUtils.isLangString(node) )
+                return NOT_APPLICABLE;
+            return result(op.apply(node.getLiteralLexicalForm(), match));
+        }
+    }
+
+    private enum Arithmetic {
+        ADD, SUBTRACT, MULTIPLY;
+
+        static Arithmetic of(ExprFunction2 function) {
+            if ( function instanceof E_Add )        return ADD;
+            if ( function instanceof E_Subtract )   return SUBTRACT;
+            if ( function instanceof E_Multiply )   return MULTIPLY;
+            return null;
+        }
+
+        /** Throws ArithmeticException on overflow. */
+        long apply(long x, long y) {
+            switch (this) {
+                case ADD:       return Math.addExact(x, y);
+                case SUBTRACT:  return Math.subtractExact(x, y);
+                case MULTIPLY:  return Math.multiplyExact(x, y);
+                default: throw new IllegalStateException();
+            }
+        }
+    }
+
+    /**
+     * Integer arithmetic on variables and integer constants, in long arithmetic.
+     * The general function is used on overflow and for values that are not integers.
+     */
+    private static final class IntegerArithmetic implements CompiledExpr {
+        private final ExprFunction2 function;
+        private final Arithmetic op;
+        private final Var var1;
+        private final Var var2;
+        private final Long const1;
+        private final Long const2;
+        private final CompiledExpr arg1;
+        private final CompiledExpr arg2;
+
+        IntegerArithmetic(ExprFunction2 function, Arithmetic op, Expr expr1, Expr expr2) {
+            this.function = function;
+            this.op = op;
+            this.var1 = expr1.isVariable() ? expr1.asVar() : null;
+            this.var2 = expr2.isVariable() ? expr2.asVar() : null;
+            this.const1 = var1 == null ? ((NodeValue)expr1).getInteger().longValue() : null;
+            this.const2 = var2 == null ? ((NodeValue)expr2).getInteger().longValue() : null;
+            this.arg1 = compile(expr1);
+            this.arg2 = compile(expr2);
+        }
+
+        @Override
+        public NodeValue eval(Binding binding, FunctionEnv env) {
+            if ( binding != null ) {
+                Number x = var1 == null ? const1 : integerValue(binding.get(var1));
+                Number y = var2 == null ? const2 : integerValue(binding.get(var2));
+                if ( x != null && y != null ) {
+                    try {
+                        return NodeValue.makeInteger(op.apply(x.longValue(), y.longValue()));
+                    } catch (ArithmeticException ex) { /* Overflow : use the general code. */ }
+                }
+            }
+            NodeValue x = arg1.eval(binding, env);
+            NodeValue y = arg2.eval(binding, env);
+            return function.eval(x, y, env);
+        }
+    }
+}
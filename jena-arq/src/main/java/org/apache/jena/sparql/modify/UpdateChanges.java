@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.modify;
+
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * The changes made by a SPARQL Update DELETE/INSERT WHERE operation, passed to the
+ * storage while the WHERE clause is being evaluated.
+ * <p>
+ * The changes must not be visible to the WHERE clause. They are made to the dataset
+ * by {@link #apply}, which is called after the WHERE clause has been evaluated:
+ * all the deletes, then all the adds.
+ * <p>
+ * There can be as many changes as there are results of the WHERE clause. An
+ * implementation should not hold them all in memory when
+ * {@link org.apache.jena.query.ARQ#spillToDiskThreshold} is set; without streaming,
+ * the results of the WHERE clause are spilled to disk above that threshold.
+ * <p>
+ * Storage provides an implementation by overriding
+ * {@link UpdateEngineWorker#createUpdateChanges()}. It is used when the context
+ * setting {@link org.apache.jena.query.ARQ#updateStreamChanges} is true.
+ */
+public interface UpdateChanges extends AutoCloseable {
+
+    /** Record a quad to delete. */
+    public void delete(Quad quad);
+
+    /** Record a quad to add. The quad is legal as data. */
+    public void add(Quad quad);
+
+    /** Make the changes to the dataset: the deletes, then the adds. */
+    public void apply();
+
+    /** Release any resources. Changes that have not been applied are discarded. */
+    @Override
+    public void close();
+}
@@ -23,9 +23,12 @@ import static org.apache.jena.sparql.modify.TemplateLib.template;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import org.apache.jena.atlas.data.BagFactory;
 import org.apache.jena.atlas.data.DataBag;
@@ -38,6 +41,7 @@ import org.apache.jena.atlas.web.TypedInputStream;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.GraphUtil;
 import org.apache.jena.graph.Node;
+import org.apache.jena.query.ARQ;
 import org.apache.jena.query.Query;
 import org.apache.jena.riot.*;
 import org.apache.jena.riot.system.PrefixMap;
@@ -346,6 +350,14 @@ public class UpdateEngineWorker implements UpdateVisitor
         // Convert quads to a pattern.
         Element el = elementFromQuads(quads);
 
+        UpdateChanges changes = updateChanges();
+        if ( changes != null ) {
+            try ( changes ) {
+                execModify(quads, List.of(), elementToQuery(el), datasetGraph, null, changes);
+            }
+            return;
+        }
+
         // Decided to serialize the bindings, but could also have decided to
         // serialize the quads after applying the template instead.
 
@@ -400,6 +412,14 @@ public class UpdateEngineWorker implements UpdateVisitor
             dsg = datasetGraph;
 
         Query query = elementToQuery(elt);
+        UpdateChanges changes = updateChanges();
+        if ( changes != null ) {
+            try ( changes ) {
+                execModify(update.getDeleteQuads(), update.getInsertQuads(), query, dsg, withGraph, changes);
+            }
+            return;
+        }
+
         ThresholdPolicy<Binding> policy = ThresholdPolicyFactory.policyFromContext(datasetGraph.getContext());
         DataBag<Binding> db = BagFactory.newDefaultBag(policy, SerializationFactoryFinder.bindingSerializationFactory());
         try {
@@ -434,6 +454,67 @@ public class UpdateEngineWorker implements UpdateVisitor
         }
     }
 
+    /**
+     * Execute DELETE/INSERT WHERE, passing the changes to {@code changes}
+     * as each result of the WHERE clause is produced, then apply the changes.
+     */
+    protected void execModify(List<Quad> deleteQuads, List<Quad> insertQuads, Query query, DatasetGraph dsg, Node withGraph,
+                              UpdateChanges changes) {
+        Pair<List<Quad>, List<Quad>> deletes = split(deleteQuads);
+        Pair<List<Quad>, List<Quad>> inserts = split(insertQuads);
+        List<Quad> deleteTemplate = remapDefaultGraph(deletes.getRight(), withGraph);
+        List<Quad> insertTemplate = remapDefaultGraph(inserts.getRight(), withGraph);
+        Map<Node, Node> bNodeMap = new HashMap<>();
+        boolean matched = false;
+
+        Iterator<Binding> bindings = evalBindings(query, dsg, inputBinding, context);
+        try {
+            while ( bindings.hasNext() ) {
+                Binding binding = bindings.next();
+                matched = true;
+                instantiate(deleteTemplate, binding, bNodeMap, changes::delete);
+                instantiate(insertTemplate, binding, bNodeMap, quad->{
+                    if ( quad.isLegalAsData() )
+                        changes.add(quad);
+                });
+            }
+        } finally {
+            Iter.close(bindings);
+        }
+        if ( matched ) {
+            remapDefaultGraph(deletes.getLeft(), withGraph).forEach(changes::delete);
+            remapDefaultGraph(inserts.getLeft(), withGraph).forEach(quad->{
+                if ( quad.isLegalAsData() )
+                    changes.add(quad);
+            });
+        }
+        changes.apply();
+    }
+
+    private static void instantiate(List<Quad> template, Binding binding, Map<Node, Node> bNodeMap, Consumer<Quad> action) {
+        // New blank nodes for each binding.
+        bNodeMap.clear();
+        for ( Quad quad : template ) {
+            Quad q = TemplateLib.subst(quad, binding, bNodeMap);
+            if ( q.isConcrete() )
+                action.accept(q);
+        }
+    }
+
+    private UpdateChanges updateChanges() {
+        if ( ! context.isTrue(ARQ.updateStreamChanges) )
+            return null;
+        return createUpdateChanges();
+    }
+
+    /**
+     * Return the storage's {@link UpdateChanges} for a DELETE/INSERT WHERE operation on
+     * the dataset, or null if the storage does not provide one. The default is null.
+     */
+    protected UpdateChanges createUpdateChanges() {
+        return null;
+    }
+
     // Indirection for subsystems to support USING/USING NAMED.
     protected DatasetGraph processUsing(UpdateModify update) {
         if ( update.getUsing().size() == 0 && update.getUsingNamed().size() == 0 )
@@ -44,6 +44,8 @@ import org.apache.jena.sparql.engine.binding.BindingFactory ;
 import org.apache.jena.sparql.engine.iterator.*;
 import org.apache.jena.sparql.mgt.Explain ;
 import org.apache.jena.sparql.path.eval.PathEval ;
+import org.apache.jena.sparql.path.eval.PathLinks ;
+import org.apache.jena.sparql.path.eval.TransitivePath ;
 import org.apache.jena.sparql.pfunction.PropertyFunctionFactory ;
 import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry ;
 import org.apache.jena.sparql.util.Context;
@@ -98,6 +100,12 @@ public class PathLib
     }
 
     public static QueryIterator execTriplePath(Binding binding, TriplePath triplePath, ExecutionContext execCxt) {
+        return execTriplePath(binding, triplePath, execCxt, null) ;
+    }
+
+    /** @see #execTriplePath(Binding, Node, Path, Node, ExecutionContext, Function) */
+    public static QueryIterator execTriplePath(Binding binding, TriplePath triplePath, ExecutionContext execCxt,
+                                               Function<Node, PathLinks<?>> pathLinks) {
         if ( triplePath.isTriple() ) {
             // Fake it. This happens only for API constructed situations.
             Path path = new P_Link(triplePath.getPredicate());
@@ -108,10 +116,20 @@ public class PathLib
                               triplePath.getSubject(),
                               triplePath.getPath(),
                               triplePath.getObject(),
-                              execCxt) ;
+                              execCxt, pathLinks) ;
     }
 
     public static QueryIterator execTriplePath(Binding binding, Node s, Path path, Node o, ExecutionContext execCxt) {
+        return execTriplePath(binding, s, path, o, execCxt, null) ;
+    }
+
+    /**
+     * Execute a path, where the storage provides the links of a property for
+     * transitive paths ({@code :p+}, {@code :p*}).
+     * The {@code pathLinks} function returns null if it does not apply, and may itself be null.
+     */
+    public static QueryIterator execTriplePath(Binding binding, Node s, Path path, Node o, ExecutionContext execCxt,
+                                               Function<Node, PathLinks<?>> pathLinks) {
         Explain.explain(s, path, o, execCxt.getContext()) ;
         s = Var.lookup(binding, s) ;
         o = Var.lookup(binding, o) ;
@@ -119,6 +137,10 @@ public class PathLib
         Node endNode = null ;
         Graph graph = execCxt.getActiveGraph() ;
 
+        TransitivePath transitivePath = TransitivePath.create(path, execCxt.getContext()) ;
+        if ( transitivePath != null )
+            return execTransitivePath(binding, graph, s, transitivePath, o, pathLinks, execCxt) ;
+
         // Both variables.
         if ( Var.isVar(s) && Var.isVar(o) ) {
             if ( s.equals(o) )
@@ -143,6 +165,63 @@ public class PathLib
         return evalGroundedOneEnd(binding, iter, endNode, execCxt);
     }
 
+    // Paths p+ and p*.
+    private static QueryIterator execTransitivePath(Binding binding, Graph graph, Node s, TransitivePath path, Node o,
+                                                    Function<Node, PathLinks<?>> pathLinks, ExecutionContext execCxt) {
+        PathLinks<?> links = ( pathLinks == null ) ? null : pathLinks.apply(path.getProperty()) ;
+        if ( links == null )
+            links = path.graphLinks(graph) ;
+        PathLinks<?> pLinks = links ;
+
+        if ( Var.isVar(s) && Var.isVar(o) ) {
+            Var sVar = Var.alloc(s) ;
+            Var oVar = Var.alloc(o) ;
+            Iterator<Node> starts = ungroundedStartingSet(graph, path, execCxt) ;
+            QueryIterator input = new QueryIterExtendByVar(binding, sVar, starts, execCxt) ;
+            if ( s.equals(o) ) {
+                Function<Binding, QueryIterator> mapper = b -> {
+                    Node n = b.get(sVar) ;
+                    if ( !path.exists(pLinks, n, n) )
+                        return QueryIterNullIterator.create(execCxt) ;
+                    return QueryIterSingleton.create(b, execCxt) ;
+                } ;
+                return QueryIter.flatMap(input, mapper, execCxt) ;
+            }
+            Function<Binding, QueryIterator> mapper = b ->
+                evalGroundedOneEnd(b, path.reachableFrom(pLinks, b.get(sVar)).iterator(), oVar, execCxt) ;
+            return QueryIter.flatMap(input, mapper, execCxt) ;
+        }
+
+        if ( !Var.isVar(s) && !Var.isVar(o) ) {
+            // Path ends that are literals are compared by value, as for other paths.
+            if ( !isLinkNode(s) || !isLinkNode(o) ) {
+                Iterator<Node> iter = path.reachableFrom(pLinks, s).iterator() ;
+                int count = (int)Iter.count(Iter.filter(iter, n -> n.sameValueAs(o))) ;
+                return new QueryIterYieldN(count, binding, execCxt) ;
+            }
+            int count = path.exists(pLinks, s, o) ? 1 : 0 ;
+            return new QueryIterYieldN(count, binding, execCxt) ;
+        }
+
+        if ( Var.isVar(s) )
+            return evalGroundedOneEnd(binding, path.reachableTo(pLinks, o).iterator(), s, execCxt) ;
+        return evalGroundedOneEnd(binding, path.reachableFrom(pLinks, s).iterator(), o, execCxt) ;
+    }
+
+    private static boolean isLinkNode(Node node) {
+        return node.isURI() || node.isBlank() ;
+    }
+
+    /** Starting set for "?s :p+ ?o" (subjects of :p) and "?s :p* ?o" (all nodes). */
+    private static Iterator<Node> ungroundedStartingSet(Graph graph, TransitivePath path, ExecutionContext execCxt) {
+        if ( !path.isZeroLength() ) {
+            Iterator<Node> iter = calcStartingSet(graph, new P_Link(path.getProperty()), path.isForward(), execCxt) ;
+            if ( iter != null )
+                return iter ;
+        }
+        return GraphUtils.allNodes(graph) ;
+    }
+
     private static QueryIterator evalGroundedOneEnd(Binding binding, Iterator<Node> iter, Node endNode, ExecutionContext execCxt) {
         List<Binding> results = new ArrayList<>() ;
 
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.path.eval;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.jena.graph.Node;
+
+/**
+ * The links of one property, used by {@link TransitivePath} to evaluate
+ * {@code :p+} and {@code :p*}.
+ * <p>
+ * The RDF terms are handled in a form {@code T} chosen by the storage, so that a
+ * search can work without converting to and from {@link Node Nodes} at each step.
+ * The default implementation, for any graph, uses {@code Node}.
+ */
+public interface PathLinks<T> {
+
+    /** The internal form of an RDF term, or null if the term does not occur in the data. */
+    public T lookup(Node node);
+
+    /** The RDF term for an internal form. */
+    public Node node(T item);
+
+    /**
+     * Call the action for each term linked by the property:
+     * the objects of triples with subject {@code item} if {@code forward} is true,
+     * else the subjects of triples with object {@code item}.
+     */
+    public void forEachLink(T item, boolean forward, Consumer<T> action);
+
+    /** A new, empty, set, for recording the terms visited by a search. */
+    public default Set<T> newSet() {
+        return new HashSet<>();
+    }
+}
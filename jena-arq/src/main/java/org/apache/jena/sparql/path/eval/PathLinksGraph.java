@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.path.eval;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+/**
+ * {@link PathLinks} for any graph, using {@link Graph#find}.
+ * The links found are remembered, up to a limit, for searches that visit a term more than once.
+ */
+class PathLinksGraph implements PathLinks<Node> {
+    // Number of terms, in each direction, for which the links are remembered.
+    private static final int CACHE_SIZE = 100_000;
+
+    private final Graph graph;
+    private final Node property;
+    private final Map<Node, List<Node>> forwardLinks = new HashMap<>();
+    private final Map<Node, List<Node>> backwardLinks = new HashMap<>();
+
+    PathLinksGraph(Graph graph, Node property) {
+        this.graph = graph;
+        this.property = property;
+    }
+
+    @Override
+    public Node lookup(Node node) {
+        return node;
+    }
+
+    @Override
+    public Node node(Node item) {
+        return item;
+    }
+
+    @Override
+    public void forEachLink(Node item, boolean forward, Consumer<Node> action) {
+        Map<Node, List<Node>> cache = forward ? forwardLinks : backwardLinks;
+        List<Node> links = cache.get(item);
+        if ( links == null ) {
+            links = find(item, forward);
+            if ( cache.size() < CACHE_SIZE )
+                cache.put(item, links);
+        }
+        links.forEach(action);
+    }
+
+    private List<Node> find(Node item, boolean forward) {
+        List<Node> links = new ArrayList<>();
+        ExtendedIterator<Triple> iter = forward ? graph.find(item, property, Node.ANY) : graph.find(Node.ANY, property, item);
+        try {
+            iter.forEachRemaining(t -> links.add(forward ? t.getObject() : t.getSubject()));
+        } finally { iter.close(); }
+        return links;
+    }
+}
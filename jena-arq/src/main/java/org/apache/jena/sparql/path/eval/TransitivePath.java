@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.path.eval;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.path.*;
+import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * Evaluation of the transitive paths {@code :p+} and {@code :p*}, and their inverses,
+ * with SPARQL semantics (distinct results) for a property that is not a property function.
+ * <p>
+ * The evaluation is breadth first, a frontier at a time, and does not recurse.
+ * When both ends are fixed, the search works from both ends, expanding the smaller
+ * frontier at each step, and stops when the two searches meet.
+ * <p>
+ * The graph is accessed by a {@link PathLinks}, so storage can provide a search
+ * over its own form of RDF terms.
+ */
+public final class TransitivePath {
+    private final Node property;
+    private final boolean forward;
+    private final boolean zeroLength;
+
+    private TransitivePath(Node property, boolean forward, boolean zeroLength) {
+        this.property = property;
+        this.forward = forward;
+        this.zeroLength = zeroLength;
+    }
+
+    /**
+     * Return a {@code TransitivePath} if the path is one of
+     * {@code :p+}, {@code :p*}, {@code (^:p)+}, {@code (^:p)*}, else return null.
+     */
+    public static TransitivePath create(Path path, Context context) {
+        boolean zeroLength;
+        if ( path instanceof P_OneOrMore1 )
+            zeroLength = false;
+        else if ( path instanceof P_ZeroOrMore1 )
+            zeroLength = true;
+        else
+            return null;
+        Path step = ((P_Path1)path).getSubPath();
+        boolean forward = true;
+        if ( step instanceof P_Inverse ) {
+            forward = false;
+            step = ((P_Inverse)step).getSubPath();
+        }
+        if ( !( step instanceof P_Link ) )
+            return null;
+        Node property = ((P_Link)step).getNode();
+        if ( isPropertyFunction(property, context) )
+            return null;
+        return new TransitivePath(property, forward, zeroLength);
+    }
+
+    private static boolean isPropertyFunction(Node property, Context context) {
+        if ( !property.isURI() )
+            return false;
+        // As PathEngine.
+        if ( context != null && !context.isTrueOrUndef(ARQ.propertyFunctions) )
+            return false;
+        PropertyFunctionRegistry registry = PropertyFunctionRegistry.chooseRegistry(context);
+        return registry != null && registry.isRegistered(property.getURI());
+    }
+
+    /** {@link PathLinks} for the property in a graph. */
+    public PathLinks<Node> graphLinks(Graph graph) {
+        return new PathLinksGraph(graph, property);
+    }
+
+    public Node getProperty() {
+        return property;
+    }
+
+    /** False for the inverse paths {@code (^:p)+} and {@code (^:p)*} */
+    public boolean isForward() {
+        return forward;
+    }
+
+    /** True for {@code :p*}, false for {@code :p+} */
+    public boolean isZeroLength() {
+        return zeroLength;
+    }
+
+    /** Whether the path connects {@code start} to {@code end}. */
+    public <T> boolean exists(PathLinks<T> links, Node start, Node end) {
+        if ( zeroLength && start.equals(end) )
+            return true;
+        T s = links.lookup(start);
+        T e = links.lookup(end);
+        if ( s == null || e == null )
+            return false;
+
+        // Terms reached from the start by the path (so one or more steps for p+).
+        Set<T> visitedStart = links.newSet();
+        // Terms from which the end can be reached (zero or more steps).
+        Set<T> visitedEnd = links.newSet();
+        List<T> frontierStart = new ArrayList<>();
+        List<T> frontierEnd = new ArrayList<>();
+
+        visitedEnd.add(e);
+        frontierEnd.add(e);
+        if ( zeroLength ) {
+            if ( s.equals(e) )
+                return true;
+            visitedStart.add(s);
+            frontierStart.add(s);
+        } else {
+            // First step.
+            boolean[] found = { false };
+            links.forEachLink(s, forward, t -> {
+                if ( visitedEnd.contains(t) )
+                    found[0] = true;
+                if ( visitedStart.add(t) )
+                    frontierStart.add(t);
+            });
+            if ( found[0] )
+                return true;
+        }
+
+        while ( !frontierStart.isEmpty() && !frontierEnd.isEmpty() ) {
+            boolean found;
+            if ( frontierStart.size() <= frontierEnd.size() ) {
+                found = expand(links, frontierStart, forward, visitedStart, visitedEnd);
+            } else {
+                found = expand(links, frontierEnd, !forward, visitedEnd, visitedStart);
+            }
+            if ( found )
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Replace the frontier by the next one.
+     * Return true if a term visited by the search from the other end is reached.
+     */
+    private static <T> boolean expand(PathLinks<T> links, List<T> frontier, boolean direction, Set<T> visited, Set<T> visitedOther) {
+        List<T> next = new ArrayList<>();
+        boolean[] found = { false };
+        for ( T item : frontier ) {
+            links.forEachLink(item, direction, t -> {
+                if ( visitedOther.contains(t) )
+                    found[0] = true;
+                if ( visited.add(t) )
+                    next.add(t);
+            });
+            if ( found[0] )
+                return true;
+        }
+        frontier.clear();
+        frontier.addAll(next);
+        return false;
+    }
+
+    /** The distinct terms reached by the path from {@code start}. */
+    public <T> List<Node> reachableFrom(PathLinks<T> links, Node start) {
+        return reachable(links, start, forward);
+    }
+
+    /** The distinct terms from which the path reaches {@code end}. */
+    public <T> List<Node> reachableTo(PathLinks<T> links, Node end) {
+        return reachable(links, end, !forward);
+    }
+
+    private <T> List<Node> reachable(PathLinks<T> links, Node start, boolean direction) {
+        List<Node> results = new ArrayList<>();
+        if ( zeroLength )
+            results.add(start);
+        T s = links.lookup(start);
+        if ( s == null )
+            return results;
+        Set<T> visited = links.newSet();
+        List<T> frontier = new ArrayList<>();
+        if ( zeroLength ) {
+            visited.add(s);
+            frontier.add(s);
+        } else {
+            links.forEachLink(s, direction, t -> {
+                if ( visited.add(t) ) {
+                    frontier.add(t);
+                    results.add(links.node(t));
+                }
+            });
+        }
+        List<T> next = new ArrayList<>();
+        while ( !frontier.isEmpty() ) {
+            for ( T item : frontier ) {
+                links.forEachLink(item, direction, t -> {
+                    if ( visited.add(t) ) {
+                        next.add(t);
+                        results.add(links.node(t));
+                    }
+                });
+            }
+            frontier.clear();
+            frontier.addAll(next);
+            next.clear();
+        }
+        return results;
+    }
+}
@@ -18,10 +18,12 @@
 
 package org.apache.jena.sparql.service.bulk;
 
+import org.apache.jena.query.ARQ;
 import org.apache.jena.sparql.algebra.op.OpService;
 import org.apache.jena.sparql.engine.ExecutionContext;
 import org.apache.jena.sparql.engine.QueryIterator;
 import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.iterator.QueryIterConcurrentApply;
 import org.apache.jena.sparql.engine.iterator.QueryIterRepeatApply;
 import org.apache.jena.sparql.engine.main.QC;
 import org.apache.jena.sparql.service.single.ServiceExecutor;
@@ -37,10 +39,26 @@ public class ServiceExecutorBulkToSingle
         this.delegate = delegate;
     }
 
+    /**
+     * One execution of the delegate for each input binding.
+     * If {@link ARQ#serviceConcurrency} is more than one, that many executions may be
+     * in progress at the same time.
+     */
     @Override
     public QueryIterator createExecution(OpService original, QueryIterator input,
             ExecutionContext execCxt) {
 
+        int concurrency = execCxt.getContext().getInt(ARQ.serviceConcurrency, 1);
+        if ( concurrency > 1 ) {
+            return new QueryIterConcurrentApply(input, concurrency, execCxt) {
+                @Override
+                protected QueryIterator nextStage(Binding binding, ExecutionContext threadCxt) {
+                    OpService opExecute = (OpService)QC.substitute(original, binding);
+                    return delegate.createExecution(opExecute, original, binding, threadCxt);
+                }
+            };
+        }
+
         return new QueryIterRepeatApply(input, execCxt) {
             @Override
             protected QueryIterator nextStage(Binding binding) {
@@ -15,31 +15,84 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.apache.jena.sparql.system;
 
+import java.io.IOException ;
 import java.io.InputStream ;
 import java.io.OutputStream ;
+import java.io.PushbackInputStream ;
 import java.util.Iterator ;
+import java.util.zip.Deflater ;
+import java.util.zip.GZIPInputStream ;
+import java.util.zip.GZIPOutputStream ;
 
+import org.apache.jena.atlas.RuntimeIOException ;
 import org.apache.jena.atlas.data.SerializationFactory ;
+import org.apache.jena.atlas.iterator.Iter ;
 import org.apache.jena.atlas.lib.Sink ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.sparql.engine.binding.Binding ;
-import org.apache.jena.sparql.engine.binding.BindingInputStream ;
-import org.apache.jena.sparql.engine.binding.BindingOutputStream ;
+import org.apache.jena.sparql.engine.binding.BindingBinaryInputStream ;
+import org.apache.jena.sparql.engine.binding.BindingBinaryOutputStream ;
+import org.apache.jena.sparql.util.Context ;
 
 public class SerializationFactoryFinder {
+    /**
+     * Serialization of bindings for temporary files, using the settings of the global context.
+     * @see #bindingSerializationFactory(Context)
+     */
     public static SerializationFactory<Binding> bindingSerializationFactory() {
+        return bindingSerializationFactory(ARQ.getContext()) ;
+    }
+
+    /**
+     * Serialization of bindings for temporary files, in the {@link BindingBinaryOutputStream binary form}.
+     * The data is compressed if {@link ARQ#spillToDiskCompression} is true in the context.
+     */
+    public static SerializationFactory<Binding> bindingSerializationFactory(Context context) {
+        boolean compress = context != null && context.isTrue(ARQ.spillToDiskCompression) ;
+        return bindingSerializationFactory(compress) ;
+    }
+
+    /**
+     * Serialization of bindings for temporary files, in the {@link BindingBinaryOutputStream binary form},
+     * optionally compressed.
+     */
+    public static SerializationFactory<Binding> bindingSerializationFactory(boolean compress) {
         return new SerializationFactory<Binding>() {
             @Override
             public Sink<Binding> createSerializer(OutputStream out) {
-                return new BindingOutputStream(out);
+                return new BindingBinaryOutputStream(compress ? compressed(out) : out) ;
             }
 
             @Override
             public Iterator<Binding> createDeserializer(InputStream in) {
-                return new BindingInputStream(in);
+                if ( ! compress )
+                    return new BindingBinaryInputStream(in) ;
+                InputStream input = uncompressed(in) ;
+                return input == null ? Iter.nullIterator() : new BindingBinaryInputStream(input) ;
             }
         };
     }
+
+    private static final int BUFFER_SIZE = 64 * 1024 ;
+
+    private static OutputStream compressed(OutputStream out) {
+        try {
+            // Favour speed; temporary files are read back once or twice.
+            return new GZIPOutputStream(out, BUFFER_SIZE) {{ def.setLevel(Deflater.BEST_SPEED) ; }} ;
+        } catch (IOException ex) { throw new RuntimeIOException(ex) ; }
+    }
+
+    // Null for an empty stream.
+    private static InputStream uncompressed(InputStream in) {
+        try {
+            PushbackInputStream input = new PushbackInputStream(in, 1) ;
+            int b = input.read() ;
+            if ( b < 0 )
+                return null ;
+            input.unread(b) ;
+            return new GZIPInputStream(input, BUFFER_SIZE) ;
+        } catch (IOException ex) { throw new RuntimeIOException(ex) ; }
+    }
 }
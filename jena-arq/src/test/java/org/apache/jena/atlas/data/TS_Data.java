@@ -26,6 +26,7 @@ import org.junit.runners.Suite.SuiteClasses ;
 @SuiteClasses(
 { 
     TestSortedDataBag.class, 
+    TestTopNDataBag.class,
     TestDistinctDataBag.class,
     TestDistinctDataNet.class,
     TestThresholdPolicyCount.class
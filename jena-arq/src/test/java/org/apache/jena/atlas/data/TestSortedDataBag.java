@@ -47,7 +47,36 @@ public class TestSortedDataBag
         testSorting(500, 10);
     }
 
+    @Test
+    public void testSortingParallel() {
+        testSorting(20000, 5000, true, false);
+    }
+
+    @Test
+    public void testSortingCompressed() {
+        testSorting(500, 10, false, true);
+    }
+
+    @Test
+    public void testSortingParallelWithPreMerge() {
+        int origMaxSpillFiles = SortedDataBag.MAX_SPILL_FILES;
+        try {
+            // @formatter:off
+            SortedDataBag.MAX_SPILL_FILES = 2;    testSorting(5, 1, true, false);
+            SortedDataBag.MAX_SPILL_FILES = 2;    testSorting(1000, 10, true, false);
+            SortedDataBag.MAX_SPILL_FILES = 5;    testSorting(1000, 10, true, true);
+            SortedDataBag.MAX_SPILL_FILES = 7;    testSorting(999, 10, true, false);
+            // @formatter:on
+        } finally {
+            SortedDataBag.MAX_SPILL_FILES = origMaxSpillFiles;
+        }
+    }
+
     private void testSorting(int numBindings, int threshold) {
+        testSorting(numBindings, threshold, false, false);
+    }
+
+    private void testSorting(int numBindings, int threshold, boolean parallel, boolean compress) {
         List<Binding> unsorted = randomBindings(numBindings);
 
         List<SortCondition> conditions = new ArrayList<>();
@@ -59,7 +88,7 @@ public class TestSortedDataBag
         List<Binding> sorted = new ArrayList<>();
 
         SortedDataBag<Binding> db = new SortedDataBag<>(new ThresholdPolicyCount<Binding>(threshold),
-                                                        SerializationFactoryFinder.bindingSerializationFactory(), comparator);
+                                                        SerializationFactoryFinder.bindingSerializationFactory(compress), comparator, parallel);
         try {
             db.addAll(unsorted);
             Iterator<Binding> iter = db.iterator();
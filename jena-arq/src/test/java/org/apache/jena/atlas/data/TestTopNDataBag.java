@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.atlas.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.SortCondition;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingComparator;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.expr.ExprVar;
+import org.apache.jena.sparql.system.SerializationFactoryFinder;
+import org.junit.Test;
+
+public class TestTopNDataBag
+{
+    private static final Var var = Var.alloc("x");
+    private static final BindingComparator comparator =
+            new BindingComparator(List.of(new SortCondition(new ExprVar(var), Query.ORDER_ASCENDING)));
+
+    @Test public void topN_01() { testTopN(500, 10, 20); }
+    @Test public void topN_02() { testTopN(500, 10, 1); }
+    @Test public void topN_03() { testTopN(500, 100, 7); }
+    @Test public void topN_04() { testTopN(500, 500, 7); }
+    @Test public void topN_05() { testTopN(500, 1000, 7); }
+    @Test public void topN_06() { testTopN(0, 10, 7); }
+    // No spill.
+    @Test public void topN_07() { testTopN(5000, 100, Long.MAX_VALUE); }
+
+    @Test
+    public void topN_duplicates() {
+        Random random = new Random(1);
+        List<Binding> data = new ArrayList<>();
+        for ( int i = 0 ; i < 1000 ; i++ )
+            data.add(binding(random.nextInt(20)));
+        testTopN(data, 75, 30);
+    }
+
+    @Test
+    public void topN_memory() {
+        // Without spilling, the bag keeps at most twice the limit.
+        TopNDataBag<Binding> db = new TopNDataBag<>(new ThresholdPolicyCount<Binding>(Long.MAX_VALUE),
+                                                    SerializationFactoryFinder.bindingSerializationFactory(), comparator, 10);
+        try {
+            for ( int i = 1000 ; i > 0 ; i-- ) {
+                db.add(binding(i));
+                assertTrue(db.size() < 20);
+            }
+            assertNotNull(db.getBoundary());
+            assertEquals(0, DataBagExaminer.countTemporaryFiles(db));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test public void topN_distinct_01() { testTopNDistinct(10, Long.MAX_VALUE); }
+    @Test public void topN_distinct_02() { testTopNDistinct(10, 7); }
+    @Test public void topN_distinct_03() { testTopNDistinct(60, 7); }
+
+    /** 50 different values, each 20 times: the least {@code limit} different values. */
+    private void testTopNDistinct(int limit, long threshold) {
+        List<Binding> data = new ArrayList<>();
+        for ( int i = 0 ; i < 1000 ; i++ )
+            data.add(binding(i % 50));
+        Collections.shuffle(data, new Random(limit));
+        List<Binding> results = new ArrayList<>();
+        TopNDataBag<Binding> db = new TopNDataBag<>(new ThresholdPolicyCount<Binding>(threshold),
+                                                    SerializationFactoryFinder.bindingSerializationFactory(), comparator, limit, true);
+        try {
+            for ( Binding b : data ) {
+                db.add(b);
+                // Without spilling, duplicates do not grow the bag beyond twice the limit.
+                if ( threshold == Long.MAX_VALUE )
+                    assertTrue(db.size() < 2 * limit);
+            }
+            Iterator<Binding> iter = db.iterator();
+            iter.forEachRemaining(results::add);
+            Iter.close(iter);
+        } finally {
+            db.close();
+        }
+        List<Binding> expected = new ArrayList<>();
+        for ( int i = 0 ; i < Math.min(limit, 50) ; i++ )
+            expected.add(binding(i));
+        assertEquals(expected, results);
+    }
+
+    private void testTopN(int numBindings, long limit, long threshold) {
+        List<Binding> data = new ArrayList<>();
+        for ( int i = 0 ; i < numBindings ; i++ )
+            data.add(binding(i));
+        Collections.shuffle(data, new Random(numBindings));
+        testTopN(data, limit, threshold);
+    }
+
+    private void testTopN(List<Binding> data, long limit, long threshold) {
+        List<Binding> results = new ArrayList<>();
+        TopNDataBag<Binding> db = new TopNDataBag<>(new ThresholdPolicyCount<Binding>(threshold),
+                                                    SerializationFactoryFinder.bindingSerializationFactory(), comparator, limit);
+        try {
+            db.addAll(data);
+            Iterator<Binding> iter = db.iterator();
+            iter.forEachRemaining(results::add);
+            Iter.close(iter);
+        } finally {
+            db.close();
+        }
+        List<Binding> expected = new ArrayList<>(data);
+        expected.sort(comparator);
+        expected = expected.subList(0, (int)Math.min(limit, expected.size()));
+        assertEquals(expected.size(), results.size());
+        for ( int i = 0 ; i < expected.size() ; i++ )
+            assertEquals(0, comparator.compare(expected.get(i), results.get(i)));
+    }
+
+    private static Binding binding(int i) {
+        return BindingFactory.binding(var, NodeFactory.createLiteralDT(Integer.toString(i), XSDDatatype.XSDinteger));
+    }
+}
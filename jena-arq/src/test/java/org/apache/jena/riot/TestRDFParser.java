@@ -30,6 +30,7 @@ import org.apache.jena.atlas.logging.LogCtl;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.riot.lang.LabelToNode;
 import org.apache.jena.riot.system.ErrorHandlerFactory;
 import org.apache.jena.riot.system.FactoryRDFStd;
@@ -360,4 +361,19 @@ public class TestRDFParser {
             }
         });
     }
+
+    @Test
+    public void parse_intern_nodes() {
+        RDFParserBuilder builder = RDFParserBuilder.create().lang(Lang.TTL).fromString(testdata).internNodes(true);
+        Graph graph1 = GraphFactory.createGraphMem();
+        Graph graph2 = GraphFactory.createGraphMem();
+        builder.parse(graph1);
+        builder.clone().parse(graph2);
+        Triple t1 = graph1.find().next();
+        Triple t2 = graph2.find().next();
+        assertSame(t1.getSubject(), t2.getSubject());
+        assertSame(t1.getPredicate(), t2.getPredicate());
+        // Blank nodes are per parser run.
+        assertNotEquals(t1.getObject(), t2.getObject());
+    }
 }
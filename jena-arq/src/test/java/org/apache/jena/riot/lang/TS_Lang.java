@@ -36,6 +36,7 @@ import org.junit.runners.Suite ;
     , TestTurtleTerms.class
     , TestLangNTriples.class
     , TestLangNQuads.class
+    , TestNTuplesScanner.class
     , TestLangTurtle.class
     , TestLangTrig.class
     , TestLangRdfJson.class
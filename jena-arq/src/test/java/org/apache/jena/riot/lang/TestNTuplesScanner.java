@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.lang;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.atlas.lib.StrUtils;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.ErrorHandlerTestLib.ErrorHandlerEx;
+import org.apache.jena.riot.ErrorHandlerTestLib.ExFatal;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RiotParseException;
+import org.apache.jena.riot.system.ErrorHandler;
+import org.apache.jena.riot.system.RiotLib;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.junit.Test;
+
+public class TestNTuplesScanner
+{
+    @Test public void scan_nt_0()   { testNT(""); }
+    @Test public void scan_nt_1()   { testNT("<x> <y> <z>."); }
+    @Test public void scan_nt_2()   { testNT("<x> <y> \"z\"."); }
+    @Test public void scan_nt_3()   { assertEquals(2, parseNT("<x> <y> <z>. <x> <y> <z2>.").size()); }
+    @Test public void scan_nt_4()   { testNT("<x> <y> \"123\"^^<http://www.w3.org/2001/XMLSchema#integer>."); }
+    @Test public void scan_nt_5()   { testNT("<x> <y> \"123\"@en-GB ."); }
+    @Test public void scan_nt_6()   { testNT("<x> <y> \"abc\"@ar--rtl ."); }
+    @Test public void scan_nt_7()   { testNT("_:a <y> _:b.\n_:b <y> _:a.\n_:a.b <y> _:a."); }
+    @Test public void scan_nt_8()   { testNT("<x> <y> <<( <s> <p> <<( <s1> <q> \"o\" )>> )>> ."); }
+
+    @Test public void scan_nt_comments()    { testNT("# Comment\n  <x> <y> <z> . # More\r\n\n#\n<x> <y> <z2> ."); }
+    @Test public void scan_nt_no_newline()  { testNT("<x> <y> <z> .\n<x> <y> <z2> ."); }
+    @Test public void scan_nt_tabs()        { testNT("\t<x>\t<y>\t<z>\t.\t\n"); }
+    @Test
+    public void scan_nt_bom() {
+        Graph graph = parseNT("\uFEFF<x> <y> <z> .");
+        assertTrue(graph.isIsomorphicWith(RDFParser.fromString("<x> <y> <z> .", Lang.NTRIPLES).toGraph()));
+    }
+
+    @Test public void scan_nt_utf8()        { testNT("<http://example/é> <y> \"Ünïcödé \uD83D\uDE00\"@de ."); }
+
+    @Test public void scan_nt_escape_1()    { testNT("<x> <y> \"a\\tb\\nc\\\"d\\\\e\\'f\\rg\\bh\\fi\" ."); }
+    @Test public void scan_nt_escape_2()    { testNT("<x> <y> \"\\u00E9\\U0001F600\" ."); }
+    @Test public void scan_nt_escape_3()    { testNT("<http://example/\\u00E9x> <y> <z> ."); }
+
+    @Test
+    public void scan_nt_escape_4() {
+        Graph graph = parseNT("<x> <y> \"caf\\u00E9 \\\"au lait\\\"\" .");
+        Triple t = graph.find().next();
+        assertEquals(NodeFactory.createLiteralString("café \"au lait\""), t.getObject());
+    }
+
+    @Test
+    public void scan_nt_datatype() {
+        Graph graph = parseNT("<x> <y> \"1\"^^<http://www.w3.org/2001/XMLSchema#integer> .");
+        Node obj = graph.find().next().getObject();
+        assertEquals(1, ((Number)obj.getLiteralValue()).intValue());
+    }
+
+    @Test public void scan_nq_1()   { testNQ("<x> <y> <z> ."); }
+    @Test public void scan_nq_2()   { testNQ("<x> <y> <z> <g> ."); }
+    @Test public void scan_nq_3()   { testNQ("<x> <y> \"z\"@en <g> .\n_:b <y> _:b _:g .\n<x> <y> \"z\" ."); }
+
+    @Test
+    public void scan_nq_default_graph() {
+        List<Quad> quads = new ArrayList<>();
+        NTuplesScanner.parse(input("<x> <y> <z> ."), Lang.NQUADS, new StreamRDFBase() {
+            @Override public void quad(Quad quad) { quads.add(quad); }
+        });
+        assertEquals(1, quads.size());
+        assertEquals(Quad.defaultGraphNodeGenerated, quads.get(0).getGraph());
+    }
+
+    // Buffer boundaries and lines longer than the buffer.
+    @Test
+    public void scan_nt_large() {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0 ; i < 20_000 ; i++ )
+            sb.append("<http://example/s").append(i).append("> <http://example/p> \"value é ").append(i).append("\" .\n");
+        String longString = "x".repeat(300_000);
+        sb.append("<http://example/s> <http://example/p> \"").append(longString).append("\" .\n");
+        Graph graph = parseNT(sb.toString());
+        assertEquals(20_001, graph.size());
+        assertTrue(graph.contains(null, null, NodeFactory.createLiteralString(longString)));
+        assertTrue(graph.contains(null, null, NodeFactory.createLiteralString("value é 19999")));
+    }
+
+    @Test
+    public void scan_nt_bytes() {
+        byte[] bytes = "## <x> <y> <z> .\n<x> <y> <z2> .".getBytes(StandardCharsets.UTF_8);
+        Graph graph = GraphFactory.createDefaultGraph();
+        NTuplesScanner scanner = new NTuplesScanner(Lang.NTRIPLES, RiotLib.factoryRDF(), new ErrorHandlerEx());
+        scanner.parse(bytes, 3, bytes.length - 3, StreamRDFLib.graph(graph));
+        assertEquals(2, graph.size());
+    }
+
+    @Test(expected = ExFatal.class) public void scan_nt_bad_01()    { parseNT("<x> <y> <z>"); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_02()    { parseNT("<x> _:a <z> ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_03()    { parseNT("<x> \"p\" <z> ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_04()    { parseNT("\"x\" <p> <z> ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_05()    { parseNT("<x> <p> ?var ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_06()    { parseNT("<x> <p> 123 ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_07()    { parseNT("<x> <p> x:y ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_08()    { parseNT("<x> <p> <z> <g> ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_09()    { parseNT("<x> <p>\n<z> ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_10()    { parseNT("<x> <p> \"abc\n\" ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_11()    { parseNT("<x y> <p> <z> ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_12()    { parseNT("<x> <p> \"\\q\" ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_13()    { parseNT("<x> <p> \"\\u00\" ."); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_14()    { parseNT("<x> <p> <z"); }
+    @Test(expected = ExFatal.class) public void scan_nt_bad_15()    { parseNT("<<( <s> <p> <o> )>> <p> <z> ."); }
+    @Test(expected = ExFatal.class) public void scan_nq_bad_01()    { parseNQ("<x> <p> <z> \"g\" ."); }
+
+    @Test
+    public void scan_nt_error_position() {
+        ErrorHandler errorHandler = new ErrorHandler() {
+            @Override public void warning(String message, long line, long col) {}
+            @Override public void error(String message, long line, long col) {}
+            @Override public void fatal(String message, long line, long col) {}
+        };
+        String x = StrUtils.strjoinNL("<x> <y> <z> .", "# Comment", "<x> <y> <z> .", "<x> <y> 123 .");
+        NTuplesScanner scanner = new NTuplesScanner(Lang.NTRIPLES, RiotLib.factoryRDF(), errorHandler);
+        try {
+            scanner.parse(input(x), StreamRDFLib.sinkNull());
+            fail("No parse error");
+        } catch (RiotParseException ex) {
+            assertEquals(4, ex.getLine());
+            assertEquals(9, ex.getCol());
+        }
+    }
+
+    private static void testNT(String string) {
+        Graph expected = RDFParser.fromString(string, Lang.NTRIPLES).toGraph();
+        Graph actual = parseNT(string);
+        assertTrue(expected.isIsomorphicWith(actual));
+    }
+
+    private static void testNQ(String string) {
+        DatasetGraph expected = RDFParser.fromString(string, Lang.NQUADS).toDatasetGraph();
+        DatasetGraph actual = parseNQ(string);
+        assertTrue(IsoMatcher.isomorphic(expected, actual));
+    }
+
+    private static Graph parseNT(String string) {
+        Graph graph = GraphFactory.createDefaultGraph();
+        NTuplesScanner scanner = new NTuplesScanner(Lang.NTRIPLES, RiotLib.factoryRDF(), new ErrorHandlerEx());
+        scanner.parse(input(string), StreamRDFLib.graph(graph));
+        return graph;
+    }
+
+    private static DatasetGraph parseNQ(String string) {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        NTuplesScanner scanner = new NTuplesScanner(Lang.NQUADS, RiotLib.factoryRDF(), new ErrorHandlerEx());
+        scanner.parse(input(string), StreamRDFLib.dataset(dsg));
+        return dsg;
+    }
+
+    private static ByteArrayInputStream input(String string) {
+        return new ByteArrayInputStream(string.getBytes(StandardCharsets.UTF_8));
+    }
+}
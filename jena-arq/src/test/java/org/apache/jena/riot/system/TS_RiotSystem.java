@@ -27,6 +27,7 @@ import org.junit.runners.Suite ;
     , TestStreamRDF.class
     , TestFactoryRDF.class
     , TestFactoryRDFCaching.class
+    , TestFactoryRDFInterning.class
 
     // Prefix Map implementations
     , TestPrefixMap.class
@@ -43,6 +44,8 @@ import org.junit.runners.Suite ;
 
     , TestRiotLib.class
     , TestAsyncParser.class
+    , TestParallelParser.class
+    , TestParserCheckpoint.class
 })
 
 /**
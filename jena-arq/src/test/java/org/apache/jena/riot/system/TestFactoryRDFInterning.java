@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.riot.system;
+
+import static org.junit.Assert. * ;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype ;
+import org.apache.jena.graph.Node ;
+import org.apache.jena.graph.NodeInterner ;
+import org.apache.jena.riot.lang.LabelToNode ;
+import org.junit.Test ;
+
+public class TestFactoryRDFInterning extends TestFactoryRDF {
+
+    private final NodeInterner interner = new NodeInterner(1024) ;
+
+    public TestFactoryRDFInterning() {
+        super.factory = new FactoryRDFInterning(interner, LabelToNode.createUseLabelAsGiven()) ;
+    }
+
+    @Test public void factory_intern_01() {
+        // Shared across factories using the same interner.
+        FactoryRDF factory2 = new FactoryRDFInterning(interner, LabelToNode.createUseLabelAsGiven()) ;
+        Node n1 = factory.createURI("http://test/n1") ;
+        Node n2 = factory2.createURI("http://test/n1") ;
+        assertSame(n1, n2) ;
+    }
+
+    @Test public void factory_intern_02() {
+        FactoryRDF factory2 = new FactoryRDFInterning(interner, LabelToNode.createUseLabelAsGiven()) ;
+        assertSame(factory.createStringLiteral("abc"), factory2.createStringLiteral("abc")) ;
+        assertSame(factory.createLangLiteral("abc", "en"), factory2.createLangLiteral("abc", "en")) ;
+        assertSame(factory.createLangDirLiteral("abc", "en", "rtl"), factory2.createLangDirLiteral("abc", "en", "rtl")) ;
+        assertSame(factory.createTypedLiteral("12", XSDDatatype.XSDinteger), factory2.createTypedLiteral("12", XSDDatatype.XSDinteger)) ;
+    }
+
+    @Test public void factory_intern_03() {
+        // Blank nodes are not interned.
+        FactoryRDF factory2 = new FactoryRDFInterning(interner, SyntaxLabels.createLabelToNode()) ;
+        FactoryRDF factory3 = new FactoryRDFInterning(interner, SyntaxLabels.createLabelToNode()) ;
+        assertNotEquals(factory2.createBlankNode("b"), factory3.createBlankNode("b")) ;
+    }
+}
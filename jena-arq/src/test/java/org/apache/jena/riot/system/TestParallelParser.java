@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RiotParseException;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+
+public class TestParallelParser {
+
+    private static final int N = 5000;
+
+    private static String dataNT(int n) {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0 ; i < n ; i++ ) {
+            if ( i % 100 == 0 )
+                sb.append("# Comment\n");
+            sb.append(String.format("_:b%d <http://example/p> \"%d\" .\n", i % 10, i));
+        }
+        return sb.toString();
+    }
+
+    private static String dataNQ(int n) {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0 ; i < n ; i++ ) {
+            if ( i % 3 == 0 )
+                sb.append(String.format("<http://example/s%d> <http://example/p> \"%d\"@en .\n", i, i));
+            else
+                sb.append(String.format("<http://example/s%d> <http://example/p> \"%d\"^^<http://www.w3.org/2001/XMLSchema#integer> <http://example/g%d> .\n", i, i, i % 3));
+        }
+        return sb.toString();
+    }
+
+    private static InputStream input(String string) {
+        return new ByteArrayInputStream(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ParallelParser parser(Lang lang, int threads, boolean ordered, ErrorHandler errorHandler) {
+        return new ParallelParser(lang, RiotLib.factoryRDF(), errorHandler,
+                                  (f, eh) -> RiotLib.createParserProfile(f, eh, false),
+                                  threads, ordered, 1000);
+    }
+
+    private static List<Triple> parseTriples(ParallelParser parser, InputStream input) {
+        List<Triple> triples = new ArrayList<>();
+        parser.parse(input, new StreamRDFBase() {
+            @Override public void triple(Triple triple) { triples.add(triple); }
+        });
+        return triples;
+    }
+
+    private static List<Quad> parseQuads(ParallelParser parser, InputStream input) {
+        List<Quad> quads = new ArrayList<>();
+        parser.parse(input, new StreamRDFBase() {
+            @Override public void quad(Quad quad) { quads.add(quad); }
+        });
+        return quads;
+    }
+
+    @Test public void parallel_nt_ordered() {
+        String data = dataNT(N);
+        List<Triple> triples = parseTriples(parser(Lang.NTRIPLES, 4, true, ErrorHandlerFactory.errorHandlerStrictSilent()), input(data));
+        assertEquals(N, triples.size());
+        for ( int i = 0 ; i < N ; i++ )
+            assertEquals(Integer.toString(i), triples.get(i).getObject().getLiteralLexicalForm());
+    }
+
+    @Test public void parallel_nt_unordered() {
+        String data = dataNT(N);
+        List<Triple> triples = parseTriples(parser(Lang.NTRIPLES, 4, false, ErrorHandlerFactory.errorHandlerStrictSilent()), input(data));
+        assertEquals(N, triples.size());
+        Set<String> objects = new HashSet<>();
+        triples.forEach(t->objects.add(t.getObject().getLiteralLexicalForm()));
+        assertEquals(N, objects.size());
+    }
+
+    @Test public void parallel_nt_bnodes() {
+        // Blank node labels are the same across chunks.
+        String data = dataNT(N);
+        List<Triple> triples = parseTriples(parser(Lang.NTRIPLES, 4, false, ErrorHandlerFactory.errorHandlerStrictSilent()), input(data));
+        Set<Node> subjects = new HashSet<>();
+        triples.forEach(t->subjects.add(t.getSubject()));
+        assertEquals(10, subjects.size());
+    }
+
+    @Test public void parallel_nq() {
+        String data = dataNQ(N);
+        List<Quad> quads = parseQuads(parser(Lang.NQUADS, 3, true, ErrorHandlerFactory.errorHandlerStrictSilent()), input(data));
+        List<Quad> expected = new ArrayList<>();
+        RDFParser.source(input(data)).lang(Lang.NQUADS).parse(new StreamRDFBase() {
+            @Override public void quad(Quad quad) { expected.add(quad); }
+        });
+        assertEquals(expected, quads);
+    }
+
+    @Test public void parallel_gzip() throws IOException {
+        String data = dataNQ(N);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( GZIPOutputStream out = new GZIPOutputStream(bytes) ) {
+            out.write(data.getBytes(StandardCharsets.UTF_8));
+        }
+        InputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        List<Quad> quads = parseQuads(parser(Lang.NQUADS, 2, false, ErrorHandlerFactory.errorHandlerStrictSilent()), input);
+        assertEquals(N, quads.size());
+    }
+
+    @Test public void parallel_no_final_newline() {
+        String data = "<http://example/s> <http://example/p> \"1\" .\n<http://example/s> <http://example/p> \"2\" .";
+        List<Triple> triples = parseTriples(parser(Lang.NTRIPLES, 2, true, ErrorHandlerFactory.errorHandlerStrictSilent()), input(data));
+        assertEquals(2, triples.size());
+    }
+
+    @Test public void parallel_long_line() {
+        // Longer than the chunk size.
+        String lex = "x".repeat(3000);
+        String data = dataNT(10) + "<http://example/s> <http://example/p> \"" + lex + "\" .\n" + dataNT(10);
+        List<Triple> triples = parseTriples(parser(Lang.NTRIPLES, 2, true, ErrorHandlerFactory.errorHandlerStrictSilent()), input(data));
+        assertEquals(21, triples.size());
+        assertEquals(lex, triples.get(10).getObject().getLiteralLexicalForm());
+    }
+
+    @Test public void parallel_error_line() {
+        String data = dataNT(N) + "<http://example/s> <http://example/p> .\n" + dataNT(10);
+        // Lines of data, one comment line every 100 lines.
+        long expectedLine = N + N / 100 + 1;
+        try {
+            parseTriples(parser(Lang.NTRIPLES, 4, true, ErrorHandlerFactory.errorHandlerExceptions()), input(data));
+            fail("Expected a parse exception");
+        } catch (RiotParseException ex) {
+            assertEquals(expectedLine, ex.getLine());
+        }
+    }
+
+    @Test public void parallel_builder() {
+        String data = dataNT(N).replaceAll("_:b(\\d+)", "<http://example/b$1>");
+        Graph graph1 = GraphFactory.createDefaultGraph();
+        RDFParser.source(input(data)).lang(Lang.NTRIPLES).parse(graph1);
+        Graph graph2 = GraphFactory.createDefaultGraph();
+        RDFParser.source(input(data)).lang(Lang.NTRIPLES).parallel(4).parallelOrdered(false).parse(graph2);
+        assertEquals(N, graph2.size());
+        assertTrue(graph1.isIsomorphicWith(graph2));
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.sparql.core.Quad;
+
+public class TestParserCheckpoint {
+
+    private static final String BASE = "http://example/base/";
+
+    private static String dataTurtle(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("﻿@prefix : <http://example/> .\n");
+        for ( int i = 0 ; i < n ; i++ ) {
+            switch (i % 6) {
+                case 0 -> sb.append(String.format(":s%d :p [ :q \"é %d\" ] .\n", i, i));
+                case 1 -> sb.append(String.format("_:b%d :p ( 1 2 %d ) .\n", i % 7, i));
+                case 2 -> sb.append(String.format("<rel%d> :p \"😀 %d\"@en .\n", i, i));
+                case 3 -> sb.append(String.format("# Comment\n:s%d :p _:b%d ;\n    :q \"x\" .\n", i, i % 7));
+                case 4 -> sb.append(String.format("@prefix ex: <http://example/%d/> .\nex:s ex:p ex:o .\n", i));
+                case 5 -> sb.append(String.format("PREFIX x%d: <http://example/x/>\nBASE <http://example/base%d/>\n<s> x%d:p [] .\n", i, i, i));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String dataTriG(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PREFIX : <http://example/>\n");
+        for ( int i = 0 ; i < n ; i++ ) {
+            if ( i % 3 == 0 )
+                sb.append(String.format(":s%d :p [ :q %d ] .\n", i, i));
+            else
+                sb.append(String.format(":g%d { :s :p _:b%d . :s :q [] }\n", i % 4, i % 5));
+        }
+        return sb.toString();
+    }
+
+    private static String dataNT(int n) {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0 ; i < n ; i++ ) {
+            if ( i % 10 == 0 )
+                sb.append("# Comment\n");
+            sb.append(String.format("_:b%d <http://example/p> \"ü %d\" .\n", i % 7, i));
+        }
+        return sb.toString();
+    }
+
+    private static String dataNQ(int n) {
+        StringBuilder sb = new StringBuilder();
+        for ( int i = 0 ; i < n ; i++ )
+            sb.append(String.format("_:b%d <http://example/p> \"%d\" <http://example/g%d> .\n", i % 7, i, i % 3));
+        return sb.toString();
+    }
+
+    @Test public void checkpoint_turtle()   { testResume(dataTurtle(100), Lang.TURTLE); }
+    @Test public void checkpoint_trig()     { testResume(dataTriG(50), Lang.TRIG); }
+    @Test public void checkpoint_nt()       { testResume(dataNT(100), Lang.NTRIPLES); }
+    @Test public void checkpoint_nq()       { testResume(dataNQ(100), Lang.NQUADS); }
+
+    @Test
+    public void checkpoint_interval() {
+        byte[] bytes = dataNT(1000).getBytes(StandardCharsets.UTF_8);
+        List<ParserCheckpoint> checkpoints = new ArrayList<>();
+        RDFParser.source(new ByteArrayInputStream(bytes)).lang(Lang.NTRIPLES)
+                 .checkpoint(1000, checkpoints::add)
+                 .parse(StreamRDFLib.sinkNull());
+        assertFalse(checkpoints.isEmpty());
+        long last = 0;
+        for ( ParserCheckpoint cp : checkpoints ) {
+            assertTrue(cp.getOffset() - last >= 1000);
+            last = cp.getOffset();
+        }
+        assertTrue(bytes.length - last < 2000);
+    }
+
+    @Test
+    public void checkpoint_parallel_ignored() {
+        List<ParserCheckpoint> checkpoints = new ArrayList<>();
+        RDFParser.source(new ByteArrayInputStream(dataNT(100).getBytes(StandardCharsets.UTF_8))).lang(Lang.NTRIPLES)
+                 .parallel(4)
+                 .checkpoint(0, checkpoints::add)
+                 .parse(StreamRDFLib.sinkNull());
+        assertEquals(100, checkpoints.size());
+    }
+
+    @Test
+    public void checkpoint_properties() {
+        ParserCheckpoint cp = ParserCheckpoint.create(1234, 56, "http://example/base",
+                                                      Map.of("", "http://example/", "ex:a", "http://example/a="),
+                                                      UUID.randomUUID(), 78);
+        ParserCheckpoint cp2 = ParserCheckpoint.fromProperties(cp.toProperties());
+        assertEquals(cp, cp2);
+        ParserCheckpoint cp3 = ParserCheckpoint.create(0, 1, null, Map.of(), null, 0);
+        assertEquals(cp3, ParserCheckpoint.fromProperties(cp3.toProperties()));
+    }
+
+    @Test(expected = RiotException.class)
+    public void checkpoint_resume_string() {
+        ParserCheckpoint cp = ParserCheckpoint.create(0, 1, null, Map.of(), null, 0);
+        RDFParser.fromString("<x> <p> <o> .", Lang.NTRIPLES).resume(cp).parse(StreamRDFLib.sinkNull());
+    }
+
+    @Test(expected = RiotException.class)
+    public void checkpoint_resume_rdfxml() {
+        ParserCheckpoint cp = ParserCheckpoint.create(0, 1, null, Map.of(), null, 0);
+        RDFParser.source(new ByteArrayInputStream(new byte[0])).lang(Lang.RDFXML).resume(cp).parse(StreamRDFLib.sinkNull());
+    }
+
+    @Test(expected = RiotException.class)
+    public void checkpoint_resume_beyond_end() {
+        ParserCheckpoint cp = ParserCheckpoint.create(1000, 1, null, Map.of(), null, 0);
+        RDFParser.source(new ByteArrayInputStream(new byte[10])).lang(Lang.NTRIPLES).resume(cp).parse(StreamRDFLib.sinkNull());
+    }
+
+    /**
+     * Parse with checkpoints, then resume from each checkpoint and check the output
+     * is the rest of the output of the first parse, including blank nodes.
+     */
+    private static void testResume(String data, Lang lang) {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        List<Quad> output = new ArrayList<>();
+        List<ParserCheckpoint> checkpoints = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        RDFParser.source(new ByteArrayInputStream(bytes)).lang(lang).base(BASE)
+                 .checkpoint(0, cp -> {
+                     checkpoints.add(cp);
+                     counts.add(output.size());
+                 })
+                 .parse(collector(output));
+        assertFalse(checkpoints.isEmpty());
+
+        for ( int i = 0 ; i < checkpoints.size() ; i++ ) {
+            ParserCheckpoint cp = checkpoints.get(i);
+            assertEquals("Line", lineOf(bytes, cp.getOffset()), cp.getLine());
+            assertNotNull(cp.getBlankNodeSeed());
+
+            ParserCheckpoint resumeFrom = ParserCheckpoint.fromProperties(cp.toProperties());
+            List<Quad> resumed = new ArrayList<>();
+            List<ParserCheckpoint> resumedCheckpoints = new ArrayList<>();
+            RDFParser.source(new ByteArrayInputStream(bytes)).lang(lang).base(BASE)
+                     .resume(resumeFrom)
+                     .checkpoint(0, resumedCheckpoints::add)
+                     .parse(collector(resumed));
+            assertEquals(output.subList(counts.get(i), output.size()), resumed);
+            assertEquals(checkpoints.subList(i, checkpoints.size()), resumedCheckpoints);
+        }
+    }
+
+    private static long lineOf(byte[] bytes, long offset) {
+        long line = 1;
+        for ( int i = 0 ; i < offset ; i++ ) {
+            if ( bytes[i] == '\n' )
+                line++;
+        }
+        return line;
+    }
+
+    private static StreamRDF collector(List<Quad> output) {
+        return new StreamRDFBase() {
+            @Override
+            public void triple(Triple triple) {
+                output.add(Quad.create(Quad.defaultGraphNodeGenerated, triple));
+            }
+
+            @Override
+            public void quad(Quad quad) {
+                output.add(quad);
+            }
+        };
+    }
+}
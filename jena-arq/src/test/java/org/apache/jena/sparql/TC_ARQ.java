@@ -31,6 +31,7 @@ import org.apache.jena.sparql.api.TS_API ;
 import org.apache.jena.sparql.core.TS_Core ;
 import org.apache.jena.sparql.core.assembler.TS_Assembler ;
 import org.apache.jena.sparql.core.mem.TS_DatasetTxnMem ;
+import org.apache.jena.sparql.core.mem2.TS_DatasetQuadMem ;
 import org.apache.jena.sparql.engine.TS_Engine ;
 import org.apache.jena.sparql.engine.binding.TS_EngineBinding ;
 import org.apache.jena.sparql.engine.index.TS_Minus;
@@ -94,6 +95,7 @@ import org.apache.jena.sparql.util.iso.TS_Iso ;
     , TS_Core.class
     , TS_Assembler.class
     , TS_DatasetTxnMem.class
+    , TS_DatasetQuadMem.class
     , TS_Path.class
     , TS_Update.class
     , TS_Transaction.class
@@ -21,6 +21,7 @@ package org.apache.jena.sparql.algebra.optimize;
 import static org.apache.jena.sparql.algebra.optimize.TransformTests.testOp;
 
 import org.apache.jena.atlas.lib.StrUtils;
+import org.apache.jena.query.ARQ;
 import org.apache.jena.sparql.algebra.Transform;
 import org.junit.Test;
 
@@ -306,6 +307,34 @@ public class TestTransformTopN {
             );        testQuery("SELECT ?s { ?s ?p ?o } ORDER BY ?p ?o OFFSET 1 LIMIT 5", output);
     }
 
+    @Test public void topN_query_05() {
+        // Deep OFFSET, with spilling: the top N is bounded by the spill threshold.
+        String output = StrUtils.strjoinNL
+            ("(slice 100000 _"
+            ,"  (project (?s)"
+            ,"    (top (100010 ?p ?o)"
+            ,"      (bgp (triple ?s ?p ?o)))))"
+            );
+        Object x = ARQ.getContext().get(ARQ.spillToDiskThreshold);
+        try {
+            ARQ.getContext().set(ARQ.spillToDiskThreshold, 10000L);
+            testQuery("SELECT ?s { ?s ?p ?o } ORDER BY ?p ?o OFFSET 100000 LIMIT 10", output);
+        } finally {
+            ARQ.getContext().set(ARQ.spillToDiskThreshold, x);
+        }
+    }
+
+    @Test public void topN_query_06() {
+        // Deep OFFSET, no spilling: too large for (top).
+        String output = StrUtils.strjoinNL
+            ("(slice 100000 10"
+            ,"  (project (?s)"
+            ,"    (order (?p ?o)"
+            ,"      (bgp (triple ?s ?p ?o)))))"
+            );
+        testQuery("SELECT ?s { ?s ?p ?o } ORDER BY ?p ?o OFFSET 100000 LIMIT 10", output);
+    }
+
     private void test(String input, String output) {
         Transform transform = new TransformTopN();
         testOp(input, transform, output);
@@ -37,6 +37,7 @@ import org.junit.runners.Suite ;
     , TestGraphView.class
 
     , TestDatasetGraphBaseFind_General.class
+    , TestDatasetGraphBaseFind_GeneralOffHeap.class
     , TestDatasetGraphBaseFind_Mem.class
     , TestDatasetGraphBaseFindPattern_General.class
     , TestDatasetGraphBaseFindPattern_Mem.class
@@ -18,6 +18,10 @@
 
 package org.apache.jena.sparql.core;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.sparql.sse.SSE;
@@ -49,4 +53,21 @@ public class TestGraphView {
         graph.getTransactionHandler().execute(()->graph.add(triple) );
         graph.getTransactionHandler().execute(()->assertTrue(graph.contains(triple)) );
     }
+
+    @Test public void graphDSG_view_forEachMatch_1() {
+        DatasetGraph dsg = SSE.parseDatasetGraph("(dataset (graph <g1> (<s> <p> 1) (<s> <p> 2)) (graph <g2> (<s> <p> 1)))");
+        Graph graph = GraphView.createNamedGraph(dsg, SSE.parseNode("<g1>"));
+        List<Triple> x = new ArrayList<>();
+        graph.forEachMatch(SSE.parseNode("<s>"), null, null, x::add);
+        assertEquals(2, x.size());
+        assertEquals(graph.find(SSE.parseNode("<s>"), null, null).toSet(), new HashSet<>(x));
+    }
+
+    @Test public void graphDSG_view_forEachMatch_union() {
+        DatasetGraph dsg = SSE.parseDatasetGraph("(dataset (graph <g1> (<s> <p> 1) (<s> <p> 2)) (graph <g2> (<s> <p> 1)))");
+        Graph graph = GraphView.createUnionGraph(dsg);
+        List<Triple> x = new ArrayList<>();
+        graph.forEachMatch(null, SSE.parseNode("<p>"), null, x::add);
+        assertEquals(2, x.size());
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.core.mem2;
+
+import static org.apache.jena.graph.Node.ANY;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.sse.SSE;
+import org.junit.Test;
+
+public class TestQuadStore {
+
+    private static Quad quad(String str) {
+        return SSE.parseQuad(str);
+    }
+
+    private static void add(QuadStore store, Quad quad) {
+        store.add(quad.getGraph(), quad.getSubject(), quad.getPredicate(), quad.getObject());
+    }
+
+    private static boolean delete(QuadStore store, Quad quad) {
+        return store.delete(quad.getGraph(), quad.getSubject(), quad.getPredicate(), quad.getObject());
+    }
+
+    @Test public void quadStore_add_delete() {
+        QuadStore store = new QuadStore();
+        assertTrue(store.isEmpty());
+        Quad q = quad("(:g :s :p :o)");
+        assertTrue(store.add(q.getGraph(), q.getSubject(), q.getPredicate(), q.getObject()));
+        assertFalse(store.add(q.getGraph(), q.getSubject(), q.getPredicate(), q.getObject()));
+        assertEquals(1, store.size());
+        assertTrue(store.contains(q.getGraph(), q.getSubject(), q.getPredicate(), q.getObject()));
+        assertTrue(delete(store, q));
+        assertFalse(delete(store, q));
+        assertTrue(store.isEmpty());
+        assertEquals(0, store.countNodes());
+    }
+
+    @Test public void quadStore_shared_nodes() {
+        QuadStore store = new QuadStore();
+        add(store, quad("(:g1 :s :p 'abc')"));
+        add(store, quad("(:g2 :s :p 'abc')"));
+        add(store, quad("(:g3 :s :p :g1)"));
+        // :g1 :g2 :g3 :s :p 'abc'
+        assertEquals(6, store.countNodes());
+        Quad q1 = store.find(node(":g1"), ANY, ANY, ANY).next();
+        Quad q2 = store.find(node(":g2"), ANY, ANY, ANY).next();
+        Quad q3 = store.find(node(":g3"), ANY, ANY, ANY).next();
+        assertSame(q1.getSubject(), q2.getSubject());
+        assertSame(q1.getObject(), q2.getObject());
+        assertSame(q1.getGraph(), q3.getObject());
+    }
+
+    @Test public void quadStore_release_nodes() {
+        QuadStore store = new QuadStore();
+        add(store, quad("(:g :s :p :s)"));
+        add(store, quad("(:g :s :q 'x')"));
+        assertEquals(5, store.countNodes());
+        delete(store, quad("(:g :s :q 'x')"));
+        assertEquals(3, store.countNodes());
+        delete(store, quad("(:g :s :p :s)"));
+        assertEquals(0, store.countNodes());
+        // Ids are reused.
+        add(store, quad("(:g2 :s2 :p2 :o2)"));
+        assertEquals(1, Iter.count(store.find(ANY, node(":s2"), ANY, ANY)));
+        assertEquals(0, Iter.count(store.find(ANY, node(":s"), ANY, ANY)));
+    }
+
+    @Test public void quadStore_find_across_graphs() {
+        QuadStore store = new QuadStore();
+        add(store, quad("(:g1 :s :p :o)"));
+        add(store, quad("(:g2 :s :p :o)"));
+        add(store, quad("(:g2 :s :q :o)"));
+        add(store, quad("(<urn:x-arq:DefaultGraph> :s :p :o)"));
+        assertEquals(3, Iter.count(store.find(ANY, node(":s"), node(":p"), ANY)));
+        assertEquals(2, Iter.count(store.findExcept(Quad.defaultGraphIRI, node(":s"), node(":p"), node(":o"))));
+        assertEquals(3, Iter.count(store.findExcept(Quad.defaultGraphIRI, ANY, ANY, ANY)));
+        assertEquals(2, Iter.count(store.find(node(":g2"), node(":s"), ANY, node(":o"))));
+        assertEquals(0, Iter.count(store.find(node(":g1"), ANY, node(":q"), ANY)));
+        assertEquals(0, Iter.count(store.find(node(":g9"), ANY, ANY, ANY)));
+        assertEquals(1, Iter.count(store.find(node(":g1"), node(":s"), node(":p"), node(":o"))));
+    }
+
+    @Test public void quadStore_graphs() {
+        QuadStore store = new QuadStore();
+        add(store, quad("(:g1 :s :p :o)"));
+        add(store, quad("(:g2 :s :p :o)"));
+        add(store, quad("(:g2 :s :q :o)"));
+        List<Node> graphs = store.listGraphNodes().toList();
+        assertEquals(2, graphs.size());
+        assertTrue(graphs.contains(node(":g1")));
+        assertTrue(graphs.contains(node(":g2")));
+        assertEquals(2, store.countQuads(node(":g2")));
+        assertFalse(store.containsGraph(node(":s")));
+        store.clear();
+        assertTrue(store.isEmpty());
+        assertEquals(0, store.listGraphNodes().count());
+    }
+
+    @Test public void quadStore_many() {
+        QuadStore store = new QuadStore();
+        int N = 1000;
+        for ( int i = 0 ; i < N ; i++ )
+            store.add(NodeFactory.createURI("http://example/g" + (i % 10)),
+                      NodeFactory.createURI("http://example/s" + i),
+                      node(":p"),
+                      NodeFactory.createLiteralString("v" + (i % 7)));
+        assertEquals(N, store.size());
+        assertEquals(N / 10, store.countQuads(NodeFactory.createURI("http://example/g3")));
+        assertEquals(N, Iter.count(store.find(ANY, ANY, node(":p"), ANY)));
+        for ( int i = 0 ; i < N ; i += 2 )
+            store.delete(NodeFactory.createURI("http://example/g" + (i % 10)),
+                         NodeFactory.createURI("http://example/s" + i),
+                         node(":p"),
+                         NodeFactory.createLiteralString("v" + (i % 7)));
+        assertEquals(N / 2, store.size());
+        assertEquals(N / 2, Iter.count(store.find(ANY, ANY, node(":p"), ANY)));
+        assertEquals(0, store.countQuads(NodeFactory.createURI("http://example/g4")));
+    }
+
+    private static Node node(String str) {
+        return SSE.parseNode(str);
+    }
+}
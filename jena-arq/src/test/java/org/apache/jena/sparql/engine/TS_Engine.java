@@ -26,6 +26,8 @@ import org.junit.runners.Suite ;
         TestQueryEngineMultiThreaded.class
       , TestQueryEngineFromContext.class
       , TestJsonEval.class
+      , TestPatternMatchAdaptive.class
+      , TestQueryPlanCache.class
 })
 
 public class TS_Engine {}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.algebra.op.OpBGP;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.iterator.QueryIterRoot;
+import org.apache.jena.sparql.engine.main.solver.PatternMatchAdaptive;
+import org.apache.jena.sparql.engine.main.solver.PatternMatchData;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderLib;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderTransformation;
+import org.apache.jena.sparql.engine.optimizer.reorder.ReorderWeighted;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.solver.SolverLibTest;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.vocabulary.RDF;
+
+public class TestPatternMatchAdaptive {
+    private static Graph graph;
+    private static final int sampleSize = PatternMatchAdaptive.SampleSize;
+
+    @BeforeClass public static void beforeClass() {
+        graph = GraphFactory.createDefaultGraph();
+        for ( int i = 0 ; i < 500 ; i++ ) {
+            graph.add(uri("s"+i), uri("p"), uri("o"+(i%50)));
+            graph.add(uri("s"+i), uri("r"), uri("s"+(i+1)));
+            if ( i < 5 )
+                graph.add(uri("s"+i), RDF.Nodes.type, uri("T"));
+        }
+        for ( int j = 0 ; j < 50 ; j++ )
+            graph.add(uri("o"+j), uri("q"), NodeFactory.createLiteralString("v"+j));
+    }
+
+    @After public void after() {
+        PatternMatchAdaptive.SampleSize = sampleSize;
+    }
+
+    private static Node uri(String local) {
+        return NodeFactory.createURI("http://example/"+local);
+    }
+
+    private static String[] queries = {
+        "SELECT * { ?x :p ?o . ?o :q ?v . ?x a :T }",
+        "SELECT * { ?x :p ?o . ?x :r ?z . ?z :p ?o2 }",
+        "SELECT * { ?x :r ?y . ?y :r ?z . ?z :p :o7 }",
+        "SELECT * { ?x :p ?o . ?y :p ?o . ?y a :T }",
+        "SELECT * { ?x a :T OPTIONAL { ?x :p ?o . ?o :q ?v } }",
+        "SELECT * { ?x :p ?o . ?o :notThere ?v }",
+        "SELECT * { ?x :p ?o . ?x :r ?x }",
+        "SELECT * { :s1 :p ?o . ?x :p ?o }",
+        "SELECT * { ?x :p ?o . ?o2 :q ?v }",
+        "SELECT * { ?x :p ?o . ?o :q ?v }",
+        "SELECT * { ?x :r ?y . ?y :p ?o . ?o :q ?v }",
+    };
+
+    @Test public void adaptive_01() {
+        for ( String qs : queries )
+            test(qs);
+    }
+
+    @Test public void adaptive_02() {
+        // Small samples, so there are hash joins.
+        PatternMatchAdaptive.SampleSize = 10;
+        for ( String qs : queries )
+            test(qs);
+    }
+
+    @Test public void adaptive_03() {
+        PatternMatchAdaptive.SampleSize = 100;
+        for ( String qs : queries )
+            test(qs);
+    }
+
+    @Test public void adaptive_04() {
+        PatternMatchAdaptive.SampleSize = 1;
+        for ( String qs : queries )
+            test(qs);
+    }
+
+    private static String[] patterns = {
+        "(bgp (?x :p ?o) (?o :q ?v) (?x rdf:type :T))",
+        "(bgp (?x :p ?o) (?x :r ?z) (?z :p ?o2))",
+        "(bgp (?x :r ?y) (?y :r ?z) (?z :p :o7))",
+        "(bgp (?x :p ?o) (?y :p ?o) (?y rdf:type :T))",
+        "(bgp (?x :p ?o) (?o :notThere ?v))",
+        "(bgp (?x :r ?y) (?y :p ?o) (?o :q ?v))",
+    };
+
+    @Test public void adaptive_weighted_01() {
+        // Statistics that are badly wrong, so the measured matches differ from the estimates.
+        ReorderTransformation reorder = new ReorderWeighted(SolverLibTest.matcher("((ANY :p ANY) 1)",
+                                                                                  "((ANY :r ANY) 1)",
+                                                                                  "((ANY rdf:type :T) 100000)",
+                                                                                  "((ANY :q ANY) 100000)"));
+        for ( String bgp : patterns )
+            testPattern(bgp, reorder);
+    }
+
+    @Test public void adaptive_weighted_02() {
+        PatternMatchAdaptive.SampleSize = 10;
+        ReorderTransformation reorder = new ReorderWeighted(SolverLibTest.matcher("((ANY :p ANY) 500)",
+                                                                                  "((ANY :r ANY) 500)",
+                                                                                  "((ANY rdf:type :T) 5)",
+                                                                                  "((ANY :q ANY) 50)"));
+        for ( String bgp : patterns )
+            testPattern(bgp, reorder);
+    }
+
+    @Test public void adaptive_fixed_01() {
+        // Fixed weights: the order is revisited by comparing measured matches.
+        PatternMatchAdaptive.SampleSize = 10;
+        for ( String bgp : patterns )
+            testPattern(bgp, ReorderLib.fixed());
+    }
+
+    private static void testPattern(String bgpString, ReorderTransformation reorder) {
+        OpBGP op = (OpBGP)SSE.parseOp("(prefix ((: <http://example/>) (rdf: <"+RDF.getURI()+">)) "+bgpString+")");
+        BasicPattern bgp = reorder.reorder(op.getPattern());
+        ExecutionContext execCxt = ExecutionContext.createForGraph(graph);
+        Map<Binding, Long> expected = multiset(PatternMatchData.execute(graph, bgp, QueryIterRoot.create(execCxt), null, execCxt));
+        Map<Binding, Long> actual = multiset(PatternMatchAdaptive.execute(graph, bgp, QueryIterRoot.create(execCxt), null, reorder, execCxt));
+        assertEquals(bgpString, expected, actual);
+    }
+
+    private static Map<Binding, Long> multiset(QueryIterator iter) {
+        List<Binding> rows = new ArrayList<>();
+        iter.forEachRemaining(rows::add);
+        iter.close();
+        return rows.stream().collect(Collectors.groupingBy(b->b, Collectors.counting()));
+    }
+
+    private static void test(String queryString) {
+        Query query = QueryFactory.create("PREFIX : <http://example/> " + queryString);
+        // No blank nodes: compare as multisets of bindings.
+        Map<Binding, Long> expected = QueryExec.graph(graph).query(query).select().stream()
+                .collect(Collectors.groupingBy(b->b, Collectors.counting()));
+        Map<Binding, Long> actual = QueryExec.graph(graph).query(query).set(ARQ.adaptiveExecution, true).select().stream()
+                .collect(Collectors.groupingBy(b->b, Collectors.counting()));
+        assertEquals(queryString, expected, actual);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.Syntax;
+import org.apache.jena.sparql.ARQConstants;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.main.QueryEngineMain;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.util.Context;
+
+public class TestQueryPlanCache {
+    private static DatasetGraph dsg;
+
+    @BeforeClass public static void beforeClass() {
+        dsg = DatasetGraphFactory.createTxnMem();
+        for ( int i = 0 ; i < 10 ; i++ ) {
+            dsg.getDefaultGraph().add(uri("s"+i), uri("p"), NodeFactory.createLiteralString("v"+(i%3)));
+            dsg.getDefaultGraph().add(uri("s"+i), uri("q"), uri("s"+(i+1)));
+        }
+    }
+
+    private static Node uri(String local) {
+        return NodeFactory.createURI("http://example/"+local);
+    }
+
+    private static final String PREFIX = "PREFIX : <http://example/> ";
+
+    private static List<Binding> exec(String queryString, QueryPlanCache cache) {
+        return QueryExec.dataset(dsg).query(PREFIX+queryString).set(ARQ.queryPlanCache, cache).select().stream().toList();
+    }
+
+    private static List<Binding> exec(String queryString) {
+        return QueryExec.dataset(dsg).query(PREFIX+queryString).select().stream().toList();
+    }
+
+    @Test public void normalize_01() {
+        assertEquals("SELECT * { ?s ?p ?o }", QueryPlanCache.normalize("  SELECT *\n{ ?s\t?p   ?o }\n"));
+    }
+
+    @Test public void normalize_02() {
+        // Strings and IRIs are not changed; comments are removed.
+        String qs = "SELECT * { ?s <http://example/a#b> 'a  b' . ?s ?p \"\"\"x\n  # y\"\"\" } # comment\n LIMIT 1";
+        String expected = "SELECT * { ?s <http://example/a#b> 'a  b' . ?s ?p \"\"\"x\n  # y\"\"\" } LIMIT 1";
+        assertEquals(expected, QueryPlanCache.normalize(qs));
+    }
+
+    @Test public void normalize_03() {
+        // Not an IRI.
+        assertEquals("FILTER(?a < ?b && ?c > ?d)", QueryPlanCache.normalize("FILTER(?a  <  ?b &&  ?c >  ?d)"));
+        assertEquals("FILTER(?a<?b)", QueryPlanCache.normalize("FILTER(?a<?b)"));
+        assertEquals("'it\\'s  ok'", QueryPlanCache.normalize("'it\\'s  ok'  "));
+    }
+
+    @Test public void parse_01() {
+        QueryPlanCache cache = new QueryPlanCache(10, false);
+        Query q1 = cache.parse(PREFIX+"SELECT * { ?s :p 'a' }", null, Syntax.syntaxARQ);
+        Query q2 = cache.parse(PREFIX+"SELECT *\n  { ?s :p 'a' }", null, Syntax.syntaxARQ);
+        Query q3 = cache.parse(PREFIX+"SELECT * { ?s :p 'a ' }", null, Syntax.syntaxARQ);
+        assertSame(q1, q2);
+        assertNotSame(q1, q3);
+        assertEquals(1, cache.queryStats().hits);
+        assertEquals(2, cache.queryStats().misses);
+        assertEquals(2, cache.queryCacheSize());
+    }
+
+    @Test public void plan_01() {
+        QueryPlanCache cache = new QueryPlanCache(10, false);
+        String qs = "SELECT * { ?s :p ?v . ?s :q ?s2 . FILTER(?v != 'v1') } ORDER BY ?s";
+        List<Binding> expected = exec(qs);
+        assertEquals(expected, exec(qs, cache));
+        assertEquals(expected, exec(qs, cache));
+        assertEquals(1, cache.planStats().hits);
+        assertEquals(1, cache.planStats().misses);
+        // Different query
+        exec("SELECT * { ?s :p 'v2' }", cache);
+        assertEquals(2, cache.planStats().misses);
+    }
+
+    @Test public void plan_02() {
+        // Parameterized literals
+        QueryPlanCache cache = new QueryPlanCache(10, true);
+        for ( int i = 0 ; i < 3 ; i++ ) {
+            String qs = "SELECT * { ?s :p 'v"+i+"' . ?s :q ?s2 OPTIONAL { ?s2 :p ?v } } ORDER BY ?s";
+            assertEquals(exec(qs), exec(qs, cache));
+        }
+        assertEquals(2, cache.planStats().hits);
+        assertEquals(1, cache.planStats().misses);
+        assertEquals(1, cache.planCacheSize());
+    }
+
+    @Test public void plan_03() {
+        // Different datasets.
+        QueryPlanCache cache = new QueryPlanCache(10, false);
+        String qs = PREFIX+"SELECT * { ?s :p ?v }";
+        DatasetGraph dsg2 = DatasetGraphFactory.createTxnMem();
+        assertEquals(30, 3*Iter.count(QueryExec.dataset(dsg).query(qs).set(ARQ.queryPlanCache, cache).select()));
+        assertEquals(0, Iter.count(QueryExec.dataset(dsg2).query(qs).set(ARQ.queryPlanCache, cache).select()));
+        assertEquals(2, cache.planStats().misses);
+    }
+
+    @Test public void plan_04() {
+        // Queries with property functions.
+        QueryPlanCache cache = new QueryPlanCache(10, true);
+        String qs = "PREFIX apf: <http://jena.apache.org/ARQ/property#> SELECT * { ?x apf:strSplit ('a,b,c' ',') }";
+        assertEquals(exec(qs), exec(qs, cache));
+        assertEquals(exec(qs), exec(qs, cache));
+        assertEquals(3, exec(qs, cache).size());
+    }
+
+    @Test public void plan_05() {
+        // Context settings that affect optimization are part of the key.
+        QueryPlanCache cache = new QueryPlanCache(10, false);
+        Query query = QueryFactory.create(PREFIX+"SELECT * { ?s :p ?v FILTER(?v = 'v1') }");
+        Op op = Algebra.compile(query);
+        AtomicInteger calls = new AtomicInteger();
+        Context cxt1 = new Context();
+        Context cxt2 = new Context();
+        cxt2.set(ARQ.optimization, false);
+        Context cxt3 = new Context();
+        cxt3.set(ARQ.optFilterPlacement, false);
+        Context cxt4 = new Context();
+        cxt4.set(ARQ.optimization, false);
+        // Not a setting that affects optimization.
+        cxt4.set(ARQ.queryTimeout, "1000");
+        for ( Context cxt : List.of(cxt1, cxt2, cxt3, cxt1, cxt4) )
+            cache.optimize(query, op, dsg, QueryEngineMain.class, cxt, x->{ calls.incrementAndGet(); return x; });
+        assertEquals(3, calls.get());
+        assertEquals(2, cache.planStats().hits);
+    }
+
+    @Test public void plan_06() {
+        // The plan used is recorded on a cache hit.
+        QueryPlanCache cache = new QueryPlanCache(10, false);
+        String qs = PREFIX+"SELECT * { ?s :p ?v . ?s :q ?s2 . FILTER(?v != 'v1') }";
+        Op[] plans = new Op[2];
+        for ( int i = 0 ; i < 2 ; i++ ) {
+            QueryExec qExec = QueryExec.dataset(dsg).query(qs).set(ARQ.queryPlanCache, cache).build();
+            qExec.select().materialize();
+            plans[i] = qExec.getContext().get(ARQConstants.sysCurrentAlgebra);
+        }
+        assertEquals(1, cache.planStats().hits);
+        assertNotNull(plans[0]);
+        assertSame(plans[0], plans[1]);
+        assertNotEquals(Algebra.compile(QueryFactory.create(qs)), plans[1]);
+    }
+
+    @Test public void context_01() {
+        Context cxt = new Context();
+        assertNull(QueryPlanCache.get(cxt));
+        cxt.set(ARQ.queryPlanCache, "true");
+        assertSame(QueryPlanCache.get(), QueryPlanCache.get(cxt));
+        QueryPlanCache cache = new QueryPlanCache(10, false);
+        cxt.set(ARQ.queryPlanCache, cache);
+        assertSame(cache, QueryPlanCache.get(cxt));
+        cxt.set(ARQ.queryPlanCache, false);
+        assertNull(QueryPlanCache.get(cxt));
+    }
+}
@@ -26,6 +26,7 @@ import org.junit.runners.Suite;
         TestItr.class
       , TestBinding.class
       , TestBindingStreams.class
+      , TestBindingBinaryStreams.class
 })
 
 public class TS_EngineBinding { }
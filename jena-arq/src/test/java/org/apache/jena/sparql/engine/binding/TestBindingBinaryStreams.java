@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.engine.binding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.apache.jena.atlas.data.SerializationFactory;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.Sink;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.system.SerializationFactoryFinder;
+
+public class TestBindingBinaryStreams
+{
+    @Test public void bindingBinary_01()    { testWriteRead(build("(?a 1) (?b 2)")); }
+    @Test public void bindingBinary_02()    { testWriteRead(build("")); }
+    @Test public void bindingBinary_03()    { testWriteRead(build("(?a _:XYZ) (?b 1)"), build("(?a _:XYZ) (?b _:b0)")); }
+    @Test public void bindingBinary_04()    { testWriteRead(build("(?a 'a\"b\"c') (?b 'aΩc')")); }
+    @Test public void bindingBinary_05()    { testWriteRead(build("(?a 'abc'@en) (?b 'xyz'@en--rtl) (?c 'def'@en--ltr)")); }
+    @Test public void bindingBinary_06()    { testWriteRead(build("(?a '1'^^<http://www.w3.org/2001/XMLSchema#int>) (?b 'x'^^<http://example/dt>)")); }
+    @Test public void bindingBinary_07()    { testWriteRead(build("(?a '1.0e0'^^<http://www.w3.org/2001/XMLSchema#double>) (?b '01'^^<http://www.w3.org/2001/XMLSchema#integer>)")); }
+    @Test public void bindingBinary_08()    { testWriteRead(build("(?a <<( <http://example/s> <http://example/p> 'o' )>>)")); }
+    @Test public void bindingBinary_09() {
+        Binding b = BindingFactory.binding(Var.alloc("a"), Var.alloc("x"));
+        testWriteRead(b, build("(?b <http://example/x>) (?c <http://example/x>)"), b);
+    }
+    @Test public void bindingBinary_10()    { testWriteRead(build("(?a 'not an int'^^<http://www.w3.org/2001/XMLSchema#int>)")); }
+
+    @Test public void bindingBinary_20() {
+        // Long string.
+        String str = "abcΩ".repeat(50_000);
+        testWriteRead(BindingFactory.binding(Var.alloc("a"), NodeFactory.createLiteralString(str)));
+    }
+
+    @Test public void bindingBinary_21() {
+        // More IRIs than fit in the table.
+        int N = BindingBinaryOutputStream.TABLE_SIZE + 100;
+        Binding[] bindings = new Binding[2 * N];
+        for ( int i = 0 ; i < N ; i++ ) {
+            bindings[i] = BindingFactory.binding(Var.alloc("v" + (i % 3)), NodeFactory.createURI("http://example/" + i));
+            bindings[N + i] = bindings[i];
+        }
+        testWriteRead(bindings);
+    }
+
+    private static Binding build(String string) {
+        return SSE.parseBinding("(binding " + string + ")");
+    }
+
+    private static void testWriteRead(Binding... bindings) {
+        testWriteRead(SerializationFactoryFinder.bindingSerializationFactory(false), bindings);
+        testWriteRead(SerializationFactoryFinder.bindingSerializationFactory(true), bindings);
+    }
+
+    private static void testWriteRead(SerializationFactory<Binding> factory, Binding... bindings) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Sink<Binding> output = factory.createSerializer(out);
+        for ( Binding b : bindings )
+            output.send(b);
+        output.close();
+
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        List<Binding> results = new ArrayList<>(Iter.toList(factory.createDeserializer(in)));
+        assertEquals(bindings.length, results.size());
+        for ( int i = 0 ; i < bindings.length ; i++ ) {
+            Binding b1 = bindings[i];
+            Binding b2 = results.get(i);
+            assertTrue("Bindings do not match: expected=" + b1 + " got=" + b2, BindingLib.equals(b1, b2));
+        }
+    }
+}
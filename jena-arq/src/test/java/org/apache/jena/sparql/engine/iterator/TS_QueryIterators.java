@@ -30,6 +30,9 @@ import org.junit.runners.Suite ;
     , TestDataBagDistinctOrder.class
     , TestCancelDistinct.class
     , TestSortedDataBagCancellation.class
+    , TestQueryIterGroup.class
+    , TestQueryIterBatch.class
+    , TestQueryIterConcurrentApply.class
 })
 public class TS_QueryIterators {
 
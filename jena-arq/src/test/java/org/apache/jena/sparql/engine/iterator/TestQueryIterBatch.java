@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.engine.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingBlock;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.RowSetRewindable;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sys.JenaSystem;
+
+/** {@link QueryIterator#nextBatch} compared to taking bindings one at a time. */
+public class TestQueryIterBatch {
+    static { JenaSystem.init(); }
+
+    private static final Var X = Var.alloc("x");
+    private static final Var Y = Var.alloc("y");
+
+    private static ExecutionContext execCxt() {
+        return ExecutionContext.create(DatasetGraphFactory.create(), ARQ.getContext().copy());
+    }
+
+    private static List<Binding> rows(int N) {
+        List<Binding> rows = new ArrayList<>();
+        for ( int i = 0 ; i < N ; i++ )
+            rows.add(BindingFactory.binding(X, NodeFactory.createLiteralDT(Integer.toString(i), XSDDatatype.XSDinteger)));
+        return rows;
+    }
+
+    // Filter, then assign, then project.
+    private static QueryIterator pipeline(List<Binding> rows, ExecutionContext execCxt) {
+        QueryIterator qIter = QueryIterPlainWrapper.create(rows.iterator(), execCxt);
+        qIter = new QueryIterFilterExpr(qIter, SSE.parseExpr("(= (mod ?x 3) 0)"), execCxt);
+        qIter = new QueryIterAssign(qIter, Y, SSE.parseExpr("(* ?x 2)"), execCxt);
+        qIter = QueryIterProject.create(qIter, List.of(Y), execCxt);
+        return qIter;
+    }
+
+    private static List<Binding> byRow(QueryIterator qIter) {
+        List<Binding> results = new ArrayList<>();
+        while ( qIter.hasNext() )
+            results.add(qIter.nextBinding());
+        return results;
+    }
+
+    private static List<Binding> byBatch(QueryIterator qIter, int batchSize) {
+        List<Binding> results = new ArrayList<>();
+        BindingBlock block = new BindingBlock(batchSize);
+        while ( qIter.nextBatch(block) > 0 ) {
+            for ( int i = 0 ; i < block.size() ; i++ )
+                results.add(block.get(i));
+            block.clear();
+        }
+        return results;
+    }
+
+    @Test public void batch_01() { testBatch(0, 10); }
+    @Test public void batch_02() { testBatch(100, 1); }
+    @Test public void batch_03() { testBatch(100, 7); }
+    @Test public void batch_04() { testBatch(1000, 256); }
+    @Test public void batch_05() { testBatch(1000, 5000); }
+
+    private static void testBatch(int N, int batchSize) {
+        List<Binding> rows = rows(N);
+        List<Binding> expected = byRow(pipeline(rows, execCxt()));
+        QueryIterator qIter = pipeline(rows, execCxt());
+        List<Binding> actual = byBatch(qIter, batchSize);
+        assertEquals(expected, actual);
+        // Finished.
+        assertEquals(0, qIter.nextBatch(new BindingBlock(batchSize)));
+        assertTrue(!qIter.hasNext());
+    }
+
+    @Test public void batch_mixed() {
+        List<Binding> rows = rows(100);
+        List<Binding> expected = byRow(pipeline(rows, execCxt()));
+
+        QueryIterator qIter = pipeline(rows, execCxt());
+        List<Binding> actual = new ArrayList<>();
+        // Look ahead, then batches, then rows.
+        assertTrue(qIter.hasNext());
+        BindingBlock block = new BindingBlock(5);
+        qIter.nextBatch(block);
+        for ( int i = 0 ; i < block.size() ; i++ )
+            actual.add(block.get(i));
+        actual.add(qIter.nextBinding());
+        actual.addAll(byBatch(qIter, 3));
+        assertEquals(expected, actual);
+    }
+
+    @Test public void batch_partialBlock() {
+        // Existing content of the block is kept.
+        QueryIterator qIter = pipeline(rows(30), execCxt());
+        BindingBlock block = new BindingBlock(4);
+        Binding b = BindingFactory.empty();
+        block.add(b);
+        assertEquals(3, qIter.nextBatch(block));
+        assertEquals(4, block.size());
+        assertEquals(b, block.get(0));
+        assertEquals(0, qIter.nextBatch(block));
+        qIter.close();
+    }
+
+    @Test(expected = QueryCancelledException.class)
+    public void batch_cancel() {
+        QueryIterator qIter = pipeline(rows(100), execCxt());
+        qIter.cancel();
+        qIter.nextBatch(new BindingBlock());
+    }
+
+    @Test public void batch_adapter() {
+        List<Binding> rows = rows(100);
+        List<Binding> expected = byRow(pipeline(rows, execCxt()));
+        ExecutionContext execCxt = execCxt();
+        QueryIterator qIter = new QueryIterBatched(pipeline(rows, execCxt), 8, execCxt);
+        assertEquals(expected, byRow(qIter));
+    }
+
+    private static DatasetGraph data() {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Node p = NodeFactory.createURI("http://example/p");
+        Node q = NodeFactory.createURI("http://example/q");
+        for ( int i = 0 ; i < 200 ; i++ ) {
+            Node s = NodeFactory.createURI("http://example/s" + i);
+            dsg.getDefaultGraph().add(s, p, NodeFactory.createLiteralDT(Integer.toString(i), XSDDatatype.XSDinteger));
+            if ( i % 3 == 0 )
+                dsg.getDefaultGraph().add(s, q, NodeFactory.createLiteralString("v" + i));
+        }
+        return dsg;
+    }
+
+    private static RowSetRewindable exec(DatasetGraph dsg, String queryString, int batchSize) {
+        QueryExec qExec = QueryExec.dataset(dsg)
+                .query("PREFIX : <http://example/> " + queryString)
+                .set(ARQ.executionBatchSize, batchSize)
+                .build();
+        try ( qExec ) {
+            return qExec.select().rewindable();
+        }
+    }
+
+    @Test public void batch_query_01() {
+        testQuery("SELECT * { ?s :p ?o FILTER(?o > 50) BIND(?o + 1 AS ?z) }");
+    }
+
+    @Test public void batch_query_02() {
+        testQuery("SELECT ?s ?v { ?s :p ?o OPTIONAL { ?s :q ?v } } ORDER BY ?s");
+    }
+
+    @Test public void batch_query_03() {
+        testQuery("SELECT ?s { ?s :p ?o FILTER(?o < 100) } ORDER BY DESC(?o) LIMIT 7 OFFSET 3");
+    }
+
+    @Test public void batch_query_04() {
+        testQuery("SELECT (count(*) AS ?c) { ?s :p ?o { ?s :q ?v } UNION { BIND(1 AS ?w) } }");
+    }
+
+    private static void testQuery(String queryString) {
+        DatasetGraph dsg = data();
+        RowSetRewindable expected = exec(dsg, queryString, 0);
+        for ( int batchSize : new int[] {1, 5, 256} ) {
+            expected.reset();
+            RowSetRewindable actual = exec(dsg, queryString, batchSize);
+            assertTrue("Batch size " + batchSize, ResultSetCompare.equalsByTermAndOrder(expected, actual));
+        }
+    }
+}
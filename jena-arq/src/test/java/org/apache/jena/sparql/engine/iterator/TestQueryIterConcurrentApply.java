@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.engine.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.main.QC;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.service.ServiceExecutorRegistry;
+import org.apache.jena.sparql.service.single.ServiceExecutor;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.NodeFactoryExtra;
+import org.junit.Test;
+
+/** SERVICE requests on other threads: {@link QueryIterConcurrentApply} and {@link QueryIterAsync}. */
+public class TestQueryIterConcurrentApply {
+
+    private static final Var varX = Var.alloc("x");
+    private static final Var varY = Var.alloc("y");
+
+    private final AtomicInteger inProgress = new AtomicInteger(0);
+    private final AtomicInteger maxInProgress = new AtomicInteger(0);
+
+    /**
+     * For each call, bind ?y to 10 times ?x, or to the number in the service IRI,
+     * after a delay so that calls overlap when they can.
+     */
+    private final ServiceExecutor slowService = (opExecute, opOriginal, binding, execCxt) -> {
+        int n = inProgress.incrementAndGet();
+        maxInProgress.accumulateAndGet(n, Math::max);
+        try {
+            Lib.sleep(50);
+            String uri = opExecute.getService().getURI();
+            Node value = binding.contains(varX)
+                    ? NodeFactoryExtra.intToNode(10 * NodeFactoryExtra.nodeToInt(binding.get(varX)))
+                    : NodeFactoryExtra.intToNode(Integer.parseInt(uri.substring(uri.lastIndexOf(':') + 1)));
+            Binding row = BindingFactory.binding(binding, varY, value);
+            return QueryIterSingleton.create(row, execCxt);
+        } finally {
+            inProgress.decrementAndGet();
+        }
+    };
+
+    private static Context context(ServiceExecutor serviceExecutor, int concurrency) {
+        Context cxt = ARQ.getContext().copy();
+        ServiceExecutorRegistry.set(cxt, new ServiceExecutorRegistry().add(serviceExecutor));
+        cxt.set(ARQ.serviceConcurrency, concurrency);
+        return cxt;
+    }
+
+    // A SERVICE for each ?x.
+    private List<Binding> execSequence(int concurrency) {
+        Op op = SSE.parseOp("(sequence (table (vars ?x) (row [?x 1]) (row [?x 2]) (row [?x 3]) (row [?x 4]) (row [?x 5]) (row [?x 6]))"
+                           +"  (service <urn:test:0> (table unit)))");
+        return exec(op, context(slowService, concurrency));
+    }
+
+    private static List<Binding> exec(Op op, Context cxt) {
+        ExecutionContext execCxt = ExecutionContext.create(DatasetGraphFactory.createTxnMem(), cxt);
+        QueryIterator qIter = QC.execute(op, QueryIterRoot.create(execCxt), execCxt);
+        try {
+            return Iter.toList(qIter);
+        } finally {
+            qIter.close();
+        }
+    }
+
+    @Test public void service_concurrent_01() {
+        List<Binding> results = execSequence(1);
+        assertEquals(6, results.size());
+        assertEquals(1, maxInProgress.get());
+    }
+
+    @Test public void service_concurrent_02() {
+        List<Binding> results = execSequence(3);
+        // Same results in the same order as one at a time.
+        assertEquals(6, results.size());
+        for ( int i = 0 ; i < results.size() ; i++ ) {
+            Binding row = results.get(i);
+            assertEquals(i + 1, NodeFactoryExtra.nodeToInt(row.get(varX)));
+            assertEquals(10 * (i + 1), NodeFactoryExtra.nodeToInt(row.get(varY)));
+        }
+        assertTrue("Requests did not overlap", maxInProgress.get() > 1);
+        assertTrue("Too many requests: " + maxInProgress.get(), maxInProgress.get() <= 3);
+    }
+
+    // Both sides of a join run at the same time.
+    @Test public void service_concurrent_join() {
+        Op op = SSE.parseOp("(join (service <urn:test:1> (table unit)) (service <urn:test:2> (table unit)))");
+        List<Binding> results = exec(op, context(slowService, 2));
+        assertEquals(0, results.size());
+        assertEquals(2, maxInProgress.get());
+    }
+
+    @Test public void service_concurrent_leftjoin() {
+        Op op = SSE.parseOp("(leftjoin (service <urn:test:1> (table unit)) (service <urn:test:2> (table unit)))");
+        List<Binding> results = exec(op, context(slowService, 2));
+        // ?y is 1 on the left and 2 on the right so the right does not match.
+        assertEquals(1, results.size());
+        assertEquals(1, NodeFactoryExtra.nodeToInt(results.get(0).get(varY)));
+        assertEquals(2, maxInProgress.get());
+    }
+
+    // Errors on the other thread are passed on.
+    @Test public void service_concurrent_error() {
+        ServiceExecutor badService = (opExecute, opOriginal, binding, execCxt) -> { throw new IllegalStateException(); };
+        String qs = "SELECT * { VALUES ?x { 1 2 3 } SERVICE <urn:test:0> { } }";
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        try ( QueryExec qExec = QueryExec.dataset(dsg).query(qs).context(context(badService, 2)).build() ) {
+            assertThrows(IllegalStateException.class, ()->qExec.select().materialize());
+        }
+    }
+
+    // Cancelling the query execution interrupts the requests in progress.
+    @Test public void service_concurrent_cancel() {
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        ServiceExecutor blockingService = (opExecute, opOriginal, binding, execCxt) -> {
+            try {
+                never.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                interrupted.set(true);
+            }
+            return QueryIterRoot.create(execCxt);
+        };
+        String qs = "SELECT * { VALUES ?x { 1 2 3 } SERVICE <urn:test:0> { } }";
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        try ( QueryExec qExec = QueryExec.dataset(dsg).query(qs).context(context(blockingService, 2)).build() ) {
+            Thread aborter = new Thread(()->{ Lib.sleep(200); qExec.abort(); });
+            aborter.start();
+            assertThrows(QueryCancelledException.class, ()->qExec.select().materialize());
+        }
+        for ( int i = 0 ; i < 50 && !interrupted.get() ; i++ )
+            Lib.sleep(100);
+        assertTrue(interrupted.get());
+        assertFalse(never.getCount() == 0);
+    }
+
+    // Rows are passed on as they are produced, not when the request has finished.
+    @Test public void service_concurrent_streaming() {
+        CountDownLatch firstRowRead = new CountDownLatch(1);
+        ServiceExecutor streamingService = (opExecute, opOriginal, binding, execCxt) -> {
+            Iterator<Binding> rows = new Iterator<>() {
+                int i = 0;
+                @Override public boolean hasNext() { return i < 2000; }
+                @Override public Binding next() {
+                    if ( i == 1 ) {
+                        try { firstRowRead.await(10, TimeUnit.SECONDS); }
+                        catch (InterruptedException ex) { throw new QueryCancelledException(); }
+                    }
+                    return BindingFactory.binding(binding, varY, NodeFactoryExtra.intToNode(i++));
+                }
+            };
+            return QueryIterPlainWrapper.create(rows, execCxt);
+        };
+        Op op = SSE.parseOp("(join (table unit) (service <urn:test:1> (table unit)))");
+        ExecutionContext execCxt = ExecutionContext.create(DatasetGraphFactory.createTxnMem(), context(streamingService, 2));
+        QueryIterator qIter = QC.execute(op, QueryIterRoot.create(execCxt), execCxt);
+        try {
+            long start = System.currentTimeMillis();
+            assertTrue(qIter.hasNext());
+            qIter.next();
+            assertTrue("First row waited for the request to finish", System.currentTimeMillis() - start < 5000);
+            firstRowRead.countDown();
+            assertEquals(1999, Iter.count(qIter));
+        } finally {
+            qIter.close();
+        }
+    }
+
+    // Cancelling the iterator stops the requests in progress and wakes the reader.
+    @Test public void service_concurrent_cancel_apply() {
+        CountDownLatch never = new CountDownLatch(1);
+        AtomicInteger interrupted = new AtomicInteger(0);
+        ServiceExecutor blockingService = (opExecute, opOriginal, binding, execCxt) -> {
+            try {
+                never.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                interrupted.incrementAndGet();
+            }
+            return QueryIterRoot.create(execCxt);
+        };
+        Op op = SSE.parseOp("(sequence (table (vars ?x) (row [?x 1]) (row [?x 2]) (row [?x 3]))"
+                           +"  (service <urn:test:0> (table unit)))");
+        ExecutionContext execCxt = ExecutionContext.create(DatasetGraphFactory.createTxnMem(), context(blockingService, 2));
+        QueryIterator qIter = QC.execute(op, QueryIterRoot.create(execCxt), execCxt);
+        Thread canceller = new Thread(()->{ Lib.sleep(200); qIter.cancel(); });
+        canceller.start();
+        long start = System.currentTimeMillis();
+        try {
+            assertThrows(QueryCancelledException.class, ()->qIter.hasNext());
+        } finally {
+            qIter.close();
+        }
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        for ( int i = 0 ; i < 50 && interrupted.get() < 2 ; i++ )
+            Lib.sleep(100);
+        // Two requests were in progress.
+        assertEquals(2, interrupted.get());
+    }
+}
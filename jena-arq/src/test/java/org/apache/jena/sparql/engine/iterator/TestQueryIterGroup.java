@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.engine.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.apache.jena.atlas.data.AbstractDataBag;
+import org.apache.jena.atlas.data.DataBag;
+import org.apache.jena.atlas.data.DataBagExaminer;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.core.VarExprList;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.RowSet;
+import org.apache.jena.sparql.exec.RowSetRewindable;
+import org.apache.jena.sparql.expr.ExprAggregator;
+import org.apache.jena.sparql.expr.aggregate.AggCount;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sys.JenaSystem;
+
+/** GROUP BY with and without spilling to disk. */
+public class TestQueryIterGroup {
+    static { JenaSystem.init(); }
+
+    private static final String PREFIX = "PREFIX : <http://example/> ";
+
+    private static DatasetGraph data() {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Node p = NodeFactory.createURI("http://example/p");
+        for ( int i = 0 ; i < 100 ; i++ ) {
+            Node s = ( i % 10 == 0 )
+                    ? NodeFactory.createBlankNode()
+                    : NodeFactory.createURI("http://example/s" + i);
+            for ( int j = 0 ; j <= i % 7 ; j++ ) {
+                Node o = NodeFactory.createLiteralDT(Integer.toString(i * j), XSDDatatype.XSDinteger);
+                dsg.getDefaultGraph().add(s, p, o);
+            }
+        }
+        return dsg;
+    }
+
+    private static RowSetRewindable exec(DatasetGraph dsg, String queryString, long threshold) {
+        QueryExec qExec = QueryExec.dataset(dsg)
+                .query(PREFIX + queryString)
+                .set(ARQ.spillToDiskThreshold, threshold)
+                .build();
+        try ( qExec ) {
+            return qExec.select().rewindable();
+        }
+    }
+
+    private static void test(String queryString) {
+        DatasetGraph dsg = data();
+        RowSetRewindable expected = exec(dsg, queryString, -1L);
+        for ( long threshold : new long[] {0L, 1L, 3L, 10L, 1000L} ) {
+            RowSetRewindable actual = exec(dsg, queryString, threshold);
+            expected.reset();
+            assertEquals("Threshold " + threshold, expected.size(), actual.size());
+            boolean b = ResultSetCompare.equalsByTerm(expected, actual);
+            assertTrue("Threshold " + threshold, b);
+        }
+    }
+
+    @Test public void group_spill_count() {
+        test("SELECT ?s (COUNT(*) AS ?c) { ?s :p ?o } GROUP BY ?s");
+    }
+
+    @Test public void group_spill_aggregates() {
+        test("SELECT ?s (SUM(?o) AS ?sum) (MIN(?o) AS ?min) (MAX(?o) AS ?max) (SAMPLE(?s) AS ?x) { ?s :p ?o } GROUP BY ?s");
+    }
+
+    @Test public void group_spill_no_aggregates() {
+        test("SELECT ?s { ?s :p ?o } GROUP BY ?s");
+    }
+
+    @Test public void group_spill_expression() {
+        test("SELECT ?k (COUNT(DISTINCT ?s) AS ?c) { ?s :p ?o } GROUP BY (?o - 3 * FLOOR(?o / 3) AS ?k)");
+    }
+
+    @Test public void group_spill_two_keys() {
+        test("SELECT ?s ?o (COUNT(*) AS ?c) { ?s :p ?o } GROUP BY ?s ?o");
+    }
+
+    @Test public void group_spill_no_group_by() {
+        test("SELECT (COUNT(*) AS ?c) (SUM(?o) AS ?sum) { ?s :p ?o }");
+    }
+
+    @Test public void group_spill_empty() {
+        test("SELECT ?s (COUNT(*) AS ?c) { ?s :q ?o } GROUP BY ?s");
+    }
+
+    private static VarExprList groupBy(Var var) {
+        VarExprList vars = new VarExprList();
+        vars.add(var);
+        return vars;
+    }
+
+    @Test public void group_spill_files_removed_on_close() {
+        Var x = Var.alloc("x");
+        List<Binding> input = new ArrayList<>();
+        for ( int i = 0 ; i < 200 ; i++ )
+            input.add(Binding.builder().add(x, NodeFactory.createURI("http://example/x" + (i % 50))).build());
+
+        Context cxt = new Context();
+        cxt.set(ARQ.spillToDiskThreshold, 2L);
+        ExecutionContext execCxt = ExecutionContext.create(cxt);
+        QueryIterator qIter = QueryIterPlainWrapper.create(input.iterator(), execCxt);
+        List<ExprAggregator> aggregators = List.of(new ExprAggregator(Var.alloc("c"), new AggCount()));
+        QueryIterGroup qIterGroup = new QueryIterGroup(qIter, groupBy(x), aggregators, execCxt);
+        List<DataBag<Binding>> bags;
+        try {
+            assertTrue(qIterGroup.hasNext());
+            bags = new ArrayList<>(qIterGroup.spillBags);
+            assertFalse(bags.isEmpty());
+            int files = 0;
+            for ( DataBag<Binding> bag : bags )
+                files += DataBagExaminer.countTemporaryFiles((AbstractDataBag<?>)bag);
+            assertTrue(files > 0);
+        } finally {
+            qIterGroup.close();
+        }
+        for ( DataBag<Binding> bag : bags )
+            assertEquals(0, DataBagExaminer.countTemporaryFiles((AbstractDataBag<?>)bag));
+    }
+
+    @Test public void group_spill_iterator() {
+        Var x = Var.alloc("x");
+        List<Binding> input = new ArrayList<>();
+        for ( int i = 0 ; i < 200 ; i++ )
+            input.add(Binding.builder().add(x, NodeFactory.createURI("http://example/x" + (i % 50))).build());
+
+        Context cxt = new Context();
+        cxt.set(ARQ.spillToDiskThreshold, 2L);
+        ExecutionContext execCxt = ExecutionContext.create(cxt);
+        QueryIterator qIter = QueryIterPlainWrapper.create(input.iterator(), execCxt);
+        Var c = Var.alloc("c");
+        List<ExprAggregator> aggregators = List.of(new ExprAggregator(c, new AggCount()));
+        RowSet rowSet = RowSet.create(new QueryIterGroup(qIter, groupBy(x), aggregators, execCxt), List.of(x, c));
+        int count = 0;
+        while ( rowSet.hasNext() ) {
+            Binding b = rowSet.next();
+            assertEquals("4", b.get(c).getLiteralLexicalForm());
+            count++;
+        }
+        assertEquals(50, count);
+    }
+}
@@ -24,9 +24,12 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -287,6 +290,69 @@ public class TestQueryIterSort {
         assertTrue(iterator.isClosed());
     }
 
+    @Test
+    public void testTopNBag() {
+        iterator.setCallback(() -> {});
+        Context context = new Context();
+        context.set(ARQ.topNSortingThreshold, 10);
+        context.set(ARQ.spillToDiskThreshold, 20L);
+        ExecutionContext ec = createExecutionContext(context);
+        QueryIterTopN tn = new QueryIterTopN(iterator, comparator, 100, false, ec);
+        List<Binding> results = new ArrayList<>();
+        while (tn.hasNext())
+            results.add(tn.next());
+        assertTrue(iterator.isClosed());
+        List<Binding> expected = new ArrayList<>(unsorted);
+        expected.sort(comparator);
+        assertEquals(100, results.size());
+        for ( int i = 0 ; i < results.size() ; i++ )
+            assertEquals(0, comparator.compare(expected.get(i), results.get(i)));
+    }
+
+    @Test
+    public void testTopNBagCloseClosesSource() {
+        Context context = new Context();
+        context.set(ARQ.topNSortingThreshold, 10);
+        ExecutionContext ec = createExecutionContext(context);
+        QueryIterTopN tn = new QueryIterTopN(iterator, comparator, 100, false, ec);
+        tn.close();
+        assertTrue(iterator.isClosed());
+    }
+
+    @Test
+    public void testTopNBagDistinctOffset() {
+        // 300 different rows, each 3 times. Rows 2i and 2i+1 have the same sort key.
+        Var k = Var.alloc("k");
+        Var v = Var.alloc("v");
+        List<Binding> rows = new ArrayList<>();
+        for ( int i = 0 ; i < 300 ; i++ ) {
+            Binding row = Binding.builder()
+                    .add(k, NodeFactory.createLiteralDT(Integer.toString(i / 2), XSDDatatype.XSDinteger))
+                    .add(v, NodeFactory.createLiteralDT(Integer.toString(i), XSDDatatype.XSDinteger))
+                    .build();
+            for ( int j = 0 ; j < 3 ; j++ )
+                rows.add(row);
+        }
+        Collections.shuffle(rows, random);
+        Context context = new Context();
+        context.set(ARQ.topNSortingThreshold, 10);
+        context.set(ARQ.spillToDiskThreshold, 20L);
+        ExecutionContext ec = createExecutionContext(context);
+        BindingComparator keyComparator = new BindingComparator(List.of(new SortCondition(new ExprVar(k), Query.ORDER_ASCENDING)));
+        QueryIterator input = QueryIterPlainWrapper.create(rows.iterator(), ec);
+        // OFFSET 250 LIMIT 20
+        QueryIterator tn = new QueryIterTopN(input, keyComparator, 270, true, ec);
+        QueryIterator slice = new QueryIterSlice(tn, 250, 20, ec);
+        Set<Integer> values = new HashSet<>();
+        while ( slice.hasNext() )
+            values.add(Integer.parseInt(slice.next().get(v).getLiteralLexicalForm()));
+        slice.close();
+        Set<Integer> expected = new HashSet<>();
+        for ( int i = 250 ; i < 270 ; i++ )
+            expected.add(i);
+        assertEquals(expected, values);
+    }
+
     private Binding randomBinding(Var[] vars) {
         BindingBuilder builder = Binding.builder();
         builder.add(vars[0], NodeFactory.createBlankNode());
@@ -337,7 +337,7 @@ public abstract class AbstractTestJoin {
         out.decIndent();
     }
 
-    private static boolean equalTables(Table table1, Table table2) {
+    protected static boolean equalTables(Table table1, Table table2) {
         ResultSet rs1 =  ResultSetFactory.create(table1.iterator(null), table1.getVarNames()) ;
         ResultSet rs2 =  ResultSetFactory.create(table2.iterator(null), table2.getVarNames()) ;
         return ResultsCompare.equalsByTerm(rs1, rs2) ;
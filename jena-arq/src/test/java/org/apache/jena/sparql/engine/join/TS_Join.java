@@ -28,6 +28,7 @@ import org.junit.runners.Suite.SuiteClasses ;
     , TestJoinNestedLoopSimple.class    // Real simple materializing version.
     , TestJoinNestedLoop.class
     , TestHashJoin.class
+    , TestHashJoinSpill.class
 
     , TestLeftJoinSimple.class
     , TestLeftJoinNestedLoopSimple.class    // Real simple materializing version.
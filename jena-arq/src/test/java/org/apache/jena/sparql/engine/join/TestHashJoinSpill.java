@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.engine.join;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.algebra.Table;
+import org.apache.jena.sparql.algebra.TableFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingBuilder;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.util.Context;
+import org.junit.Test;
+
+/** Hash join with the inputs partitioned to disk. */
+public class TestHashJoinSpill extends AbstractTestInnerJoin {
+
+    private static ExecutionContext execCxt(long threshold) {
+        Context cxt = new Context();
+        cxt.set(ARQ.spillToDiskThreshold, threshold);
+        return ExecutionContext.create(cxt);
+    }
+
+    @Override
+    public QueryIterator join(JoinKey joinKey, Table left, Table right, ExprList conditions) {
+        ExecutionContext execCxt = execCxt(1);
+        return Join.hashJoin(joinKey, left.iterator(execCxt), right.iterator(execCxt), execCxt) ;
+    }
+
+    private static final Var a = Var.alloc("a");
+    private static final Var b = Var.alloc("b");
+    private static final Var c = Var.alloc("c");
+    private static final Var d = Var.alloc("d");
+
+    /** Rows with random values, some variables unbound (1 in {@code unbound}). */
+    private static List<Binding> rows(Random random, int count, int unbound, Var v1, Var v2, Var other) {
+        List<Binding> rows = new ArrayList<>();
+        for ( int i = 0 ; i < count ; i++ ) {
+            BindingBuilder builder = Binding.builder();
+            if ( random.nextInt(unbound) > 0 )
+                builder.add(v1, value(random.nextInt(20)));
+            if ( random.nextInt(unbound) > 0 )
+                builder.add(v2, value(random.nextInt(5)));
+            builder.add(other, value(i));
+            rows.add(builder.build());
+        }
+        return rows;
+    }
+
+    private static Node value(int i) {
+        return NodeFactory.createURI("http://example/" + i);
+    }
+
+    private static Table join(List<Binding> left, List<Binding> right, long threshold) {
+        ExecutionContext execCxt = execCxt(threshold);
+        QueryIterator qIter = Join.hashJoin(QueryIterPlainWrapper.create(left.iterator(), execCxt),
+                                            QueryIterPlainWrapper.create(right.iterator(), execCxt),
+                                            execCxt);
+        return TableFactory.create(qIter);
+    }
+
+    private static void testRandom(long seed, long threshold) {
+        testRandom(seed, threshold, 10);
+    }
+
+    private static void testRandom(long seed, long threshold, int unbound) {
+        Random random = new Random(seed);
+        List<Binding> left = rows(random, 120, unbound, a, b, c);
+        List<Binding> right = rows(random, 80, unbound, a, b, d);
+        Table expected = TableFactory.create(Join.nestedLoopJoin(QueryIterPlainWrapper.create(left.iterator()),
+                                                                 QueryIterPlainWrapper.create(right.iterator()),
+                                                                 null));
+        Table actual = join(left, right, threshold);
+        assertEquals(expected.size(), actual.size());
+        // No blank nodes: compare as multisets of rows.
+        assertEquals(counts(expected), counts(actual));
+    }
+
+    private static Map<Binding, Long> counts(Table table) {
+        Map<Binding, Long> counts = new HashMap<>();
+        table.rows().forEachRemaining(row -> counts.merge(row, 1L, Long::sum));
+        return counts;
+    }
+
+    @Test public void join_spill_random_1() { testRandom(1, 1); }
+    @Test public void join_spill_random_2() { testRandom(2, 10); }
+    @Test public void join_spill_random_3() { testRandom(3, 50); }
+    @Test public void join_spill_random_4() { testRandom(4, 1000); }
+
+    // Many rows without the full join key: joined in several blocks.
+    @Test public void join_spill_nokey_1() { testRandom(5, 5, 2); }
+    @Test public void join_spill_nokey_2() { testRandom(6, 7, 3); }
+}
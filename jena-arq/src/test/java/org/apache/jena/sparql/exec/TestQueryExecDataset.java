@@ -19,11 +19,22 @@
 package org.apache.jena.sparql.exec;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.Query;
+import org.apache.jena.sparql.ARQConstants;
+import org.apache.jena.sparql.algebra.optimize.Optimize;
+import org.apache.jena.sparql.algebra.optimize.RewriteFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
 import org.apache.jena.sparql.sse.SSE;
 import org.apache.jena.sparql.util.Context;
 import org.apache.jena.sparql.util.Symbol;
@@ -67,4 +78,57 @@ public class TestQueryExecDataset {
         assertEquals("FALSE", cxt2.get(testSymbol));
     }
 
+    private static DatasetGraph prepareData() {
+        return SSE.parseDatasetGraph("(dataset (graph (:s :p 1) (:s :p 2) (:s :q 1) (:x :p 1)))");
+    }
+
+    @Test public void queryExec_prepare_01() {
+        QueryExecPrepared prepared = QueryExec.dataset(prepareData())
+                .query("SELECT * { ?s ?p ?o }")
+                .prepare();
+        Var varO = Var.alloc("o");
+        Node one = SSE.parseNode("1");
+        List<Binding> rows = prepared.exec("o", one).select().stream().toList();
+        assertEquals(3, rows.size());
+        rows.forEach(row->assertEquals(one, row.get(varO)));
+        assertEquals(1, prepared.exec("o", SSE.parseNode("2")).select().stream().count());
+        assertEquals(0, prepared.exec("o", SSE.parseNode("3")).select().stream().count());
+        // No parameters.
+        assertEquals(4, prepared.exec().select().stream().count());
+    }
+
+    @Test public void queryExec_prepare_02() {
+        QueryExecPrepared prepared = QueryExec.dataset(prepareData())
+                .query("PREFIX : <http://example/> ASK { ?s :p ?o FILTER(?o > 1) }")
+                .prepare();
+        Binding binding1 = BindingFactory.binding(Var.alloc("s"), SSE.parseNode(":s"));
+        Binding binding2 = BindingFactory.binding(Var.alloc("s"), SSE.parseNode(":x"));
+        assertTrue(prepared.exec(binding1).ask());
+        assertFalse(prepared.exec(binding2).ask());
+    }
+
+    @Test public void queryExec_prepare_optimize_once() {
+        AtomicInteger counter = new AtomicInteger(0);
+        RewriteFactory factory = cxt -> {
+            counter.incrementAndGet();
+            return Optimize.stdOptimizationFactory.create(cxt);
+        };
+        QueryExecPrepared prepared = QueryExec.dataset(prepareData())
+                .query("PREFIX : <http://example/> SELECT ?o { ?s :p ?o }")
+                .set(ARQConstants.sysOptimizerFactory, factory)
+                .prepare();
+        for ( String s : List.of(":s", ":x", ":s", ":z") )
+            prepared.exec("s", SSE.parseNode(s)).select().stream().count();
+        assertEquals(1, counter.get());
+    }
+
+    @Test public void queryExec_prepare_substitution() {
+        // Substitution in the builder applies to all executions.
+        QueryExecPrepared prepared = QueryExec.dataset(prepareData())
+                .query("SELECT * { ?s ?p ?o }")
+                .substitution("p", SSE.parseNode(":p"))
+                .prepare();
+        assertEquals(2, prepared.exec("o", SSE.parseNode("1")).select().stream().count());
+    }
+
 }
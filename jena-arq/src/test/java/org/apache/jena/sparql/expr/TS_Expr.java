@@ -51,6 +51,7 @@ import org.junit.runners.Suite.SuiteClasses;
     , TestCustomAggregates.class
     , TestStatisticsAggregates.class
     , TestNodeValueSortKey.class
+    , TestExprCompiler.class
 })
 
 public class TS_Expr
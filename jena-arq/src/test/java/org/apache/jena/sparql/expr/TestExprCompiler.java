@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.expr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.*;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.apache.jena.sparql.expr.compile.CompiledExpr;
+import org.apache.jena.sparql.expr.compile.ExprCompiler;
+import org.apache.jena.sparql.function.FunctionEnvBase;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.ExprUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Compiled expressions give the same results, and errors, as evaluating the expression. */
+public class TestExprCompiler
+{
+    private static boolean bVerboseWarnings;
+
+    @BeforeClass public static void beforeClass() {
+        bVerboseWarnings = NodeValue.VerboseWarnings;
+        NodeValue.VerboseWarnings = false;
+    }
+
+    @AfterClass public static void afterClass() {
+        NodeValue.VerboseWarnings = bVerboseWarnings;
+    }
+
+    private static final Var x = Var.alloc("x");
+    private static final Var y = Var.alloc("y");
+
+    private static final String[] values = {
+        "3", "5", "7", "-5", "0", "'5'^^xsd:int", "'5'^^xsd:byte", "' 5 '^^xsd:int", "'+5'^^xsd:integer",
+        "9223372036854775807", "-9223372036854775808", "99999999999999999999",
+        "'abc'^^xsd:integer", "'300'^^xsd:byte", "'18446744073709551615'^^xsd:unsignedLong",
+        "5.0", "4.5", "5.0e0", "4.9e0", "'NaN'^^xsd:double", "'INF'^^xsd:double", "'-0.0'^^xsd:double", "'0'^^xsd:double",
+        "'5'^^xsd:float", "'abc'", "'abd'", "'5'", "''", "'abc'@en", "'abc'@fr", "'abc'^^<http://example/dt>",
+        "true", "false", "<http://example/abc>", "_:b", "'2024-01-01'^^xsd:date"
+    };
+
+    private static final String[] expressions = {
+        "?x = 5", "?x != 5", "?x < 5", "?x <= 5", "?x > 5", "?x >= 5",
+        "5 = ?x", "5 != ?x", "5 < ?x", "5 <= ?x", "5 > ?x", "5 >= ?x",
+        "?x < -9223372036854775808", "?x > 9223372036854775807", "?x = 99999999999999999999",
+        "?x = 5.0e0", "?x < 5.0e0", "?x >= 5.0e0", "4.9e0 < ?x", "?x = 0.0e0", "?x < 'NaN'^^xsd:double", "?x < 5.0",
+        "?x = 'abc'", "?x != 'abc'", "'abc' = ?x", "?x < 'abc'", "?x = 'abc'@en", "?x != 'abc'^^xsd:string",
+        "?x + 1", "?x - 1", "?x * 2", "1 - ?x", "?x + ?y", "?x * ?y", "?x - ?y", "?x + 1 > 5", "?x * 9223372036854775807",
+        "?x + 9223372036854775807", "?x / 2", "-?x", "?x + 1.5",
+        "STRSTARTS(?x, 'ab')", "STRENDS(?x, 'bc')", "CONTAINS(?x, 'b')", "CONTAINS(?x, '')", "STRSTARTS(?x, 'ab'@en)",
+        "STRSTARTS('abc', ?x)", "STRLEN(?x)", "UCASE(?x)", "STR(?x)", "LANG(?x)", "DATATYPE(?x)", "isIRI(?x)", "isNumeric(?x)",
+        "?x < 5 && ?y > 5", "?x < 5 || ?y > 5", "?x = 'abc' || ?x > 3", "?x > 3 && ?x", "!(?x < 5)", "!?x", "?x || ?y",
+        "BOUND(?x)", "!BOUND(?y)", "BOUND(?x) && ?x > 3",
+        "?x", "5", "'abc'", "COALESCE(?y, ?x) = 5", "IF(?x > 3, ?x, ?y)", "?x IN (3, 5)", "sameTerm(?x, 5)"
+    };
+
+    @Test public void compiled_expressions() {
+        List<Binding> bindings = new ArrayList<>();
+        bindings.add(BindingFactory.empty());
+        for ( String v : values ) {
+            Node n = SSE.parseNode(v);
+            bindings.add(BindingFactory.binding(x, n));
+            bindings.add(BindingFactory.binding(x, n, y, SSE.parseNode("5")));
+            bindings.add(BindingFactory.binding(y, n));
+        }
+        for ( String s : expressions ) {
+            Expr expr = ExprUtils.parse(s);
+            CompiledExpr compiled = ExprCompiler.compile(expr);
+            for ( Binding binding : bindings )
+                check(s, expr, compiled, binding);
+        }
+    }
+
+    @Test public void compiled_or_errors() {
+        // Error || true is true; error || false is an error.
+        CompiledExpr compiled = ExprCompiler.compile(ExprUtils.parse("?y > 3 || ?x > 3"));
+        assertTrue(compiled.test(BindingFactory.binding(x, SSE.parseNode("4")), new FunctionEnvBase()));
+        try {
+            compiled.test(BindingFactory.binding(x, SSE.parseNode("2")), new FunctionEnvBase());
+            fail("Expected an evaluation error");
+        } catch (ExprEvalException ex) {}
+        assertFalse(compiled.isSatisfied(BindingFactory.binding(x, SSE.parseNode("2")), new FunctionEnvBase()));
+    }
+
+    private static final String DATA = String.join("\n",
+        "PREFIX : <http://example/>",
+        "PREFIX xsd: <http://www.w3.org/2001/XMLSchema#>",
+        ":s1 :p 1 ; :q 'abc' .",
+        ":s2 :p 5 ; :q 'xyz' .",
+        ":s3 :p '7'^^xsd:int ; :q 'abc'@en .",
+        ":s4 :p 2.5e0 ; :q :o .",
+        ":s5 :p 'text' .",
+        ":s6 :q 'abd' ."
+        );
+
+    @Test public void compiled_query_filter() {
+        testQuery("SELECT * { ?s :p ?x FILTER(?x > 2) }");
+        testQuery("SELECT * { ?s :p ?x FILTER(?x = 5 || ?x < 2.0e0) }");
+        testQuery("SELECT * { ?s :q ?x FILTER(STRSTARTS(?x, 'ab')) }");
+        testQuery("SELECT * { ?s :q ?x FILTER(?x != 'abc') }");
+        testQuery("SELECT * { ?s ?p ?x OPTIONAL { ?s :q ?y } FILTER(!BOUND(?y)) }");
+    }
+
+    @Test public void compiled_query_bind() {
+        testQuery("SELECT * { ?s :p ?x BIND(?x * 2 AS ?y) }");
+        testQuery("SELECT * { ?s :p ?x BIND(?x + 1 AS ?y) BIND(?y > 3 AS ?z) }");
+        testQuery("SELECT * { ?s ?p ?x BIND(CONTAINS(?x, 'b') AS ?y) }");
+    }
+
+    private static void testQuery(String queryString) {
+        Model model = ModelFactory.createDefaultModel();
+        RDFParser.fromString(DATA).lang(Lang.TTL).parse(model);
+        Query query = QueryFactory.create("PREFIX : <http://example/> " + queryString + " ORDER BY ?s ?x ?y");
+        ResultSetRewindable expected;
+        try ( QueryExecution qExec = QueryExecution.create(query, model) ) {
+            expected = ResultSetFactory.makeRewindable(qExec.execSelect());
+        }
+        ResultSetRewindable actual;
+        try ( QueryExecution qExec = QueryExecution.create().query(query).model(model)
+                                                 .set(ARQ.compileExpressions, true).build() ) {
+            actual = ResultSetFactory.makeRewindable(qExec.execSelect());
+        }
+        assertTrue(expected.size() > 0);
+        assertTrue(ResultSetCompare.equalsByTermAndOrder(expected, actual));
+    }
+
+    private static void check(String label, Expr expr, CompiledExpr compiled, Binding binding) {
+        String msg = label + " :: " + binding;
+        FunctionEnvBase env = new FunctionEnvBase();
+        Node expected = null;
+        ExprEvalException expectedError = null;
+        try {
+            expected = expr.eval(binding, env).asNode();
+        } catch (ExprEvalException ex) {
+            expectedError = ex;
+        }
+        Node actual = null;
+        try {
+            actual = compiled.eval(binding, env).asNode();
+            if ( expectedError != null )
+                fail(msg + " : expected an evaluation error, got " + actual);
+        } catch (ExprEvalException ex) {
+            if ( expectedError == null )
+                fail(msg + " : expected " + expected + ", got an evaluation error " + ex.getMessage());
+        }
+        if ( expectedError != null )
+            assertNull(msg, actual);
+        else
+            assertEquals(msg, expected, actual);
+        assertEquals(msg, expr.isSatisfied(binding, env), compiled.isSatisfied(binding, env));
+    }
+}
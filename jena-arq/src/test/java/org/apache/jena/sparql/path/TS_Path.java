@@ -28,6 +28,7 @@ import org.junit.runners.Suite ;
     , TestPath2.class
     , TestPathQuery.class
     , TestPathPF.class
+    , TestTransitivePath.class
 })
 
 public class TS_Path
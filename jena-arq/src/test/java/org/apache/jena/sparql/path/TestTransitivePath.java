@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.sparql.path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.*;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.StrUtils;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.RowSet;
+import org.apache.jena.sparql.path.eval.PathEval;
+import org.apache.jena.sparql.path.eval.PathLinks;
+import org.apache.jena.sparql.path.eval.TransitivePath;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.graph.GraphUtils;
+import org.junit.Test;
+
+/** {@link TransitivePath} gives the same results as the general path evaluation. */
+public class TestTransitivePath {
+
+    static String graphStr = StrUtils.strjoinNL
+            ("PREFIX : <http://example/>"
+            ,":a :p :b ."
+            ,":b :p :c ."
+            ,":c :p :a ."
+            ,":c :p :d ."
+            ,":d :p :e ."
+            ,":e :p 'lit' ."
+            ,":x :p :y ."
+            ,":y :p :y ."
+            ,":a :q :x ."
+            ,"_:b1 :p :a ."
+            ,":d :p _:b1 ."
+            );
+
+    static Graph graph = RDFParser.fromString(graphStr, Lang.TTL).toGraph();
+    static Context context = ARQ.getContext();
+
+    static String[] pathStrs = { ":p+", ":p*", "(^:p)+", "(^:p)*", ":q+", ":q*", ":z+", ":z*" };
+
+    private static Path path(String str) {
+        return PathParser.parse(str, SSE.getPrefixMapRead());
+    }
+
+    private static List<Node> nodes() {
+        List<Node> nodes = new ArrayList<>(Iter.toList(GraphUtils.allNodes(graph)));
+        nodes.add(NodeFactory.createURI("http://example/notInGraph"));
+        return nodes;
+    }
+
+    @Test public void transitive_create() {
+        assertNotNull(TransitivePath.create(path(":p+"), context));
+        assertNotNull(TransitivePath.create(path("(^:p)*"), context));
+        assertNull(TransitivePath.create(path(":p"), context));
+        assertNull(TransitivePath.create(path("(:p/:q)+"), context));
+        assertNull(TransitivePath.create(path("(:p|:q)*"), context));
+        // Property function
+        assertNull(TransitivePath.create(path("rdfs:member+"), context));
+    }
+
+    @Test public void transitive_reachable() {
+        for ( String s : pathStrs ) {
+            Path path = path(s);
+            TransitivePath tPath = TransitivePath.create(path, context);
+            PathLinks<Node> links = tPath.graphLinks(graph);
+            for ( Node n : nodes() ) {
+                Set<Node> expected = Iter.toSet(PathEval.eval(graph, n, path, context));
+                List<Node> actual = tPath.reachableFrom(links, n);
+                assertEquals(s + " " + n, expected, new HashSet<>(actual));
+                assertEquals("Duplicates: " + s + " " + n, expected.size(), actual.size());
+
+                Set<Node> expectedReverse = Iter.toSet(PathEval.evalReverse(graph, n, path, context));
+                List<Node> actualReverse = tPath.reachableTo(links, n);
+                assertEquals(s + " " + n, expectedReverse, new HashSet<>(actualReverse));
+                assertEquals("Duplicates: " + s + " " + n, expectedReverse.size(), actualReverse.size());
+            }
+        }
+    }
+
+    @Test public void transitive_exists() {
+        for ( String s : pathStrs ) {
+            Path path = path(s);
+            TransitivePath tPath = TransitivePath.create(path, context);
+            PathLinks<Node> links = tPath.graphLinks(graph);
+            for ( Node n1 : nodes() ) {
+                Set<Node> reached = Iter.toSet(PathEval.eval(graph, n1, path, context));
+                for ( Node n2 : nodes() )
+                    assertEquals(s + " " + n1 + " " + n2, reached.contains(n2), tPath.exists(links, n1, n2));
+            }
+        }
+    }
+
+    @Test public void transitive_query_01() {
+        testQuery(":p+");
+        testQuery(":p*");
+        testQuery("(^:p)+");
+        testQuery(":q*");
+    }
+
+    @Test public void transitive_query_02() {
+        // Same variable both ends: nodes on a cycle.
+        RowSet rs = QueryExec.graph(graph).query("PREFIX : <http://example/> SELECT ?x { ?x :p+ ?x }").select();
+        Set<Node> actual = new HashSet<>();
+        rs.forEachRemaining(b -> actual.add(b.get("x")));
+        Set<Node> expected = new HashSet<>();
+        Path path = path(":p+");
+        for ( Node n : nodes() ) {
+            if ( Iter.toSet(PathEval.eval(graph, n, path, context)).contains(n) )
+                expected.add(n);
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test public void transitive_query_03() {
+        // Both ends fixed.
+        assertEquals(1, count("SELECT * { :a :p+ :e }"));
+        assertEquals(1, count("SELECT * { :a :p+ :a }"));
+        assertEquals(0, count("SELECT * { :e :p+ :a }"));
+        assertEquals(1, count("SELECT * { :e :p* :e }"));
+        assertEquals(0, count("SELECT * { :e :p+ :e }"));
+        assertEquals(1, count("SELECT * { :a :p+ 'lit' }"));
+        assertEquals(1, count("SELECT * { :e (^:p)+ :a }"));
+        assertEquals(1, count("SELECT * { :notInGraph :p* :notInGraph }"));
+    }
+
+    private static long count(String qs) {
+        return QueryExec.graph(graph).query("PREFIX : <http://example/> " + qs).select().rewindable().size();
+    }
+
+    /** Compare "?s path ?o" with the path evaluated from each node. */
+    private static void testQuery(String pathStr) {
+        RowSet rs = QueryExec.graph(graph).query("PREFIX : <http://example/> SELECT * { ?s " + pathStr + " ?o }").select();
+        List<List<Node>> actual = new ArrayList<>();
+        rs.forEachRemaining(b -> actual.add(List.of(b.get("s"), b.get("o"))));
+
+        Path path = path(pathStr);
+        List<List<Node>> expected = new ArrayList<>();
+        for ( Node n : Iter.toList(GraphUtils.allNodes(graph)) ) {
+            Iterator<Node> iter = PathEval.eval(graph, n, path, context);
+            iter.forEachRemaining(x -> expected.add(List.of(n, x)));
+        }
+        Comparator<List<Node>> cmp = Comparator.comparing((List<Node> x) -> x.toString());
+        actual.sort(cmp);
+        expected.sort(cmp);
+        if ( pathStr.endsWith("*") ) {
+            assertEquals(pathStr, expected, actual);
+        } else {
+            // p+ only starts at nodes with a link.
+            assertEquals(pathStr, new HashSet<>(expected), new HashSet<>(actual));
+            assertEquals(pathStr, expected.size(), actual.size());
+        }
+    }
+}
@@ -52,6 +52,8 @@ public final class PeekReader extends Reader {
     // Next character to return when reading forwards.
     private int              currChar      = UNSET;
     private long             posn;
+    // Position as the number of bytes when the characters read are encoded in UTF-8.
+    private long             bytePosn;
 
     public static final int  INIT_LINE     = 1;
     public static final int  INIT_COL      = 1;
@@ -127,6 +129,7 @@ public final class PeekReader extends Reader {
         this.colNum = INIT_COL;
         this.lineNum = INIT_LINE;
         this.posn = 0;
+        this.bytePosn = 0;
     }
 
     public long getLineNum() {
@@ -141,6 +144,29 @@ public final class PeekReader extends Reader {
         return posn;
     }
 
+    /**
+     * Position as a count of bytes, assuming the input is UTF-8.
+     * This is the byte offset of the next character to be read.
+     */
+    public long getBytePosition() {
+        long x = bytePosn;
+        // Pushed back characters have been counted.
+        for ( int i = 0 ; i <= idxPushback ; i++ )
+            x -= utf8Length(pushbackChars[i]);
+        return x;
+    }
+
+    // Bytes for a UTF-16 char. Surrogates are each half of a 4 byte encoding.
+    private static int utf8Length(int ch) {
+        if ( ch < 0x80 )
+            return 1;
+        if ( ch < 0x800 )
+            return 2;
+        if ( Character.isSurrogate((char)ch) )
+            return 2;
+        return 3;
+    }
+
     // ---- Do not access currChar except with peekChar/setCurrChar.
     public final int peekChar() {
         if ( idxPushback >= 0 )
@@ -257,6 +283,7 @@ public final class PeekReader extends Reader {
         }
 
         posn++;
+        bytePosn += ( ch < 0x80 ) ? 1 : utf8Length(ch);
 
         if ( ch == '\n' ) {
             lineNum++;
@@ -21,6 +21,8 @@ package org.apache.jena.atlas.io;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Test;
 
 public abstract class AbstractTestPeekReader {
@@ -195,6 +197,47 @@ public abstract class AbstractTestPeekReader {
         assertEquals("Column", colNum, r.getColNum());
     }
 
+    @Test
+    public void bytePosition1() {
+        bytePosition("abc");
+    }
+
+    @Test
+    public void bytePosition2() {
+        bytePosition("aé€\uD83D\uDE00z\n");
+    }
+
+    @Test
+    public void bytePosition3() {
+        // Pushback does not change the position.
+        PeekReader r = make("é€x");
+        int ch1 = r.readChar();
+        int ch2 = r.readChar();
+        assertEquals(5, r.getBytePosition());
+        r.pushbackChar(ch2);
+        assertEquals(2, r.getBytePosition());
+        r.pushbackChar(ch1);
+        assertEquals(0, r.getBytePosition());
+        r.readChar();
+        r.readChar();
+        r.readChar();
+        assertEquals(6, r.getBytePosition());
+    }
+
+    private void bytePosition(String contents) {
+        PeekReader r = make(contents);
+        assertEquals(0, r.getBytePosition());
+        for ( int i = 0 ; i < contents.length() ; i++ ) {
+            r.readChar();
+            int expected = contents.substring(0, i + 1).getBytes(StandardCharsets.UTF_8).length;
+            // Half way through a surrogate pair.
+            if ( Character.isHighSurrogate(contents.charAt(i)) )
+                expected = contents.substring(0, i).getBytes(StandardCharsets.UTF_8).length + 2;
+            assertEquals(expected, r.getBytePosition());
+        }
+        assertTrue(r.eof());
+    }
+
     private void position(String contents) {
         PeekReader r = make(contents);
 
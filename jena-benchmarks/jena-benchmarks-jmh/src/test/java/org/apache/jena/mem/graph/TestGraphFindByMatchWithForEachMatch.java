@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.mem.graph;
+
+import org.apache.jena.atlas.iterator.ActionCount;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.graph.helper.Context;
+import org.apache.jena.mem.graph.helper.JMHDefaultOptions;
+import org.apache.jena.mem.graph.helper.Releases;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Compares {@link Graph#find(Node, Node, Node)} with {@link Graph#forEachMatch(Node, Node, Node, java.util.function.Consumer)}
+ * for repeated lookups by pattern.
+ */
+@State(Scope.Benchmark)
+public class TestGraphFindByMatchWithForEachMatch {
+
+    @Param({
+            "../testing/cheeses-0.1.ttl",
+            "../testing/pizza.owl.rdf",
+            "../testing/BSBM/bsbm-1m.nt.gz",
+    })
+    public String param0_GraphUri;
+
+    @Param({
+            "GraphMem (current)",
+            "GraphMem2Fast (current)",
+            "GraphMem2Legacy (current)",
+            "GraphMem2Roaring (current)",
+    })
+    public String param1_GraphImplementation;
+
+    @Param({"800"})
+    public int param2_sampleSize;
+
+    @Param({
+            "S__",
+            "_P_",
+            "__O",
+            "SP_",
+            "S_O",
+            "_PO",
+    })
+    public String param3_pattern;
+
+    private Graph sut;
+    private List<Triple> triplesToFind;
+
+    @Benchmark
+    public long graphFindForEachRemaining() {
+        var actionCounter = new ActionCount<Triple>();
+        for (Triple sample : this.triplesToFind) {
+            var iter = sut.find(matchSubject(sample), matchPredicate(sample), matchObject(sample));
+            iter.forEachRemaining(actionCounter);
+            iter.close();
+        }
+        return actionCounter.getCount();
+    }
+
+    @Benchmark
+    public long graphForEachMatch() {
+        var actionCounter = new ActionCount<Triple>();
+        for (Triple sample : this.triplesToFind) {
+            sut.forEachMatch(matchSubject(sample), matchPredicate(sample), matchObject(sample), actionCounter);
+        }
+        return actionCounter.getCount();
+    }
+
+    private Node matchSubject(Triple t) {
+        return param3_pattern.charAt(0) == 'S' ? t.getSubject() : Node.ANY;
+    }
+
+    private Node matchPredicate(Triple t) {
+        return param3_pattern.charAt(1) == 'P' ? t.getPredicate() : Node.ANY;
+    }
+
+    private Node matchObject(Triple t) {
+        return param3_pattern.charAt(2) == 'O' ? t.getObject() : Node.ANY;
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws Exception {
+        Context trialContext = new Context(param1_GraphImplementation);
+        this.sut = Releases.current.createGraph(trialContext.getGraphClass());
+
+        var triples = Releases.current.readTriples(param0_GraphUri);
+        triples.forEach(this.sut::add);
+
+        /*clone the triples because they should not be the same objects*/
+        this.triplesToFind = new ArrayList<>(param2_sampleSize);
+        var sampleIncrement = triples.size() / param2_sampleSize;
+        for (var i = 0; i < triples.size(); i += sampleIncrement) {
+            this.triplesToFind.add(Releases.current.cloneTriple(triples.get(i)));
+        }
+        java.util.Collections.shuffle(this.triplesToFind, new Random(4721));
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        var opt = JMHDefaultOptions.getDefaults(this.getClass())
+                .build();
+        var results = new Runner(opt).run();
+        assertNotNull(results);
+    }
+}
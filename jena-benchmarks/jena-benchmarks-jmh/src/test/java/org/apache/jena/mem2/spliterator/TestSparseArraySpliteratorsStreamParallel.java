@@ -19,6 +19,7 @@
 package org.apache.jena.mem2.spliterator;
 
 import org.apache.jena.atlas.iterator.ActionCount;
+import org.apache.jena.mem2.collection.FastHashSet;
 import org.junit.Assert;
 import org.junit.Test;
 import org.openjdk.jmh.annotations.*;
@@ -45,11 +46,21 @@ public class TestSparseArraySpliteratorsStreamParallel {
     public int param0_arraySize;
     @Param({
             "mem.SparseArraySpliterator",
-            "mem2.SparseArraySpliterator"
+            "mem2.SparseArraySpliterator",
+            "mem2.FastHashSet.keySpliterator",
+            "mem2.SpliteratorOfJenaSets"
     })
     public String param1_iteratorImplementation;
     List<Object[]> arraysWithNulls = new ArrayList<>(stepsWithNull.length);
     List<Integer> elementsCounts = new ArrayList<>(stepsWithNull.length);
+    /*
+     * The elements of the arrays with nulls in hash sets, as they are used by the triple stores in mem2.
+     * A single large set is what a pattern stream like "?? P ??" traverses.
+     * Many small sets are what a stream over all triples traverses.
+     */
+    List<FastHashSet<Object>> sets = new ArrayList<>(stepsWithNull.length);
+    List<List<FastHashSet<Object>>> listsOfSmallSets = new ArrayList<>(stepsWithNull.length);
+    final static int smallSetSize = 32;
 
     @Benchmark
     public long testSpliteratorForeachRemaining() {
@@ -81,6 +92,12 @@ public class TestSparseArraySpliteratorsStreamParallel {
                 return new org.apache.jena.mem.SparseArraySpliterator<>(arrayWithNulls, count, checkForConcurrentModification);
             case "mem2.SparseArraySpliterator":
                 return new SparseArraySpliterator<>(arrayWithNulls, checkForConcurrentModification);
+            case "mem2.FastHashSet.keySpliterator":
+                return sets.get(arraysWithNulls.indexOf(arrayWithNulls)).keySpliterator();
+            case "mem2.SpliteratorOfJenaSets": {
+                var smallSets = listsOfSmallSets.get(arraysWithNulls.indexOf(arrayWithNulls));
+                return new SpliteratorOfJenaSets<>(smallSets.spliterator(), count);
+            }
 
             default:
                 throw new IllegalArgumentException("Unknown spliterator implementation: " + param1_iteratorImplementation);
@@ -99,6 +116,34 @@ public class TestSparseArraySpliteratorsStreamParallel {
             }
             this.arraysWithNulls.add(i, arrayWithNulls);
             this.elementsCounts.add(i, elementsCount);
+
+            var set = new ObjectSet(elementsCount);
+            var smallSets = new ArrayList<FastHashSet<Object>>(elementsCount / smallSetSize + 1);
+            ObjectSet smallSet = null;
+            for (Object element : arrayWithNulls) {
+                if (element == null) {
+                    continue;
+                }
+                set.addUnchecked(element);
+                if (smallSet == null || smallSet.size() == smallSetSize) {
+                    smallSet = new ObjectSet(smallSetSize);
+                    smallSets.add(smallSet);
+                }
+                smallSet.addUnchecked(element);
+            }
+            this.sets.add(i, set);
+            this.listsOfSmallSets.add(i, smallSets);
+        }
+    }
+
+    private static class ObjectSet extends FastHashSet<Object> {
+        ObjectSet(int initialSize) {
+            super(initialSize);
+        }
+
+        @Override
+        protected Object[] newKeysArray(int size) {
+            return new Object[size];
         }
     }
 
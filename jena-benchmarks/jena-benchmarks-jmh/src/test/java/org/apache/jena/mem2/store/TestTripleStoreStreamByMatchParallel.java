@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.store;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.graph.helper.Releases;
+import org.apache.jena.mem2.helper.JMHDefaultOptions;
+import org.apache.jena.mem2.store.fast.FastTripleStore;
+import org.apache.jena.mem2.store.legacy.LegacyTripleStore;
+import org.apache.jena.mem2.store.offheap.OffHeapTripleStore;
+import org.apache.jena.mem2.store.roaring.RoaringTripleStore;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares serial and parallel streams of {@link TripleStore#stream(Triple)} for each pattern class.
+ */
+@State(Scope.Benchmark)
+public class TestTripleStoreStreamByMatchParallel {
+
+    @Param({
+            "../testing/cheeses-0.1.ttl",
+            "../testing/pizza.owl.rdf",
+            "../testing/BSBM/bsbm-1m.nt.gz",
+    })
+    public String param0_GraphUri;
+
+    @Param({
+            "FastTripleStore",
+            "LegacyTripleStore",
+            "RoaringTripleStore",
+            "OffHeapTripleStore",
+    })
+    public String param1_TripleStoreImplementation;
+
+    @Param({
+            "S__",
+            "_P_",
+            "__O",
+            "SP_",
+            "S_O",
+            "_PO",
+    })
+    public String param2_Pattern;
+
+    @Param({"800"})
+    public int param3_sampleSize;
+
+    private TripleStore sut;
+    private List<Triple> matches;
+    private long expectedTotal;
+
+    @Benchmark
+    public long streamSerial() {
+        long total = 0;
+        for (Triple match : matches) {
+            /* sum is a terminal operation that has to visit every element, unlike count on a sized stream */
+            total += sut.stream(match).mapToInt(t -> 1).sum();
+        }
+        assertEquals(expectedTotal, total);
+        return total;
+    }
+
+    @Benchmark
+    public long streamParallel() {
+        long total = 0;
+        for (Triple match : matches) {
+            total += sut.stream(match).parallel().mapToInt(t -> 1).sum();
+        }
+        assertEquals(expectedTotal, total);
+        return total;
+    }
+
+    private static TripleStore createTripleStore(String implementation) {
+        switch (implementation) {
+            case "FastTripleStore":
+                return new FastTripleStore();
+            case "LegacyTripleStore":
+                return new LegacyTripleStore();
+            case "RoaringTripleStore":
+                return new RoaringTripleStore();
+            case "OffHeapTripleStore":
+                return new OffHeapTripleStore();
+            default:
+                throw new IllegalArgumentException("Unknown triple store implementation: " + implementation);
+        }
+    }
+
+    private static Function<Triple, Triple> getMatchFunction(String pattern) {
+        switch (pattern) {
+            case "S__":
+                return t -> Triple.createMatch(t.getSubject(), Node.ANY, Node.ANY);
+            case "_P_":
+                return t -> Triple.createMatch(Node.ANY, t.getPredicate(), Node.ANY);
+            case "__O":
+                return t -> Triple.createMatch(Node.ANY, Node.ANY, t.getObject());
+            case "SP_":
+                return t -> Triple.createMatch(t.getSubject(), t.getPredicate(), Node.ANY);
+            case "S_O":
+                return t -> Triple.createMatch(t.getSubject(), Node.ANY, t.getObject());
+            case "_PO":
+                return t -> Triple.createMatch(Node.ANY, t.getPredicate(), t.getObject());
+            default:
+                throw new IllegalArgumentException("Unknown pattern: " + pattern);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws Exception {
+        this.sut = createTripleStore(param1_TripleStoreImplementation);
+        var triples = Releases.current.readTriples(param0_GraphUri);
+        triples.forEach(sut::add);
+
+        var matchFunction = getMatchFunction(param2_Pattern);
+        /*clone the triples because they should not be the same objects*/
+        this.matches = new ArrayList<>(param3_sampleSize);
+        var sampleIncrement = Math.max(1, triples.size() / param3_sampleSize);
+        for (var i = 0; i < triples.size(); i += sampleIncrement) {
+            this.matches.add(matchFunction.apply(Releases.current.cloneTriple(triples.get(i))));
+        }
+        /* Shuffle is important because the order might play a role. */
+        Collections.shuffle(this.matches, new Random(4721));
+
+        this.expectedTotal = 0;
+        for (Triple match : matches) {
+            expectedTotal += sut.stream(match).count();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        if (sut instanceof OffHeapTripleStore offHeapTripleStore) {
+            offHeapTripleStore.close();
+        }
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        var opt = JMHDefaultOptions.getDefaults(this.getClass())
+                .build();
+        var results = new Runner(opt).run();
+        Assert.assertNotNull(results);
+    }
+
+}
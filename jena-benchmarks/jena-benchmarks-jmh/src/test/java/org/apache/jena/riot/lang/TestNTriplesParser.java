@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.riot.lang;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.mem.graph.helper.JMHDefaultOptions;
+import org.apache.jena.mem2.GraphMem2Fast;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+@State(Scope.Benchmark)
+public class TestNTriplesParser {
+
+    @Param({
+            "../testing/cheeses-0.1.ttl",
+            "../testing/pizza.owl.rdf",
+    })
+    public String param0_GraphUri;
+
+    @Param({
+            "RIOT",
+            "NTuplesScanner"
+    })
+    public String param1_Parser;
+
+    /** The test data, as N-Triples bytes. */
+    private byte[] ntriples;
+
+    @Benchmark
+    public Graph parseNTriples() {
+        final var graph = new GraphMem2Fast();
+        final var is = new ByteArrayInputStream(ntriples);
+        switch (param1_Parser) {
+            case "RIOT":
+                RDFParser.source(is)
+                        .forceLang(Lang.NTRIPLES)
+                        .checking(false)
+                        .parse(graph);
+                break;
+            case "NTuplesScanner":
+                NTuplesScanner.parse(is, Lang.NTRIPLES, StreamRDFLib.graph(graph));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown parser: " + param1_Parser);
+        }
+        return graph;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final var graph = RDFDataMgr.loadGraph(this.param0_GraphUri);
+        final var out = new ByteArrayOutputStream();
+        RDFDataMgr.write(out, graph, Lang.NTRIPLES);
+        this.ntriples = out.toByteArray();
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        var opt = JMHDefaultOptions.getDefaults(this.getClass())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .build();
+        var results = new Runner(opt).run();
+        Assert.assertNotNull(results);
+    }
+
+}
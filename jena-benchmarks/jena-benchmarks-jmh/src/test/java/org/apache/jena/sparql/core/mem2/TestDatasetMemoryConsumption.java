@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.sparql.core.mem2;
+
+import org.apache.commons.lang3.time.StopWatch;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.graph.helper.JMHDefaultOptions;
+import org.apache.jena.mem.graph.helper.Releases;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Memory used by the in-memory datasets when the triples of a file are spread over a number of named graphs.
+ */
+@State(Scope.Benchmark)
+public class TestDatasetMemoryConsumption {
+
+    @Param({
+            "../testing/cheeses-0.1.ttl",
+            "../testing/pizza.owl.rdf",
+            "../testing/BSBM/bsbm-1m.nt.gz",
+    })
+    public String param0_GraphUri;
+
+    @Param({
+            "1",
+            "100",
+    })
+    public int param1_NumberOfGraphs;
+
+    @Param({
+            "DatasetGraphFactory.createGeneral",
+            "DatasetGraphFactory.createTxnMem",
+            "DatasetGraphFactory.createQuadMem",
+    })
+    public String param2_DatasetImplementation;
+
+    private Supplier<DatasetGraph> createDataset;
+    private List<Triple> triples;
+    private Node[] graphNames;
+
+    /**
+     * This method is used to get the memory consumption of the current JVM.
+     *
+     * @return the memory consumption in MB
+     */
+    private static double runGcAndGetUsedMemoryInMB() {
+        System.runFinalization();
+        System.gc();
+        Runtime.getRuntime().runFinalization();
+        Runtime.getRuntime().gc();
+        return BigDecimal.valueOf(Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()).divide(BigDecimal.valueOf(1024L)).divide(BigDecimal.valueOf(1024L)).doubleValue();
+    }
+
+    @Benchmark
+    public Object fillDataset() {
+        var memoryBefore = runGcAndGetUsedMemoryInMB();
+        var stopwatch = StopWatch.createStarted();
+        var sut = createDataset.get();
+        var i = 0;
+        for (var t : triples) {
+            sut.add(graphNames[i++ % graphNames.length], t.getSubject(), t.getPredicate(), t.getObject());
+        }
+        stopwatch.stop();
+        var memoryAfter = runGcAndGetUsedMemoryInMB();
+        System.out.printf("quads: %d graphs: %d time to fill dataset: %s additional memory: %5.3f MB%n",
+                triples.size(),
+                graphNames.length,
+                stopwatch.formatTime(),
+                (memoryAfter - memoryBefore));
+        return sut;
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws Exception {
+        triples = Releases.current.readTriples(param0_GraphUri);
+        graphNames = new Node[param1_NumberOfGraphs];
+        for (int i = 0; i < graphNames.length; i++) {
+            graphNames[i] = NodeFactory.createURI("http://example/graph/" + i);
+        }
+        switch (param2_DatasetImplementation) {
+            case "DatasetGraphFactory.createGeneral":
+                this.createDataset = DatasetGraphFactory::createGeneral;
+                break;
+            case "DatasetGraphFactory.createTxnMem":
+                this.createDataset = () -> {
+                    var dsg = DatasetGraphFactory.createTxnMem();
+                    // Avoid one transaction per quad.
+                    dsg.begin(ReadWrite.WRITE);
+                    return dsg;
+                };
+                break;
+            case "DatasetGraphFactory.createQuadMem":
+                this.createDataset = DatasetGraphFactory::createQuadMem;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown dataset implementation: " + param2_DatasetImplementation);
+        }
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        var opt = JMHDefaultOptions.getDefaults(this.getClass())
+                .warmupIterations(3)
+                .measurementIterations(3)
+                .build();
+        var results = new Runner(opt).run();
+        Assert.assertNotNull(results);
+    }
+}
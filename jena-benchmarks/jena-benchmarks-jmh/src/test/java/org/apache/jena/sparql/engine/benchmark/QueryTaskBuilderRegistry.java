@@ -31,6 +31,8 @@ public class QueryTaskBuilderRegistry {
 
     static {
         INSTANCE.put("current", () -> new QueryTaskBuilderCurrent());
+        // Current version, with hash joins partitioned to disk once the build side has more than 1000 rows.
+        INSTANCE.put("current-spill", () -> new QueryTaskBuilderCurrent(1000));
         INSTANCE.put("4.8.0", () -> new QueryTaskBuilder480());
     }
 
@@ -44,6 +44,7 @@ import org.openjdk.jmh.runner.options.TimeValue;
 public class BenchmarkHashJoin {
     @Param({
         "current",
+        "current-spill",
         "4.8.0"
     })
     public String param0_jenaVersion;
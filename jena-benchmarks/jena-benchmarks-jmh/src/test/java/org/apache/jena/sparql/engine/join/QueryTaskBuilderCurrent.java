@@ -23,8 +23,19 @@ import org.apache.jena.sparql.engine.benchmark.QueryTaskBuilder;
 public class QueryTaskBuilderCurrent
     extends QueryTaskBuilder
 {
+    private final long spillToDiskThreshold;
+
+    public QueryTaskBuilderCurrent() {
+        this(-1);
+    }
+
+    /** Builder for tasks that run with the given {@link org.apache.jena.query.ARQ#spillToDiskThreshold}. */
+    public QueryTaskBuilderCurrent(long spillToDiskThreshold) {
+        this.spillToDiskThreshold = spillToDiskThreshold;
+    }
+
     @Override
     public QueryTask build() {
-        return new QueryTaskCurrent(queryString, expectedResultSetSize, skipExecution, skipValidation);
+        return new QueryTaskCurrent(queryString, expectedResultSetSize, skipExecution, skipValidation, spillToDiskThreshold);
     }
 }
@@ -36,8 +36,16 @@ import org.apache.jena.sparql.util.Context;
 public class QueryTaskCurrent
     extends QueryTask
 {
+    private final long spillToDiskThreshold;
+
     public QueryTaskCurrent(String queryString, long expectedResultSetSize, boolean skipExecution, boolean skipValidation) {
+        this(queryString, expectedResultSetSize, skipExecution, skipValidation, -1);
+    }
+
+    /** A task that runs with the given {@link ARQ#spillToDiskThreshold}; a negative value for no spilling. */
+    public QueryTaskCurrent(String queryString, long expectedResultSetSize, boolean skipExecution, boolean skipValidation, long spillToDiskThreshold) {
         super(queryString, expectedResultSetSize, skipExecution, skipValidation);
+        this.spillToDiskThreshold = spillToDiskThreshold;
     }
 
     @Override
@@ -47,6 +55,8 @@ public class QueryTaskCurrent
             ops[0] = origOp;
             ops[1] = optimizedOp;
         });
+        if ( spillToDiskThreshold >= 0 )
+            cxt.set(ARQ.spillToDiskThreshold, spillToDiskThreshold);
 
         long resultCount;
         try (QueryExec qe = QueryExec.newBuilder()
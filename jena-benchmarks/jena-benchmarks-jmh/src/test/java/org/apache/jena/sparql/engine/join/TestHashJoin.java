@@ -40,4 +40,16 @@ public class TestHashJoin {
         QueryTask task = QueryTaskReader.loadOne("join/join_matrix_skewed_a_10.ttl", "current");
         QueryTaskTestUtils.execAndAssert(task);
     }
+
+    @Test
+    public void test_join_1column_simple_a_10k_spill() {
+        QueryTask task = QueryTaskReader.loadOne("join/join_1column_simple_a_10k.ttl", "current-spill");
+        QueryTaskTestUtils.execAndAssert(task);
+    }
+
+    @Test
+    public void test_join_matrix_skewed_a_10_spill() {
+        QueryTask task = QueryTaskReader.loadOne("join/join_matrix_skewed_a_10.ttl", "current-spill");
+        QueryTaskTestUtils.execAndAssert(task);
+    }
 }
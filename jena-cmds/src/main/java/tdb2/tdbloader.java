@@ -49,6 +49,7 @@ public class tdbloader extends CmdTDBGraph {
     private static final ArgDecl argStats = new ArgDecl(ArgDecl.HasValue, "stats");
     private static final ArgDecl argLoader = new ArgDecl(ArgDecl.HasValue, "loader");
     private static final ArgDecl argSyntax = new ArgDecl(ArgDecl.HasValue, "syntax");
+    private static final ArgDecl argCheckpoint = new ArgDecl(ArgDecl.HasValue, "checkpoint");
 
     private enum LoaderEnum {
         Basic, Parallel, Sequential, Light, Phased
@@ -58,6 +59,7 @@ public class tdbloader extends CmdTDBGraph {
     private boolean generateStats = false;
     private LoaderEnum loader = null;
     private Lang lang = Lang.NQUADS;
+    private Path checkpointFile = null;
 
     public static void main(String...args) {
         CmdTDB.init();
@@ -69,6 +71,7 @@ public class tdbloader extends CmdTDBGraph {
 // super.add(argStats, "Generate statistics");
         super.add(argLoader, "--loader=", "Loader to use: 'basic', 'phased' (default), 'sequential', 'parallel' or 'light'");
         super.add(argSyntax, "--syntax=LANG", "Syntax of data from stdin");
+        super.add(argCheckpoint, "--checkpoint=FILE", "Use the basic loader, committing as it goes, and record progress in FILE to resume an interrupted load");
     }
 
     @Override
@@ -91,6 +94,13 @@ public class tdbloader extends CmdTDBGraph {
                 throw new CmdException("Unrecognized value for --loader: " + loadername);
         }
 
+        if ( contains(argCheckpoint) ) {
+            if ( loader != null && loader != LoaderEnum.Basic )
+                throw new CmdException("--checkpoint requires the basic loader");
+            loader = LoaderEnum.Basic;
+            checkpointFile = Paths.get(getValue(argCheckpoint));
+        }
+
         if ( super.contains(argStats) ) {
             if ( !hasValueOfTrue(argStats) && !hasValueOfFalse(argStats) )
                 throw new CmdException("Not a boolean value: " + getValue(argStats));
@@ -251,6 +261,8 @@ public class tdbloader extends CmdTDBGraph {
             case Light :
                 return LoaderFactory.createLoader(LoaderPlans.loaderPlanLight, dsg, output);
             case Basic :
+                if ( checkpointFile != null )
+                    return LoaderFactory.resumableLoader(dsg, gn, checkpointFile, output);
                 return LoaderFactory.basicLoader(dsg, gn, output);
             default :
                 throw new InternalErrorException("Unrecognized loader: " + useLoader);
@@ -19,6 +19,7 @@
 package org.apache.jena.graph;
 
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.jena.atlas.iterator.Iter;
@@ -147,6 +148,17 @@ public interface Graph {
 	 */
 	ExtendedIterator<Triple> find(Node s, Node p, Node o);
 
+	/**
+	 * Performs the given action for each triple matching a pattern.
+	 * <p>
+	 * Implementations may do this without creating an iterator, which makes it cheaper than
+	 * {@link #find(Node, Node, Node)} in loops that visit all matches.
+	 * The action must not modify the graph.
+	 */
+	default void forEachMatch(Node s, Node p, Node o, Consumer<Triple> action) {
+	    find(s, p, o).forEachRemaining(action);
+	}
+
 	/** Returns a {@link Stream} of Triples matching a pattern.
 	 *
 	 * @return a stream  of triples in this graph matching the pattern.
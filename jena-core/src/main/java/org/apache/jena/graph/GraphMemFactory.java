@@ -23,6 +23,7 @@ import java.util.Iterator;
 import org.apache.jena.graph.impl.GraphBase ;
 import org.apache.jena.mem2.GraphMem2Fast;
 import org.apache.jena.mem2.GraphMem2Legacy;
+import org.apache.jena.mem2.GraphMem2OffHeap;
 import org.apache.jena.mem2.GraphMem2Roaring;
 import org.apache.jena.sys.JenaSystem;
 import org.apache.jena.util.iterator.ExtendedIterator ;
@@ -209,6 +210,22 @@ public class GraphMemFactory
     { return new GraphMem2Roaring(); }
 
 
+    /**
+     * A graph that stores triples in memory outside the Java heap. This class is not thread-safe.
+     * <p>
+     * <ul>
+     * <li>This graph provides term equality.</li>
+     * <li>Iterator over this graph does not provide Iterator.remove</li>
+     * </ul>
+     * <p>
+     * {@link GraphMem2OffHeap} is focused on very large, short-lived graphs that should not
+     * add to the Java heap. The graph must be closed to release its memory promptly.
+     * <p>
+     * See {@link GraphMem2OffHeap} for details.
+     */
+    public static Graph createGraphMemOffHeap()
+    { return new GraphMem2OffHeap(); }
+
     /**
      * @deprecated Use {@link #createGraphMemRoaring()}
      */
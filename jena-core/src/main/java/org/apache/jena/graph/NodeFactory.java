@@ -356,6 +356,14 @@ public class NodeFactory {
         return createTripleTerm(triple);
     }
 
+    /**
+     * Return the canonical node for a URI or literal, from the process-wide {@link NodeInterner}.
+     * Other nodes are returned unchanged.
+     */
+    public static Node intern(Node node) {
+        return NodeInterner.get().intern(node);
+    }
+
     /** Create a graph node. This is an N3-formula; it is not a named graph (see "quad") */
     public static Node createGraphNode(Graph graph) {
         return new Node_Graph(graph);
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.graph;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * A table of canonical {@link Node} objects.
+ * <p>
+ * {@link #intern(Node)} returns an equal node that has been interned before, if there is one.
+ * Parsers and graphs that intern their nodes share one object per RDF term, which saves memory
+ * and lets {@link Node#equals} succeed on the identity check.
+ * <p>
+ * Only URIs and literals are interned. Blank nodes, triple terms, variables and other nodes are
+ * returned unchanged.
+ * <p>
+ * The table holds the nodes by {@link WeakReference}s, so interning does not keep nodes alive.
+ * The table has a fixed number of slots and never grows: when all slots of a bucket are in use, an
+ * older entry is replaced. So the memory is bounded and interning is best effort - two equal nodes
+ * are not guaranteed to be the same object.
+ * <p>
+ * The table is split into shards, each with its own slots. Access is lock-free.
+ * Concurrent updates can overwrite each other. This only means a missed opportunity to share a node.
+ * <p>
+ * {@link #get()} is the process-wide interner. Its capacity can be set with the system property
+ * {@value #CAPACITY_PROPERTY}.
+ */
+public final class NodeInterner {
+
+    /** System property for the capacity of the process-wide interner. */
+    public static final String CAPACITY_PROPERTY = "jena:nodeInternerCapacity";
+
+    /** Default number of slots of the process-wide interner. */
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+
+    private static final int WAYS = 4;
+    private static final int SHARDS = 16;
+    private static final int SHARD_BITS = 4;
+
+    private static class Holder {
+        static final NodeInterner INSTANCE = new NodeInterner(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+    }
+
+    /**
+     * The process-wide interner.
+     */
+    public static NodeInterner get() {
+        return Holder.INSTANCE;
+    }
+
+    private final Shard[] shards;
+    private final int bucketMask;
+
+    /**
+     * Create an interner with the given total number of slots.
+     * The capacity is rounded up to a power of two, with a minimum of 64.
+     */
+    public NodeInterner(final int capacity) {
+        int slotsPerShard = Integer.highestOneBit(Math.max(capacity, SHARDS * WAYS) - 1) << 1;
+        slotsPerShard /= SHARDS;
+        this.bucketMask = slotsPerShard / WAYS - 1;
+        this.shards = new Shard[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard(slotsPerShard);
+        }
+    }
+
+    /**
+     * Answer true if the node can be interned.
+     */
+    public static boolean isInternable(final Node node) {
+        return node.isURI() || node.isLiteral();
+    }
+
+    /**
+     * Returns the canonical node equal to the given one.
+     * If there is none yet, the given node becomes the canonical node.
+     *
+     * @param node the node to intern
+     * @return an equal node, which may be the node itself
+     */
+    public Node intern(final Node node) {
+        if (!isInternable(node)) {
+            return node;
+        }
+        final int hashCode = node.hashCode();
+        final int h = hashCode ^ (hashCode >>> 16);
+        final var shard = shards[h & (SHARDS - 1)];
+        final var slots = shard.slots;
+        final int base = ((h >>> SHARD_BITS) & bucketMask) * WAYS;
+        int free = -1;
+        for (int i = base; i < base + WAYS; i++) {
+            final var ref = slots[i];
+            final Node candidate = ref == null ? null : ref.get();
+            if (candidate == null) {
+                if (free < 0) {
+                    free = i;
+                }
+            } else if (candidate == node || (candidate.hashCode() == hashCode && candidate.equals(node))) {
+                return candidate;
+            }
+        }
+        if (free < 0) {
+            free = base + (shard.victim++ & (WAYS - 1));
+        }
+        slots[free] = new WeakReference<>(node);
+        return node;
+    }
+
+    /**
+     * Returns a triple with the canonical nodes of the given triple.
+     * If all nodes are canonical already, the triple itself is returned.
+     */
+    public Triple intern(final Triple triple) {
+        final var s = intern(triple.getSubject());
+        final var p = intern(triple.getPredicate());
+        final var o = intern(triple.getObject());
+        if (s == triple.getSubject() && p == triple.getPredicate() && o == triple.getObject()) {
+            return triple;
+        }
+        return Triple.create(s, p, o);
+    }
+
+    /**
+     * Number of slots of this interner.
+     */
+    public int capacity() {
+        return SHARDS * shards[0].slots.length;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        for (var shard : shards) {
+            Arrays.fill(shard.slots, null);
+        }
+    }
+
+    private static final class Shard {
+        final WeakReference<Node>[] slots;
+        /** Round-robin replacement within a full bucket. Races are harmless. */
+        int victim;
+
+        @SuppressWarnings("unchecked")
+        Shard(final int size) {
+            this.slots = new WeakReference[size];
+        }
+    }
+}
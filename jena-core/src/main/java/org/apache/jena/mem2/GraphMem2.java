@@ -18,6 +18,7 @@
 
 package org.apache.jena.mem2;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.jena.atlas.lib.Copyable;
@@ -119,6 +120,17 @@ public class GraphMem2 extends GraphMemBase implements GraphWithPerform, Copyabl
         return this.tripleStore.find(tripleMatch);
     }
 
+    /**
+     * Performs the given action for each triple matching the pattern.
+     * This does not create an iterator; see {@link TripleStore#forEachMatch}.
+     * The action must not modify this graph.
+     */
+    @Override
+    public void forEachMatch(final Node sm, final Node pm, final Node om, final Consumer<Triple> action) {
+        checkOpen();
+        this.tripleStore.forEachMatch(sm, pm, om, action);
+    }
+
     /**
      * Answer true if the graph contains any triple matching <code>t</code>.
      * The default implementation uses <code>find</code> and checks to see
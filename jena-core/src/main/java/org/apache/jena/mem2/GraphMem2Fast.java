@@ -18,6 +18,8 @@
 
 package org.apache.jena.mem2;
 
+import org.apache.jena.graph.NodeInterner;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.mem2.store.TripleStore;
 import org.apache.jena.mem2.store.fast.FastTripleStore;
 
@@ -38,19 +40,39 @@ import org.apache.jena.mem2.store.fast.FastTripleStore;
  * <li>Also uses 3 hash-maps indexed by subjects, predicates, and objects
  * <li>Values of the maps also switch from arrays to hash sets for the triples
  * </ul>
+ * <p>
+ * Optionally, the URIs and literals of added triples are interned with a {@link NodeInterner}, so that equal terms
+ * in this graph (and in other graphs and parsers using the same interner) share one node object.
  */
 public class GraphMem2Fast extends GraphMem2 {
 
+    private final NodeInterner interner;
+
     public GraphMem2Fast() {
-        super(new FastTripleStore());
+        this(new FastTripleStore(), null);
+    }
+
+    /**
+     * Create a graph that interns the nodes of added triples.
+     *
+     * @param interner the interner to use, for example {@link NodeInterner#get()}
+     */
+    public GraphMem2Fast(final NodeInterner interner) {
+        this(new FastTripleStore(), interner);
     }
 
-    private GraphMem2Fast(final TripleStore tripleStore) {
+    private GraphMem2Fast(final TripleStore tripleStore, final NodeInterner interner) {
         super(tripleStore);
+        this.interner = interner;
+    }
+
+    @Override
+    public void performAdd(final Triple t) {
+        super.performAdd(interner == null ? t : interner.intern(t));
     }
 
     @Override
     public GraphMem2Fast copy() {
-        return new GraphMem2Fast(this.tripleStore.copy());
+        return new GraphMem2Fast(this.tripleStore.copy(), this.interner);
     }
 }
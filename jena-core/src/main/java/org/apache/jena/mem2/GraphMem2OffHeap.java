@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2;
+
+import org.apache.jena.mem2.store.offheap.OffHeapTripleStore;
+
+/**
+ * A graph that stores triples in memory outside the Java heap. This class is not thread-safe.
+ * <p>
+ * Purpose: GraphMem2OffHeap is meant for very large, short-lived graphs, for example intermediate results
+ * in ETL pipelines. The data does not count against the Java heap and is not traversed by the garbage
+ * collector, so the heap can stay small and GC pauses short.
+ * <p>
+ * The off-heap memory is limited by the JVM option {@code -XX:MaxDirectMemorySize}.
+ * Always {@link #close()} the graph when it is not needed anymore. This drops all off-heap buffers at once
+ * instead of waiting for the graph object to become unreachable.
+ * <p>
+ * Nodes are dictionary encoded and decoded on access, so find operations are slower than with
+ * {@link GraphMem2Fast}. Matches only decode the nodes of the triples that are returned.
+ * <p>
+ * Internal structure:
+ * <ul>
+ * <li>A node dictionary that stores the encoded nodes off-heap and maps them to int ids.
+ * <li>A table of triple records with linked lists per subject, predicate and object.
+ * <li>A hash index over the triple records.
+ * </ul>
+ * See {@link OffHeapTripleStore} for details.
+ */
+public class GraphMem2OffHeap extends GraphMem2 {
+    public GraphMem2OffHeap() {
+        super(new OffHeapTripleStore());
+    }
+
+    private GraphMem2OffHeap(final OffHeapTripleStore tripleStore) {
+        super(tripleStore);
+    }
+
+    /**
+     * Releases the off-heap memory.
+     */
+    @Override
+    public void destroy() {
+        ((OffHeapTripleStore) this.tripleStore).close();
+    }
+
+    /**
+     * Number of bytes of off-heap memory currently allocated by this graph.
+     */
+    public long offHeapBytes() {
+        return ((OffHeapTripleStore) this.tripleStore).offHeapBytes();
+    }
+
+    @Override
+    public GraphMem2OffHeap copy() {
+        return new GraphMem2OffHeap(((OffHeapTripleStore) this.tripleStore).copy());
+    }
+}
@@ -18,11 +18,13 @@
 package org.apache.jena.mem2.collection;
 
 import org.apache.jena.mem2.iterator.SparseArrayIterator;
+import org.apache.jena.mem2.spliterator.ArraySpliterator;
 import org.apache.jena.mem2.spliterator.SparseArraySpliterator;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
 import java.util.ConcurrentModificationException;
 import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
@@ -376,6 +378,21 @@ public abstract class FastHashBase<K> implements JenaMapSetCommon<K> {
         return false;
     }
 
+    @Override
+    public final void forEachKey(final Consumer<K> action) {
+        final var initialSize = size();
+        final var keys = this.keys;
+        var pos = keysPos - 1;
+        while (-1 < pos) {
+            final var key = keys[pos];
+            if (null != key) {
+                action.accept(key);
+            }
+            pos--;
+        }
+        if (size() != initialSize) throw new ConcurrentModificationException();
+    }
+
     @Override
     public final ExtendedIterator<K> keyIterator() {
         final var initialSize = size();
@@ -430,6 +447,13 @@ public abstract class FastHashBase<K> implements JenaMapSetCommon<K> {
         removedKeysCount = 0;
     }
 
+    /**
+     * Returns a spliterator over the keys.
+     * As long as no key has been removed, the keys array is dense from 0 to keysPos. In that case an
+     * {@link ArraySpliterator} is returned, which reports {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED}
+     * and thus allows parallel streams to split evenly and to pre-size their results.
+     * Otherwise, a {@link SparseArraySpliterator} is returned, which skips the null entries of removed keys.
+     */
     @Override
     public final Spliterator<K> keySpliterator() {
         final var initialSize = this.size();
@@ -437,6 +461,18 @@ public abstract class FastHashBase<K> implements JenaMapSetCommon<K> {
         {
             if (this.size() != initialSize) throw new ConcurrentModificationException();
         };
-        return new SparseArraySpliterator<>(keys, keysPos, checkForConcurrentModification);
+        return isDense()
+                ? new ArraySpliterator<>(keys, keysPos, checkForConcurrentModification)
+                : new SparseArraySpliterator<>(keys, keysPos, checkForConcurrentModification);
+    }
+
+    /**
+     * Answer true if there are no gaps in the keys array between 0 and keysPos.
+     * Gaps are left by removed keys and only disappear when the free slots are reused by new keys.
+     *
+     * @return true if the keys array contains no null entries below keysPos
+     */
+    protected final boolean isDense() {
+        return removedKeysCount == 0;
     }
 }
@@ -19,11 +19,13 @@
 package org.apache.jena.mem2.collection;
 
 import org.apache.jena.mem2.iterator.SparseArrayIterator;
+import org.apache.jena.mem2.spliterator.ArraySpliterator;
 import org.apache.jena.mem2.spliterator.SparseArraySpliterator;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
 import java.util.ConcurrentModificationException;
 import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
@@ -225,6 +227,21 @@ public abstract class FastHashMap<K, V> extends FastHashBase<K> implements JenaM
         return new SparseArrayIterator<>(values, keysPos, checkForConcurrentModification);
     }
 
+    @Override
+    public void forEachValue(final Consumer<V> action) {
+        final var initialSize = size();
+        final var values = this.values;
+        var pos = keysPos - 1;
+        while (-1 < pos) {
+            final var value = values[pos];
+            if (null != value) {
+                action.accept(value);
+            }
+            pos--;
+        }
+        if (size() != initialSize) throw new ConcurrentModificationException();
+    }
+
     @Override
     public Spliterator<V> valueSpliterator() {
         final var initialSize = this.size();
@@ -232,6 +249,8 @@ public abstract class FastHashMap<K, V> extends FastHashBase<K> implements JenaM
         {
             if (this.size() != initialSize) throw new ConcurrentModificationException();
         };
-        return new SparseArraySpliterator<>(values, keysPos, checkForConcurrentModification);
+        return isDense()
+                ? new ArraySpliterator<>(values, keysPos, checkForConcurrentModification)
+                : new SparseArraySpliterator<>(values, keysPos, checkForConcurrentModification);
     }
 }
@@ -111,6 +111,17 @@ public abstract class FastHashSet<K> extends FastHashBase<K> implements JenaSetH
         positions[findEmptySlotWithoutEqualityCheck(hashCode)] = ~eIndex;
     }
 
+    /**
+     * Gets the index of the given element.
+     *
+     * @param value the value to look up
+     * @return the index of the element or -1 if the element is not in the set
+     */
+    public int indexOf(K value) {
+        final var pIndex = findPosition(value, value.hashCode());
+        return pIndex < 0 ? -1 : ~positions[pIndex];
+    }
+
     /**
      * Gets the key at the given index.
      *
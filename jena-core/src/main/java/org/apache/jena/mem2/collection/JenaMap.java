@@ -20,6 +20,7 @@ package org.apache.jena.mem2.collection;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
 import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
@@ -94,6 +95,16 @@ public interface JenaMap<K, V> extends JenaMapSetCommon<K> {
      */
     ExtendedIterator<V> valueIterator();
 
+    /**
+     * Performs the given action for each value in the map.
+     * Implementations should do this without creating an iterator.
+     *
+     * @param action the action to perform
+     */
+    default void forEachValue(Consumer<V> action) {
+        valueIterator().forEachRemaining(action);
+    }
+
     /**
      * Get a spliterator over the values in the map.
      *
@@ -20,6 +20,7 @@ package org.apache.jena.mem2.collection;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
 import java.util.Spliterator;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -85,6 +86,16 @@ public interface JenaMapSetCommon<E> {
      */
     ExtendedIterator<E> keyIterator();
 
+    /**
+     * Performs the given action for each key in the collection.
+     * Implementations should do this without creating an iterator.
+     *
+     * @param action the action to perform
+     */
+    default void forEachKey(Consumer<E> action) {
+        keyIterator().forEachRemaining(action);
+    }
+
     /**
      * Get a spliterator over the keys in the collection.
      *
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.spliterator;
+
+import org.apache.jena.mem2.collection.JenaSet;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator that iterates over the entries of sets which are contained in the given spliterator of sets.
+ * The sets must be disjoint.
+ * <p>
+ * In contrast to {@link java.util.stream.Stream#flatMap}, this spliterator knows the total number of elements
+ * and reports {@link Spliterator#SIZED} until it is split for the first time.
+ * It first splits the spliterator of sets. If that is no longer possible, it splits the spliterator of the
+ * set that is currently being traversed. So a single large set is also processed in parallel.
+ * <p>
+ * The sets may be modified, so this spliterator is not {@link Spliterator#IMMUTABLE};
+ * modification during traversal is detected by the spliterators of the sets.
+ *
+ * @param <E> the type of the elements
+ */
+public class SpliteratorOfJenaSets<E> implements Spliterator<E> {
+
+    private final Spliterator<? extends JenaSet<E>> parentSpliterator;
+    private Spliterator<E> currentSpliterator;
+    private long estimatedSize;
+    private boolean sized;
+
+    /**
+     * Create a spliterator over the elements of all sets of the given spliterator.
+     *
+     * @param parentSpliterator spliterator over disjoint sets
+     * @param size              the total number of elements in all sets
+     */
+    public SpliteratorOfJenaSets(final Spliterator<? extends JenaSet<E>> parentSpliterator, final long size) {
+        this(parentSpliterator, null, size);
+        this.sized = true;
+    }
+
+    private SpliteratorOfJenaSets(final Spliterator<? extends JenaSet<E>> parentSpliterator,
+                                  final Spliterator<E> currentSpliterator, final long estimatedSize) {
+        this.parentSpliterator = parentSpliterator;
+        this.currentSpliterator = currentSpliterator;
+        this.estimatedSize = estimatedSize;
+        this.sized = false;
+    }
+
+    private void setCurrentSpliterator(final JenaSet<E> set) {
+        this.currentSpliterator = set.keySpliterator();
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        while (true) {
+            if (currentSpliterator != null && currentSpliterator.tryAdvance(action)) {
+                if (0 < estimatedSize) {
+                    estimatedSize--;
+                }
+                return true;
+            }
+            if (!parentSpliterator.tryAdvance(this::setCurrentSpliterator)) {
+                currentSpliterator = null;
+                estimatedSize = 0;
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        if (currentSpliterator != null) {
+            currentSpliterator.forEachRemaining(action);
+            currentSpliterator = null;
+        }
+        parentSpliterator.forEachRemaining(set -> set.keySpliterator().forEachRemaining(action));
+        estimatedSize = 0;
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        final var parentSplit = parentSpliterator.trySplit();
+        if (parentSplit != null) {
+            // The split-off sets cover the upper half of the parent, which is assumed to hold half of the elements.
+            final long splitEstimatedSize = estimatedSize >>> 1;
+            estimatedSize -= splitEstimatedSize;
+            sized = false;
+            return new SpliteratorOfJenaSets<>(parentSplit, null, splitEstimatedSize);
+        }
+        if (currentSpliterator != null) {
+            final var currentSplit = currentSpliterator.trySplit();
+            if (currentSplit != null) {
+                final long splitEstimatedSize = Math.min(estimatedSize, currentSplit.estimateSize());
+                estimatedSize -= splitEstimatedSize;
+                sized = false;
+                return currentSplit;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return sized
+                ? DISTINCT | SIZED | NONNULL
+                : DISTINCT | NONNULL;
+    }
+}
@@ -19,9 +19,11 @@
 package org.apache.jena.mem2.store;
 
 import org.apache.jena.atlas.lib.Copyable;
+import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -78,6 +80,8 @@ public interface TripleStore extends Copyable<TripleStore> {
     /**
      * Returns a {@link Stream} of Triples matching the given pattern.
      * Note: {@link Stream#parallel()} is supported.
+     * Implementations should return streams based on splittable spliterators that report
+     * {@link java.util.Spliterator#SIZED} wherever the number of matches is known without filtering.
      *
      * @param tripleMatch triple match pattern
      * @return a stream  of triples in this graph matching the pattern.
@@ -89,6 +93,21 @@ public interface TripleStore extends Copyable<TripleStore> {
      */
     ExtendedIterator<Triple> find(final Triple tripleMatch);
 
+    /**
+     * Performs the given action for each triple matching the pattern.
+     * <p>
+     * Unlike {@link #find(Triple)}, implementations should not create iterators or other objects
+     * for each call, so this can be used in hot loops. The action must not modify the store.
+     *
+     * @param sm     subject node match pattern, null or a non-concrete node for any
+     * @param pm     predicate node match pattern, null or a non-concrete node for any
+     * @param om     object node match pattern, null or a non-concrete node for any
+     * @param action the action to perform for each matching triple
+     */
+    default void forEachMatch(final Node sm, final Node pm, final Node om, final Consumer<Triple> action) {
+        find(Triple.createMatch(sm, pm, om)).forEachRemaining(action);
+    }
+
     /**
      * Return a new triple store that is a copy of this one.
      * Since Nodes and Triples are immutable and shared, the copy can share the same Nodes and Triples.
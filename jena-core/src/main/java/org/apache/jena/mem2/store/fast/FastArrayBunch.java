@@ -140,6 +140,15 @@ public abstract class FastArrayBunch implements FastTripleBunch {
         }
     }
 
+    @Override
+    public void forEachKey(final Consumer<Triple> action) {
+        final var initialSize = size;
+        final var elements = this.elements;
+        int i = size;
+        while (0 < i--) action.accept(elements[i]);
+        if (size != initialSize) throw new ConcurrentModificationException();
+    }
+
     @Override
     public ExtendedIterator<Triple> keyIterator() {
         return new NiceIterator<>() {
@@ -17,15 +17,18 @@
  */
 package org.apache.jena.mem2.store.fast;
 
+import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.mem2.collection.FastHashMap;
 import org.apache.jena.mem2.iterator.IteratorOfJenaSets;
 import org.apache.jena.mem2.pattern.PatternClassifier;
+import org.apache.jena.mem2.spliterator.SpliteratorOfJenaSets;
 import org.apache.jena.mem2.store.TripleStore;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.jena.util.iterator.NiceIterator;
 import org.apache.jena.util.iterator.SingletonIterator;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -62,6 +65,10 @@ import java.util.stream.StreamSupport;
  * matches.
  * - for the FastArrayBunches, the equals method of the triple is not called. Instead, only the two nodes that are
  *   not part of the key of the containing map are compared.
+ * - streams over all triples and over a single bunch report their exact size ({@link java.util.Spliterator#SIZED}),
+ *   so parallel streams can split them evenly. Streams over a bunch are also {@link java.util.Spliterator#SUBSIZED}
+ *   as long as no triple has been removed from the bunch.
+ * - {@link #forEachMatch} loops over the bunches directly, without the iterators and filters of {@link #find}.
  */
 public class FastTripleStore implements TripleStore {
 
@@ -232,8 +239,7 @@ public class FastTripleStore implements TripleStore {
 
     @Override
     public Stream<Triple> stream() {
-        return StreamSupport.stream(subjects.valueSpliterator(), false)
-                .flatMap(bunch -> StreamSupport.stream(bunch.keySpliterator(), false));
+        return StreamSupport.stream(new SpliteratorOfJenaSets<>(subjects.valueSpliterator(), size), false);
     }
 
     @Override
@@ -372,6 +378,97 @@ public class FastTripleStore implements TripleStore {
         }
     }
 
+    @Override
+    public void forEachMatch(final Node sm, final Node pm, final Node om, final Consumer<Triple> action) {
+        switch (PatternClassifier.classify(sm, pm, om)) {
+
+            case SUB_PRE_OBJ: {
+                final var triples = subjects.get(sm);
+                if (triples != null) {
+                    final var triple = Triple.create(sm, pm, om);
+                    if (triples.containsKey(triple)) {
+                        action.accept(triple);
+                    }
+                }
+                return;
+            }
+
+            case SUB_PRE_ANY: {
+                final var triplesBySubject = subjects.get(sm);
+                if (triplesBySubject != null) {
+                    triplesBySubject.forEachKey(t -> {
+                        if (pm.equals(t.getPredicate())) action.accept(t);
+                    });
+                }
+                return;
+            }
+
+            case SUB_ANY_OBJ: {
+                final var triplesBySubject = subjects.get(sm);
+                if (triplesBySubject != null) {
+                    triplesBySubject.forEachKey(t -> {
+                        if (om.equals(t.getObject())) action.accept(t);
+                    });
+                }
+                return;
+            }
+
+            case SUB_ANY_ANY: {
+                final var triples = subjects.get(sm);
+                if (triples != null) {
+                    triples.forEachKey(action);
+                }
+                return;
+            }
+
+            case ANY_PRE_OBJ: {
+                final var triplesByObject = objects.get(om);
+                if (triplesByObject == null) {
+                    return;
+                }
+                if (triplesByObject.size() > THRESHOLD_FOR_SECONDARY_LOOKUP) {
+                    final var triplesByPredicate = predicates.get(pm);
+                    if (triplesByPredicate == null) {
+                        return;
+                    }
+                    if (triplesByPredicate.size() < triplesByObject.size()) {
+                        triplesByPredicate.forEachKey(t -> {
+                            if (om.equals(t.getObject())) action.accept(t);
+                        });
+                        return;
+                    }
+                }
+                triplesByObject.forEachKey(t -> {
+                    if (pm.equals(t.getPredicate())) action.accept(t);
+                });
+                return;
+            }
+
+            case ANY_PRE_ANY: {
+                final var triples = predicates.get(pm);
+                if (triples != null) {
+                    triples.forEachKey(action);
+                }
+                return;
+            }
+
+            case ANY_ANY_OBJ: {
+                final var triples = objects.get(om);
+                if (triples != null) {
+                    triples.forEachKey(action);
+                }
+                return;
+            }
+
+            case ANY_ANY_ANY:
+                subjects.forEachValue(triples -> triples.forEachKey(action));
+                return;
+
+            default:
+                throw new IllegalStateException("Unexpected value: " + PatternClassifier.classify(sm, pm, om));
+        }
+    }
+
     @Override
     public FastTripleStore copy() {
         return new FastTripleStore(this);
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.store.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Append-only storage for byte sequences outside the Java heap.
+ * <p>
+ * Byte sequences never span two chunks. A byte sequence larger than {@link #CHUNK_SIZE}
+ * gets a chunk of its own.
+ * A stored byte sequence is addressed by its chunk index and its offset in the chunk.
+ * This class is not thread safe.
+ */
+final class OffHeapByteStore {
+
+    /** 8 MiB per chunk. */
+    static final int CHUNK_SIZE = 1 << 23;
+    private static final int INITIAL_CHUNK_SIZE = 1 << 12;
+
+    private ByteBuffer[] chunks;
+    private int chunksCount;
+    private int position;
+    private long offHeapBytes;
+
+    OffHeapByteStore() {
+        this.chunks = new ByteBuffer[]{ByteBuffer.allocateDirect(INITIAL_CHUNK_SIZE)};
+        this.chunksCount = 1;
+        this.position = 0;
+        this.offHeapBytes = INITIAL_CHUNK_SIZE;
+    }
+
+    private OffHeapByteStore(final OffHeapByteStore storeToCopy) {
+        this.chunks = new ByteBuffer[storeToCopy.chunks.length];
+        for (int i = 0; i < storeToCopy.chunksCount; i++) {
+            final var source = storeToCopy.chunks[i];
+            chunks[i] = ByteBuffer.allocateDirect(source.capacity()).put(0, source, 0, source.capacity());
+        }
+        this.chunksCount = storeToCopy.chunksCount;
+        this.position = storeToCopy.position;
+        this.offHeapBytes = storeToCopy.offHeapBytes;
+    }
+
+    /** Chunk index of the last byte sequence added with {@link #append}. */
+    int lastChunk() {
+        return chunksCount - 1;
+    }
+
+    /**
+     * Append a byte sequence.
+     *
+     * @return the offset of the sequence in chunk {@link #lastChunk()}
+     */
+    int append(final byte[] bytes, final int length) {
+        var chunk = chunks[chunksCount - 1];
+        if (position + length > chunk.capacity()) {
+            if (chunksCount == 1 && chunk.capacity() < CHUNK_SIZE && length <= CHUNK_SIZE) {
+                // grow the first chunk
+                var newSize = chunk.capacity();
+                while (newSize < position + length && newSize < CHUNK_SIZE) {
+                    newSize <<= 1;
+                }
+                if (position + length <= newSize) {
+                    final var newChunk = ByteBuffer.allocateDirect(newSize).put(0, chunk, 0, position);
+                    chunks[0] = newChunk;
+                    offHeapBytes += newSize - chunk.capacity();
+                    chunk = newChunk;
+                } else {
+                    chunk = addChunk(CHUNK_SIZE);
+                }
+            } else {
+                chunk = addChunk(Math.max(CHUNK_SIZE, length));
+            }
+        }
+        final int offset = position;
+        chunk.put(offset, bytes, 0, length);
+        position += length;
+        return offset;
+    }
+
+    private ByteBuffer addChunk(final int size) {
+        if (chunksCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunksCount << 1);
+        }
+        final var chunk = ByteBuffer.allocateDirect(size);
+        chunks[chunksCount++] = chunk;
+        position = 0;
+        offHeapBytes += size;
+        return chunk;
+    }
+
+    /**
+     * Copy a stored byte sequence into the given array.
+     */
+    void get(final int chunk, final int offset, final byte[] target, final int length) {
+        chunks[chunk].get(offset, target, 0, length);
+    }
+
+    byte getByte(final int chunk, final int offset) {
+        return chunks[chunk].get(offset);
+    }
+
+    int getInt(final int chunk, final int offset) {
+        return chunks[chunk].getInt(offset);
+    }
+
+    long offHeapBytes() {
+        return offHeapBytes;
+    }
+
+    /**
+     * Drop all chunks. The direct memory is returned once the buffers have been garbage collected.
+     * The store can not be used afterwards.
+     */
+    void release() {
+        chunks = new ByteBuffer[0];
+        chunksCount = 0;
+        position = 0;
+        offHeapBytes = 0;
+    }
+
+    OffHeapByteStore copy() {
+        return new OffHeapByteStore(this);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.store.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * A growable array of ints, stored outside the Java heap in direct buffers.
+ * <p>
+ * The array is split into chunks of {@link #CHUNK_SIZE} ints. While the array is smaller than one chunk,
+ * the first chunk grows by doubling (and copying). After that, new chunks are added and existing
+ * chunks are never copied.
+ * <p>
+ * New elements are always 0.
+ * This class is not thread safe.
+ */
+final class OffHeapIntArray {
+
+    static final int CHUNK_SHIFT = 20;
+    /** 1M ints = 4 MiB per chunk. */
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MINIMUM_SIZE = 64;
+
+    private IntBuffer[] chunks;
+    private long capacity;
+
+    OffHeapIntArray() {
+        this(MINIMUM_SIZE);
+    }
+
+    OffHeapIntArray(final long initialCapacity) {
+        this.chunks = new IntBuffer[0];
+        this.capacity = 0;
+        ensureCapacity(Math.max(MINIMUM_SIZE, initialCapacity));
+    }
+
+    private OffHeapIntArray(final OffHeapIntArray arrayToCopy) {
+        this.chunks = new IntBuffer[arrayToCopy.chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            final var source = arrayToCopy.chunks[i];
+            final var target = allocate(source.capacity());
+            target.put(0, source, 0, source.capacity());
+            chunks[i] = target;
+        }
+        this.capacity = arrayToCopy.capacity;
+    }
+
+    private static IntBuffer allocate(final int size) {
+        return ByteBuffer.allocateDirect(size * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    int get(final long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    void set(final long index, final int value) {
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Grows the array, so that it can hold at least the given number of elements.
+     */
+    void ensureCapacity(final long minCapacity) {
+        if (minCapacity <= capacity) {
+            return;
+        }
+        if (minCapacity <= CHUNK_SIZE) {
+            // grow the first and only chunk
+            int newSize = (int) Math.max(capacity, MINIMUM_SIZE);
+            while (newSize < minCapacity) {
+                newSize <<= 1;
+            }
+            final var newChunk = allocate(newSize);
+            if (chunks.length == 1) {
+                newChunk.put(0, chunks[0], 0, chunks[0].capacity());
+            }
+            chunks = new IntBuffer[]{newChunk};
+            capacity = newSize;
+            return;
+        }
+        if (capacity < CHUNK_SIZE) {
+            ensureCapacity(CHUNK_SIZE);
+        }
+        final int chunksNeeded = (int) ((minCapacity + CHUNK_MASK) >>> CHUNK_SHIFT);
+        final var newChunks = new IntBuffer[chunksNeeded];
+        System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+        for (int i = chunks.length; i < chunksNeeded; i++) {
+            newChunks[i] = allocate(CHUNK_SIZE);
+        }
+        chunks = newChunks;
+        capacity = (long) chunksNeeded << CHUNK_SHIFT;
+    }
+
+    /**
+     * Number of bytes of off-heap memory held by this array.
+     */
+    long offHeapBytes() {
+        return capacity * Integer.BYTES;
+    }
+
+    /**
+     * Drop all chunks. The direct memory is returned once the buffers have been garbage collected.
+     * The array is empty but still usable afterwards.
+     */
+    void release() {
+        chunks = new IntBuffer[0];
+        capacity = 0;
+    }
+
+    OffHeapIntArray copy() {
+        return new OffHeapIntArray(this);
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.store.offheap;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.TextDirection;
+import org.apache.jena.graph.Triple;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Dictionary that maps nodes to dense int ids and back.
+ * <p>
+ * The nodes are encoded into bytes, which are stored outside the Java heap in an {@link OffHeapByteStore}.
+ * The hash index from nodes to ids is an open addressing hash table in an {@link OffHeapIntArray}.
+ * Only a small, fixed size cache of recently decoded nodes lives on the heap.
+ * <p>
+ * Ids are never reused: nodes stay in the dictionary until {@link #clear()}, even if no triple uses them anymore.
+ * This class is not thread safe, with the exception that {@link #getNode(int)} may be called concurrently
+ * as long as there are no modifications.
+ */
+final class OffHeapNodeDictionary {
+
+    private static final byte KIND_URI = 1;
+    private static final byte KIND_BLANK = 2;
+    private static final byte KIND_LITERAL_STRING = 3;
+    private static final byte KIND_LITERAL_LANG = 4;
+    private static final byte KIND_LITERAL_TYPED = 5;
+    private static final byte KIND_TRIPLE_TERM = 6;
+    private static final byte KIND_VARIABLE = 7;
+
+    /** Per id: chunk, offset and hash code of the node. */
+    private static final int ENTRY_SIZE = 3;
+    private static final int ENTRY_CHUNK = 0;
+    private static final int ENTRY_OFFSET = 1;
+    private static final int ENTRY_HASH = 2;
+
+    private static final int MINIMUM_POSITIONS_SIZE = 64;
+    private static final int CACHE_SIZE = 1 << 12;
+    private static final int CACHE_MASK = CACHE_SIZE - 1;
+
+    private OffHeapByteStore bytes;
+    private OffHeapIntArray entries;
+    /** Open addressing hash table with id + 1 as values. 0 marks an empty slot. */
+    private OffHeapIntArray positions;
+    private int positionsMask;
+    private int size;
+
+    private CachedNode[] cache = new CachedNode[CACHE_SIZE];
+
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(256);
+
+    OffHeapNodeDictionary() {
+        this.bytes = new OffHeapByteStore();
+        this.entries = new OffHeapIntArray();
+        this.positions = new OffHeapIntArray(MINIMUM_POSITIONS_SIZE);
+        this.positionsMask = MINIMUM_POSITIONS_SIZE - 1;
+        this.size = 0;
+    }
+
+    private OffHeapNodeDictionary(final OffHeapNodeDictionary dictionaryToCopy) {
+        this.bytes = dictionaryToCopy.bytes.copy();
+        this.entries = dictionaryToCopy.entries.copy();
+        this.positions = dictionaryToCopy.positions.copy();
+        this.positionsMask = dictionaryToCopy.positionsMask;
+        this.size = dictionaryToCopy.size;
+    }
+
+    /**
+     * Number of nodes in the dictionary. The ids are 0 to size-1.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get the id of the node.
+     *
+     * @return the id or -1 if the node is not in the dictionary
+     */
+    int getId(final Node node) {
+        final int hashCode = node.hashCode();
+        long pIndex = hashCode & positionsMask;
+        while (true) {
+            final int idPlusOne = positions.get(pIndex);
+            if (idPlusOne == 0) {
+                return -1;
+            }
+            final int id = idPlusOne - 1;
+            if (hashCode == entries.get((long) id * ENTRY_SIZE + ENTRY_HASH) && node.equals(getNode(id))) {
+                return id;
+            }
+            if (--pIndex < 0) {
+                pIndex = positionsMask;
+            }
+        }
+    }
+
+    /**
+     * Get the id of the node. If the node is not in the dictionary, it is added.
+     */
+    int getOrCreateId(final Node node) {
+        final int hashCode = node.hashCode();
+        long pIndex = hashCode & positionsMask;
+        while (true) {
+            final int idPlusOne = positions.get(pIndex);
+            if (idPlusOne == 0) {
+                break;
+            }
+            final int id = idPlusOne - 1;
+            if (hashCode == entries.get((long) id * ENTRY_SIZE + ENTRY_HASH) && node.equals(getNode(id))) {
+                return id;
+            }
+            if (--pIndex < 0) {
+                pIndex = positionsMask;
+            }
+        }
+        final int id = size++;
+        encodeBuffer.clear();
+        encode(node);
+        final int offset = bytes.append(encodeBuffer.array(), encodeBuffer.position());
+        final long entryIndex = (long) id * ENTRY_SIZE;
+        entries.ensureCapacity(entryIndex + ENTRY_SIZE);
+        entries.set(entryIndex + ENTRY_CHUNK, bytes.lastChunk());
+        entries.set(entryIndex + ENTRY_OFFSET, offset);
+        entries.set(entryIndex + ENTRY_HASH, hashCode);
+        positions.set(pIndex, id + 1);
+        cache(id, node);
+        growPositionsIfNeeded();
+        return id;
+    }
+
+    /**
+     * Get the node for the given id.
+     */
+    Node getNode(final int id) {
+        final var cached = cache[id & CACHE_MASK];
+        if (cached != null && cached.id == id) {
+            return cached.node;
+        }
+        final long entryIndex = (long) id * ENTRY_SIZE;
+        final int chunk = entries.get(entryIndex + ENTRY_CHUNK);
+        final int offset = entries.get(entryIndex + ENTRY_OFFSET);
+        final int length = bytes.getInt(chunk, offset);
+        final var decodeBuffer = new byte[length];
+        bytes.get(chunk, offset, decodeBuffer, length);
+        final var buffer = ByteBuffer.wrap(decodeBuffer, 0, length);
+        buffer.position(Integer.BYTES);
+        final var node = decode(buffer);
+        cache(id, node);
+        return node;
+    }
+
+    private void cache(final int id, final Node node) {
+        cache[id & CACHE_MASK] = new CachedNode(id, node);
+    }
+
+    /**
+     * Immutable cache entry, so that concurrent readers never see an id paired with the wrong node.
+     */
+    private static final class CachedNode {
+        final int id;
+        final Node node;
+
+        CachedNode(final int id, final Node node) {
+            this.id = id;
+            this.node = node;
+        }
+    }
+
+    private void growPositionsIfNeeded() {
+        if ((long) size << 1 <= positions.capacity()) {
+            return;
+        }
+        final long newSize = positions.capacity() << 1;
+        final var newPositions = new OffHeapIntArray(newSize);
+        final int newMask = (int) (newSize - 1);
+        for (int id = 0; id < size; id++) {
+            long pIndex = entries.get((long) id * ENTRY_SIZE + ENTRY_HASH) & newMask;
+            while (newPositions.get(pIndex) != 0) {
+                if (--pIndex < 0) {
+                    pIndex = newMask;
+                }
+            }
+            newPositions.set(pIndex, id + 1);
+        }
+        positions.release();
+        positions = newPositions;
+        positionsMask = newMask;
+    }
+
+    /**
+     * Encodes the node into the encode buffer. The encoding starts with the total length as int.
+     */
+    private void encode(final Node node) {
+        final int start = encodeBuffer.position();
+        reserve(Integer.BYTES);
+        encodeBuffer.putInt(0);
+        encodeNode(node);
+        encodeBuffer.putInt(start, encodeBuffer.position() - start);
+    }
+
+    private void encodeNode(final Node node) {
+        reserve(1);
+        if (node.isURI()) {
+            encodeBuffer.put(KIND_URI);
+            encodeString(node.getURI());
+        } else if (node.isBlank()) {
+            encodeBuffer.put(KIND_BLANK);
+            encodeString(node.getBlankNodeLabel());
+        } else if (node.isLiteral()) {
+            final var lang = node.getLiteralLanguage();
+            if (lang != null && !lang.isEmpty()) {
+                encodeBuffer.put(KIND_LITERAL_LANG);
+                encodeString(node.getLiteralLexicalForm());
+                encodeString(lang);
+                final var direction = node.getLiteralBaseDirection();
+                encodeString(direction == null ? "" : direction.direction());
+            } else if (XSDDatatype.XSDstring.getURI().equals(node.getLiteralDatatypeURI())) {
+                encodeBuffer.put(KIND_LITERAL_STRING);
+                encodeString(node.getLiteralLexicalForm());
+            } else {
+                encodeBuffer.put(KIND_LITERAL_TYPED);
+                encodeString(node.getLiteralLexicalForm());
+                encodeString(node.getLiteralDatatypeURI());
+            }
+        } else if (node.isTripleTerm()) {
+            encodeBuffer.put(KIND_TRIPLE_TERM);
+            final var triple = node.getTriple();
+            encodeNode(triple.getSubject());
+            encodeNode(triple.getPredicate());
+            encodeNode(triple.getObject());
+        } else if (node.isVariable()) {
+            encodeBuffer.put(KIND_VARIABLE);
+            encodeString(node.getName());
+        } else {
+            throw new IllegalArgumentException("Node can not be stored off-heap: " + node);
+        }
+    }
+
+    private void encodeString(final String string) {
+        final var utf8 = string.getBytes(StandardCharsets.UTF_8);
+        reserve(Integer.BYTES + utf8.length);
+        encodeBuffer.putInt(utf8.length);
+        encodeBuffer.put(utf8);
+    }
+
+    private void reserve(final int length) {
+        if (encodeBuffer.remaining() < length) {
+            final var newBuffer = ByteBuffer.allocate(Math.max(encodeBuffer.capacity() << 1, encodeBuffer.position() + length));
+            newBuffer.put(encodeBuffer.array(), 0, encodeBuffer.position());
+            encodeBuffer = newBuffer;
+        }
+    }
+
+    private static Node decode(final ByteBuffer buffer) {
+        final byte kind = buffer.get();
+        switch (kind) {
+            case KIND_URI:
+                return NodeFactory.createURI(decodeString(buffer));
+            case KIND_BLANK:
+                return NodeFactory.createBlankNode(decodeString(buffer));
+            case KIND_LITERAL_STRING:
+                return NodeFactory.createLiteralString(decodeString(buffer));
+            case KIND_LITERAL_LANG: {
+                final var lexicalForm = decodeString(buffer);
+                final var lang = decodeString(buffer);
+                final var direction = decodeString(buffer);
+                return NodeFactory.createLiteralDirLang(lexicalForm, lang,
+                        direction.isEmpty() ? Node.noTextDirection : TextDirection.create(direction));
+            }
+            case KIND_LITERAL_TYPED: {
+                final var lexicalForm = decodeString(buffer);
+                final var datatypeURI = decodeString(buffer);
+                return NodeFactory.createLiteralDT(lexicalForm, TypeMapper.getInstance().getSafeTypeByName(datatypeURI));
+            }
+            case KIND_TRIPLE_TERM: {
+                final var s = decode(buffer);
+                final var p = decode(buffer);
+                final var o = decode(buffer);
+                return NodeFactory.createTripleTerm(Triple.create(s, p, o));
+            }
+            case KIND_VARIABLE:
+                return NodeFactory.createVariable(decodeString(buffer));
+            default:
+                throw new IllegalStateException("Unknown node kind in off-heap dictionary: " + kind);
+        }
+    }
+
+    private static String decodeString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        final var string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return string;
+    }
+
+    /**
+     * Number of bytes of off-heap memory held by this dictionary.
+     */
+    long offHeapBytes() {
+        return bytes.offHeapBytes() + entries.offHeapBytes() + positions.offHeapBytes();
+    }
+
+    /**
+     * Remove all nodes. The dictionary stays usable.
+     */
+    void clear() {
+        release();
+        bytes = new OffHeapByteStore();
+        entries = new OffHeapIntArray();
+        positions = new OffHeapIntArray(MINIMUM_POSITIONS_SIZE);
+        positionsMask = MINIMUM_POSITIONS_SIZE - 1;
+    }
+
+    /**
+     * Drop all off-heap memory held by this dictionary.
+     */
+    void release() {
+        bytes.release();
+        entries.release();
+        positions.release();
+        size = 0;
+        cache = new CachedNode[CACHE_SIZE];
+    }
+
+    OffHeapNodeDictionary copy() {
+        return new OffHeapNodeDictionary(this);
+    }
+}
@@ -0,0 +1,666 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.store.offheap;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem2.pattern.PatternClassifier;
+import org.apache.jena.mem2.store.TripleStore;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NiceIterator;
+import org.apache.jena.util.iterator.SingletonIterator;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A triple store that keeps its data outside the Java heap.
+ * <p>
+ * Inner structure:
+ * <ul>
+ * <li>an {@link OffHeapNodeDictionary} that maps nodes to int ids and stores the encoded nodes off-heap</li>
+ * <li>a table of triple records, 9 ints each: the ids of subject, predicate and object, and for each of the
+ * three positions the next and previous record with the same node in that position.
+ * So all triples with the same subject, predicate or object form a doubly linked list.</li>
+ * <li>a table with 6 ints per node id: the heads of the three lists and their lengths</li>
+ * <li>an open addressing hash index from (subject id, predicate id, object id) to the triple record,
+ * used for #contains and to find the record on #remove.</li>
+ * </ul>
+ * All tables are {@link OffHeapIntArray}s. The only objects on the heap are the store itself, the chunk
+ * references and a small cache of decoded nodes. So even very large graphs add almost nothing to the
+ * work of the garbage collector.
+ * <p>
+ * Matches with one concrete node walk the list of that node. Matches with two concrete nodes walk the
+ * shorter of the two lists and compare ids, nodes are only decoded for the triples that are returned.
+ * <p>
+ * Records of removed triples are reused. Nodes are not removed from the dictionary before {@link #clear()}.
+ * <p>
+ * Use {@link #close()} to drop the off-heap memory as soon as the store is not needed anymore.
+ * The memory is returned to the operating system when the direct buffers have been garbage collected.
+ * The store can not be used after it has been closed.
+ */
+public class OffHeapTripleStore implements TripleStore {
+
+    private static final int RECORD_SIZE = 9;
+    private static final int NEXT = 3;
+    private static final int PREV = 6;
+    private static final int DEAD = -1;
+
+    private static final int NODE_RECORD_SIZE = 6;
+    private static final int COUNT = 3;
+
+    private static final int MINIMUM_INDEX_SIZE = 64;
+
+    private static final String CLOSED_MESSAGE = "The off-heap triple store has been closed";
+
+    private OffHeapNodeDictionary dictionary;
+    private OffHeapIntArray records;
+    private OffHeapIntArray nodes;
+    /** Open addressing hash table with record index + 1 as values. 0 marks an empty slot. */
+    private OffHeapIntArray index;
+    private int indexMask;
+    /** Head of the list of free records (record index + 1), linked via the first "next" field. */
+    private int freeHead;
+    private int recordsUsed;
+    private int size;
+    /** Incremented by every change, so that open iterators can detect it. */
+    private int modCount;
+    private boolean closed;
+
+    public OffHeapTripleStore() {
+        init();
+    }
+
+    private OffHeapTripleStore(final OffHeapTripleStore storeToCopy) {
+        this.dictionary = storeToCopy.dictionary.copy();
+        this.records = storeToCopy.records.copy();
+        this.nodes = storeToCopy.nodes.copy();
+        this.index = storeToCopy.index.copy();
+        this.indexMask = storeToCopy.indexMask;
+        this.freeHead = storeToCopy.freeHead;
+        this.recordsUsed = storeToCopy.recordsUsed;
+        this.size = storeToCopy.size;
+    }
+
+    private void init() {
+        dictionary = new OffHeapNodeDictionary();
+        records = new OffHeapIntArray();
+        nodes = new OffHeapIntArray();
+        index = new OffHeapIntArray(MINIMUM_INDEX_SIZE);
+        indexMask = MINIMUM_INDEX_SIZE - 1;
+        freeHead = 0;
+        recordsUsed = 0;
+        size = 0;
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException(CLOSED_MESSAGE);
+    }
+
+    /**
+     * Check that the store is still open and has not been changed since an iterator was created.
+     * Iterators must call this before they read the records.
+     */
+    private void checkUnchanged(final int expectedModCount) {
+        checkOpen();
+        if (modCount != expectedModCount) throw new ConcurrentModificationException();
+    }
+
+    private static int hash(final int s, final int p, final int o) {
+        final int h = s * 0x9E3779B1 + p * 0x85EBCA77 + o * 0xC2B2AE3D;
+        return h ^ (h >>> 16);
+    }
+
+    private int hashOfRecord(final int record) {
+        final long base = (long) record * RECORD_SIZE;
+        return hash(records.get(base), records.get(base + 1), records.get(base + 2));
+    }
+
+    /**
+     * Finds the position of the triple in the hash index.
+     *
+     * @return the position or the inverse (~) of the empty position where the triple would be inserted
+     */
+    private long findIndexPosition(final int s, final int p, final int o) {
+        long pIndex = hash(s, p, o) & indexMask;
+        while (true) {
+            final int recordPlusOne = index.get(pIndex);
+            if (recordPlusOne == 0) {
+                return ~pIndex;
+            }
+            final long base = (long) (recordPlusOne - 1) * RECORD_SIZE;
+            if (records.get(base) == s && records.get(base + 1) == p && records.get(base + 2) == o) {
+                return pIndex;
+            }
+            if (--pIndex < 0) {
+                pIndex = indexMask;
+            }
+        }
+    }
+
+    private void growIndexIfNeeded() {
+        if ((long) size << 1 <= index.capacity()) {
+            return;
+        }
+        final long newSize = index.capacity() << 1;
+        final var newIndex = new OffHeapIntArray(newSize);
+        final int newMask = (int) (newSize - 1);
+        for (int record = 0; record < recordsUsed; record++) {
+            if (records.get((long) record * RECORD_SIZE) == DEAD) {
+                continue;
+            }
+            long pIndex = hashOfRecord(record) & newMask;
+            while (newIndex.get(pIndex) != 0) {
+                if (--pIndex < 0) {
+                    pIndex = newMask;
+                }
+            }
+            newIndex.set(pIndex, record + 1);
+        }
+        index.release();
+        index = newIndex;
+        indexMask = newMask;
+    }
+
+    /**
+     * Removes the entry at the given position of the hash index.
+     * Same algorithm as in {@link org.apache.jena.mem2.collection.FastHashBase}: Knuth's Algorithm R
+     * for linear probing without a distinguished REMOVED value.
+     */
+    private void removeFromIndex(long here) {
+        while (true) {
+            index.set(here, 0);
+            long scan = here;
+            while (true) {
+                if (--scan < 0) scan += indexMask + 1L;
+                final int recordPlusOne = index.get(scan);
+                if (recordPlusOne == 0) return;
+                final long r = hashOfRecord(recordPlusOne - 1) & indexMask;
+                if ((scan > r || r >= here) && (r >= here || here >= scan) && (here >= scan || scan > r)) {
+                    index.set(here, recordPlusOne);
+                    here = scan;
+                    break;
+                }
+            }
+        }
+    }
+
+    private int allocateRecord() {
+        if (freeHead != 0) {
+            final int record = freeHead - 1;
+            freeHead = records.get((long) record * RECORD_SIZE + NEXT);
+            return record;
+        }
+        final int record = recordsUsed++;
+        records.ensureCapacity((long) recordsUsed * RECORD_SIZE);
+        return record;
+    }
+
+    @Override
+    public void add(final Triple triple) {
+        checkOpen();
+        final int s = dictionary.getOrCreateId(triple.getSubject());
+        final int p = dictionary.getOrCreateId(triple.getPredicate());
+        final int o = dictionary.getOrCreateId(triple.getObject());
+        final long pIndex = findIndexPosition(s, p, o);
+        if (pIndex >= 0) {
+            return;
+        }
+        nodes.ensureCapacity((long) dictionary.size() * NODE_RECORD_SIZE);
+        final int record = allocateRecord();
+        final long base = (long) record * RECORD_SIZE;
+        records.set(base, s);
+        records.set(base + 1, p);
+        records.set(base + 2, o);
+        link(record, 0, s);
+        link(record, 1, p);
+        link(record, 2, o);
+        index.set(~pIndex, record + 1);
+        size++;
+        modCount++;
+        growIndexIfNeeded();
+    }
+
+    private void link(final int record, final int position, final int nodeId) {
+        final long nodeBase = (long) nodeId * NODE_RECORD_SIZE;
+        final int headPlusOne = nodes.get(nodeBase + position);
+        final long base = (long) record * RECORD_SIZE;
+        records.set(base + NEXT + position, headPlusOne);
+        records.set(base + PREV + position, 0);
+        if (headPlusOne != 0) {
+            records.set((long) (headPlusOne - 1) * RECORD_SIZE + PREV + position, record + 1);
+        }
+        nodes.set(nodeBase + position, record + 1);
+        nodes.set(nodeBase + COUNT + position, nodes.get(nodeBase + COUNT + position) + 1);
+    }
+
+    private void unlink(final int record, final int position, final int nodeId) {
+        final long base = (long) record * RECORD_SIZE;
+        final int nextPlusOne = records.get(base + NEXT + position);
+        final int prevPlusOne = records.get(base + PREV + position);
+        final long nodeBase = (long) nodeId * NODE_RECORD_SIZE;
+        if (prevPlusOne != 0) {
+            records.set((long) (prevPlusOne - 1) * RECORD_SIZE + NEXT + position, nextPlusOne);
+        } else {
+            nodes.set(nodeBase + position, nextPlusOne);
+        }
+        if (nextPlusOne != 0) {
+            records.set((long) (nextPlusOne - 1) * RECORD_SIZE + PREV + position, prevPlusOne);
+        }
+        nodes.set(nodeBase + COUNT + position, nodes.get(nodeBase + COUNT + position) - 1);
+    }
+
+    @Override
+    public void remove(final Triple triple) {
+        checkOpen();
+        final int s = dictionary.getId(triple.getSubject());
+        if (s < 0) return;
+        final int p = dictionary.getId(triple.getPredicate());
+        if (p < 0) return;
+        final int o = dictionary.getId(triple.getObject());
+        if (o < 0) return;
+        final long pIndex = findIndexPosition(s, p, o);
+        if (pIndex < 0) {
+            return;
+        }
+        final int record = index.get(pIndex) - 1;
+        unlink(record, 0, s);
+        unlink(record, 1, p);
+        unlink(record, 2, o);
+        removeFromIndex(pIndex);
+        final long base = (long) record * RECORD_SIZE;
+        records.set(base, DEAD);
+        records.set(base + NEXT, freeHead);
+        freeHead = record + 1;
+        size--;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        checkOpen();
+        release();
+        init();
+        modCount++;
+    }
+
+    /**
+     * Drop all off-heap memory. The store can not be used afterwards.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        release();
+        closed = true;
+    }
+
+    private void release() {
+        dictionary.release();
+        records.release();
+        nodes.release();
+        index.release();
+        size = 0;
+    }
+
+    /**
+     * Answer true if {@link #close()} has been called.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Number of bytes of off-heap memory currently allocated by this store.
+     */
+    public long offHeapBytes() {
+        return dictionary.offHeapBytes() + records.offHeapBytes() + nodes.offHeapBytes() + index.offHeapBytes();
+    }
+
+    @Override
+    public int countTriples() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private Triple toTriple(final int record) {
+        final long base = (long) record * RECORD_SIZE;
+        return Triple.create(
+                dictionary.getNode(records.get(base)),
+                dictionary.getNode(records.get(base + 1)),
+                dictionary.getNode(records.get(base + 2)));
+    }
+
+    private int count(final int nodeId, final int position) {
+        return nodes.get((long) nodeId * NODE_RECORD_SIZE + COUNT + position);
+    }
+
+    private int head(final int nodeId, final int position) {
+        return nodes.get((long) nodeId * NODE_RECORD_SIZE + position);
+    }
+
+    /**
+     * Get the id of the node, or -1 if the node is not in the dictionary.
+     * Nodes of removed triples stay in the dictionary, so callers must check the list counts.
+     */
+    private int lookup(final Node node) {
+        return dictionary.getId(node);
+    }
+
+    /**
+     * Creates an iterator over the list of the concrete node of the pattern with the fewest entries.
+     *
+     * @return the iterator or null if there can be no matches
+     */
+    private ListIterator listIterator(final Triple tripleMatch) {
+        int position = -1;
+        int nodeId = -1;
+        int filterPosition = -1;
+        int filterId = -1;
+        final var matchNodes = new Node[]{tripleMatch.getSubject(), tripleMatch.getPredicate(), tripleMatch.getObject()};
+        for (int i = 0; i < 3; i++) {
+            final var node = matchNodes[i];
+            if (!node.isConcrete()) {
+                continue;
+            }
+            final int id = lookup(node);
+            if (id < 0 || count(id, i) == 0) {
+                return null;
+            }
+            if (position < 0) {
+                position = i;
+                nodeId = id;
+            } else if (count(id, i) < count(nodeId, position)) {
+                filterPosition = position;
+                filterId = nodeId;
+                position = i;
+                nodeId = id;
+            } else {
+                filterPosition = i;
+                filterId = id;
+            }
+        }
+        return new ListIterator(head(nodeId, position), position, filterPosition, filterId);
+    }
+
+    @Override
+    public boolean contains(final Triple tripleMatch) {
+        checkOpen();
+        switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_PRE_OBJ: {
+                final int s = lookup(tripleMatch.getSubject());
+                final int p = lookup(tripleMatch.getPredicate());
+                final int o = lookup(tripleMatch.getObject());
+                return s >= 0 && p >= 0 && o >= 0 && findIndexPosition(s, p, o) >= 0;
+            }
+            case SUB_ANY_ANY: {
+                final int s = lookup(tripleMatch.getSubject());
+                return s >= 0 && count(s, 0) > 0;
+            }
+            case ANY_PRE_ANY: {
+                final int p = lookup(tripleMatch.getPredicate());
+                return p >= 0 && count(p, 1) > 0;
+            }
+            case ANY_ANY_OBJ: {
+                final int o = lookup(tripleMatch.getObject());
+                return o >= 0 && count(o, 2) > 0;
+            }
+            case ANY_ANY_ANY:
+                return !isEmpty();
+            default: {
+                final var iterator = listIterator(tripleMatch);
+                return iterator != null && iterator.hasNext();
+            }
+        }
+    }
+
+    @Override
+    public Stream<Triple> stream() {
+        checkOpen();
+        return StreamSupport.stream(new RecordSpliterator(0, recordsUsed, freeHead == 0, modCount), false);
+    }
+
+    @Override
+    public Stream<Triple> stream(final Triple tripleMatch) {
+        checkOpen();
+        switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_PRE_OBJ:
+                return contains(tripleMatch) ? Stream.of(tripleMatch) : Stream.empty();
+            case ANY_ANY_ANY:
+                return stream();
+            default: {
+                final var iterator = listIterator(tripleMatch);
+                if (iterator == null) {
+                    return Stream.empty();
+                }
+                final int characteristics = Spliterator.DISTINCT | Spliterator.NONNULL;
+                final var spliterator = iterator.isFiltered()
+                        ? Spliterators.spliteratorUnknownSize(iterator, characteristics)
+                        : Spliterators.spliterator(iterator, iterator.listSize(), characteristics);
+                return StreamSupport.stream(spliterator, false);
+            }
+        }
+    }
+
+    @Override
+    public ExtendedIterator<Triple> find(final Triple tripleMatch) {
+        checkOpen();
+        switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_PRE_OBJ:
+                return contains(tripleMatch) ? new SingletonIterator<>(tripleMatch) : NiceIterator.emptyIterator();
+            case ANY_ANY_ANY:
+                return new RecordIterator();
+            default: {
+                final var iterator = listIterator(tripleMatch);
+                return iterator == null ? NiceIterator.emptyIterator() : iterator;
+            }
+        }
+    }
+
+    @Override
+    public OffHeapTripleStore copy() {
+        checkOpen();
+        return new OffHeapTripleStore(this);
+    }
+
+    /**
+     * Iterator over the list of triples that share a node in a position, optionally filtered by
+     * the node id in another position.
+     */
+    private class ListIterator extends NiceIterator<Triple> {
+        private final int position;
+        private final int filterPosition;
+        private final int filterId;
+        private final int expectedModCount = modCount;
+        private int nextPlusOne;
+
+        ListIterator(final int headPlusOne, final int position, final int filterPosition, final int filterId) {
+            this.position = position;
+            this.filterPosition = filterPosition;
+            this.filterId = filterId;
+            this.nextPlusOne = skip(headPlusOne);
+        }
+
+        private int skip(int recordPlusOne) {
+            if (filterPosition < 0) {
+                return recordPlusOne;
+            }
+            while (recordPlusOne != 0) {
+                final long base = (long) (recordPlusOne - 1) * RECORD_SIZE;
+                if (records.get(base + filterPosition) == filterId) {
+                    return recordPlusOne;
+                }
+                recordPlusOne = records.get(base + NEXT + position);
+            }
+            return 0;
+        }
+
+        boolean isFiltered() {
+            return filterPosition >= 0;
+        }
+
+        long listSize() {
+            checkUnchanged(expectedModCount);
+            return nextPlusOne == 0 ? 0 : count(records.get((long) (nextPlusOne - 1) * RECORD_SIZE + position), position);
+        }
+
+        @Override
+        public boolean hasNext() {
+            checkOpen();
+            return nextPlusOne != 0;
+        }
+
+        @Override
+        public Triple next() {
+            checkUnchanged(expectedModCount);
+            if (nextPlusOne == 0) throw new NoSuchElementException();
+            final int record = nextPlusOne - 1;
+            nextPlusOne = skip(records.get((long) record * RECORD_SIZE + NEXT + position));
+            return toTriple(record);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Triple> action) {
+            while (nextPlusOne != 0) {
+                checkUnchanged(expectedModCount);
+                final int record = nextPlusOne - 1;
+                nextPlusOne = skip(records.get((long) record * RECORD_SIZE + NEXT + position));
+                action.accept(toTriple(record));
+            }
+            checkUnchanged(expectedModCount);
+        }
+    }
+
+    /**
+     * Iterator over all live records.
+     */
+    private class RecordIterator extends NiceIterator<Triple> {
+        private final int expectedModCount = modCount;
+        private final int toRecord = recordsUsed;
+        private int record = skip(0);
+
+        private int skip(int r) {
+            while (r < toRecord && records.get((long) r * RECORD_SIZE) == DEAD) {
+                r++;
+            }
+            return r;
+        }
+
+        @Override
+        public boolean hasNext() {
+            checkOpen();
+            return record < toRecord;
+        }
+
+        @Override
+        public Triple next() {
+            checkUnchanged(expectedModCount);
+            if (record >= toRecord) throw new NoSuchElementException();
+            final var triple = toTriple(record);
+            record = skip(record + 1);
+            return triple;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Triple> action) {
+            while (record < toRecord) {
+                checkUnchanged(expectedModCount);
+                action.accept(toTriple(record));
+                record = skip(record + 1);
+            }
+            checkUnchanged(expectedModCount);
+        }
+    }
+
+    /**
+     * Splittable spliterator over a range of records.
+     * If there are no free records, every record in the range is live, and the spliterator knows its exact size.
+     */
+    private class RecordSpliterator implements Spliterator<Triple> {
+        private final int expectedModCount;
+        private final boolean dense;
+        private int from;
+        private final int to;
+
+        RecordSpliterator(final int from, final int to, final boolean dense, final int expectedModCount) {
+            this.from = from;
+            this.to = to;
+            this.dense = dense;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Triple> action) {
+            checkUnchanged(expectedModCount);
+            while (from < to) {
+                final int record = from++;
+                if (records.get((long) record * RECORD_SIZE) != DEAD) {
+                    action.accept(toTriple(record));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Triple> action) {
+            while (from < to) {
+                checkUnchanged(expectedModCount);
+                final int record = from++;
+                if (records.get((long) record * RECORD_SIZE) != DEAD) {
+                    action.accept(toTriple(record));
+                }
+            }
+            checkUnchanged(expectedModCount);
+        }
+
+        @Override
+        public Spliterator<Triple> trySplit() {
+            final int remaining = to - from;
+            if (remaining < 2) {
+                return null;
+            }
+            final int mid = from + (remaining >>> 1);
+            final var split = new RecordSpliterator(from, mid, dense, expectedModCount);
+            from = mid;
+            return split;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return dense
+                    ? DISTINCT | SIZED | SUBSIZED | NONNULL
+                    : DISTINCT | NONNULL;
+        }
+    }
+}
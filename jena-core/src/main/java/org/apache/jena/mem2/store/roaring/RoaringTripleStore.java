@@ -33,6 +33,7 @@ import org.roaringbitmap.FastAggregation;
 import org.roaringbitmap.ImmutableBitmapDataProvider;
 import org.roaringbitmap.RoaringBitmap;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -321,6 +322,37 @@ public class RoaringTripleStore implements TripleStore {
         }
     }
 
+    @Override
+    public void forEachMatch(final Node sm, final Node pm, final Node om, final Consumer<Triple> action) {
+        final var tripleMatch = Triple.createMatch(sm, pm, om);
+        final var pattern = PatternClassifier.classify(tripleMatch);
+        switch (pattern) {
+
+            case SUB_PRE_OBJ:
+                if (this.triples.containsKey(tripleMatch)) {
+                    action.accept(tripleMatch);
+                }
+                return;
+
+            case SUB_PRE_ANY,
+                 SUB_ANY_OBJ,
+                 SUB_ANY_ANY,
+                 ANY_PRE_OBJ,
+                 ANY_PRE_ANY,
+                 ANY_ANY_OBJ:
+                this.getBitmapForMatch(tripleMatch, pattern)
+                        .forEach((int index) -> action.accept(this.triples.getKeyAt(index)));
+                return;
+
+            case ANY_ANY_ANY:
+                this.triples.forEachKey(action);
+                return;
+
+            default:
+                throw new IllegalStateException("Unknown pattern classifier: " + pattern);
+        }
+    }
+
     @Override
     public RoaringTripleStore copy() {
         return new RoaringTripleStore(this);
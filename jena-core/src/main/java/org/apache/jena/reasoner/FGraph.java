@@ -18,6 +18,8 @@
 
 package org.apache.jena.reasoner;
 
+import java.util.function.Consumer ;
+
 import org.apache.jena.graph.* ;
 import org.apache.jena.util.iterator.* ;
 
@@ -49,6 +51,18 @@ public class FGraph implements Finder {
         return graph.find(pattern.asTripleMatch());
     }
     
+    /**
+     * Performs the given action for each triple matching the pattern,
+     * using {@link Graph#forEachMatch} so that no iterator is needed.
+     */
+    @Override
+    public void forEachMatch(TriplePattern pattern, Consumer<Triple> action) {
+        if (graph == null) return;
+        graph.forEachMatch(TriplePattern.toMatch(pattern.getSubject()),
+                           TriplePattern.toMatch(pattern.getPredicate()),
+                           TriplePattern.toMatch(pattern.getObject()), action);
+    }
+
     /**
      * Extended find interface used in situations where the implementator
      * may or may not be able to answer the complete query. It will
@@ -18,6 +18,8 @@
 
 package org.apache.jena.reasoner;
 
+import java.util.function.Consumer ;
+
 import org.apache.jena.graph.Triple ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
 
@@ -48,6 +50,16 @@ public interface Finder {
      */
     public ExtendedIterator<Triple> findWithContinuation(TriplePattern pattern, Finder continuation);
 
+    /**
+     * Performs the given action for each triple matching the pattern.
+     * Implementations may do this without creating an iterator.
+     * @param pattern a TriplePattern to be matched against the data
+     * @param action the action to perform for each match
+     */
+    public default void forEachMatch(TriplePattern pattern, Consumer<Triple> action) {
+        find(pattern).forEachRemaining(action);
+    }
+
     /**
      * Return true if the given pattern occurs somewhere in the find sequence.
      */
@@ -287,7 +287,7 @@ public class TriplePattern implements ClauseEntry {
      * the variable named but is used when converting a singleton
      * pattern to a TripleMtch
      */
-    private static Node toMatch(Node node) {
+    static Node toMatch(Node node) {
         return node.isVariable() ? null : node;
     }
     
@@ -125,16 +125,11 @@ public class FRuleEngine implements FRuleEngineI {
         BFRuleContext context = new BFRuleContext(infGraph);
         // Insert the data
         if (wildcardRule) {
-            for (Iterator<Triple> i = inserts.find(new TriplePattern(null, null, null)); i.hasNext(); ) {
-                context.addTriple(i.next());
-            }
+            inserts.forEachMatch(new TriplePattern(null, null, null), context::addTriple);
         } else {
             for ( Node predicate : predicatesUsed )
             {
-                for ( Iterator<Triple> i = inserts.find( new TriplePattern( null, predicate, null ) ); i.hasNext(); )
-                {
-                    context.addTriple( i.next() );
-                }
+                inserts.forEachMatch( new TriplePattern( null, predicate, null ), context::addTriple );
             }
         }
         // Run the engine
@@ -146,16 +146,11 @@ public class RETEEngine implements FRuleEngineI {
         if (infGraph.getRawGraph() != null) {
             // Insert the data
             if (wildcardRule) {
-                for (Iterator<Triple> i = inserts.find(new TriplePattern(null, null, null)); i.hasNext(); ) {
-                    addTriple( i.next(), false );
-                }
+                inserts.forEachMatch(new TriplePattern(null, null, null), t -> addTriple(t, false));
             } else {
                 for (Map.Entry<Node, Node> ent : predicatePatterns.entrySet()) {
 //                    System.out.println("FastInit: " + ent.getKey() + " = " + ent.getValue());
-                    for (Iterator<Triple> i = inserts.find(new TriplePattern(null, ent.getKey(), ent.getValue())); i.hasNext(); ) {
-                        Triple t = i.next();
-                        addTriple(t, false);
-                    }
+                    inserts.forEachMatch(new TriplePattern(null, ent.getKey(), ent.getValue()), t -> addTriple(t, false));
                 }
             }
         }
@@ -45,6 +45,7 @@ import org.junit.runners.Suite;
     TestNodeExtras.class,
     TestRDFStringLiterals.class,
     TestNodeEdgeCases.class,
+    TestNodeInterner.class,
 
     // Has to be in a specific package.
     org.apache.jena.graph.TestGraphUtil.class
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.graph.test;
+
+import static org.junit.Assert.*;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.NodeInterner;
+import org.apache.jena.graph.Triple;
+import org.junit.Test;
+
+public class TestNodeInterner {
+
+    @Test public void intern_uri() {
+        NodeInterner interner = new NodeInterner(1024);
+        Node n1 = NodeFactory.createURI("http://example/a");
+        Node n2 = NodeFactory.createURI("http://example/a");
+        assertNotSame(n1, n2);
+        assertSame(n1, interner.intern(n1));
+        assertSame(n1, interner.intern(n2));
+    }
+
+    @Test public void intern_literals() {
+        NodeInterner interner = new NodeInterner(1024);
+        Node[] nodes = {
+            NodeFactory.createLiteralString("abc"),
+            NodeFactory.createLiteralLang("abc", "en"),
+            NodeFactory.createLiteralDirLang("abc", "en", "ltr"),
+            NodeFactory.createLiteralDT("1", XSDDatatype.XSDinteger)
+        };
+        for ( Node n : nodes )
+            assertSame(n, interner.intern(n));
+        assertSame(nodes[0], interner.intern(NodeFactory.createLiteralString("abc")));
+        assertSame(nodes[1], interner.intern(NodeFactory.createLiteralLang("abc", "en")));
+        assertSame(nodes[2], interner.intern(NodeFactory.createLiteralDirLang("abc", "en", "ltr")));
+        assertSame(nodes[3], interner.intern(NodeFactory.createLiteralDT("1", XSDDatatype.XSDinteger)));
+    }
+
+    @Test public void intern_term_not_value() {
+        // Same value, different terms.
+        NodeInterner interner = new NodeInterner(1024);
+        Node n1 = NodeFactory.createLiteralDT("1", XSDDatatype.XSDinteger);
+        Node n2 = NodeFactory.createLiteralDT("01", XSDDatatype.XSDinteger);
+        assertSame(n1, interner.intern(n1));
+        assertSame(n2, interner.intern(n2));
+    }
+
+    @Test public void intern_not_blank_nodes() {
+        NodeInterner interner = new NodeInterner(1024);
+        Node b1 = NodeFactory.createBlankNode("b");
+        Node b2 = NodeFactory.createBlankNode("b");
+        assertSame(b1, interner.intern(b1));
+        assertSame(b2, interner.intern(b2));
+        assertFalse(NodeInterner.isInternable(b1));
+        assertFalse(NodeInterner.isInternable(Node.ANY));
+    }
+
+    @Test public void intern_triple() {
+        NodeInterner interner = new NodeInterner(1024);
+        Triple t1 = Triple.create(NodeFactory.createURI("http://example/s"),
+                                  NodeFactory.createURI("http://example/p"),
+                                  NodeFactory.createLiteralString("o"));
+        assertSame(t1, interner.intern(t1));
+        Triple t2 = Triple.create(NodeFactory.createURI("http://example/s"),
+                                  NodeFactory.createURI("http://example/p"),
+                                  NodeFactory.createLiteralString("o"));
+        Triple t3 = interner.intern(t2);
+        assertEquals(t1, t3);
+        assertSame(t1.getSubject(), t3.getSubject());
+        assertSame(t1.getPredicate(), t3.getPredicate());
+        assertSame(t1.getObject(), t3.getObject());
+    }
+
+    @Test public void intern_bounded() {
+        NodeInterner interner = new NodeInterner(100);
+        assertEquals(128, interner.capacity());
+        // More nodes than slots: always returns an equal node.
+        for ( int i = 0 ; i < 1000 ; i++ ) {
+            Node n = NodeFactory.createURI("http://example/" + i);
+            assertEquals(n, interner.intern(NodeFactory.createURI("http://example/" + i)));
+        }
+        assertEquals(64, new NodeInterner(1).capacity());
+    }
+
+    @Test public void intern_clear() {
+        NodeInterner interner = new NodeInterner(1024);
+        Node n1 = NodeFactory.createURI("http://example/a");
+        interner.intern(n1);
+        interner.clear();
+        Node n2 = NodeFactory.createURI("http://example/a");
+        assertSame(n2, interner.intern(n2));
+    }
+}
@@ -18,10 +18,47 @@
 
 package org.apache.jena.mem2;
 
+import org.apache.jena.graph.NodeInterner;
+import org.apache.jena.graph.Triple;
+import org.junit.Test;
+
+import static org.apache.jena.testing_framework.GraphHelper.triple;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
 public class GraphMem2FastTest extends AbstractGraphMem2Test {
 
     @Override
     protected GraphMem2 createGraph() {
         return new GraphMem2Fast();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testInterningGraphSharesNodes() {
+        final var interner = new NodeInterner(1024);
+        final var graph = new GraphMem2Fast(interner);
+        graph.add(triple("s p o"));
+        graph.add(triple("s p 'x'"));
+        graph.add(triple("o q s"));
+        assertEquals(3, graph.size());
+
+        // Concrete patterns may answer the pattern triple itself, so look at the stored triples.
+        final var t1 = stored(graph, triple("s p o"));
+        final var t2 = stored(graph, triple("s p 'x'"));
+        final var t3 = stored(graph, triple("o q s"));
+        assertSame(t1.getSubject(), t2.getSubject());
+        assertSame(t1.getSubject(), t3.getObject());
+        assertSame(t1.getObject(), t3.getSubject());
+        assertSame(t1.getPredicate(), t2.getPredicate());
+
+        final var copy = graph.copy();
+        copy.add(triple("s r 'x'"));
+        final var t4 = stored(copy, triple("s r 'x'"));
+        assertSame(t1.getSubject(), t4.getSubject());
+        assertSame(t2.getObject(), t4.getObject());
+    }
+
+    private static Triple stored(final GraphMem2 graph, final Triple triple) {
+        return graph.stream().filter(triple::equals).findFirst().orElseThrow();
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.jena.mem2.store.TripleStore;
 import org.apache.jena.util.iterator.NullIterator;
 import org.junit.Test;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.apache.jena.testing_framework.GraphHelper.node;
@@ -113,6 +114,22 @@ public class GraphMem2Test {
         verifyNoMoreInteractions(mockStore);
     }
 
+    @Test
+    public void forEachMatch() {
+        TripleStore mockStore = mock();
+
+        var s = node("s");
+        var p = node("p");
+        var o = node("o");
+        Consumer<Triple> action = t -> {};
+
+        var sut = new GraphMem2(mockStore);
+        sut.forEachMatch(s, p, o, action);
+
+        inOrder(mockStore).verify(mockStore, times(1)).forEachMatch(s, p, o, action);
+        verifyNoMoreInteractions(mockStore);
+    }
+
     @Test
     public void graphBaseFind() {
         TripleStore mockStore = mock();
@@ -26,10 +26,12 @@ import org.apache.jena.mem2.spliterator.ArraySpliteratorTest;
 import org.apache.jena.mem2.spliterator.ArraySubSpliteratorTest;
 import org.apache.jena.mem2.spliterator.SparseArraySpliteratorTest;
 import org.apache.jena.mem2.spliterator.SparseArraySubSpliteratorTest;
+import org.apache.jena.mem2.spliterator.SpliteratorOfJenaSetsTest;
 import org.apache.jena.mem2.store.fast.FastArrayBunchTest;
 import org.apache.jena.mem2.store.fast.FastHashedTripleBunchTest;
 import org.apache.jena.mem2.store.fast.FastTripleStoreTest;
 import org.apache.jena.mem2.store.legacy.*;
+import org.apache.jena.mem2.store.offheap.OffHeapTripleStoreTest;
 import org.apache.jena.mem2.store.roaring.RoaringBitmapTripleIteratorTest;
 import org.apache.jena.mem2.store.roaring.RoaringTripleStoreTest;
 import org.junit.runner.RunWith;
@@ -42,6 +44,7 @@ import org.junit.runners.Suite;
     ArraySubSpliteratorTest.class,
     ArraySpliteratorTest.class,
     SparseArraySpliteratorTest.class,
+    SpliteratorOfJenaSetsTest.class,
 
     // iterator/
     IteratorOfJenaSetsTest.class,
@@ -64,6 +67,9 @@ import org.junit.runners.Suite;
     RoaringTripleStoreTest.class,
     RoaringBitmapTripleIteratorTest.class,
 
+    // store/offheap
+    OffHeapTripleStoreTest.class,
+
     // store/legacy
     ArrayBunchTest.class,
     LegacyTripleStoreTest.class,
@@ -78,6 +84,7 @@ import org.junit.runners.Suite;
     GraphMem2LegacyTest.class,
     GraphMem2FastTest.class,
     GraphMem2RoaringTest.class,
+    GraphMem2OffHeapTest.class,
     GraphMem2Test.class
 } )
 public class TS4_GraphMem2 {}
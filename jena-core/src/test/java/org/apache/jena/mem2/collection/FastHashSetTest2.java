@@ -20,6 +20,10 @@ package org.apache.jena.mem2.collection;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
 import static org.apache.jena.testing_framework.GraphHelper.node;
 import static org.junit.Assert.*;
 
@@ -46,6 +50,20 @@ public class FastHashSetTest2 {
         assertEquals(~2, sut.addAndGetIndex("c"));
     }
 
+    @Test
+    public void testIndexOf() {
+        assertEquals(-1, sut.indexOf("a"));
+        sut.addAndGetIndex("a");
+        sut.addAndGetIndex("b");
+        assertEquals(0, sut.indexOf("a"));
+        assertEquals(1, sut.indexOf("b"));
+        assertEquals(-1, sut.indexOf("c"));
+
+        sut.tryRemove("a");
+        assertEquals(-1, sut.indexOf("a"));
+        assertEquals(1, sut.indexOf("b"));
+    }
+
     @Test
     public void testAddAndGetIndexWithSameHashCode() {
         assertEquals(0, sut.addAndGetIndex("a", 0));
@@ -136,6 +154,26 @@ public class FastHashSetTest2 {
         assertFalse(sut.anyMatchRandomOrder(k -> k.equals("d")));
     }
 
+    @Test
+    public void testForEachKey() {
+        sut.addUnchecked("a");
+        sut.addUnchecked("b");
+        sut.addUnchecked("c");
+        sut.tryRemove("b");
+
+        final var keys = new ArrayList<String>();
+        sut.forEachKey(keys::add);
+        assertEquals(2, keys.size());
+        assertTrue(keys.containsAll(List.of("a", "c")));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testForEachKeyConcurrentModification() {
+        sut.addUnchecked("a");
+        sut.addUnchecked("b");
+        sut.forEachKey(k -> sut.tryAdd(k + "x"));
+    }
+
     @Test
     public void testCopyConstructor() {
         var original = new FastObjectHashSet();
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.spliterator;
+
+import org.apache.jena.mem2.collection.FastHashSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.*;
+import static org.junit.Assert.*;
+
+public class SpliteratorOfJenaSetsTest {
+
+    private static List<FastHashSet<Integer>> createSets(int... sizes) {
+        var sets = new ArrayList<FastHashSet<Integer>>(sizes.length);
+        int next = 0;
+        for (int size : sizes) {
+            var set = new IntegerSet();
+            for (int i = 0; i < size; i++) {
+                set.addUnchecked(next++);
+            }
+            sets.add(set);
+        }
+        return sets;
+    }
+
+    private static long total(List<FastHashSet<Integer>> sets) {
+        return sets.stream().mapToLong(FastHashSet::size).sum();
+    }
+
+    @Test
+    public void tryAdvanceEmpty() {
+        var sets = createSets();
+        Spliterator<Integer> spliterator = new SpliteratorOfJenaSets<>(sets.spliterator(), 0);
+        assertFalse(spliterator.tryAdvance((i) -> {
+            fail("Should not have advanced");
+        }));
+    }
+
+    @Test
+    public void tryAdvanceSkipsEmptySets() {
+        var sets = createSets(0, 2, 0, 1, 0);
+        Spliterator<Integer> spliterator = new SpliteratorOfJenaSets<>(sets.spliterator(), total(sets));
+        var itemsFound = new ArrayList<Integer>();
+        while (spliterator.tryAdvance(itemsFound::add)) ;
+        assertEquals(3, itemsFound.size());
+        assertTrue(itemsFound.containsAll(List.of(0, 1, 2)));
+    }
+
+    @Test
+    public void estimateSizeIsExactWhileTraversing() {
+        var sets = createSets(3, 1, 4);
+        Spliterator<Integer> spliterator = new SpliteratorOfJenaSets<>(sets.spliterator(), total(sets));
+        long expected = 8;
+        assertEquals(expected, spliterator.estimateSize());
+        while (spliterator.tryAdvance((i) -> {
+        })) {
+            assertEquals(--expected, spliterator.estimateSize());
+        }
+        assertEquals(0, spliterator.estimateSize());
+    }
+
+    @Test
+    public void forEachRemaining() {
+        var sets = createSets(3, 1, 4);
+        Spliterator<Integer> spliterator = new SpliteratorOfJenaSets<>(sets.spliterator(), total(sets));
+        var itemsFound = new ArrayList<Integer>();
+        assertTrue(spliterator.tryAdvance(itemsFound::add));
+        spliterator.forEachRemaining(itemsFound::add);
+        assertEquals(8, itemsFound.size());
+        assertEquals(8, new HashSet<>(itemsFound).size());
+        assertEquals(0, spliterator.estimateSize());
+    }
+
+    @Test
+    public void trySplitSplitsSets() {
+        var sets = createSets(3, 1, 4, 2);
+        Spliterator<Integer> spliterator = new SpliteratorOfJenaSets<>(sets.spliterator(), total(sets));
+        var split = spliterator.trySplit();
+        assertNotNull(split);
+        var itemsFound = new ArrayList<Integer>();
+        spliterator.forEachRemaining(itemsFound::add);
+        split.forEachRemaining(itemsFound::add);
+        assertEquals(10, itemsFound.size());
+        assertEquals(10, new HashSet<>(itemsFound).size());
+    }
+
+    @Test
+    public void trySplitSplitsSingleSet() {
+        var sets = createSets(100);
+        Spliterator<Integer> spliterator = new SpliteratorOfJenaSets<>(sets.spliterator(), total(sets));
+        // load the only set
+        var itemsFound = new ArrayList<Integer>();
+        assertTrue(spliterator.tryAdvance(itemsFound::add));
+        var split = spliterator.trySplit();
+        assertNotNull(split);
+        spliterator.forEachRemaining(itemsFound::add);
+        split.forEachRemaining(itemsFound::add);
+        assertEquals(100, itemsFound.size());
+        assertEquals(100, new HashSet<>(itemsFound).size());
+    }
+
+    @Test
+    public void trySplitEmpty() {
+        var sets = createSets();
+        Spliterator<Integer> spliterator = new SpliteratorOfJenaSets<>(sets.spliterator(), 0);
+        assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    public void parallelStream() {
+        var sets = createSets(17, 0, 1000, 3, 64, 1, 250);
+        var result = StreamSupport.stream(new SpliteratorOfJenaSets<>(sets.spliterator(), total(sets)), true)
+                .collect(Collectors.toSet());
+        assertEquals(total(sets), result.size());
+        var array = StreamSupport.stream(new SpliteratorOfJenaSets<>(sets.spliterator(), total(sets)), true)
+                .toArray();
+        assertEquals(total(sets), array.length);
+    }
+
+    @Test
+    public void characteristics() {
+        var sets = createSets(3, 1, 4, 2);
+        Spliterator<Integer> spliterator = new SpliteratorOfJenaSets<>(sets.spliterator(), total(sets));
+        assertEquals(DISTINCT | SIZED | NONNULL, spliterator.characteristics());
+        var split = spliterator.trySplit();
+        assertEquals(DISTINCT | NONNULL, spliterator.characteristics());
+        assertEquals(DISTINCT | NONNULL, split.characteristics());
+    }
+
+    private static class IntegerSet extends FastHashSet<Integer> {
+        @Override
+        protected Integer[] newKeysArray(int size) {
+            return new Integer[size];
+        }
+    }
+}
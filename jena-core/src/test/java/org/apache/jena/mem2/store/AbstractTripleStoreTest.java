@@ -26,6 +26,8 @@ import org.hamcrest.collection.IsIterableContainingInAnyOrder;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+
 import static org.apache.jena.testing_framework.GraphHelper.node;
 import static org.apache.jena.testing_framework.GraphHelper.triple;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -361,6 +363,37 @@ public abstract class AbstractTripleStoreTest {
         assertThat(findings, IsEmptyCollection.empty());
     }
 
+    @Test
+    public void testForEachMatchEqualsFind() {
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 20; j++) {
+                sut.add(triple("s" + i + " p" + (j % 4) + " o" + j));
+                sut.add(triple("s" + i + " p" + (j % 4) + " " + j));
+            }
+        }
+        final var patterns = new String[]{
+                "s1 p1 o1", "s1 p1 o2", "s1 ?? ??", "?? p2 ??", "?? ?? o3", "?? ?? 3", "s1 p1 ??",
+                "s2 ?? o5", "?? p1 o5", "?? p3 3", "?? ?? ??", "s9 ?? ??", "?? p9 o1", "s1 p9 ??"};
+        for (var pattern : patterns) {
+            final var match = triple(pattern);
+            final var findings = new ArrayList<Triple>();
+            sut.forEachMatch(match.getMatchSubject(), match.getMatchPredicate(), match.getMatchObject(),
+                    findings::add);
+            final var expected = sut.find(match).toList();
+            assertEquals(pattern, expected.size(), findings.size());
+            assertThat(pattern, findings, IsIterableContainingInAnyOrder.containsInAnyOrder(expected.toArray()));
+        }
+    }
+
+    @Test
+    public void testForEachMatchEmptyStore() {
+        final var findings = new ArrayList<Triple>();
+        sut.forEachMatch(null, null, null, findings::add);
+        sut.forEachMatch(node("s"), null, null, findings::add);
+        sut.forEachMatch(node("s"), node("p"), node("o"), findings::add);
+        assertTrue(findings.isEmpty());
+    }
+
     @Test
     public void testStream() {
         sut.add(triple("x R y"));
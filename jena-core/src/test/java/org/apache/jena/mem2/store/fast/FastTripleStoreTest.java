@@ -21,6 +21,8 @@ import org.apache.jena.mem2.store.AbstractTripleStoreTest;
 import org.apache.jena.mem2.store.TripleStore;
 import org.junit.Test;
 
+import java.util.Spliterator;
+
 import static junit.framework.TestCase.assertEquals;
 import static org.apache.jena.testing_framework.GraphHelper.triple;
 import static org.junit.Assert.assertFalse;
@@ -97,4 +99,31 @@ public class FastTripleStoreTest extends AbstractTripleStoreTest {
         assertEquals(0, sut.stream(triple("?? P0 oX")).count());
         assertFalse(sut.contains(triple("?? P0 oX")));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStreamAllIsSizedAndParallel() {
+        for (int i = 0; i < 1000; i++) {
+            sut.add(triple("s" + (i % 10) + " P" + (i % 7) + " o" + i));
+        }
+        var spliterator = sut.stream().spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(1000, spliterator.getExactSizeIfKnown());
+        assertEquals(1000, sut.stream().parallel().distinct().count());
+        assertEquals(1000, sut.stream().parallel().toArray().length);
+    }
+
+    @Test
+    public void testPatternStreamIsSizedUntilRemove() {
+        for (int i = 0; i < 100; i++) {
+            sut.add(triple("s" + i + " P o" + i));
+        }
+        var spliterator = sut.stream(triple("?? P ??")).spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(100, spliterator.getExactSizeIfKnown());
+        assertEquals(100, sut.stream(triple("?? P ??")).parallel().count());
+
+        sut.remove(triple("s0 P o0"));
+        assertEquals(99, sut.stream(triple("?? P ??")).parallel().count());
+        assertEquals(99, sut.stream().parallel().count());
+    }
+}
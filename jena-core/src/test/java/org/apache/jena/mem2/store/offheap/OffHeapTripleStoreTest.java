@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.mem2.store.offheap;
+
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem2.store.AbstractTripleStoreTest;
+import org.apache.jena.mem2.store.TripleStore;
+import org.junit.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Spliterator;
+
+import static org.apache.jena.testing_framework.GraphHelper.triple;
+import static org.junit.Assert.*;
+
+public class OffHeapTripleStoreTest extends AbstractTripleStoreTest {
+
+    @Override
+    protected TripleStore createTripleStore() {
+        return new OffHeapTripleStore();
+    }
+
+    @Test
+    public void testRoundTripOfNodeKinds() {
+        var s = NodeFactory.createBlankNode();
+        var p = NodeFactory.createURI("http://example/p");
+        var objects = List.of(
+                NodeFactory.createURI("http://example/ö"),
+                NodeFactory.createBlankNode("b0"),
+                NodeFactory.createLiteralString("abc"),
+                NodeFactory.createLiteralString(""),
+                NodeFactory.createLiteralLang("chat", "fr"),
+                NodeFactory.createLiteralDirLang("hello", "en", "rtl"),
+                NodeFactory.createLiteralDT("42", org.apache.jena.datatypes.xsd.XSDDatatype.XSDinteger),
+                NodeFactory.createLiteralDT("x", NodeFactory.getType("http://example/unknownType")),
+                NodeFactory.createTripleTerm(triple("a B c")));
+        for (var o : objects) {
+            sut.add(Triple.create(s, p, o));
+        }
+        assertEquals(objects.size(), sut.countTriples());
+        var found = new HashSet<>();
+        sut.find(Triple.createMatch(s, p, null)).forEachRemaining(t -> found.add(t.getObject()));
+        assertEquals(new HashSet<>(objects), found);
+        for (var o : objects) {
+            assertTrue(sut.contains(Triple.create(s, p, o)));
+            assertTrue(sut.contains(Triple.createMatch(null, null, o)));
+        }
+    }
+
+    @Test
+    public void testRemovedRecordsAreReused() {
+        for (int i = 0; i < 100; i++) {
+            sut.add(triple("s" + i + " P o" + i));
+        }
+        for (int i = 0; i < 100; i += 2) {
+            sut.remove(triple("s" + i + " P o" + i));
+        }
+        assertEquals(50, sut.countTriples());
+        assertFalse(sut.contains(triple("s0 ?? ??")));
+        assertEquals(50, sut.find(triple("?? P ??")).toList().size());
+        assertEquals(50, sut.stream().count());
+        for (int i = 0; i < 100; i += 2) {
+            sut.add(triple("s" + i + " Q o" + i));
+        }
+        assertEquals(100, sut.countTriples());
+        assertEquals(50, sut.stream(triple("?? Q ??")).count());
+        assertEquals(1, sut.stream(triple("s0 ?? ??")).count());
+        assertTrue(sut.stream().spliterator().hasCharacteristics(Spliterator.SIZED));
+        assertEquals(100, sut.stream().parallel().distinct().count());
+    }
+
+    @Test
+    public void testLargerThanOneChunk() {
+        var store = (OffHeapTripleStore) sut;
+        // enough triples that the records need more than one chunk
+        final int count = 1000 * (OffHeapIntArray.CHUNK_SIZE / 8 / 1000 + 1);
+        for (int i = 0; i < count; i++) {
+            store.add(triple("s" + (i % 1000) + " P" + (i % 7) + " o" + i));
+        }
+        assertEquals(count, store.countTriples());
+        assertTrue(store.contains(triple("s999 P" + (999 % 7) + " o999")));
+        assertEquals(count / 1000, store.stream(triple("s1 ?? ??")).count());
+        assertEquals(count, store.stream().parallel().count());
+        assertTrue(store.offHeapBytes() > (long) count * 9 * Integer.BYTES);
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        sut.add(triple("a B c"));
+        var copy = sut.copy();
+        sut.add(triple("d E f"));
+        copy.remove(triple("a B c"));
+        assertEquals(2, sut.countTriples());
+        assertTrue(sut.contains(triple("a B c")));
+        assertEquals(0, copy.countTriples());
+    }
+
+    @Test
+    public void testClose() {
+        var store = (OffHeapTripleStore) sut;
+        store.add(triple("a B c"));
+        store.close();
+        assertTrue(store.isClosed());
+        assertThrows(IllegalStateException.class, () -> store.add(triple("a B c")));
+        assertThrows(IllegalStateException.class, () -> store.find(triple("?? ?? ??")));
+        // closing twice is fine
+        store.close();
+        assertEquals(0, store.offHeapBytes());
+    }
+
+    @Test
+    public void testCloseWithOpenIterators() {
+        var store = (OffHeapTripleStore) sut;
+        store.add(triple("a B c"));
+        store.add(triple("a B d"));
+        store.add(triple("e B c"));
+        var all = store.find(triple("?? ?? ??"));
+        var bySubject = store.find(triple("a ?? ??"));
+        var byPredicateAndObject = store.find(triple("?? B c"));
+        var allStream = store.stream().iterator();
+        var byPredicateStream = store.stream(triple("?? B ??")).iterator();
+        store.close();
+        assertThrows(IllegalStateException.class, all::hasNext);
+        assertThrows(IllegalStateException.class, all::next);
+        assertThrows(IllegalStateException.class, bySubject::next);
+        assertThrows(IllegalStateException.class, () -> byPredicateAndObject.forEachRemaining(t -> {}));
+        assertThrows(IllegalStateException.class, allStream::next);
+        assertThrows(IllegalStateException.class, byPredicateStream::next);
+    }
+
+    @Test
+    public void testClearWithOpenIterators() {
+        sut.add(triple("a B c"));
+        sut.add(triple("a B d"));
+        var all = sut.find(triple("?? ?? ??"));
+        var bySubject = sut.find(triple("a ?? ??"));
+        var stream = sut.stream().iterator();
+        sut.clear();
+        assertThrows(ConcurrentModificationException.class, all::next);
+        assertThrows(ConcurrentModificationException.class, bySubject::next);
+        assertThrows(ConcurrentModificationException.class, stream::next);
+    }
+
+    @Test
+    public void testChangeWithSameSizeIsDetected() {
+        sut.add(triple("a B c"));
+        sut.add(triple("a B d"));
+        var bySubject = sut.find(triple("a ?? ??"));
+        sut.remove(triple("a B d"));
+        sut.add(triple("a B e"));
+        assertThrows(ConcurrentModificationException.class, bySubject::next);
+    }
+
+    @Test
+    public void testSpliteratorsAreNotImmutable() {
+        sut.add(triple("a B c"));
+        sut.add(triple("a B d"));
+        assertFalse(sut.stream().spliterator().hasCharacteristics(Spliterator.IMMUTABLE));
+        assertFalse(sut.stream(triple("a ?? ??")).spliterator().hasCharacteristics(Spliterator.IMMUTABLE));
+        assertFalse(sut.stream(triple("a B ??")).spliterator().hasCharacteristics(Spliterator.IMMUTABLE));
+    }
+}
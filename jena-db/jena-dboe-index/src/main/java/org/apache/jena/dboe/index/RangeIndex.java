@@ -20,6 +20,7 @@ package org.apache.jena.dboe.index;
 
 import java.util.Iterator;
 
+import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.dboe.base.record.Record;
 import org.apache.jena.dboe.base.record.RecordMapper;
 
@@ -35,4 +36,28 @@ public interface RangeIndex extends Index
 
     /** Return the record containing the greatest key - may or may not have the associated value */
     public Record maxKey();
+
+    /**
+     * Return the number of records between min (inclusive) and max (exclusive), based on the record keys.
+     * A null min or max means no bound at that end.
+     */
+    public default long count(Record recordMin, Record recordMax) {
+        return Iter.count(iterator(recordMin, recordMax));
+    }
+
+    /**
+     * Insert records. Records supplied in key order can be applied sequentially
+     * by the index rather than as independent inserts.
+     */
+    public default void insertAll(Iterator<Record> records) {
+        records.forEachRemaining(this::insert);
+    }
+
+    /**
+     * Delete records. Records supplied in key order can be applied sequentially
+     * by the index rather than as independent deletes.
+     */
+    public default void deleteAll(Iterator<Record> records) {
+        records.forEachRemaining(this::delete);
+    }
 }
@@ -20,6 +20,7 @@ package org.apache.jena.dboe.index;
 
 import java.util.Iterator;
 
+import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.dboe.base.record.Record;
 import org.slf4j.Logger;
 
@@ -44,6 +45,16 @@ public final class RangeIndexLogger extends RangeIndexWrapper
         return super.delete(record);
     }
 
+    @Override
+    public void insertAll(Iterator<Record> records) {
+        super.insertAll(Iter.map(records, r->{ log.info("Add: "+r); return r; }));
+    }
+
+    @Override
+    public void deleteAll(Iterator<Record> records) {
+        super.deleteAll(Iter.map(records, r->{ log.info("Delete: "+r); return r; }));
+    }
+
     @Override
     public Record find(Record record) {
         log.info("Find: "+record);
@@ -39,6 +39,10 @@ public class RangeIndexWrapper implements RangeIndex
     public boolean contains(Record record)
     { return rIndex.contains(record); }
 
+    @Override
+    public long count(Record recordMin, Record recordMax)
+    { return rIndex.count(recordMin, recordMax); }
+
     @Override
     public Record minKey()
     { return rIndex.minKey(); }
@@ -55,6 +59,14 @@ public class RangeIndexWrapper implements RangeIndex
     public boolean delete(Record record)
     { return rIndex.delete(record); }
 
+    @Override
+    public void insertAll(Iterator<Record> records)
+    { rIndex.insertAll(records); }
+
+    @Override
+    public void deleteAll(Iterator<Record> records)
+    { rIndex.deleteAll(records); }
+
 //  public Record addAndReturnOld(Record record)
 //  { return bpt.addAndReturnOld(record); }
 
@@ -182,6 +182,14 @@ public final class BPTreeNode extends BPTreePage
 
     /** Insert a record - return existing value if any, else null */
     public static Record insert(BPTreeNode root, Record record) {
+        return insert(root, record, new AccessPath(root));
+    }
+
+    /**
+     * Insert a record, recording the route taken in {@code path}.
+     * Afterwards, the path ends at the records block holding the record.
+     */
+    /*package*/ static Record insert(BPTreeNode root, Record record, AccessPath path) {
         if ( logging(log) ) {
             log(log, "** insert(%s) / root=%d", record, root.getId());
             if ( DumpTree )
@@ -198,7 +206,6 @@ public final class BPTreeNode extends BPTreePage
                 root.dump();
         }
 
-        AccessPath path = new AccessPath(root);
         // Root ready - call insert proper.
         Record result = root.internalInsert(path, record);
 
@@ -214,6 +221,14 @@ public final class BPTreeNode extends BPTreePage
 
     /** Delete a record - return the old value if there was one, else null */
     public static Record delete(BPTreeNode root, Record rec) {
+        return delete(root, rec, new AccessPath(root));
+    }
+
+    /**
+     * Delete a record, recording the route taken in {@code path}.
+     * The path is not valid if the root was reduced.
+     */
+    /*package*/ static Record delete(BPTreeNode root, Record rec, AccessPath path) {
         if ( logging(log) ) {
             log(log, "** delete(%s) / start", rec);
             if ( BPT.DumpTree )
@@ -222,8 +237,6 @@ public final class BPTreeNode extends BPTreePage
         if ( !root.isRoot() )
             throw new BPTreeException("Delete begins but this is not the root");
 
-        AccessPath path = new AccessPath(root);
-
         if ( root.isLeaf && root.count == 0 ) {
             // Special case. Just a records block. Allow that to go too small.
             BPTreePage page = root.get(0);
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.trans.bplustree;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.jena.dboe.base.buffer.RecordBuffer;
+import org.apache.jena.dboe.base.record.Record;
+
+/**
+ * Count the records in a key range of a B+Tree without reading them.
+ * <p>
+ * Only the records blocks at the two ends of the range are searched; the
+ * count of every other records block in the range is the number of records in it.
+ * When the range covers several subtrees of a root with more than two levels,
+ * the subtrees are counted in parallel.
+ */
+class BPTreeRangeCount {
+    /** Whether to count subtrees in parallel. */
+    static boolean Parallel = true;
+
+    static long count(BPTreeNode root, Record minRec, Record maxRec) {
+        if ( minRec != null && maxRec != null && Record.keyGE(minRec, maxRec) )
+            return 0;
+        List<BPTreePage> pages = pages(root, minRec, maxRec);
+        if ( Parallel && !root.isLeaf() && pages.size() > 1 )
+            return pages.parallelStream().mapToLong(p -> count(p, minRec, maxRec)).sum();
+        long x = 0;
+        for ( BPTreePage p : pages )
+            x += count(p, minRec, maxRec);
+        return x;
+    }
+
+    private static long count(BPTreePage page, Record minRec, Record maxRec) {
+        if ( page instanceof BPTreeRecords records )
+            return countRecords(records, minRec, maxRec);
+        long x = 0;
+        for ( BPTreePage p : pages((BPTreeNode)page, minRec, maxRec) )
+            x += count(p, minRec, maxRec);
+        return x;
+    }
+
+    // ---- Places we touch blocks.
+
+    private static List<BPTreePage> pages(BPTreeNode node, Record minRec, Record maxRec) {
+        node.bpTree.startReadBlkMgr();
+        try {
+            Iterator<BPTreePage> iter = node.iterator(minRec, maxRec);
+            List<BPTreePage> pages = new ArrayList<>();
+            if ( iter != null )
+                iter.forEachRemaining(pages::add);
+            return pages;
+        } finally {
+            node.bpTree.finishReadBlkMgr();
+        }
+    }
+
+    private static long countRecords(BPTreeRecords records, Record minRec, Record maxRec) {
+        records.bpTree.startReadBlkMgr();
+        try {
+            RecordBuffer rBuff = records.getRecordBuffer();
+            int lo = ( minRec == null ) ? 0 : position(rBuff.find(minRec));
+            int hi = ( maxRec == null ) ? rBuff.size() : position(rBuff.find(maxRec));
+            return Math.max(0, hi - lo);
+        } finally {
+            records.bpTree.finishReadBlkMgr();
+        }
+    }
+
+    /** Index of the first record not less than the key, from the result of a search. */
+    private static int position(int idx) {
+        return ( idx >= 0 ) ? idx : -(idx + 1);
+    }
+}
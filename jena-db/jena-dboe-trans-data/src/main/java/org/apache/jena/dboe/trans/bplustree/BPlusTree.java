@@ -20,6 +20,7 @@ package org.apache.jena.dboe.trans.bplustree;
 
 import java.nio.ByteBuffer;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.jena.atlas.io.IndentedWriter;
 import org.apache.jena.atlas.iterator.Iter;
@@ -28,6 +29,7 @@ import org.apache.jena.dboe.base.record.Record;
 import org.apache.jena.dboe.base.record.RecordFactory;
 import org.apache.jena.dboe.base.record.RecordMapper;
 import org.apache.jena.dboe.index.RangeIndex;
+import org.apache.jena.dboe.trans.bplustree.AccessPath.AccessStep;
 import org.apache.jena.dboe.transaction.txn.ComponentId;
 import org.apache.jena.dboe.transaction.txn.TransactionalComponentLifecycle;
 import org.apache.jena.dboe.transaction.txn.TxnId;
@@ -300,6 +302,134 @@ public class BPlusTree extends TransactionalComponentLifecycle<BptTxnState> impl
         return r;
     }
 
+    /**
+     * Insert records, which should be in key order. After one insert, the access path
+     * to the records block is acquired again and held, and the following records that
+     * belong in the same block are added to it without another descent from the root.
+     * The path is released when a record falls outside the block or the block is full.
+     */
+    @Override
+    public void insertAll(Iterator<Record> records) {
+        startUpdateBlkMgr();
+        BPTreeNode root = getRootWrite();
+        // Path to the records block of the previous insert, with its pages held.
+        AccessPath held = null;
+        while ( records.hasNext() ) {
+            Record record = records.next();
+            if ( held != null ) {
+                BPTreeRecords leaf = leaf(held);
+                if ( !leaf.isFull() && inRange(held, record) ) {
+                    leaf.internalInsert(held, record);
+                    continue;
+                }
+                release(held);
+            }
+            AccessPath path = new AccessPath(root);
+            BPTreeNode.insert(root, record, path);
+            held = acquire(root, path);
+        }
+        if ( held != null )
+            release(held);
+        releaseRootWrite(root);
+        finishUpdateBlkMgr();
+    }
+
+    /**
+     * Delete records, which should be in key order. As {@link #insertAll}, records in
+     * the same records block as the previous delete are removed using the held access
+     * path, provided the block does not need rebalancing and the record is not the
+     * highest in the block, which is also a key in the nodes above.
+     */
+    @Override
+    public void deleteAll(Iterator<Record> records) {
+        startUpdateBlkMgr();
+        BPTreeNode root = getRootWrite();
+        AccessPath held = null;
+        while ( records.hasNext() ) {
+            Record record = records.next();
+            if ( held != null ) {
+                BPTreeRecords leaf = leaf(held);
+                if ( !leaf.isMinSize() && Record.keyLT(record, leaf.maxRecord()) && inRange(held, record) ) {
+                    leaf.internalDelete(held, record);
+                    continue;
+                }
+                release(held);
+            }
+            AccessPath path = new AccessPath(root);
+            BPTreeNode.delete(root, record, path);
+            held = acquire(root, path);
+        }
+        if ( held != null )
+            release(held);
+        releaseRootWrite(root);
+        finishUpdateBlkMgr();
+    }
+
+    /**
+     * Get the pages of an access path from the root again, following the same slots.
+     * An insert or delete releases the pages it used, so the path it records can not be
+     * used as it is. Returns null if the slots no longer lead to a records block, for
+     * example because a delete reduced the root. Any records block reached is one that
+     * the slots lead to now, so {@link #inRange} gives its key range.
+     */
+    private static AccessPath acquire(BPTreeNode root, AccessPath path) {
+        AccessPath held = new AccessPath(root);
+        BPTreeNode node = root;
+        for ( AccessStep step : path.getPath() ) {
+            if ( node == null || step.idx > node.getCount() ) {
+                release(held);
+                return null;
+            }
+            BPTreePage page = node.get(step.idx);
+            held.add(node, step.idx, page);
+            node = node.isLeaf() ? null : (BPTreeNode)page;
+        }
+        if ( node != null ) {
+            // Did not reach a records block.
+            release(held);
+            return null;
+        }
+        return held;
+    }
+
+    /** Release the pages of an access path, from the bottom. The root is not released. */
+    private static void release(AccessPath path) {
+        List<AccessStep> steps = path.getPath();
+        for ( int i = steps.size() - 1 ; i >= 0 ; i-- )
+            steps.get(i).page.release();
+    }
+
+    /** The records block at the end of an access path. */
+    private static BPTreeRecords leaf(AccessPath path) {
+        List<AccessStep> steps = path.getPath();
+        return (BPTreeRecords)steps.get(steps.size()-1).page;
+    }
+
+    /**
+     * Whether the record belongs in the records block at the end of the access path.
+     * The subtree at slot idx of a node has keys above key[idx-1] up to and including key[idx].
+     * The closest bounds come from the lowest node on the path that has a key on that side.
+     */
+    private static boolean inRange(AccessPath path, Record record) {
+        List<AccessStep> steps = path.getPath();
+        boolean haveLow = false;
+        boolean haveHigh = false;
+        for ( int i = steps.size() - 1; i >= 0 && !(haveLow && haveHigh) ; i-- ) {
+            AccessStep step = steps.get(i);
+            if ( !haveLow && step.idx > 0 ) {
+                if ( Record.keyLE(record, step.node.getRecordBuffer().get(step.idx-1)) )
+                    return false;
+                haveLow = true;
+            }
+            if ( !haveHigh && step.idx < step.node.getCount() ) {
+                if ( Record.keyGT(record, step.node.getRecordBuffer().get(step.idx)) )
+                    return false;
+                haveHigh = true;
+            }
+        }
+        return true;
+    }
+
     private static Record noMin = null;
     private static Record noMax = null;
 
@@ -318,6 +448,15 @@ public class BPlusTree extends TransactionalComponentLifecycle<BptTxnState> impl
         //return iterator(fromRec, toRec, RecordFactory.mapperRecord);
     }
 
+    @Override
+    public long count(Record minRec, Record maxRec) {
+        startReadBlkMgr();
+        BPTreeNode root = getRootRead();
+        releaseRootRead(root);
+        finishReadBlkMgr();
+        return BPTreeRangeCount.count(root, minRec, maxRec);
+    }
+
     public Iterator<Record> distinctByKeyPrefix(int keyPrefixLength) {
         startReadBlkMgr();
         BPTreeNode root = getRootRead();
@@ -434,8 +573,7 @@ public class BPlusTree extends TransactionalComponentLifecycle<BptTxnState> impl
 
     @Override
     public long size() {
-        Iterator<Record> iter = iterator();
-        return Iter.count(iter);
+        return count(noMin, noMax);
     }
 
     @Override
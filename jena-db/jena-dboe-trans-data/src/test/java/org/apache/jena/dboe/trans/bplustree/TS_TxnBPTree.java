@@ -30,6 +30,8 @@ import org.junit.runners.Suite;
     TestBPlusTreeIndexNonTxn.class,
     TestBPlusTreeNonTxn.class,
     TestBPTreeModes.class,
+    TestBPTreeRangeCount.class,
+    TestBPTreeBatch.class,
 
     // Transactional tests
     TestBPlusTreeTxn.class,
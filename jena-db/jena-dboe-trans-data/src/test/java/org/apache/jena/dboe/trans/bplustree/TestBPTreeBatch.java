@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.trans.bplustree;
+
+import static org.apache.jena.dboe.index.testlib.IndexTestLib.add;
+import static org.apache.jena.dboe.index.testlib.IndexTestLib.testIndexContents;
+import static org.apache.jena.dboe.test.RecordLib.r;
+
+import java.util.*;
+
+import org.apache.jena.dboe.base.file.Location;
+import org.apache.jena.dboe.base.record.Record;
+import org.apache.jena.dboe.test.RecordLib;
+import org.apache.jena.dboe.transaction.Transactional;
+import org.apache.jena.dboe.transaction.TransactionalFactory;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.system.Txn;
+import org.junit.Test;
+
+/** Batch changes to a B+Tree: {@link BPlusTree#insertAll} and {@link BPlusTree#deleteAll} */
+public class TestBPTreeBatch {
+
+    private static BPlusTree make(int order, int... keys) {
+        return make(false, order, keys);
+    }
+
+    /** Make a B+Tree, with block tracking to check the get/release of blocks if {@code tracking}. */
+    private static BPlusTree make(boolean tracking, int order, int... keys) {
+        BPlusTree bpt = BPlusTreeFactory.makeMem(order, 0, RecordLib.TestRecordLength, 0);
+        if ( tracking )
+            bpt = BPlusTreeFactory.addTracking(bpt);
+        bpt.nonTransactional();
+        add(bpt, keys);
+        return bpt;
+    }
+
+    private static Iterator<Record> records(int... keys) {
+        return Arrays.stream(keys).mapToObj(RecordLib::r).iterator();
+    }
+
+    private static Iterator<Record> records(Collection<Integer> keys) {
+        return keys.stream().map(k -> r(k)).iterator();
+    }
+
+    private static int[] keys(Collection<Integer> keys) {
+        return keys.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test public void bptree_batch_01() {
+        BPlusTree bpt = make(2);
+        bpt.insertAll(records(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        bpt.check();
+        testIndexContents(bpt, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test public void bptree_batch_02() {
+        BPlusTree bpt = make(2, 10, 20, 30, 40, 50, 60, 70, 80, 90);
+        bpt.insertAll(records(5, 15, 16, 17, 20, 55, 56, 95, 96));
+        bpt.check();
+        testIndexContents(bpt, 5, 10, 15, 16, 17, 20, 30, 40, 50, 55, 56, 60, 70, 80, 90, 95, 96);
+    }
+
+    @Test public void bptree_batch_03() {
+        BPlusTree bpt = make(2, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        bpt.deleteAll(records(2, 3, 4, 8, 9, 10));
+        bpt.check();
+        testIndexContents(bpt, 1, 5, 6, 7);
+        bpt.deleteAll(records(1, 5, 6, 7));
+        bpt.check();
+        testIndexContents(bpt);
+    }
+
+    // Not in key order - still correct.
+    @Test public void bptree_batch_04() {
+        BPlusTree bpt = make(3, 10, 20, 30);
+        bpt.insertAll(records(35, 5, 25, 15));
+        bpt.deleteAll(records(30, 5, 20));
+        bpt.check();
+        testIndexContents(bpt, 10, 15, 25, 35);
+    }
+
+    @Test public void bptree_batch_random() {
+        randomBatches(false, 2, 500);
+        randomBatches(false, 3, 500);
+        randomBatches(false, 5, 2000);
+    }
+
+    // The block tracker checks the get/promote/release protocol of the block managers.
+    // (BPlusTree.check() is not inside a read so it is skipped with tracking.)
+    @Test public void bptree_batch_tracking_01() {
+        BPlusTree bpt = make(true, 2, 10, 20, 30, 40, 50, 60, 70, 80, 90);
+        bpt.insertAll(records(5, 15, 16, 17, 20, 55, 56, 95, 96));
+        testIndexContents(bpt, 5, 10, 15, 16, 17, 20, 30, 40, 50, 55, 56, 60, 70, 80, 90, 95, 96);
+        bpt.deleteAll(records(5, 15, 16, 17, 20, 55, 56, 95, 96));
+        testIndexContents(bpt, 10, 30, 40, 50, 60, 70, 80, 90);
+    }
+
+    @Test public void bptree_batch_tracking_random() {
+        randomBatches(true, 2, 500);
+        randomBatches(true, 3, 500);
+    }
+
+    private static void randomBatches(boolean tracking, int order, int batchSize) {
+        Random random = new Random(order);
+        int maxKey = 10 * batchSize;
+        BPlusTree bpt = make(tracking, order);
+        SortedSet<Integer> expected = new TreeSet<>();
+        for ( int round = 0 ; round < 10 ; round++ ) {
+            SortedSet<Integer> insert = new TreeSet<>();
+            SortedSet<Integer> delete = new TreeSet<>();
+            for ( int i = 0 ; i < batchSize ; i++ ) {
+                insert.add(random.nextInt(maxKey));
+                delete.add(random.nextInt(maxKey));
+            }
+            bpt.insertAll(records(insert));
+            expected.addAll(insert);
+            if ( !tracking )
+                bpt.check();
+            testIndexContents(bpt, keys(expected));
+
+            bpt.deleteAll(records(delete));
+            expected.removeAll(delete);
+            if ( !tracking )
+                bpt.check();
+            testIndexContents(bpt, keys(expected));
+        }
+    }
+
+    // Batches in transactions, where the blocks change are copied.
+    @Test public void bptree_batch_txn_01() {
+        BPlusTree bpt = BPlusTreeFactory.makeMem(2, 2, RecordLib.TestRecordLength, 0);
+        Transactional thing = TransactionalFactory.createTransactional(Location.mem(), bpt);
+        SortedSet<Integer> expected = new TreeSet<>();
+        for ( int i = 0 ; i < 100 ; i++ )
+            expected.add(2 * i);
+        Txn.executeWrite(thing, () -> bpt.insertAll(records(expected)));
+
+        SortedSet<Integer> insert = new TreeSet<>();
+        SortedSet<Integer> delete = new TreeSet<>();
+        for ( int i = 0 ; i < 50 ; i++ ) {
+            insert.add(4 * i + 1);
+            delete.add(4 * i);
+        }
+        Txn.executeWrite(thing, () -> {
+            bpt.insertAll(records(insert));
+            bpt.deleteAll(records(delete));
+            bpt.check();
+        });
+        expected.addAll(insert);
+        expected.removeAll(delete);
+        Txn.executeRead(thing, () -> testIndexContents(bpt, keys(expected)));
+
+        // Abort a batch.
+        thing.begin(ReadWrite.WRITE);
+        bpt.deleteAll(records(expected));
+        bpt.insertAll(records(1000, 1001, 1002));
+        thing.abort();
+        thing.end();
+        Txn.executeRead(thing, () -> testIndexContents(bpt, keys(expected)));
+    }
+}
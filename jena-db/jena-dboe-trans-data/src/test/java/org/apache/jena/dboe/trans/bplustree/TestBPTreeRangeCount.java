@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.dboe.trans.bplustree;
+
+import static org.apache.jena.dboe.index.testlib.IndexTestLib.add;
+import static org.apache.jena.dboe.test.RecordLib.r;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.dboe.base.record.Record;
+import org.apache.jena.dboe.test.RecordLib;
+import org.junit.After;
+import org.junit.Test;
+
+/** Counting a range of a B+Tree: {@link BPlusTree#count(Record, Record)} */
+public class TestBPTreeRangeCount {
+
+    private boolean parallelAtStart = BPTreeRangeCount.Parallel;
+
+    @After public void resetParallel() {
+        BPTreeRangeCount.Parallel = parallelAtStart;
+    }
+
+    private static BPlusTree make(int order, int... keys) {
+        BPlusTree bpt = BPlusTreeFactory.makeMem(order, 0, RecordLib.TestRecordLength, 0);
+        bpt.nonTransactional();
+        add(bpt, keys);
+        return bpt;
+    }
+
+    @Test public void bptree_count_01() {
+        BPlusTree bpt = make(2);
+        assertEquals(0, bpt.count(null, null));
+        assertEquals(0, bpt.count(r(1), r(10)));
+        assertEquals(0, bpt.size());
+    }
+
+    @Test public void bptree_count_02() {
+        BPlusTree bpt = make(2, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertEquals(9, bpt.size());
+        assertEquals(9, bpt.count(null, null));
+        assertEquals(4, bpt.count(r(2), r(6)));
+        assertEquals(5, bpt.count(r(5), null));
+        assertEquals(4, bpt.count(null, r(5)));
+        assertEquals(0, bpt.count(r(5), r(5)));
+        assertEquals(0, bpt.count(r(6), r(2)));
+        assertEquals(0, bpt.count(r(20), r(30)));
+    }
+
+    @Test public void bptree_count_03() {
+        BPlusTree bpt = make(3, 10, 20, 30, 40, 50, 60, 70, 80, 90);
+        // Bounds not in the tree.
+        assertEquals(3, bpt.count(r(15), r(45)));
+        assertEquals(1, bpt.count(r(0), r(11)));
+        assertEquals(9, bpt.count(r(0), r(100)));
+    }
+
+    @Test public void bptree_count_random_serial() {
+        BPTreeRangeCount.Parallel = false;
+        randomCount(2, 2000);
+        randomCount(4, 2000);
+    }
+
+    @Test public void bptree_count_random_parallel() {
+        BPTreeRangeCount.Parallel = true;
+        randomCount(2, 2000);
+        randomCount(4, 2000);
+    }
+
+    private static void randomCount(int order, int numKeys) {
+        Random random = new Random(order);
+        int maxKey = 10 * numKeys;
+        int[] keys = new int[numKeys];
+        for ( int i = 0 ; i < numKeys ; i++ )
+            keys[i] = random.nextInt(maxKey);
+        BPlusTree bpt = make(order, keys);
+        assertEquals(Iter.count(bpt.iterator()), bpt.size());
+        for ( int i = 0 ; i < 200 ; i++ ) {
+            Record min = r(random.nextInt(maxKey));
+            Record max = r(random.nextInt(maxKey));
+            long expected = Record.keyLT(min, max) ? Iter.count(bpt.iterator(min, max)) : 0;
+            assertEquals(expected, bpt.count(min, max));
+        }
+    }
+}
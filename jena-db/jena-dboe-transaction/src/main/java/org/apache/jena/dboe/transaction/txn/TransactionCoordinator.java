@@ -1026,6 +1026,12 @@ public class TransactionCoordinator implements TransactionalSystemControl {
         finishNonExclusiveMode();
     }
 
+    /**
+     * The version of the committed data. This increases when a write transaction
+     * commits and can be used to detect that the data has changed.
+     */
+    public long getDataVersion()        { return dataVersion.get(); }
+
     public long countActiveReaders()    { return activeReadersCount.get(); }
     public long countActiveWriter()     { return activeWritersCount.get(); }
     public long countActive()           { return activeTransactionCount.get(); }
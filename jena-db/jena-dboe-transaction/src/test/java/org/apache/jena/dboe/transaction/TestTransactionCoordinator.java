@@ -173,5 +173,17 @@ public class TestTransactionCoordinator extends AbstractTestTxn {
         assertEquals(0, txnMgr.countActiveReaders());
         assertEquals(0, txnMgr.countActiveWriter());
     }
-}
 
+    @Test public void txn_coord_data_version() {
+        long v0 = txnMgr.getDataVersion();
+        unit.begin(ReadWrite.READ);
+        unit.commit();
+        assertEquals(v0, txnMgr.getDataVersion());
+        unit.begin(ReadWrite.WRITE);
+        unit.abort();
+        assertEquals(v0, txnMgr.getDataVersion());
+        unit.begin(ReadWrite.WRITE);
+        unit.commit();
+        assertEquals(v0+1, txnMgr.getDataVersion());
+    }
+}
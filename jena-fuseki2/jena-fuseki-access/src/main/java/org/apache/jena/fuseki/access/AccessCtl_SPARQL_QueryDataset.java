@@ -43,6 +43,12 @@ public class AccessCtl_SPARQL_QueryDataset extends SPARQL_QueryDataset {
 
     private static boolean ALLOW_FROM = true;
 
+    /** Results depend on the user so are not shared through the result cache. */
+    @Override
+    protected boolean allowResultCache(HttpAction action) {
+        return false;
+    }
+
     @Override
     protected Collection<String> customParams() {
         // The additional ?user.
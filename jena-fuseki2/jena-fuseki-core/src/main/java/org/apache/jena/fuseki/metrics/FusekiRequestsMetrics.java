@@ -54,5 +54,32 @@ public class FusekiRequestsMetrics implements MeterBinder {
                 }
             }
         }
+        bindQueryLimit(registry, dataService.getQueryLimit());
+        bindResultCache(registry, dataService.getResultCache());
+    }
+
+    /** Queue wait and run time of queries, when the dataset limits concurrent queries. */
+    private void bindQueryLimit(MeterRegistry registry, QueryLimit queryLimit) {
+        if ( queryLimit == null )
+            return;
+        String[] tags = { "dataset", dataAccessPoint.getName() };
+        Gauge.builder("fuseki_query_limit_max", queryLimit, QueryLimit::getMaxConcurrent).tags(tags).register(registry);
+        Gauge.builder("fuseki_query_limit_running", queryLimit, QueryLimit::getRunning).tags(tags).register(registry);
+        Gauge.builder("fuseki_query_limit_waiting", queryLimit, QueryLimit::getWaiting).tags(tags).register(registry);
+        Gauge.builder("fuseki_query_limit_started", queryLimit, QueryLimit::getStarted).tags(tags).register(registry);
+        Gauge.builder("fuseki_query_limit_rejected", queryLimit, QueryLimit::getRejected).tags(tags).register(registry);
+        Gauge.builder("fuseki_query_limit_wait_seconds", queryLimit, QueryLimit::getWaitSeconds).tags(tags).register(registry);
+        Gauge.builder("fuseki_query_limit_run_seconds", queryLimit, QueryLimit::getRunSeconds).tags(tags).register(registry);
+    }
+
+    /** Use of the result cache, when the dataset has one. */
+    private void bindResultCache(MeterRegistry registry, QueryResultCache resultCache) {
+        if ( resultCache == null )
+            return;
+        String[] tags = { "dataset", dataAccessPoint.getName() };
+        Gauge.builder("fuseki_result_cache_hits", resultCache, QueryResultCache::getHits).tags(tags).register(registry);
+        Gauge.builder("fuseki_result_cache_misses", resultCache, QueryResultCache::getMisses).tags(tags).register(registry);
+        Gauge.builder("fuseki_result_cache_entries", resultCache, QueryResultCache::size).tags(tags).register(registry);
+        Gauge.builder("fuseki_result_cache_bytes", resultCache, QueryResultCache::getBytes).tags(tags).register(registry);
     }
 }
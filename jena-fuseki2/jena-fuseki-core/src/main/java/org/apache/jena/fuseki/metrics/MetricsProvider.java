@@ -51,6 +51,7 @@ public interface MetricsProvider {
         if ( dataAccessPoint == null )
             Log.warn(MetricsProvider.class, "addDataAccessPointMetrics: Null DataAccessPoint");
         new FusekiRequestsMetrics(dataAccessPoint).bindTo(meterRegistry);
+        new QueryPlanCacheMetrics(dataAccessPoint).bindTo(meterRegistry);
     }
 
     public static void setMetricsProvider(ServletContext servletContext, MetricsProvider provider) {
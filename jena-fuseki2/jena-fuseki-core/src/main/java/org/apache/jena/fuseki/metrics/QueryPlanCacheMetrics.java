@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.jena.fuseki.Fuseki;
+import org.apache.jena.fuseki.server.DataAccessPoint;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.engine.QueryPlanCache;
+import org.apache.jena.sparql.util.Context;
+
+/** Metrics for the query and plan cache of a dataset, if there is one. */
+public class QueryPlanCacheMetrics implements MeterBinder {
+
+    private DataAccessPoint dataAccessPoint;
+
+    public QueryPlanCacheMetrics(DataAccessPoint dataAccessPoint) {
+        this.dataAccessPoint = dataAccessPoint;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        DatasetGraph dsg = dataAccessPoint.getDataService().getDataset();
+        if ( dsg == null )
+            return;
+        Context context = Context.mergeCopy(Fuseki.getContext(), dsg.getContext());
+        QueryPlanCache cache = QueryPlanCache.get(context);
+        if ( cache == null )
+            return;
+        String[] tags = { "dataset", dataAccessPoint.getName() };
+        Gauge.builder("fuseki_query_cache_hits", cache, c -> c.queryStats().hits).tags(tags).register(registry);
+        Gauge.builder("fuseki_query_cache_misses", cache, c -> c.queryStats().misses).tags(tags).register(registry);
+        Gauge.builder("fuseki_query_cache_hit_rate", cache, c -> c.queryStats().hitRate).tags(tags).register(registry);
+        Gauge.builder("fuseki_query_cache_size", cache, QueryPlanCache::queryCacheSize).tags(tags).register(registry);
+        Gauge.builder("fuseki_plan_cache_hits", cache, c -> c.planStats().hits).tags(tags).register(registry);
+        Gauge.builder("fuseki_plan_cache_misses", cache, c -> c.planStats().misses).tags(tags).register(registry);
+        Gauge.builder("fuseki_plan_cache_hit_rate", cache, c -> c.planStats().hitRate).tags(tags).register(registry);
+        Gauge.builder("fuseki_plan_cache_size", cache, QueryPlanCache::planCacheSize).tags(tags).register(registry);
+    }
+}
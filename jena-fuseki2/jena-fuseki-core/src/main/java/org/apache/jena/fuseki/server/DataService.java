@@ -30,6 +30,7 @@ import java.util.function.Consumer;
 import org.apache.commons.collections4.ListValuedMap;
 import org.apache.commons.collections4.MultiMapUtils;
 import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.jena.dboe.transaction.txn.TransactionCoordinator;
 import org.apache.jena.fuseki.Fuseki;
 import org.apache.jena.fuseki.FusekiException;
 import org.apache.jena.fuseki.auth.AuthPolicy;
@@ -39,6 +40,7 @@ import org.apache.jena.query.TxnType;
 import org.apache.jena.riot.out.NodeFmtLib;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphWrapper;
+import org.apache.jena.tdb2.sys.TDBInternal;
 
 /**
  * A {@code DataService} is the fuseki Service in a configuration file.
@@ -53,6 +55,19 @@ public class DataService {
     // Dataset-level authorization policy.
     private final AuthPolicy authPolicy;
 
+    // Limit on the number of queries running at the same time. Null for no limit.
+    private final QueryLimit queryLimit;
+
+    // Cache of query results. Null for no cache.
+    private final QueryResultCache resultCache;
+
+    // Identifies the data of this DataService in result cache versions.
+    private final String dataId = UUID.randomUUID().toString();
+    // The transaction coordinator last used for the data version, and the number of
+    // times it has changed (compaction switches the database).
+    private TransactionCoordinator versionCoordinator = null;
+    private long versionCoordinatorChanges = 0;
+
     /**
      * Record which {@link DataAccessPoint DataAccessPoints} this {@code DataService} is
      * associated with. This is mainly for checking and development.
@@ -79,20 +94,22 @@ public class DataService {
 
     /** Return a new builder, populated by an existing DatasetService */
     public static Builder newBuilder(DataService dSrv) {
-        return new Builder(dSrv.dataset, dSrv.endpoints, dSrv.operationsMap, dSrv.plainOperationChooser, dSrv.authPolicy);
+        return new Builder(dSrv.dataset, dSrv.endpoints, dSrv.operationsMap, dSrv.plainOperationChooser, dSrv.authPolicy, dSrv.queryLimit, dSrv.resultCache);
     }
 
     /** Create a {@code DataService} for the given dataset. */
     private DataService(DatasetGraph dataset, Map<String, EndpointSet> endpoints,
                         MultiValuedMap<Operation, Endpoint> operationsMap,
                         DispatchFunction plainOperationChooser,
-                        AuthPolicy authPolicy) {
+                        AuthPolicy authPolicy, QueryLimit queryLimit, QueryResultCache resultCache) {
         this.dataset = dataset;
         this.endpoints = Map.copyOf(endpoints);
         this.operationsMap = MultiMapUtils.newListValuedHashMap();
         this.operationsMap.putAll(operationsMap);
         this.plainOperationChooser = plainOperationChooser;
         this.authPolicy = authPolicy;
+        this.queryLimit = queryLimit;
+        this.resultCache = resultCache;
         counters.add(CounterName.Requests);
         counters.add(CounterName.RequestsGood);
         counters.add(CounterName.RequestsBad);
@@ -307,6 +324,40 @@ public class DataService {
     /** Returning null implies no authorization control */
     public AuthPolicy authPolicy() { return authPolicy; }
 
+    /** The limit on queries running at the same time. Returning null implies no limit. */
+    public QueryLimit getQueryLimit() { return queryLimit; }
+
+    /** The cache of query results. Returning null implies no caching. */
+    public QueryResultCache getResultCache() { return resultCache; }
+
+    /**
+     * The version of the data, or null if changes to the data can not be detected.
+     * The version changes when any write transaction on the database commits,
+     * whether through Fuseki or not. Only TDB2 databases have a version.
+     */
+    public QueryResultCache.DataVersion getDataVersion() {
+        DatasetGraph dsg = dataset;
+        if ( dsg == null )
+            return null;
+        // Looked up each time because compaction switches the database.
+        TransactionCoordinator coordinator = TDBInternal.getTransactionCoordinator(findTDB(dsg));
+        if ( coordinator == null )
+            return null;
+        long number = coordinator.getDataVersion();
+        synchronized(this) {
+            if ( coordinator != versionCoordinator ) {
+                versionCoordinator = coordinator;
+                versionCoordinatorChanges++;
+            }
+            return new QueryResultCache.DataVersion(dataId+"/"+versionCoordinatorChanges, number);
+        }
+    }
+
+    /** Whether the data of the dataset has a version, which is needed for a result cache. */
+    public static boolean hasDataVersion(DatasetGraph dsg) {
+        return dsg != null && TDBInternal.getTransactionCoordinator(findTDB(dsg)) != null;
+    }
+
     public static class Builder {
         private DatasetGraph dataset = null;
 
@@ -317,18 +368,24 @@ public class DataService {
         // Dataset-level authorization policy.
         private AuthPolicy authPolicy = null;
 
+        private QueryLimit queryLimit = null;
+
+        private QueryResultCache resultCache = null;
+
         private Builder() {}
 
         private Builder(DatasetGraph dataset, Map<String, EndpointSet> endpoints,
                         MultiValuedMap<Operation, Endpoint> operationsMap,
                         DispatchFunction plainOperationChooser,
-                        AuthPolicy authPolicy) {
+                        AuthPolicy authPolicy, QueryLimit queryLimit, QueryResultCache resultCache) {
             this();
             this.dataset = dataset;
             this.endpoints.putAll(endpoints);
             this.operationsMap.putAll(operationsMap);
             this.plainOperationChooser = plainOperationChooser;
             this.authPolicy = authPolicy;
+            this.queryLimit = queryLimit;
+            this.resultCache = resultCache;
         }
 
         public Builder dataset(DatasetGraph dsg) { this.dataset = dsg; return this; }
@@ -392,8 +449,44 @@ public class DataService {
             return this;
         }
 
+        /**
+         * Limit the number of queries running at the same time on this dataset.
+         * Queries over the limit wait for up to {@code queueTimeoutMillis}
+         * (negative for no time limit) and then fail with 503 (Service Unavailable).
+         */
+        public Builder queryLimit(int maxConcurrent, long queueTimeoutMillis) {
+            this.queryLimit = new QueryLimit(maxConcurrent, queueTimeoutMillis);
+            return this;
+        }
+
+        public boolean hasQueryLimit() {
+            return queryLimit != null;
+        }
+
+        /**
+         * Cache query results for this dataset, up to {@code maxBytes} in total.
+         * Results larger than {@code maxEntryBytes} are not cached.
+         * Responses carry an {@code ETag} based on the version of the data.
+         * <p>
+         * Only TDB2 datasets have a version of the data that changes with every
+         * write; for other datasets, the cache is not used.
+         */
+        public Builder resultCache(long maxBytes, int maxEntryBytes) {
+            this.resultCache = new QueryResultCache(maxBytes, maxEntryBytes);
+            return this;
+        }
+
+        public boolean hasResultCache() {
+            return resultCache != null;
+        }
+
         public DataService build() {
-            return new DataService(dataset, endpoints, operationsMap, plainOperationChooser, authPolicy);
+            QueryResultCache cache = resultCache;
+            if ( cache != null && ! hasDataVersion(dataset) ) {
+                Fuseki.configLog.warn("Result cache ignored: changes to the dataset can not be detected (not TDB2)");
+                cache = null;
+            }
+            return new DataService(dataset, endpoints, operationsMap, plainOperationChooser, authPolicy, queryLimit, cache);
         }
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for the queries of a {@link DataService}.
+ * <p>
+ * At most {@code maxConcurrent} queries run at the same time. Other queries wait, in
+ * order of arrival, for up to {@code queueTimeoutMillis} and are refused if
+ * they have not started by then.
+ */
+public class QueryLimit {
+    private final int maxConcurrent;
+    private final long queueTimeoutMillis;
+    private final Semaphore permits;
+
+    private final AtomicLong  waiting       = new AtomicLong(0);
+    private final LongAdder   started       = new LongAdder();
+    private final LongAdder   rejected      = new LongAdder();
+    private final LongAdder   waitNanos     = new LongAdder();
+    private final LongAdder   runNanos      = new LongAdder();
+
+    /**
+     * A limit of {@code maxConcurrent} queries running at the same time.
+     * A negative {@code queueTimeoutMillis} means wait without a time limit.
+     */
+    public QueryLimit(int maxConcurrent, long queueTimeoutMillis) {
+        if ( maxConcurrent <= 0 )
+            throw new IllegalArgumentException("Maximum number of concurrent queries must be positive: "+maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Wait for the query to be allowed to start.
+     * Return the {@link Permit} to close when the query finishes,
+     * or null if the query was refused because the queue timeout was reached.
+     */
+    public Permit enter() {
+        long waitStart = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean admitted = false;
+        try {
+            if ( queueTimeoutMillis < 0 ) {
+                permits.acquire();
+                admitted = true;
+            } else
+                admitted = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long now = System.nanoTime();
+        waitNanos.add(now - waitStart);
+        if ( !admitted ) {
+            rejected.increment();
+            return null;
+        }
+        started.increment();
+        return new Permit(now);
+    }
+
+    /** A running query. Closing the permit lets another query start. */
+    public class Permit implements AutoCloseable {
+        private final long startTime;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private Permit(long startTime) {
+            this.startTime = startTime;
+        }
+
+        @Override
+        public void close() {
+            if ( closed.getAndSet(true) )
+                return;
+            runNanos.add(System.nanoTime() - startTime);
+            permits.release();
+        }
+    }
+
+    public int getMaxConcurrent()       { return maxConcurrent; }
+
+    public long getQueueTimeoutMillis() { return queueTimeoutMillis; }
+
+    /** Number of queries running now. */
+    public int getRunning()             { return maxConcurrent - permits.availablePermits(); }
+
+    /** Number of queries waiting to start. */
+    public long getWaiting()            { return waiting.get(); }
+
+    /** Total number of queries started. */
+    public long getStarted()            { return started.sum(); }
+
+    /** Total number of queries refused because they waited for longer than the queue timeout. */
+    public long getRejected()           { return rejected.sum(); }
+
+    /** Total time, in seconds, that queries have spent waiting to start. */
+    public double getWaitSeconds()      { return waitNanos.sum() / 1e9; }
+
+    /** Total time, in seconds, of queries that have finished. */
+    public double getRunSeconds()       { return runNanos.sum() / 1e9; }
+
+    @Override
+    public String toString() {
+        return String.format("QueryLimit[max=%d, queueTimeout=%dms]", maxConcurrent, queueTimeoutMillis);
+    }
+}
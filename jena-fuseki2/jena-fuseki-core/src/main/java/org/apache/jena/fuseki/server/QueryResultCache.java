@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.jena.fuseki.FusekiException;
+import org.apache.jena.query.Query;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.OpVisitor;
+import org.apache.jena.sparql.algebra.OpVisitorBase;
+import org.apache.jena.sparql.algebra.op.OpService;
+import org.apache.jena.sparql.algebra.walker.Walker;
+import org.apache.jena.sparql.expr.*;
+
+/**
+ * Cache of serialized query results for a {@link DataService}.
+ * <p>
+ * Entries are for one version of the data ({@link DataService#getDataVersion()}).
+ * When the version changes, all entries are dropped. The cache is bounded by the
+ * total size of the results held; least recently used entries are removed first.
+ * Results larger than the entry size limit are not cached.
+ */
+public class QueryResultCache {
+    /** A cached response body and its content type. */
+    public record Entry(String contentType, byte[] body) {}
+
+    /**
+     * A version of the data. The {@code source} identifies the database; the
+     * {@code number} increases with each change to that database.
+     */
+    public record DataVersion(String source, long number) {
+        // Whether this version is after the other version.
+        boolean isAfter(DataVersion other) {
+            return other == null || ! source.equals(other.source) || number > other.number;
+        }
+    }
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+
+    // Access order, so the first entry is the least recently used.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+    private DataVersion dataVersion = null;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public QueryResultCache(long maxBytes, int maxEntryBytes) {
+        if ( maxBytes <= 0 || maxEntryBytes <= 0 )
+            throw new IllegalArgumentException(String.format("Bad result cache sizes: (max=%d, maxEntry=%d)", maxBytes, maxEntryBytes));
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = (int)Math.min(maxBytes, maxEntryBytes);
+    }
+
+    /** Return the results for the request key at this version of the data, or null. */
+    public synchronized Entry get(String key, DataVersion version) {
+        setVersion(version);
+        Entry entry = version.equals(dataVersion) ? entries.get(key) : null;
+        if ( entry == null )
+            misses.increment();
+        else
+            hits.increment();
+        return entry;
+    }
+
+    /**
+     * Add results for the request key, calculated at the given version of the data.
+     * Results for an older version than the current one are ignored.
+     */
+    public synchronized void put(String key, DataVersion version, String contentType, byte[] body) {
+        if ( body.length > maxEntryBytes )
+            return;
+        setVersion(version);
+        if ( ! version.equals(dataVersion) )
+            return;
+        Entry previous = entries.put(key, new Entry(contentType, body));
+        if ( previous != null )
+            currentBytes -= previous.body().length;
+        currentBytes += body.length;
+        Iterator<Entry> iter = entries.values().iterator();
+        while ( currentBytes > maxBytes && iter.hasNext() ) {
+            currentBytes -= iter.next().body().length;
+            iter.remove();
+        }
+    }
+
+    /** Drop all entries. */
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    // Move to a newer version of the data, or another database, dropping all entries.
+    private void setVersion(DataVersion version) {
+        if ( version.isAfter(dataVersion) ) {
+            clear();
+            dataVersion = version;
+        }
+    }
+
+    /**
+     * The HTTP entity tag for the response to the request key at this version of the data.
+     * This is a SHA-256 digest of the database, the version number and the request key.
+     */
+    public static String etag(String key, DataVersion version) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(version.source().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte)0);
+            digest.update(Long.toString(version.number()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte)0);
+            digest.update(key.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new FusekiException("No SHA-256 digest", ex);
+        }
+    }
+
+    /**
+     * Whether the results of a query depend only on the data. Queries that use
+     * SERVICE or functions that return a different value each time they are called
+     * (RAND, UUID, STRUUID, BNODE, NOW) are not cached.
+     */
+    public static boolean isCacheable(Query query) {
+        AtomicBoolean cacheable = new AtomicBoolean(true);
+        OpVisitor opVisitor = new OpVisitorBase() {
+            @Override public void visit(OpService opService) { cacheable.set(false); }
+        };
+        ExprVisitor exprVisitor = new ExprVisitorBase() {
+            @Override public void visit(ExprFunction0 func) { check(func); }
+            @Override public void visit(ExprFunction1 func) { check(func); }
+            @Override public void visit(ExprFunction2 func) { check(func); }
+            @Override public void visit(ExprFunction3 func) { check(func); }
+            @Override public void visit(ExprFunctionN func) { check(func); }
+
+            private void check(ExprFunction func) {
+                if ( func instanceof Unstable || func instanceof E_Now )
+                    cacheable.set(false);
+            }
+        };
+        Walker.walk(Algebra.compile(query), opVisitor, exprVisitor);
+        return cacheable.get();
+    }
+
+    public long getMaxBytes()           { return maxBytes; }
+
+    public int getMaxEntryBytes()       { return maxEntryBytes; }
+
+    public synchronized long getBytes() { return currentBytes; }
+
+    public synchronized int size()      { return entries.size(); }
+
+    public long getHits()               { return hits.sum(); }
+
+    public long getMisses()             { return misses.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("QueryResultCache[max=%d, maxEntry=%d]", maxBytes, maxEntryBytes);
+    }
+}
@@ -199,6 +199,24 @@ public class ActionLib {
         return false;
     }
 
+    /**
+     * Whether an "If-None-Match" header value matches the entity tag.
+     * Weak tags ({@code W/"..."}) match by their opaque tag.
+     */
+    public static boolean matchesETag(String ifNoneMatch, String etag) {
+        if ( ifNoneMatch == null )
+            return false;
+        for ( String tag : splitOnComma(ifNoneMatch) ) {
+            if ( tag.equals("*") )
+                return true;
+            if ( tag.startsWith("W/") )
+                tag = tag.substring(2);
+            if ( tag.equals(etag) )
+                return true;
+        }
+        return false;
+    }
+
     /**
      * Parse RDF content from the body of the request of the action, ends the
      * request, and sends a 400 if there is a parse error.
@@ -814,6 +814,22 @@ public class HttpAction
         return response.getWriter();
     }
 
+    /**
+     * Keep a copy of the response body written from now on, up to {@code maxBytes}.
+     * The copy is returned by {@link #finishResponseCopy}.
+     */
+    public void startResponseCopy(int maxBytes) {
+        response.startCopy(maxBytes);
+    }
+
+    /**
+     * Return the copy of the response body started by {@link #startResponseCopy},
+     * or null if it was larger than the limit or not written as bytes.
+     */
+    public byte[] finishResponseCopy() {
+        return response.finishCopy();
+    }
+
     /**
      * Get the InputStream for the request, adding a compression decoder if the
      * "Content-Encoding" is set in the request. Responds 400 if the encoding is not
@@ -19,8 +19,12 @@
 package org.apache.jena.fuseki.servlets;
 
 import static java.lang.String.format;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintWriter;
 
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
 
@@ -31,12 +35,42 @@ import org.apache.jena.atlas.logging.Log;
 public class HttpServletResponseTracker extends HttpServletResponseWrapper
 {
     private final HttpAction action;
+    // Copy of the response body, for caching. Null when not copying.
+    private CopyOutputStream copy = null;
 
     public HttpServletResponseTracker(HttpAction action, HttpServletResponse response) {
         super(response);
         this.action = action;
     }
 
+    /*package*/ void startCopy(int maxBytes) {
+        copy = new CopyOutputStream(maxBytes);
+    }
+
+    /*package*/ byte[] finishCopy() {
+        if ( copy == null )
+            return null;
+        byte[] bytes = copy.bytes();
+        copy = null;
+        return bytes;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        ServletOutputStream output = super.getOutputStream();
+        if ( copy == null )
+            return output;
+        return copy.wrap(output);
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        // Only byte output is copied.
+        if ( copy != null )
+            copy.abandon();
+        return super.getWriter();
+    }
+
     @Override
     public void sendError(int sc, String msg) throws IOException {
         action.statusCode = sc;
@@ -85,6 +119,72 @@ public class HttpServletResponseTracker extends HttpServletResponseWrapper
         super.setContentType(type);
     }
 
+    /** Pass output on, keeping a copy of the bytes up to a limit. */
+    private static class CopyOutputStream extends ServletOutputStream {
+        private final int maxBytes;
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private ServletOutputStream output = null;
+
+        CopyOutputStream(int maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        ServletOutputStream wrap(ServletOutputStream output) {
+            this.output = output;
+            return this;
+        }
+
+        void abandon() {
+            bytes = null;
+        }
+
+        byte[] bytes() {
+            return ( bytes == null ) ? null : bytes.toByteArray();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            output.write(b);
+            if ( bytes != null ) {
+                if ( bytes.size() >= maxBytes )
+                    abandon();
+                else
+                    bytes.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            output.write(b, off, len);
+            if ( bytes != null ) {
+                if ( bytes.size() + len > maxBytes )
+                    abandon();
+                else
+                    bytes.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return output.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            output.setWriteListener(writeListener);
+        }
+    }
+
       // From HttpServletResponse
 //      public void addCookie(Cookie cookie) {}
 //      public boolean containsHeader(String name) {}
@@ -28,10 +28,12 @@ import static org.apache.jena.riot.WebContent.isHtmlForm;
 import static org.apache.jena.riot.WebContent.matchContentType;
 import static org.apache.jena.riot.web.HttpNames.*;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.jena.atlas.io.IO;
 import org.apache.jena.atlas.io.IndentedLineBuffer;
@@ -39,12 +41,16 @@ import org.apache.jena.atlas.json.JsonObject;
 import org.apache.jena.atlas.lib.Pair;
 import org.apache.jena.atlas.web.ContentType;
 import org.apache.jena.fuseki.Fuseki;
+import org.apache.jena.fuseki.server.DataService;
+import org.apache.jena.fuseki.server.QueryLimit;
+import org.apache.jena.fuseki.server.QueryResultCache;
 import org.apache.jena.fuseki.system.FusekiNetLib;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.query.*;
 import org.apache.jena.riot.web.HttpNames;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Prologue;
+import org.apache.jena.sparql.engine.QueryPlanCache;
 import org.apache.jena.sparql.engine.Timeouts;
 import org.apache.jena.sparql.exec.QueryExec;
 import org.apache.jena.sparql.exec.QueryExecDatasetBuilder;
@@ -255,7 +261,7 @@ public abstract class SPARQLQueryProcessor extends ActionService
         Query query = null;
         try {
             // NB syntax is ARQ (a superset of SPARQL)
-            query = QueryFactory.create(queryString, QueryParseBase, Syntax.syntaxARQ);
+            query = parse(action, queryString);
             queryStringLog = formatForLog(query);
             validateQuery(action, query);
         } catch (ActionErrorException ex) {
@@ -271,6 +277,96 @@ public abstract class SPARQLQueryProcessor extends ActionService
             ServletOps.errorBadRequest("Error: \n" + queryString + "\n" + msg);
         }
 
+        QueryResultCache resultCache = resultCache(action);
+        if ( resultCache != null && QueryResultCache.isCacheable(query) ) {
+            executeCached(action, resultCache, query, queryString, queryStringLog);
+            return;
+        }
+        executeParsed(action, query, queryString, queryStringLog);
+    }
+
+    /**
+     * Respond from the result cache, or execute the query and add the results to the cache.
+     * The ETag is the same for the same request and the same version of the data.
+     */
+    private void executeCached(HttpAction action, QueryResultCache resultCache, Query query, String queryString, String queryStringLog) {
+        // The version must be read before the query starts. The results of a later
+        // commit may then be recorded for the earlier version; that version is
+        // dropped from the cache when the later version is seen.
+        QueryResultCache.DataVersion version = action.getDataService().getDataVersion();
+        if ( version == null ) {
+            executeParsed(action, query, queryString, queryStringLog);
+            return;
+        }
+        String key = resultCacheKey(action, queryString);
+        String etag = QueryResultCache.etag(key, version);
+        action.setResponseHeader(HttpNames.hETag, etag);
+        if ( ActionLib.matchesETag(action.getRequestHeader(HttpNames.hIfNoneMatch), etag) ) {
+            action.log.info(format("[%d] Not modified", action.id));
+            action.setResponseStatus(HttpSC.NOT_MODIFIED_304);
+            return;
+        }
+        QueryResultCache.Entry entry = resultCache.get(key, version);
+        if ( entry != null ) {
+            action.log.info(format("[%d] Cached results", action.id));
+            sendCached(action, entry);
+            return;
+        }
+        action.startResponseCopy(resultCache.getMaxEntryBytes());
+        byte[] body;
+        try {
+            executeParsed(action, query, queryString, queryStringLog);
+        } finally {
+            body = action.finishResponseCopy();
+        }
+        String contentType = action.getResponse().getContentType();
+        if ( body != null && contentType != null && ( action.statusCode == -1 || action.statusCode == HttpSC.OK_200 ) )
+            resultCache.put(key, version, contentType, body);
+    }
+
+    private static void sendCached(HttpAction action, QueryResultCache.Entry entry) {
+        try {
+            action.setResponseStatus(HttpSC.OK_200);
+            action.setResponseContentType(entry.contentType());
+            action.setResponseContentLength(entry.body().length);
+            ServletOutputStream out = action.getResponseOutputStream();
+            out.write(entry.body());
+            out.flush();
+        } catch (IOException ex) {
+            ServletOps.errorOccurred(ex);
+        }
+    }
+
+    /** The request as a cache key: the query, the Accept header and the other parameters. */
+    private static String resultCacheKey(HttpAction action, String queryString) {
+        StringBuilder sb = new StringBuilder(queryString);
+        sb.append('\n').append(Objects.toString(action.getRequestHeader(HttpNames.hAccept), ""));
+        new TreeMap<>(action.getRequestParameterMap()).forEach((name, values)->{
+            if ( !paramQuery.equals(name) )
+                sb.append('\n').append(name).append('=').append(String.join(",", values));
+        });
+        return sb.toString();
+    }
+
+    private QueryResultCache resultCache(HttpAction action) {
+        if ( !allowResultCache(action) )
+            return null;
+        DataService dataService = action.getDataService();
+        return ( dataService == null ) ? null : dataService.getResultCache();
+    }
+
+    /**
+     * Whether this processor may respond with results from the dataset's result cache.
+     * Only allow this when the results depend only on the request and the data.
+     */
+    protected boolean allowResultCache(HttpAction action) {
+        return false;
+    }
+
+    private void executeParsed(HttpAction action, Query query, String queryString, String queryStringLog) {
+        // Wait for the dataset limit on queries running at the same time, if any.
+        QueryLimit.Permit permit = enterQueryLimit(action);
+
         // Assumes finished whole thing by end of sendResults.
         try {
             action.beginRead();
@@ -296,7 +392,37 @@ public abstract class SPARQLQueryProcessor extends ActionService
             // Additional counter information.
             incCounter(action.getEndpoint().getCounters(), QueryTimeouts);
             throw ex;
-        } finally { action.endRead(); }
+        } finally {
+            if ( permit != null )
+                permit.close();
+            action.endRead();
+        }
+    }
+
+    /**
+     * Wait to start the query if the dataset has a limit on queries running at the same time.
+     * Fail with 503 if the queue timeout is reached. Returns null if there is no limit.
+     */
+    private static QueryLimit.Permit enterQueryLimit(HttpAction action) {
+        DataService dataService = action.getDataService();
+        QueryLimit queryLimit = ( dataService == null ) ? null : dataService.getQueryLimit();
+        if ( queryLimit == null )
+            return null;
+        QueryLimit.Permit permit = queryLimit.enter();
+        if ( permit == null ) {
+            action.log.info(format("[%d] Query not started: %d queries already running", action.id, queryLimit.getMaxConcurrent()));
+            ServletOps.error(HttpSC.SERVICE_UNAVAILABLE_503, "Too many queries running");
+        }
+        return permit;
+    }
+
+    /** Parse the query, using the query cache if there is one in the action context. */
+    private static Query parse(HttpAction action, String queryString) {
+        QueryPlanCache cache = QueryPlanCache.get(action.getContext());
+        if ( cache == null )
+            return QueryFactory.create(queryString, QueryParseBase, Syntax.syntaxARQ);
+        // The query is shared and must not be modified.
+        return cache.parse(queryString, QueryParseBase, Syntax.syntaxARQ);
     }
 
     private static void abortSilent(HttpAction action) {
@@ -34,6 +34,11 @@ public class SPARQL_QueryDataset extends SPARQLQueryProcessor {
     @Override
     protected void validateQuery(HttpAction action, Query query) { }
 
+    @Override
+    protected boolean allowResultCache(HttpAction action) {
+        return true;
+    }
+
     @Override
     protected Pair<DatasetGraph, Query> decideDataset(HttpAction action, Query query, String queryStringLog) {
         return decideDatasetDynamic(action, query, queryStringLog);
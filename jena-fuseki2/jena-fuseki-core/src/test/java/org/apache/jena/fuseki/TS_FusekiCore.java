@@ -23,6 +23,8 @@ import org.junit.platform.suite.api.Suite;
 
 import org.apache.jena.fuseki.server.TestDatasetDescriptionMap;
 import org.apache.jena.fuseki.server.TestDispatchOnURI;
+import org.apache.jena.fuseki.server.TestQueryLimit;
+import org.apache.jena.fuseki.server.TestQueryResultCache;
 import org.apache.jena.fuseki.servlets.TestCrossOriginFilterMock;
 import org.apache.jena.fuseki.servlets.TestPrefixesCore;
 
@@ -32,6 +34,8 @@ import org.apache.jena.fuseki.servlets.TestPrefixesCore;
     TestDispatchOnURI.class,
     TestCrossOriginFilterMock.class,
     TestDatasetDescriptionMap.class,
+    TestQueryLimit.class,
+    TestQueryResultCache.class,
     TestPrefixesCore.class
 })
 public class TS_FusekiCore {}
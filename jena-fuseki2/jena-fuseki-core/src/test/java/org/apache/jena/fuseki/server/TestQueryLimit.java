@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TestQueryLimit {
+
+    @Test
+    public void queryLimit_01() {
+        QueryLimit limit = new QueryLimit(2, 10);
+        QueryLimit.Permit p1 = limit.enter();
+        QueryLimit.Permit p2 = limit.enter();
+        assertNotNull(p1);
+        assertNotNull(p2);
+        assertEquals(2, limit.getRunning());
+        // Full - times out.
+        assertNull(limit.enter());
+        assertEquals(1, limit.getRejected());
+        p1.close();
+        // Closing again does nothing.
+        p1.close();
+        assertEquals(1, limit.getRunning());
+        QueryLimit.Permit p3 = limit.enter();
+        assertNotNull(p3);
+        p2.close();
+        p3.close();
+        assertEquals(0, limit.getRunning());
+        assertEquals(3, limit.getStarted());
+    }
+
+    @Test
+    public void queryLimit_waits() throws Exception {
+        QueryLimit limit = new QueryLimit(1, -1);
+        QueryLimit.Permit p1 = limit.enter();
+        CompletableFuture<QueryLimit.Permit> waiter = CompletableFuture.supplyAsync(limit::enter);
+        for ( int i = 0 ; i < 100 && limit.getWaiting() == 0 ; i++ )
+            Thread.sleep(10);
+        assertEquals(1, limit.getWaiting());
+        assertFalse(waiter.isDone());
+        p1.close();
+        QueryLimit.Permit p2 = waiter.get(5, TimeUnit.SECONDS);
+        assertNotNull(p2);
+        assertEquals(0, limit.getWaiting());
+        p2.close();
+        assertEquals(0, limit.getRejected());
+        assertTrue(limit.getWaitSeconds() > 0);
+    }
+
+    @Test
+    public void queryLimit_bad() {
+        assertThrows(IllegalArgumentException.class, ()->new QueryLimit(0, 10));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.fuseki.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.junit.jupiter.api.Test;
+
+public class TestQueryResultCache {
+
+    private static byte[] bytes(int n) { return new byte[n]; }
+
+    private static QueryResultCache.DataVersion version(long number) { return version("db", number); }
+
+    private static QueryResultCache.DataVersion version(String source, long number) {
+        return new QueryResultCache.DataVersion(source, number);
+    }
+
+    @Test
+    public void resultCache_01() {
+        QueryResultCache cache = new QueryResultCache(100, 50);
+        assertNull(cache.get("K1", version(1)));
+        cache.put("K1", version(1), "text/plain", bytes(10));
+        QueryResultCache.Entry entry = cache.get("K1", version(1));
+        assertNotNull(entry);
+        assertEquals("text/plain", entry.contentType());
+        assertEquals(10, entry.body().length);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void resultCache_version() {
+        QueryResultCache cache = new QueryResultCache(100, 50);
+        cache.put("K1", version(1), "text/plain", bytes(10));
+        // New version of the data.
+        assertNull(cache.get("K1", version(2)));
+        assertEquals(0, cache.size());
+        // Results for the old version are not kept.
+        cache.put("K1", version(1), "text/plain", bytes(10));
+        assertEquals(0, cache.size());
+        assertNull(cache.get("K1", version(2)));
+    }
+
+    @Test
+    public void resultCache_source() {
+        QueryResultCache cache = new QueryResultCache(100, 50);
+        cache.put("K1", version("db1", 5), "text/plain", bytes(10));
+        // Another database, with a lower version number.
+        assertNull(cache.get("K1", version("db2", 1)));
+        assertEquals(0, cache.size());
+        cache.put("K1", version("db2", 1), "text/plain", bytes(10));
+        assertNotNull(cache.get("K1", version("db2", 1)));
+    }
+
+    @Test
+    public void resultCache_size() {
+        QueryResultCache cache = new QueryResultCache(100, 50);
+        // Too large.
+        cache.put("K0", version(1), "text/plain", bytes(51));
+        assertEquals(0, cache.size());
+        cache.put("K1", version(1), "text/plain", bytes(40));
+        cache.put("K2", version(1), "text/plain", bytes(40));
+        // Use K1 so that K2 is the least recently used.
+        assertNotNull(cache.get("K1", version(1)));
+        cache.put("K3", version(1), "text/plain", bytes(40));
+        assertEquals(2, cache.size());
+        assertEquals(80, cache.getBytes());
+        assertNotNull(cache.get("K1", version(1)));
+        assertNull(cache.get("K2", version(1)));
+        assertNotNull(cache.get("K3", version(1)));
+    }
+
+    @Test
+    public void resultCache_etag() {
+        String etag1 = QueryResultCache.etag("K1", version(1));
+        assertTrue(etag1.startsWith("\"") && etag1.endsWith("\""));
+        assertEquals(etag1, QueryResultCache.etag("K1", version(1)));
+        assertNotEquals(etag1, QueryResultCache.etag("K1", version(2)));
+        assertNotEquals(etag1, QueryResultCache.etag("K2", version(1)));
+        // Same version number, different database.
+        assertNotEquals(etag1, QueryResultCache.etag("K1", version("db2", 1)));
+        // SHA-256, in hex.
+        assertEquals(64+2, etag1.length());
+    }
+
+    @Test
+    public void resultCache_dataVersion_tdb2() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        DataService dSrv = DataService.newBuilder(dsg).resultCache(100, 50).build();
+        assertNotNull(dSrv.getResultCache());
+        QueryResultCache.DataVersion version1 = dSrv.getDataVersion();
+        assertNotNull(version1);
+        assertEquals(version1, dSrv.getDataVersion());
+        // A change not made through Fuseki.
+        Txn.executeWrite(dsg, ()->dsg.add(SSE.parseQuad("(:g :s :p :o)")));
+        QueryResultCache.DataVersion version2 = dSrv.getDataVersion();
+        assertTrue(version2.isAfter(version1));
+        // Another service for the same database.
+        DataService dSrv2 = DataService.newBuilder(dsg).resultCache(100, 50).build();
+        assertNotEquals(version2, dSrv2.getDataVersion());
+    }
+
+    @Test
+    public void resultCache_dataVersion_other() {
+        // Changes to this dataset can not be detected.
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        DataService dSrv = DataService.newBuilder(dsg).resultCache(100, 50).build();
+        assertNull(dSrv.getDataVersion());
+        assertNull(dSrv.getResultCache());
+    }
+
+    @Test
+    public void resultCache_cacheable() {
+        assertTrue(cacheable("SELECT * { ?s ?p ?o FILTER(?o > 1) }"));
+        assertFalse(cacheable("SELECT * { ?s ?p ?o BIND(RAND() AS ?r) }"));
+        assertFalse(cacheable("SELECT * { ?s ?p ?o FILTER(?o < NOW()) }"));
+        assertFalse(cacheable("SELECT (UUID() AS ?u) { }"));
+        assertFalse(cacheable("SELECT * { SERVICE <http://example/sparql> { ?s ?p ?o } }"));
+    }
+
+    private static boolean cacheable(String queryString) {
+        Query query = QueryFactory.create(queryString);
+        return QueryResultCache.isCacheable(query);
+    }
+}
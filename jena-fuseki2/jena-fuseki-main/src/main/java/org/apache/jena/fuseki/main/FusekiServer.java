@@ -25,6 +25,7 @@ import static org.apache.jena.fuseki.Fuseki.serverLog;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -79,6 +80,7 @@ import org.eclipse.jetty.security.SecurityHandler;
 import org.eclipse.jetty.security.UserStore;
 import org.eclipse.jetty.server.*;
 import org.eclipse.jetty.server.handler.ErrorHandler;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.slf4j.Logger;
 
 /**
@@ -445,6 +447,11 @@ public class FusekiServer {
         private boolean                  networkLoopback    = false;
         private int                      minThreads         = -1;
         private int                      maxThreads         = -1;
+        private boolean                  virtualThreads     = false;
+        private int                      queryLimitMax      = -1;
+        private long                     queryLimitTimeout  = -1;
+        private long                     resultCacheMax     = -1;
+        private int                      resultCacheEntryMax = -1;
         private ErrorHandler             errorHandler       = new FusekiErrorHandler();
 
         private boolean                  verbose            = false;
@@ -1362,6 +1369,57 @@ public class FusekiServer {
             return this;
         }
 
+        /**
+         * Run requests on virtual threads, if the JVM supports them (Java 21 and later).
+         * Jetty keeps the thread pool set by {@link #numServerThreads} for its own
+         * work and runs the servlet processing of each request on a new virtual thread.
+         * This has no effect when a Jetty server configuration file is used.
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Limit the number of queries running at the same time on each dataset.
+         * Queries over the limit wait, in order of arrival, for up to
+         * {@code queueTimeoutMillis} (negative for no time limit) and then fail with
+         * 503 (Service Unavailable).
+         * <p>
+         * This applies to datasets that do not set their own limit with
+         * {@link org.apache.jena.fuseki.server.DataService.Builder#queryLimit DataService.Builder.queryLimit}.
+         * Use {@code (-1, -1)} for no limit.
+         */
+        public Builder queryLimit(int maxConcurrentQueries, long queueTimeoutMillis) {
+            if ( maxConcurrentQueries == 0 || maxConcurrentQueries < -1 )
+                throw new FusekiConfigException("Bad query limit setting: "+maxConcurrentQueries);
+            this.queryLimitMax = maxConcurrentQueries;
+            this.queryLimitTimeout = queueTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Cache query results for each dataset, up to {@code maxBytes} of results per
+         * dataset. Results larger than {@code maxEntryBytes} are not cached.
+         * Cached results are dropped when the data changes and responses carry an
+         * {@code ETag} so clients can revalidate with {@code If-None-Match}.
+         * <p>
+         * Only TDB2 datasets are cached: their transaction coordinator records every
+         * commit, including writes made by the application outside Fuseki.
+         * Other datasets are not cached.
+         * <p>
+         * This applies to datasets that do not set their own cache with
+         * {@link org.apache.jena.fuseki.server.DataService.Builder#resultCache DataService.Builder.resultCache}.
+         * Datasets with data access control do not use the cache.
+         */
+        public Builder resultCache(long maxBytes, int maxEntryBytes) {
+            if ( maxBytes <= 0 || maxEntryBytes <= 0 )
+                throw new FusekiConfigException(String.format("Bad result cache setting: (max=%d, maxEntry=%d)", maxBytes, maxEntryBytes));
+            this.resultCacheMax = maxBytes;
+            this.resultCacheEntryMax = maxEntryBytes;
+            return this;
+        }
+
         // Placeholder for the future.
         // Not currently used (servlet attributes in the ServletContext may be more appropriate for many uses)
 //        /** Set context value. */
@@ -1462,6 +1520,9 @@ public class FusekiServer {
                 if ( networkLoopback )
                     applyLocalhost(server);
 
+                if ( virtualThreads )
+                    applyVirtualThreads(server);
+
                 FusekiServer fusekiServer = new FusekiServer(httpPort, httpsPort, server,
                                                              staticContentDir,
                                                              modules,
@@ -1477,6 +1538,10 @@ public class FusekiServer {
         private DataAccessPointRegistry buildStart() {
             DataAccessPointRegistry dapRegistry = new DataAccessPointRegistry();
             dataServices.forEach((name, builder)->{
+                if ( queryLimitMax > 0 && ! builder.hasQueryLimit() )
+                    builder.queryLimit(queryLimitMax, queryLimitTimeout);
+                if ( resultCacheMax > 0 && ! builder.hasResultCache() && DataService.hasDataVersion(builder.dataset()) )
+                    builder.resultCache(resultCacheMax, resultCacheEntryMax);
                 DataService dSrv = builder.build();
                 DataAccessPoint dap = new DataAccessPoint(name, dSrv);
                 dapRegistry.register(dap);
@@ -1855,6 +1920,17 @@ public class FusekiServer {
             }
         }
 
+        /** Run requests on virtual threads, if available. */
+        private static void applyVirtualThreads(Server server) {
+            Executor executor = VirtualThreads.getDefaultVirtualThreadsExecutor();
+            if ( executor == null ) {
+                serverLog.warn("Virtual threads are not available in this JVM: using the server thread pool");
+                return;
+            }
+            if ( server.getThreadPool() instanceof VirtualThreads.Configurable configurable )
+                configurable.setVirtualThreadsExecutor(executor);
+        }
+
         private static Map<String, String> parseCORSConfigFile(String filename) {
             try {
                 Properties properties = loadFromFile(filename);
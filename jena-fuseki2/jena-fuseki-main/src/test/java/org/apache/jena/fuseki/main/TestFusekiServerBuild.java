@@ -25,6 +25,9 @@ import static org.apache.jena.fuseki.main.FusekiTestLib.expectQuery404;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import jakarta.servlet.ServletContext;
@@ -37,7 +40,9 @@ import org.apache.jena.fuseki.FusekiException;
 import org.apache.jena.fuseki.server.DataAccessPointRegistry;
 import org.apache.jena.fuseki.server.DataService;
 import org.apache.jena.fuseki.server.Operation;
+import org.apache.jena.fuseki.server.QueryLimit;
 import org.apache.jena.graph.Graph;
+
 import org.apache.jena.http.HttpEnv;
 import org.apache.jena.http.HttpOp;
 import org.apache.jena.http.HttpRDF;
@@ -46,13 +51,18 @@ import org.apache.jena.riot.RDFFormat;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.engine.http.QueryExceptionHTTP;
 import org.apache.jena.sparql.exec.QueryExec;
 import org.apache.jena.sparql.exec.RowSet;
 import org.apache.jena.sparql.exec.http.GSP;
 import org.apache.jena.sparql.exec.http.QueryExecHTTP;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.function.FunctionBase0;
+import org.apache.jena.sparql.function.FunctionRegistry;
 import org.apache.jena.sparql.sse.SSE;
 import org.apache.jena.system.Txn;
 import org.apache.jena.update.UpdateExecution;
+import org.apache.jena.web.HttpSC;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 
@@ -513,6 +523,57 @@ public class TestFusekiServerBuild {
         });
     }
 
+    // Query limit and virtual threads set on the builder.
+    // The first query waits in a function; the second is refused after the queue timeout.
+    @Test public void fuseki_build_queryLimit() {
+        String fnURI = "http://example/test/wait";
+        WaitFunction.started = new CountDownLatch(1);
+        WaitFunction.release = new CountDownLatch(1);
+        FunctionRegistry.get().put(fnURI, WaitFunction.class);
+        FusekiServer server = FusekiServer.create().port(0).add("/ds", dataset())
+                .queryLimit(1, 200).virtualThreads(true)
+                .build().start();
+        try {
+            String URL = server.datasetURL("/ds");
+            QueryLimit queryLimit = server.getDataAccessPointRegistry().get("/ds").getDataService().getQueryLimit();
+            assertNotNull(queryLimit);
+            assertEquals(1, queryLimit.getMaxConcurrent());
+
+            CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(()->queryASK(URL, "ASK { FILTER(<"+fnURI+">()) }"));
+            assertTrue(WaitFunction.started.await(10, TimeUnit.SECONDS));
+            assertEquals(1, queryLimit.getRunning());
+
+            QueryExceptionHTTP ex = assertThrows(QueryExceptionHTTP.class, ()->queryASK(URL, "ASK {}"));
+            assertEquals(HttpSC.SERVICE_UNAVAILABLE_503, ex.getStatusCode());
+            assertEquals(1, queryLimit.getRejected());
+
+            WaitFunction.release.countDown();
+            assertTrue(first.get(10, TimeUnit.SECONDS));
+            assertTrue(queryASK(URL, "ASK {}"));
+            assertEquals(2, queryLimit.getStarted());
+        } catch (Exception ex) {
+            fail(ex);
+        } finally {
+            WaitFunction.release.countDown();
+            FunctionRegistry.get().remove(fnURI);
+            server.stop();
+        }
+    }
+
+    /** Wait until released, then return true. */
+    public static class WaitFunction extends FunctionBase0 {
+        static CountDownLatch started;
+        static CountDownLatch release;
+
+        @Override
+        public NodeValue exec() {
+            started.countDown();
+            try { release.await(10, TimeUnit.SECONDS); }
+            catch (InterruptedException ex) { Thread.currentThread().interrupt(); }
+            return NodeValue.TRUE;
+        }
+    }
+
     private static void silent(Runnable action) {
         Logger logger = Fuseki.configLog ;
         String level = LogCtl.getLevel(logger);
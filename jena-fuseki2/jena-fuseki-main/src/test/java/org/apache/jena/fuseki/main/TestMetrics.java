@@ -18,20 +18,38 @@
 package org.apache.jena.fuseki.main;
 
 import static org.apache.jena.http.HttpLib.handleResponseRtnString;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.InputStream;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
+import org.apache.jena.fuseki.server.QueryLimit;
+import org.apache.jena.fuseki.server.QueryResultCache;
 import org.apache.jena.http.HttpEnv;
 import org.apache.jena.http.HttpLib;
+import org.apache.jena.query.ARQ;
 import org.apache.jena.riot.WebContent;
 import org.apache.jena.riot.web.HttpNames;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.engine.QueryPlanCache;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.http.QueryExecHTTP;
+import org.apache.jena.sparql.exec.http.UpdateExecHTTP;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
 import org.apache.jena.web.HttpSC;
 
 public class TestMetrics extends AbstractFusekiTest {
@@ -49,4 +67,133 @@ public class TestMetrics extends AbstractFusekiTest {
         assertTrue(ct.contains(WebContent.charsetUTF8));
         assertTrue(body.contains("fuseki_requests_good"));
     }
+
+    @Test
+    public void query_cache_metrics() {
+        QueryPlanCache cache = new QueryPlanCache(10, false);
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        dsg.getContext().set(ARQ.queryPlanCache, cache);
+        FusekiServer server = FusekiServer.create().port(0).add("/ds", dsg).enableMetrics(true).start();
+        try {
+            for ( int i = 0 ; i < 3 ; i++ ) {
+                try ( QueryExec qExec = QueryExecHTTP.service(server.datasetURL("/ds")).query("ASK{}").build() ) {
+                    assertTrue(qExec.ask());
+                }
+            }
+            assertEquals(2, cache.queryStats().hits);
+            assertEquals(2, cache.planStats().hits);
+
+            String r = server.serverURL() + "$/metrics";
+            HttpRequest request = HttpRequest.newBuilder().uri(HttpLib.toRequestURI(r)).build();
+            HttpResponse<InputStream> response = HttpLib.executeJDK(HttpEnv.getDftHttpClient(), request, BodyHandlers.ofInputStream());
+            String body = handleResponseRtnString(response);
+            assertTrue(body.contains("fuseki_query_cache_hits"));
+            assertTrue(body.contains("fuseki_plan_cache_hit_rate"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void query_limit_metrics() {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        FusekiServer server = FusekiServer.create().port(0).add("/ds", dsg)
+                .queryLimit(2, 1000).virtualThreads(true).enableMetrics(true).start();
+        try {
+            for ( int i = 0 ; i < 3 ; i++ ) {
+                try ( QueryExec qExec = QueryExecHTTP.service(server.datasetURL("/ds")).query("ASK{}").build() ) {
+                    assertTrue(qExec.ask());
+                }
+            }
+            QueryLimit queryLimit = server.getDataAccessPointRegistry().get("/ds").getDataService().getQueryLimit();
+            assertEquals(3, queryLimit.getStarted());
+            // The permit is released after the response has been sent.
+            await().atMost(2, TimeUnit.SECONDS).until(() -> queryLimit.getRunning() == 0);
+
+            String r = server.serverURL() + "$/metrics";
+            HttpRequest request = HttpRequest.newBuilder().uri(HttpLib.toRequestURI(r)).build();
+            HttpResponse<InputStream> response = HttpLib.executeJDK(HttpEnv.getDftHttpClient(), request, BodyHandlers.ofInputStream());
+            String body = handleResponseRtnString(response);
+            assertTrue(body.contains("fuseki_query_limit_started"));
+            assertTrue(body.contains("fuseki_query_limit_wait_seconds"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void result_cache_metrics() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        FusekiServer server = FusekiServer.create().port(0).add("/ds", dsg)
+                .resultCache(100_000, 10_000).enableMetrics(true).start();
+        try {
+            // ASK { ?s ?p ?o }
+            String queryURL = server.datasetURL("/ds") + "?query=ASK%7B%3Fs%20%3Fp%20%3Fo%7D";
+            HttpResponse<InputStream> response1 = httpGet(queryURL, null);
+            assertEquals(HttpSC.OK_200, response1.statusCode());
+            String etag = response1.headers().firstValue(HttpNames.hETag).orElse(null);
+            assertNotNull(etag);
+            String body1 = handleResponseRtnString(response1);
+            assertTrue(body1.contains("false"));
+
+            HttpResponse<InputStream> response2 = httpGet(queryURL, null);
+            assertEquals(HttpSC.OK_200, response2.statusCode());
+            assertEquals(body1, handleResponseRtnString(response2));
+
+            QueryResultCache resultCache = server.getDataAccessPointRegistry().get("/ds").getDataService().getResultCache();
+            assertEquals(1, resultCache.getHits());
+
+            HttpResponse<InputStream> response3 = httpGet(queryURL, etag);
+            assertEquals(HttpSC.NOT_MODIFIED_304, response3.statusCode());
+            HttpLib.finish(response3.body());
+
+            // An update changes the data version.
+            UpdateExecHTTP.service(server.datasetURL("/ds")).updateString("INSERT DATA { <x:s> <x:p> <x:o> }").build().execute();
+            HttpResponse<InputStream> response4 = httpGet(queryURL, etag);
+            assertEquals(HttpSC.OK_200, response4.statusCode());
+            String etag4 = response4.headers().firstValue(HttpNames.hETag).orElse(null);
+            assertNotEquals(etag, etag4);
+            assertTrue(handleResponseRtnString(response4).contains("true"));
+            assertEquals(1, resultCache.getHits());
+
+            // A change made directly to the database, not through Fuseki.
+            Txn.executeWrite(dsg, ()->dsg.delete(SSE.parseQuad("(_ <x:s> <x:p> <x:o>)")));
+            HttpResponse<InputStream> response5 = httpGet(queryURL, etag4);
+            assertEquals(HttpSC.OK_200, response5.statusCode());
+            assertTrue(handleResponseRtnString(response5).contains("false"));
+            assertEquals(1, resultCache.getHits());
+
+            String body = handleResponseRtnString(httpGet(server.serverURL() + "$/metrics", null));
+            assertTrue(body.contains("fuseki_result_cache_hits"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void result_cache_not_tdb2() {
+        // Changes to this dataset can not be detected so results are not cached.
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        FusekiServer server = FusekiServer.create().port(0).add("/ds", dsg)
+                .resultCache(100_000, 10_000).start();
+        try {
+            assertNull(server.getDataAccessPointRegistry().get("/ds").getDataService().getResultCache());
+            String queryURL = server.datasetURL("/ds") + "?query=ASK%7B%3Fs%20%3Fp%20%3Fo%7D";
+            HttpResponse<InputStream> response1 = httpGet(queryURL, null);
+            assertEquals(HttpSC.OK_200, response1.statusCode());
+            assertFalse(response1.headers().firstValue(HttpNames.hETag).isPresent());
+            handleResponseRtnString(response1);
+            Txn.executeWrite(dsg, ()->dsg.add(SSE.parseQuad("(_ <x:s> <x:p> <x:o>)")));
+            assertTrue(handleResponseRtnString(httpGet(queryURL, null)).contains("true"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static HttpResponse<InputStream> httpGet(String url, String ifNoneMatch) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().uri(HttpLib.toRequestURI(url));
+        if ( ifNoneMatch != null )
+            builder.header(HttpNames.hIfNoneMatch, ifNoneMatch);
+        return HttpLib.executeJDK(HttpEnv.getDftHttpClient(), builder.build(), BodyHandlers.ofInputStream());
+    }
 }
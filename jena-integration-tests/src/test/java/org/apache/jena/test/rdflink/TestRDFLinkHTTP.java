@@ -75,6 +75,9 @@ public class TestRDFLinkHTTP extends AbstractTestRDFLink {
     @Override
     protected boolean supportsAbort() { return false ; }
 
+    @Override
+    protected boolean supportsPrepare() { return false ; }
+
     // Whether parseCheckSPARQL=true is the default.
     protected boolean defaultToCheckQueries() { return true; }
 
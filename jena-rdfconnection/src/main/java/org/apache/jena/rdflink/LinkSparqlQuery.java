@@ -26,6 +26,7 @@ import org.apache.jena.sparql.core.Transactional;
 import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.exec.QueryExec;
 import org.apache.jena.sparql.exec.QueryExecBuilder;
+import org.apache.jena.sparql.exec.QueryExecPrepared;
 import org.apache.jena.sparql.exec.RowSet;
 
 /** SPARQL Query Operations on a connection.
@@ -110,6 +111,30 @@ public interface LinkSparqlQuery extends Transactional, AutoCloseable
      */
     public QueryExecBuilder newQuery();
 
+    /**
+     * Prepare a query for repeated execution with different parameters.
+     * Executions do not parse or optimize the query again.
+     *
+     * @param query
+     * @return QueryExecPrepared
+     * @throws UnsupportedOperationException if the link does not support prepared queries.
+     */
+    public default QueryExecPrepared prepare(Query query) {
+        return newQuery().query(query).prepare();
+    }
+
+    /**
+     * Prepare a query for repeated execution with different parameters.
+     * Executions do not parse or optimize the query again.
+     *
+     * @param queryString
+     * @return QueryExecPrepared
+     * @throws UnsupportedOperationException if the link does not support prepared queries.
+     */
+    public default QueryExecPrepared prepare(String queryString) {
+        return newQuery().query(queryString).prepare();
+    }
+
     /** Close this connection.  Use with try-resource. */
     @Override public void close();
 }
@@ -23,6 +23,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -40,6 +41,7 @@ import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Var;
 import org.apache.jena.sparql.engine.binding.Binding;
 import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.QueryExecPrepared;
 import org.apache.jena.sparql.exec.RowSet;
 import org.apache.jena.sparql.exec.UpdateExec;
 import org.apache.jena.sparql.exec.UpdateExecBuilder;
@@ -58,6 +60,8 @@ public abstract class AbstractTestRDFLink {
     protected abstract RDFLink link();
     // Not all link types support abort.
     protected abstract boolean supportsAbort();
+    // Not all link types support prepared queries.
+    protected boolean supportsPrepare() { return true; }
 
     // ---- Data
     static String dsgdata = StrUtils.strjoinNL
@@ -435,6 +439,22 @@ public abstract class AbstractTestRDFLink {
         }
     }
 
+    @Test public void query_prepare_01() {
+        Assume.assumeTrue(supportsPrepare());
+        try ( RDFLink link = link() ) {
+            Txn.executeWrite(link, ()->link.loadDataset(DIR+"data.trig"));
+            QueryExecPrepared prepared = link.prepare("SELECT * { ?s ?p ?o }");
+            Txn.executeRead(link, ()->{
+                Node o = SSE.parseNode(":o");
+                List<Binding> rows = prepared.exec("o", o).select().stream().toList();
+                assertEquals(2, rows.size());
+                rows.forEach(row->assertEquals(o, row.get(Var.alloc("o"))));
+                long count = prepared.exec("o", SSE.parseNode(":o1")).select().stream().count();
+                assertEquals(0, count);
+            });
+        }
+    }
+
     @Test public void update_01() {
         try ( RDFLink link = link() ) {
             link.update("INSERT DATA { <urn:x:s> <urn:x:p> <urn:x:o>}");
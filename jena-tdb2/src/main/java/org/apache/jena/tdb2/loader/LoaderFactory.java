@@ -18,6 +18,7 @@
 
 package org.apache.jena.tdb2.loader;
 
+import java.nio.file.Path;
 import java.util.Objects;
 
 import org.apache.jena.graph.Node;
@@ -25,6 +26,7 @@ import org.apache.jena.riot.system.StreamRDF;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.tdb2.loader.basic.LoaderBasic;
+import org.apache.jena.tdb2.loader.basic.LoaderBasicResumable;
 import org.apache.jena.tdb2.loader.main.LoaderMain;
 import org.apache.jena.tdb2.loader.main.LoaderParallel;
 import org.apache.jena.tdb2.loader.main.LoaderPhased;
@@ -76,6 +78,24 @@ public class LoaderFactory {
         return new LoaderBasic(dsg, graphName, output);
     }
 
+    /**
+     * A basic loader that commits periodically and can resume an interrupted load.
+     * <p>
+     * Progress is recorded in {@code stateFile}. If the state file exists, for
+     * example after the JVM stopped during a load, loading the same files continues
+     * from the last commit. The state file is removed when the load finishes.
+     * <p>
+     * Use {@code null} for {@code graphName} to load quads data into the dataset; see
+     * {@link #basicLoader(DatasetGraph, Node, MonitorOutput)} for loading one graph.
+     *
+     * @see LoaderBasicResumable
+     */
+    public static DataLoader resumableLoader(DatasetGraph dsg, Node graphName, Path stateFile, MonitorOutput output) {
+        Objects.requireNonNull(dsg);
+        Objects.requireNonNull(stateFile);
+        return new LoaderBasicResumable(dsg, graphName, output, stateFile, LoaderBasicResumable.DftCommitInterval);
+    }
+
     /** A loader that takes all the data into the primary indexes in one phase, then
      * calculates/updates secondary indexes. This can make more efficient use of memory
      * so that one datastructure is being worked on at a time.
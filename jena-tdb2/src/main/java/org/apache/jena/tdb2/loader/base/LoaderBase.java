@@ -123,7 +123,7 @@ public abstract class LoaderBase implements DataLoader {
         ProgressMonitor monitor = createProgressMonitor(output);
         monitor.startMessage("Start: "+label);
         monitor.start();
-        LoaderOps.inputStream(stream(), input, syntax, monitor);
+        LoaderOps.inputStream(stream(), input, syntax, monitor, parserThreads());
         monitor.finish();
         monitor.finishMessage("Finished: "+label);
     }
@@ -133,10 +133,18 @@ public abstract class LoaderBase implements DataLoader {
     /** Subclasses must provide a setting. */
     protected abstract boolean bulkUseTransaction();
 
+    /**
+     * Number of threads for parsing N-Triples and N-Quads.
+     * If more than one, triples and quads are not sent to the {@link #stream} in file order.
+     */
+    protected int parserThreads() {
+        return 1;
+    }
+
     protected void loadOne(String filename, ProgressMonitor monitor) {
         String label = LoaderOps.label(filename);
         monitor.setLabel(label);
-        LoaderOps.inputFile(stream(), filename, monitor);
+        LoaderOps.inputFile(stream(), filename, monitor, parserThreads());
     }
 
     protected void outputSummary(long totalElapsed) {
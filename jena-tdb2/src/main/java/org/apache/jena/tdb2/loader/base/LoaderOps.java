@@ -21,6 +21,7 @@ package org.apache.jena.tdb2.loader.base;
 import java.io.InputStream;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import org.apache.jena.atlas.lib.FileOps;
 import org.apache.jena.atlas.lib.tuple.Tuple;
@@ -33,6 +34,7 @@ import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.ParserCheckpoint;
 import org.apache.jena.riot.system.StreamRDF;
 import org.apache.jena.riot.system.StreamRDFWrapper;
 import org.apache.jena.sparql.core.Quad;
@@ -101,10 +103,33 @@ public class LoaderOps {
      * "no output".
      */
     public static void inputFile(StreamRDF sink, String source, ProgressMonitor monitor) {
+        inputFile(sink, source, monitor, 1);
+    }
+
+    /**
+     * Parse one file, with an optional progress monitor. Pass null to {@code monitor} for
+     * "no output". N-Triples and N-Quads are parsed using {@code parserThreads} threads;
+     * the order of triples and quads is not preserved when this is more than one.
+     */
+    public static void inputFile(StreamRDF sink, String source, ProgressMonitor monitor, int parserThreads) {
         if ( monitor != null )
             sink = new ProgressStreamRDF(sink, monitor);
         sink.start();
-        RDFParser.source(source).parse(sink);
+        RDFParser.source(source).parallel(parserThreads).parallelOrdered(false).parse(sink);
+        sink.finish();
+    }
+
+    /**
+     * Parse one file, with an optional progress monitor, resuming from a checkpoint if
+     * {@code resumeFrom} is not null. The {@code checkpointAction} is called with
+     * checkpoints at least {@code checkpointInterval} bytes apart.
+     */
+    public static void inputFile(StreamRDF sink, String source, ProgressMonitor monitor,
+                                 ParserCheckpoint resumeFrom, long checkpointInterval, Consumer<ParserCheckpoint> checkpointAction) {
+        if ( monitor != null )
+            sink = new ProgressStreamRDF(sink, monitor);
+        sink.start();
+        RDFParser.source(source).resume(resumeFrom).checkpoint(checkpointInterval, checkpointAction).parse(sink);
         sink.finish();
     }
 
@@ -114,10 +139,19 @@ public class LoaderOps {
      * @param syntax
      */
     public static void inputStream(StreamRDF sink, InputStream input, Lang syntax, ProgressMonitor monitor) {
+        inputStream(sink, input, syntax, monitor, 1);
+    }
+
+    /**
+     * Parse one input stream, with an optional progress monitor. Pass null to {@code monitor} for
+     * "no output". N-Triples and N-Quads are parsed using {@code parserThreads} threads;
+     * the order of triples and quads is not preserved when this is more than one.
+     */
+    public static void inputStream(StreamRDF sink, InputStream input, Lang syntax, ProgressMonitor monitor, int parserThreads) {
         if ( monitor != null )
             sink = new ProgressStreamRDF(sink, monitor);
         sink.start();
-        RDFParser.source(input).lang(syntax).parse(sink);
+        RDFParser.source(input).lang(syntax).parallel(parserThreads).parallelOrdered(false).parse(sink);
         sink.finish();
     }
 
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.loader.basic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.riot.system.ParserCheckpoint;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.system.progress.MonitorOutput;
+import org.apache.jena.system.progress.ProgressMonitor;
+import org.apache.jena.tdb2.loader.BulkLoaderException;
+import org.apache.jena.tdb2.loader.base.LoaderOps;
+
+/**
+ * Basic bulk loader that can resume an interrupted load.
+ * <p>
+ * The load is committed every {@code commitInterval} bytes of input, at a
+ * checkpoint of the parser, and the checkpoint and the files completed are
+ * recorded in a state file. If the state file exists when the loader is created,
+ * loading skips the completed files and resumes the current file from the
+ * checkpoint. The state file is deleted when the load finishes.
+ * <p>
+ * The state file is written after the commit. If the load is interrupted between
+ * the two, data after the recorded checkpoint is loaded again; the blank nodes
+ * are the same so this does not change the dataset.
+ * <p>
+ * Only Turtle, TriG, N-Triples and N-Quads files can be resumed.
+ * Data from {@link #loadFromInputStream} or {@link #stream()} is committed at the end
+ * of the load.
+ */
+public class LoaderBasicResumable extends LoaderBasic {
+
+    /** Default number of bytes of input between commits. */
+    public static final long DftCommitInterval = 128L * 1024 * 1024;
+
+    private static final String keyFile = "file";
+    private static final String keyCompleted = "completed.";
+
+    private final Path stateFile;
+    private final long commitInterval;
+    // Files completed, in the order loaded.
+    private final Set<String> completed = new LinkedHashSet<>();
+    // The file being loaded when the state file was written, and where to resume it.
+    private String resumeFile = null;
+    private ParserCheckpoint resumeFrom = null;
+
+    public LoaderBasicResumable(DatasetGraph dsg, Node graphName, MonitorOutput output, Path stateFile, long commitInterval) {
+        super(dsg, graphName, output);
+        this.stateFile = Objects.requireNonNull(stateFile);
+        if ( commitInterval < 0 )
+            throw new IllegalArgumentException("Negative commit interval: "+commitInterval);
+        this.commitInterval = commitInterval;
+        readState();
+    }
+
+    @Override
+    public void finishBulk() {
+        super.finishBulk();
+        try {
+            Files.deleteIfExists(stateFile);
+        } catch (IOException ex) { IO.exception(ex); }
+    }
+
+    @Override
+    protected void loadOne(String filename, ProgressMonitor monitor) {
+        if ( completed.contains(filename) ) {
+            if ( output != null )
+                output.print("Already loaded: %s", filename);
+            return;
+        }
+        ParserCheckpoint checkpoint;
+        if ( filename.equals(resumeFile) && resumeFrom != null ) {
+            checkpoint = resumeFrom;
+            if ( output != null )
+                output.print("Resume: %s at line %,d (byte %,d)", filename, checkpoint.getLine(), checkpoint.getOffset());
+        } else {
+            // Start of the file. Choose the blank node seed now so that it is
+            // in the state file before any data is committed.
+            checkpoint = ParserCheckpoint.create(0, 1, null, Map.of(), UUID.randomUUID(), 0);
+            writeState(filename, checkpoint);
+        }
+        String label = LoaderOps.label(filename);
+        monitor.setLabel(label);
+        LoaderOps.inputFile(stream(), filename, monitor, checkpoint, commitInterval, cp->commit(filename, cp));
+        completed.add(filename);
+        resumeFile = null;
+        resumeFrom = null;
+        commit(null, null);
+    }
+
+    /** Commit the data so far, record the state, and continue in a new transaction. */
+    private void commit(String filename, ParserCheckpoint checkpoint) {
+        dsg.commit();
+        dsg.end();
+        writeState(filename, checkpoint);
+        dsg.begin(TxnType.WRITE);
+    }
+
+    private void readState() {
+        if ( !Files.exists(stateFile) )
+            return;
+        Properties properties = new Properties();
+        try ( InputStream in = Files.newInputStream(stateFile) ) {
+            properties.load(in);
+        } catch (IOException ex) {
+            throw new BulkLoaderException("Failed to read the loader state file: "+stateFile, ex);
+        }
+        properties.stringPropertyNames().stream()
+                  .filter(key->key.startsWith(keyCompleted))
+                  .sorted(Comparator.comparingInt(key->Integer.parseInt(key.substring(keyCompleted.length()))))
+                  .forEach(key->completed.add(properties.getProperty(key)));
+        resumeFile = properties.getProperty(keyFile);
+        if ( resumeFile != null )
+            resumeFrom = ParserCheckpoint.fromProperties(properties);
+    }
+
+    private void writeState(String filename, ParserCheckpoint checkpoint) {
+        Properties properties = ( checkpoint != null ) ? checkpoint.toProperties() : new Properties();
+        if ( filename != null )
+            properties.setProperty(keyFile, filename);
+        int i = 0;
+        for ( String fn : completed )
+            properties.setProperty(keyCompleted+(i++), fn);
+        // Write and replace so the state file is always complete.
+        Path tmp = stateFile.resolveSibling(stateFile.getFileName()+".tmp");
+        try {
+            try ( OutputStream out = Files.newOutputStream(tmp) ) {
+                properties.store(out, "TDB2 loader state");
+            }
+            Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new BulkLoaderException("Failed to write the loader state file: "+stateFile, ex);
+        }
+    }
+}
@@ -38,4 +38,7 @@ public class LoaderConst {
 
     /*package*/ static final int QueueSizeData = 10;
 
+    /** Threads for parsing N-Triples and N-Quads when parsing is a separate stage ({@link InputStage#MULTI}). */
+    public static final int ParserThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 4));
+
 }
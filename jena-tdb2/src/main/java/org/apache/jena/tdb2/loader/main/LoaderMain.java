@@ -135,6 +135,14 @@ public class LoaderMain extends LoaderBase implements DataLoader {
         stream = LoaderOps.toNamedGraph(dataInput, graphName);
     }
 
+    @Override
+    protected int parserThreads() {
+        // Parsing is on its own thread only for MULTI.
+        if ( loaderPlan.dataInputType() == InputStage.MULTI )
+            return LoaderConst.ParserThreads;
+        return 1;
+    }
+
     /**
      * Create data ingestion and primary index building of a {@link LoaderPlan}.
      * In phase 1, separate threads for parsing, node table loading and primary index building,
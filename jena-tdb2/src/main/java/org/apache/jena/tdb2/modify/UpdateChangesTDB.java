@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.modify;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.atlas.data.BagFactory;
+import org.apache.jena.atlas.data.DataBag;
+import org.apache.jena.atlas.data.SerializationFactory;
+import org.apache.jena.atlas.data.ThresholdPolicyFactory;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.iterator.IteratorSlotted;
+import org.apache.jena.atlas.lib.Sink;
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.atlas.lib.tuple.TupleFactory;
+import org.apache.jena.dboe.transaction.txn.Transaction;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.shared.AddDeniedException;
+import org.apache.jena.shared.DeleteDeniedException;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.modify.UpdateChanges;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.NodeIdFactory;
+import org.apache.jena.tdb2.store.QuadTable;
+import org.apache.jena.tdb2.store.TableBase;
+import org.apache.jena.tdb2.store.TripleTable;
+import org.apache.jena.tdb2.store.nodetable.NodeTable;
+import org.apache.jena.tdb2.sys.TDBInternal;
+
+/**
+ * {@link UpdateChanges} for TDB2.
+ * <p>
+ * The changes are held as tuples of NodeIds. Deletes of quads with a node that is not
+ * in the database are dropped immediately. The tuples are held in {@link DataBag}s,
+ * which spill to disk above {@link ARQ#spillToDiskThreshold} in the dataset context,
+ * as the bindings of the WHERE clause do without this class.
+ * {@link #apply} passes the tuples to the indexes in batches of at most that
+ * many tuples (all of them if there is no threshold), and each index applies a
+ * batch in its own order.
+ * <p>
+ * Nodes for added quads are put in the node table as the changes are recorded.
+ * This does not change the triples and quads visible to the WHERE clause.
+ */
+public class UpdateChangesTDB implements UpdateChanges {
+
+    /**
+     * Return an {@code UpdateChangesTDB} for the dataset, or null if the dataset is not
+     * TDB2 or there is no write transaction.
+     */
+    public static UpdateChangesTDB create(DatasetGraph dataset) {
+        DatasetGraphTDB dsgtdb = TDBInternal.getDatasetGraphTDB(dataset);
+        if ( dsgtdb == null )
+            return null;
+        Transaction txn = dsgtdb.getTxnSystem().getThreadTransaction();
+        if ( txn == null || ! txn.isWriteTxn() )
+            return null;
+        return new UpdateChangesTDB(dsgtdb, dataset.getContext());
+    }
+
+    private final TripleTable triples;
+    private final QuadTable quads;
+    private final Context context;
+    private final int batchSize;
+    private final DataBag<Tuple<NodeId>> deleteTriples;
+    private final DataBag<Tuple<NodeId>> deleteQuads;
+    private final DataBag<Tuple<NodeId>> addTriples;
+    private final DataBag<Tuple<NodeId>> addQuads;
+
+    private UpdateChangesTDB(DatasetGraphTDB dsgtdb, Context context) {
+        this.triples = dsgtdb.getTripleTable();
+        this.quads = dsgtdb.getQuadTable();
+        this.context = context;
+        long threshold = context.getLong(ARQ.spillToDiskThreshold, -1);
+        this.batchSize = ( threshold < 0 || threshold > Integer.MAX_VALUE ) ? Integer.MAX_VALUE : (int)Math.max(1, threshold);
+        this.deleteTriples = newBag();
+        this.deleteQuads = newBag();
+        this.addTriples = newBag();
+        this.addQuads = newBag();
+    }
+
+    private DataBag<Tuple<NodeId>> newBag() {
+        return BagFactory.newDefaultBag(ThresholdPolicyFactory.policyFromContext(context), tupleSerializationFactory);
+    }
+
+    @Override
+    public void delete(Quad quad) {
+        Node g = quad.getGraph();
+        if ( Quad.isUnionGraph(g) )
+            throw new DeleteDeniedException("Can't remove from the union graph");
+        if ( g == Quad.tripleInQuad || Quad.isDefaultGraph(g) ) {
+            Tuple<NodeId> tuple = lookup(nodeTable(triples), quad.getSubject(), quad.getPredicate(), quad.getObject());
+            if ( tuple != null )
+                deleteTriples.add(tuple);
+        } else {
+            Tuple<NodeId> tuple = lookup(nodeTable(quads), g, quad.getSubject(), quad.getPredicate(), quad.getObject());
+            if ( tuple != null )
+                deleteQuads.add(tuple);
+        }
+    }
+
+    @Override
+    public void add(Quad quad) {
+        Node g = quad.getGraph();
+        if ( Quad.isUnionGraph(g) )
+            throw new AddDeniedException("Can't add to the union graph");
+        if ( g == Quad.tripleInQuad || Quad.isDefaultGraph(g) )
+            addTriples.add(allocate(nodeTable(triples), quad.getSubject(), quad.getPredicate(), quad.getObject()));
+        else
+            addQuads.add(allocate(nodeTable(quads), g, quad.getSubject(), quad.getPredicate(), quad.getObject()));
+    }
+
+    private static NodeTable nodeTable(TableBase table) {
+        return table.getNodeTupleTable().getNodeTable();
+    }
+
+    /** The tuple for existing nodes, or null if any node is not in the node table. */
+    private static Tuple<NodeId> lookup(NodeTable nodeTable, Node... nodes) {
+        NodeId[] ids = new NodeId[nodes.length];
+        for ( int i = 0 ; i < nodes.length ; i++ ) {
+            NodeId id = nodeTable.getNodeIdForNode(nodes[i]);
+            if ( NodeId.isDoesNotExist(id) )
+                return null;
+            ids[i] = id;
+        }
+        return TupleFactory.create(ids);
+    }
+
+    private static Tuple<NodeId> allocate(NodeTable nodeTable, Node... nodes) {
+        NodeId[] ids = new NodeId[nodes.length];
+        for ( int i = 0 ; i < nodes.length ; i++ )
+            ids[i] = nodeTable.getAllocateNodeId(nodes[i]);
+        return TupleFactory.create(ids);
+    }
+
+    @Override
+    public void apply() {
+        // All deletes, then all adds.
+        inBatches(deleteTriples, triples::deleteAll);
+        inBatches(deleteQuads, quads::deleteAll);
+        inBatches(addTriples, triples::addAll);
+        inBatches(addQuads, quads::addAll);
+        close();
+    }
+
+    private interface Action { void apply(List<Tuple<NodeId>> tuples); }
+
+    private void inBatches(DataBag<Tuple<NodeId>> bag, Action action) {
+        if ( bag.size() == 0 )
+            return;
+        Iterator<Tuple<NodeId>> iter = bag.iterator();
+        try {
+            List<Tuple<NodeId>> batch = new ArrayList<>();
+            while ( iter.hasNext() ) {
+                batch.add(iter.next());
+                if ( batch.size() >= batchSize ) {
+                    action.apply(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+            if ( ! batch.isEmpty() )
+                action.apply(batch);
+        } finally {
+            Iter.close(iter);
+        }
+    }
+
+    @Override
+    public void close() {
+        deleteTriples.close();
+        deleteQuads.close();
+        addTriples.close();
+        addQuads.close();
+    }
+
+    /** Tuples of NodeIds in temporary files: the tuple length, then the 64 bit NodeIds. */
+    private static final SerializationFactory<Tuple<NodeId>> tupleSerializationFactory = new SerializationFactory<>() {
+        @Override
+        public Sink<Tuple<NodeId>> createSerializer(OutputStream out) {
+            DataOutputStream output = new DataOutputStream(out);
+            return new Sink<>() {
+                @Override
+                public void send(Tuple<NodeId> tuple) {
+                    try {
+                        output.writeByte(tuple.len());
+                        for ( int i = 0 ; i < tuple.len() ; i++ )
+                            output.writeLong(NodeIdFactory.encode64(tuple.get(i)));
+                    } catch (IOException ex) { throw new RuntimeIOException(ex); }
+                }
+
+                @Override
+                public void flush() {
+                    try { output.flush(); }
+                    catch (IOException ex) { throw new RuntimeIOException(ex); }
+                }
+
+                @Override
+                public void close() {
+                    try { output.close(); }
+                    catch (IOException ex) { throw new RuntimeIOException(ex); }
+                }
+            };
+        }
+
+        @Override
+        public Iterator<Tuple<NodeId>> createDeserializer(InputStream in) {
+            DataInputStream input = new DataInputStream(in);
+            return new IteratorSlotted<>() {
+                @Override
+                protected boolean hasMore() { return true; }
+
+                @Override
+                protected Tuple<NodeId> moveToNext() {
+                    try {
+                        int len = input.read();
+                        if ( len < 0 )
+                            return null;
+                        byte[] bytes = new byte[Long.BYTES];
+                        NodeId[] ids = new NodeId[len];
+                        for ( int i = 0 ; i < len ; i++ ) {
+                            input.readFully(bytes);
+                            ids[i] = NodeIdFactory.get(bytes);
+                        }
+                        return TupleFactory.create(ids);
+                    } catch (IOException ex) { throw new RuntimeIOException(ex); }
+                }
+
+                @Override
+                protected void closeIterator() {
+                    try { input.close(); }
+                    catch (IOException ex) { throw new RuntimeIOException(ex); }
+                }
+            };
+        }
+    };
+}
@@ -20,18 +20,31 @@ package org.apache.jena.tdb2.modify;
 
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.modify.UpdateChanges;
 import org.apache.jena.sparql.modify.UpdateEngine;
 import org.apache.jena.sparql.modify.UpdateEngineFactory;
 import org.apache.jena.sparql.modify.UpdateEngineMain;
 import org.apache.jena.sparql.modify.UpdateEngineRegistry;
+import org.apache.jena.sparql.modify.UpdateEngineWorker;
+import org.apache.jena.sparql.modify.request.UpdateVisitor;
 import org.apache.jena.sparql.util.Context;
 import org.apache.jena.tdb2.store.DatasetGraphTxn;
+import org.apache.jena.tdb2.sys.TDBInternal;
 
 public class UpdateEngineTDB extends UpdateEngineMain
 {
-    public UpdateEngineTDB(DatasetGraphTxn graphStore, Binding inputBinding, Context context)
+    public UpdateEngineTDB(DatasetGraph graphStore, Binding inputBinding, Context context)
     { super(graphStore, inputBinding, context); }
 
+    @Override
+    protected UpdateVisitor prepareWorker() {
+        return new UpdateEngineWorker(datasetGraph, inputBinding, context) {
+            @Override
+            protected UpdateChanges createUpdateChanges() {
+                return UpdateChangesTDB.create(datasetGraph);
+            }
+        };
+    }
 
     // ---- Factory
     public static UpdateEngineFactory getFactory() {
@@ -39,12 +52,12 @@ public class UpdateEngineTDB extends UpdateEngineMain
         {
             @Override
             public boolean accept(DatasetGraph dataset, Context context) {
-                return (dataset instanceof DatasetGraphTxn);
+                return (dataset instanceof DatasetGraphTxn) || TDBInternal.isTDB2(dataset);
             }
 
             @Override
             public UpdateEngine create(DatasetGraph dataset, Binding inputBinding, Context context) {
-                return new UpdateEngineTDB((DatasetGraphTxn)dataset, inputBinding, context);
+                return new UpdateEngineTDB(dataset, inputBinding, context);
             }
         };
     }
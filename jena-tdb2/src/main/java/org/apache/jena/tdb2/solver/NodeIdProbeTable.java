@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.tdb2.solver;
+
+import java.util.Arrays;
+
+/**
+ * Hash table from a {@code long} key to the rows with that key,
+ * for the probe side of {@link QueryIterHashJoinNodeId}.
+ * <p>
+ * The keys are held in an open addressing table of primitive {@code long}s. The rows
+ * with the same key are chained through an {@code int} array. A row is referred to
+ * by its index plus one so that zero means "no row".
+ * <p>
+ * Rows can be added but not removed.
+ */
+class NodeIdProbeTable {
+    private static final int INITIAL_SLOTS = 64;
+    private static final int INITIAL_ROWS  = 16;
+
+    private long[] slotKeys  = new long[INITIAL_SLOTS];
+    // Reference to the most recently added row with the key of the slot; 0 for an empty slot.
+    private int[]  slotHeads = new int[INITIAL_SLOTS];
+    private int    usedSlots = 0;
+
+    private BindingTDB[] rows = new BindingTDB[INITIAL_ROWS];
+    // Reference to the next row with the same key; 0 for the end of the chain.
+    private int[] nextRow = new int[INITIAL_ROWS];
+    private int   rowCount = 0;
+
+    /** Add a row. */
+    void put(long key, BindingTDB row) {
+        if ( rowCount == rows.length ) {
+            int n = rows.length * 2;
+            rows = Arrays.copyOf(rows, n);
+            nextRow = Arrays.copyOf(nextRow, n);
+        }
+        int slot = findSlot(key);
+        if ( slotHeads[slot] == 0 ) {
+            // New key. Keep the load factor at most 0.75.
+            if ( 4 * (usedSlots + 1) > 3 * slotKeys.length ) {
+                rehash(2 * slotKeys.length);
+                slot = findSlot(key);
+            }
+            slotKeys[slot] = key;
+            usedSlots++;
+        }
+        rows[rowCount] = row;
+        nextRow[rowCount] = slotHeads[slot];
+        rowCount++;
+        slotHeads[slot] = rowCount;
+    }
+
+    /** Reference to the first row with the key, or 0 if there is none. */
+    int first(long key) {
+        return slotHeads[findSlot(key)];
+    }
+
+    /** Reference to the next row with the same key as the row {@code ref}, or 0 if there is none. */
+    int next(int ref) {
+        return nextRow[ref - 1];
+    }
+
+    /** The row for a reference. */
+    BindingTDB row(int ref) {
+        return rows[ref - 1];
+    }
+
+    /** Number of rows. */
+    int size() {
+        return rowCount;
+    }
+
+    /** The row at an index, {@code 0 <= idx < size()}, in the order added. */
+    BindingTDB rowAt(int idx) {
+        return rows[idx];
+    }
+
+    private int findSlot(long key) {
+        int mask = slotKeys.length - 1;
+        int idx = mix(key) & mask;
+        while ( slotHeads[idx] != 0 && slotKeys[idx] != key )
+            idx = (idx + 1) & mask;
+        return idx;
+    }
+
+    private void rehash(int newSize) {
+        long[] oldKeys = slotKeys;
+        int[] oldHeads = slotHeads;
+        slotKeys = new long[newSize];
+        slotHeads = new int[newSize];
+        for ( int i = 0 ; i < oldKeys.length ; i++ ) {
+            if ( oldHeads[i] == 0 )
+                continue;
+            int slot = findSlot(oldKeys[i]);
+            slotKeys[slot] = oldKeys[i];
+            slotHeads[slot] = oldHeads[i];
+        }
+    }
+
+    // Spread the bits; NodeIds are often sequential.
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.NodeIdFactory;
+
+/**
+ * A set of {@link NodeId NodeIds}, held in an open addressing table keyed by the
+ * 64 bit form of the NodeId. Membership tests compare primitive {@code long}s.
+ * <p>
+ * Elements can be added but not removed.
+ */
+class NodeIdSet extends AbstractSet<NodeId> {
+    private static final int INITIAL_SLOTS = 64;
+
+    private long[] keys = new long[INITIAL_SLOTS];
+    // Null for an empty slot.
+    private NodeId[] items = new NodeId[INITIAL_SLOTS];
+    private int size = 0;
+
+    @Override
+    public boolean add(NodeId nodeId) {
+        long key = NodeIdFactory.encode64(nodeId);
+        int slot = findSlot(key);
+        if ( items[slot] != null )
+            return false;
+        // Keep the load factor at most 0.75.
+        if ( 4 * (size + 1) > 3 * keys.length ) {
+            rehash(2 * keys.length);
+            slot = findSlot(key);
+        }
+        keys[slot] = key;
+        items[slot] = nodeId;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object obj) {
+        if ( !( obj instanceof NodeId ) )
+            return false;
+        long key = NodeIdFactory.encode64((NodeId)obj);
+        return items[findSlot(key)] != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<NodeId> iterator() {
+        return new Iterator<>() {
+            private int idx = advance(0);
+
+            private int advance(int i) {
+                while ( i < items.length && items[i] == null )
+                    i++;
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return idx < items.length;
+            }
+
+            @Override
+            public NodeId next() {
+                if ( !hasNext() )
+                    throw new NoSuchElementException();
+                NodeId x = items[idx];
+                idx = advance(idx + 1);
+                return x;
+            }
+        };
+    }
+
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int idx = mix(key) & mask;
+        while ( items[idx] != null && keys[idx] != key )
+            idx = (idx + 1) & mask;
+        return idx;
+    }
+
+    private void rehash(int newSize) {
+        long[] oldKeys = keys;
+        NodeId[] oldItems = items;
+        keys = new long[newSize];
+        items = new NodeId[newSize];
+        for ( int i = 0 ; i < oldKeys.length ; i++ ) {
+            if ( oldItems[i] == null )
+                continue;
+            int slot = findSlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            items[slot] = oldItems[i];
+        }
+    }
+
+    // Spread the bits; NodeIds are often sequential.
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+}
@@ -34,7 +34,10 @@ import org.apache.jena.sparql.core.Substitute;
 import org.apache.jena.sparql.core.Var;
 import org.apache.jena.sparql.engine.ExecutionContext;
 import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.iterator.QueryIterAsync;
+import org.apache.jena.sparql.engine.iterator.QueryIterPath;
 import org.apache.jena.sparql.engine.iterator.QueryIterPeek;
+import org.apache.jena.sparql.engine.join.Join;
 import org.apache.jena.sparql.engine.main.OpExecutor;
 import org.apache.jena.sparql.engine.main.OpExecutorFactory;
 import org.apache.jena.sparql.engine.main.QC;
@@ -134,6 +137,53 @@ public class OpExecutorTDB2 extends OpExecutor
         return super.execute(opFilter, input);
         }
 
+    // ---- Joins
+
+    @Override
+    protected QueryIterator execute(OpJoin opJoin, QueryIterator input)
+    {
+        if ( ! isForTDB )
+            return super.execute(opJoin, input);
+        QueryIterator rightInput = root();
+        // An independent SERVICE does not produce TDB2 rows. Start it as the general join does,
+        // on another thread if ARQ.serviceConcurrency allows.
+        if ( isServiceAsync(opJoin.getLeft(), input) || isServiceAsync(opJoin.getRight(), rightInput) ) {
+            QueryIterator left = execServiceAsync(opJoin.getLeft(), input);
+            QueryIterator right = execServiceAsync(opJoin.getRight(), rightInput);
+            return QueryIterAsync.join(left, right, (l, r) -> Join.join(l, r, execCxt), execCxt);
+        }
+        // Join on NodeIds.
+        QueryIterator left = exec(opJoin.getLeft(), input);
+        QueryIterator right = exec(opJoin.getRight(), rightInput);
+        return QueryIterHashJoinNodeId.create(left, right, execCxt);
+    }
+
+    // ---- Property paths
+
+    @Override
+    protected QueryIterator execute(OpPath opPath, QueryIterator input)
+    {
+        if ( ! isForTDB )
+            return super.execute(opPath, input);
+        // Transitive paths search on NodeIds.
+        GraphTDB graph = (GraphTDB)execCxt.getActiveGraph();
+        return new QueryIterPath(opPath.getTriplePath(), input, execCxt, PathLinksTDB.provider(graph, execCxt));
+    }
+
+    // ---- Aggregates
+
+    @Override
+    protected QueryIterator execute(OpGroup opGroup, QueryIterator input)
+    {
+        if ( ! isForTDB )
+            return super.execute(opGroup, input);
+        // COUNT over one pattern by counting index ranges.
+        QueryIterator qIter = SolverCountTDB.execute(opGroup, input, execCxt);
+        if ( qIter != null )
+            return qIter;
+        return super.execute(opGroup, input);
+    }
+
     // ---- Triple patterns
 
     @Override
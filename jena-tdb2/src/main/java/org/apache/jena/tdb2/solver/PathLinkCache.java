@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import java.util.*;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.dboe.transaction.txn.Transaction;
+import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTable;
+
+/**
+ * Link indexes for transitive property paths, kept per dataset for read transactions.
+ * <p>
+ * A link index holds, in memory, the links in both directions of one property in one graph.
+ * It is built on first use, in a read transaction, and is valid for that version of
+ * the data. When a read transaction starts after a write transaction has committed,
+ * the link indexes of the dataset are discarded.
+ */
+class PathLinkCache {
+    private static final Map<DatasetGraphTDB, PathLinkCache> caches = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Return the link index for the property, or null if there is no link index because
+     * the transaction is not a read transaction or the property has more than {@code limit} triples.
+     */
+    static LinkIndex get(DatasetGraphTDB dsg, NodeTupleTable table, NodeId graphId, NodeId property, long limit) {
+        Transaction txn = dsg.getTxnSystem().getThreadTransaction();
+        if ( txn == null || !txn.isReadTxn() )
+            return null;
+        PathLinkCache cache = caches.computeIfAbsent(dsg, x -> new PathLinkCache());
+        return cache.get(txn.getDataVersion(), table, graphId, property, limit);
+    }
+
+    /** Marker for "too many triples". */
+    private static final LinkIndex tooLarge = new LinkIndex(Map.of(), Map.of());
+
+    private long dataVersion = -1;
+    private final Map<List<NodeId>, LinkIndex> indexes = new HashMap<>();
+
+    private synchronized LinkIndex get(long version, NodeTupleTable table, NodeId graphId, NodeId property, long limit) {
+        if ( version < dataVersion )
+            // An older read transaction.
+            return null;
+        if ( version > dataVersion ) {
+            indexes.clear();
+            dataVersion = version;
+        }
+        List<NodeId> key = Arrays.asList(graphId, property);
+        LinkIndex index = indexes.computeIfAbsent(key, k -> build(table, graphId, property, limit));
+        return index == tooLarge ? null : index;
+    }
+
+    private static LinkIndex build(NodeTupleTable table, NodeId graphId, NodeId property, long limit) {
+        Map<NodeId, List<NodeId>> forward = new HashMap<>();
+        Map<NodeId, List<NodeId>> backward = new HashMap<>();
+        // Triples (S,P,O) or quads (G,S,P,O)
+        int offset = ( graphId == null ) ? 0 : 1;
+        Iterator<Tuple<NodeId>> iter = ( graphId == null )
+                ? table.find(NodeId.NodeIdAny, property, NodeId.NodeIdAny)
+                : table.find(graphId, NodeId.NodeIdAny, property, NodeId.NodeIdAny);
+        try {
+            long count = 0;
+            while ( iter.hasNext() ) {
+                if ( ++count > limit )
+                    return tooLarge;
+                Tuple<NodeId> tuple = iter.next();
+                NodeId s = tuple.get(offset);
+                NodeId o = tuple.get(offset + 2);
+                forward.computeIfAbsent(s, x -> new ArrayList<>(2)).add(o);
+                backward.computeIfAbsent(o, x -> new ArrayList<>(2)).add(s);
+            }
+        } finally { Iter.close(iter); }
+        return new LinkIndex(compact(forward), compact(backward));
+    }
+
+    private static Map<NodeId, NodeId[]> compact(Map<NodeId, List<NodeId>> links) {
+        Map<NodeId, NodeId[]> x = new HashMap<>(2 * links.size());
+        links.forEach((k, v) -> x.put(k, v.toArray(new NodeId[v.size()])));
+        return x;
+    }
+
+    /** The links of one property. */
+    static class LinkIndex {
+        private static final NodeId[] none = new NodeId[0];
+        private final Map<NodeId, NodeId[]> forward;
+        private final Map<NodeId, NodeId[]> backward;
+
+        private LinkIndex(Map<NodeId, NodeId[]> forward, Map<NodeId, NodeId[]> backward) {
+            this.forward = forward;
+            this.backward = backward;
+        }
+
+        NodeId[] links(NodeId nodeId, boolean isForward) {
+            return ( isForward ? forward : backward ).getOrDefault(nodeId, none);
+        }
+    }
+}
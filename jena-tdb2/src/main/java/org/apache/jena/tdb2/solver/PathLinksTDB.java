@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.path.eval.PathLinks;
+import org.apache.jena.tdb2.store.GraphTDB;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.nodetable.NodeTable;
+import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTable;
+import org.apache.jena.tdb2.sys.SystemTDB;
+
+/**
+ * {@link PathLinks} for a TDB2 graph: the search for a transitive property path works on
+ * {@link NodeId NodeIds}, with a {@link NodeIdSet} for the terms visited.
+ * Nodes are only retrieved from the node table for the results.
+ *
+ * @see PathLinkCache
+ */
+class PathLinksTDB implements PathLinks<NodeId> {
+
+    /**
+     * The function from property to {@code PathLinks} for paths in a TDB2 graph.
+     * Returns null if the graph is the union graph.
+     */
+    static Function<Node, PathLinks<?>> provider(GraphTDB graph, ExecutionContext execCxt) {
+        Node graphName = graph.getGraphName();
+        if ( graphName != null && Quad.isUnionGraph(graphName) )
+            return null;
+        NodeTupleTable table = graph.getNodeTupleTable();
+        NodeTable nodeTable = table.getNodeTable();
+        NodeId graphId = null;
+        if ( graphName != null ) {
+            graphId = nodeTable.getNodeIdForNode(graphName);
+            if ( NodeId.isDoesNotExist(graphId) )
+                return null;
+        }
+        NodeId gId = graphId;
+        Predicate<Tuple<NodeId>> filter = QC2.getFilter(execCxt.getContext());
+        long cacheLimit = execCxt.getContext().getLong(SystemTDB.symPathLinkCache, 0);
+        return property -> {
+            NodeId p = nodeTable.getNodeIdForNode(property);
+            if ( NodeId.isDoesNotExist(p) )
+                return null;
+            // The link index is shared so it can not be used with a tuple filter.
+            PathLinkCache.LinkIndex index = ( filter == null && cacheLimit > 0 )
+                    ? PathLinkCache.get(graph.getDSG(), table, gId, p, cacheLimit)
+                    : null;
+            return new PathLinksTDB(table, gId, p, filter, index);
+        };
+    }
+
+    private final NodeTupleTable table;
+    private final NodeTable nodeTable;
+    private final NodeId graphId;
+    private final NodeId property;
+    private final Predicate<Tuple<NodeId>> filter;
+    private final PathLinkCache.LinkIndex index;
+
+    private PathLinksTDB(NodeTupleTable table, NodeId graphId, NodeId property,
+                         Predicate<Tuple<NodeId>> filter, PathLinkCache.LinkIndex index) {
+        this.table = table;
+        this.nodeTable = table.getNodeTable();
+        this.graphId = graphId;
+        this.property = property;
+        this.filter = filter;
+        this.index = index;
+    }
+
+    @Override
+    public NodeId lookup(Node node) {
+        NodeId nodeId = nodeTable.getNodeIdForNode(node);
+        return NodeId.isDoesNotExist(nodeId) ? null : nodeId;
+    }
+
+    @Override
+    public Node node(NodeId item) {
+        return nodeTable.getNodeForNodeId(item);
+    }
+
+    @Override
+    public void forEachLink(NodeId item, boolean forward, Consumer<NodeId> action) {
+        if ( index != null ) {
+            for ( NodeId x : index.links(item, forward) )
+                action.accept(x);
+            return;
+        }
+        NodeId any = NodeId.NodeIdAny;
+        NodeId s = forward ? item : any;
+        NodeId o = forward ? any : item;
+        // Triples (S,P,O) or quads (G,S,P,O)
+        int offset = ( graphId == null ) ? 0 : 1;
+        int idx = offset + ( forward ? 2 : 0 );
+        Iterator<Tuple<NodeId>> iter = ( graphId == null )
+                ? table.find(s, property, o)
+                : table.find(graphId, s, property, o);
+        try {
+            while ( iter.hasNext() ) {
+                Tuple<NodeId> tuple = iter.next();
+                if ( filter == null || filter.test(tuple) )
+                    action.accept(tuple.get(idx));
+            }
+        } finally { Iter.close(iter); }
+    }
+
+    @Override
+    public Set<NodeId> newSet() {
+        return new NodeIdSet();
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.tdb2.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.iterator.QueryIter2;
+import org.apache.jena.sparql.engine.iterator.QueryIterNullIterator;
+import org.apache.jena.sparql.engine.iterator.QueryIterPeek;
+import org.apache.jena.sparql.engine.join.Join;
+import org.apache.jena.sparql.engine.join.JoinKey;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.nodetable.NodeTable;
+
+/**
+ * Inner hash join of rows from the TDB2 solver, working on {@link NodeId NodeIds}.
+ * <p>
+ * The left side is loaded into a {@link NodeIdProbeTable}, keyed by the NodeIds of the join
+ * variables; the right side is streamed. Two rows join when their NodeIds are the same
+ * for the common variables. The results are {@link BindingTDB BindingTDBs} so nodes are
+ * only retrieved from the node table if the variable is used later.
+ * <p>
+ * This applies to {@link BindingTDB} rows, for the same node table, which bind all the join
+ * variables and do not have a parent binding. Any other rows are joined by comparing nodes
+ * with {@link Algebra#merge}.
+ */
+public class QueryIterHashJoinNodeId extends QueryIter2 {
+
+    /**
+     * Create a hash join. If the inputs do not have variables in common, or are to be
+     * partitioned to disk (see {@link ARQ#spillToDiskThreshold}), the join is a general
+     * {@link Join#join}.
+     */
+    public static QueryIterator create(QueryIterator left, QueryIterator right, ExecutionContext execCxt) {
+        if ( ! left.hasNext() || ! right.hasNext() ) {
+            left.close();
+            right.close();
+            return QueryIterNullIterator.create(execCxt);
+        }
+        if ( execCxt.getContext().getLong(ARQ.spillToDiskThreshold, -1) >= 0 )
+            return Join.join(left, right, execCxt);
+        QueryIterPeek pLeft = QueryIterPeek.create(left, execCxt);
+        QueryIterPeek pRight = QueryIterPeek.create(right, execCxt);
+        JoinKey joinKey = JoinKey.create(Iter.toList(pLeft.peek().vars()), Iter.toList(pRight.peek().vars()));
+        if ( joinKey.isEmpty() )
+            return Join.join(joinKey, pLeft, pRight, execCxt);
+        return new QueryIterHashJoinNodeId(joinKey, pLeft, pRight, execCxt);
+    }
+
+    private final Var[] keyVars;
+    private NodeIdProbeTable table = null;
+    // The node table of the rows in the probe table.
+    private NodeTable nodeTable = null;
+    // Rows of the left side that are not in the probe table.
+    private List<Binding> otherRows = new ArrayList<>();
+
+    // Key calculated by setKey.
+    private long key;
+
+    // The current right side row and the positions reached for it.
+    private Binding rowStream = null;
+    private int chainRef;
+    private int scanIdx;
+    private int otherIdx;
+
+    private Binding slot = null;
+
+    private QueryIterHashJoinNodeId(JoinKey joinKey, QueryIterator left, QueryIterator right, ExecutionContext execCxt) {
+        super(left, right, execCxt);
+        this.keyVars = joinKey.toArray(new Var[0]);
+    }
+
+    private void buildTable() {
+        table = new NodeIdProbeTable();
+        QueryIterator iter = getLeft();
+        try {
+            while ( iter.hasNext() ) {
+                Binding row = iter.next();
+                if ( isIdRow(row) ) {
+                    BindingTDB rowTDB = (BindingTDB)row;
+                    if ( nodeTable == null )
+                        nodeTable = rowTDB.getNodeTable();
+                    if ( rowTDB.getNodeTable() == nodeTable && setKey(rowTDB.getBindingId()) ) {
+                        table.put(key, rowTDB);
+                        continue;
+                    }
+                }
+                otherRows.add(row);
+            }
+        } finally {
+            iter.close();
+        }
+    }
+
+    @Override
+    protected boolean hasNextBinding() {
+        if ( isFinished() )
+            return false;
+        if ( slot != null )
+            return true;
+        if ( table == null )
+            buildTable();
+        slot = moveToNext();
+        return slot != null;
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        if ( ! hasNextBinding() )
+            return null;
+        Binding r = slot;
+        slot = null;
+        return r;
+    }
+
+    private Binding moveToNext() {
+        QueryIterator iterStream = getRight();
+        for ( ;; ) {
+            if ( rowStream == null ) {
+                if ( ! iterStream.hasNext() )
+                    return null;
+                setStreamRow(iterStream.next());
+            }
+            // Rows of the probe table with the same key.
+            while ( chainRef != 0 ) {
+                BindingTDB rowProbe = table.row(chainRef);
+                chainRef = table.next(chainRef);
+                Binding r = mergeIds(rowProbe, (BindingTDB)rowStream);
+                if ( r != null )
+                    return r;
+            }
+            // All rows of the probe table when the stream row has no key.
+            while ( scanIdx < table.size() ) {
+                BindingTDB rowProbe = table.rowAt(scanIdx++);
+                Binding r = isSameTable(rowStream)
+                    ? mergeIds(rowProbe, (BindingTDB)rowStream)
+                    : Algebra.merge(rowProbe, rowStream);
+                if ( r != null )
+                    return r;
+            }
+            while ( otherIdx < otherRows.size() ) {
+                Binding r = Algebra.merge(otherRows.get(otherIdx++), rowStream);
+                if ( r != null )
+                    return r;
+            }
+            rowStream = null;
+        }
+    }
+
+    private void setStreamRow(Binding row) {
+        rowStream = row;
+        chainRef = 0;
+        scanIdx = table.size();
+        otherIdx = 0;
+        if ( isSameTable(row) && setKey(((BindingTDB)row).getBindingId()) )
+            chainRef = table.first(key);
+        else
+            scanIdx = 0;
+    }
+
+    /** A row in the form that can be put in the probe table. */
+    private static boolean isIdRow(Binding row) {
+        if ( ! ( row instanceof BindingTDB rowTDB ) )
+            return false;
+        Binding parent = rowTDB.getBindingId().getParentBinding();
+        return parent == null || parent.isEmpty();
+    }
+
+    private boolean isSameTable(Binding row) {
+        return isIdRow(row) && ((BindingTDB)row).getNodeTable() == nodeTable;
+    }
+
+    /**
+     * Calculate the key for the join variables into {@link #key}.
+     * Return false if a join variable is not bound to a NodeId.
+     */
+    private boolean setKey(BindingNodeId ids) {
+        long k = 0;
+        for ( Var v : keyVars ) {
+            NodeId id = ids.get(v);
+            if ( NodeId.isAny(id) || NodeId.isDoesNotExist(id) )
+                return false;
+            k = 31 * k + id.longHashCode();
+        }
+        key = k;
+        return true;
+    }
+
+    /**
+     * Join two rows, both from the node table of the probe table.
+     * Return null if the rows are not compatible.
+     */
+    private Binding mergeIds(BindingTDB rowProbe, BindingTDB rowStream) {
+        BindingNodeId ids1 = rowProbe.getBindingId();
+        BindingNodeId ids2 = rowStream.getBindingId();
+        for ( Var v : ids2 ) {
+            NodeId id1 = ids1.get(v);
+            if ( id1 == null )
+                continue;
+            NodeId id2 = ids2.get(v);
+            if ( NodeId.isDoesNotExist(id1) || NodeId.isDoesNotExist(id2) )
+                // Compare as nodes.
+                return Algebra.merge(rowProbe, rowStream);
+            if ( ! id1.equals(id2) )
+                return null;
+        }
+        BindingNodeId ids = new BindingNodeId(ids1.getParentBinding());
+        ids.putAll(ids1);
+        ids.putAll(ids2);
+        return new BindingTDB(ids, nodeTable);
+    }
+
+    @Override
+    protected void requestSubCancel() {}
+
+    @Override
+    protected void closeSubIterator() {
+        table = null;
+        otherRows = null;
+        rowStream = null;
+    }
+}
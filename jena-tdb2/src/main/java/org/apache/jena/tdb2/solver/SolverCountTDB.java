@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.Pair;
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.atlas.lib.tuple.TupleFactory;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.op.OpBGP;
+import org.apache.jena.sparql.algebra.op.OpGroup;
+import org.apache.jena.sparql.algebra.op.OpQuadPattern;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.core.VarExprList;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingBuilder;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.iterator.QueryIterNullIterator;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.engine.iterator.QueryIterSingleton;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprAggregator;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.expr.aggregate.AggCount;
+import org.apache.jena.sparql.expr.aggregate.AggCountVar;
+import org.apache.jena.sparql.expr.aggregate.Aggregator;
+import org.apache.jena.sparql.mgt.Explain;
+import org.apache.jena.tdb2.store.DatasetGraphTDB;
+import org.apache.jena.tdb2.store.GraphTDB;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.nodetable.NodeTable;
+import org.apache.jena.tdb2.store.nodetupletable.NodeTupleTable;
+import org.apache.jena.tdb2.store.tupletable.TupleIndex;
+import org.apache.jena.tdb2.store.tupletable.TupleIndexRecord;
+
+/**
+ * {@code COUNT} over a single triple or quad pattern, with no grouping or grouped by
+ * one variable of the pattern, evaluated by counting ranges of an index.
+ * <p>
+ * The index is one where the constants of the pattern are a prefix of the index order
+ * (then the group variable). The matches are not retrieved and the only nodes decoded are
+ * the group keys. The B+Tree counts a range from the records blocks at its ends and the
+ * sizes of the blocks in between, counting the subtrees of large ranges in parallel.
+ */
+class SolverCountTDB {
+
+    /**
+     * Execute the group operation by counting index ranges.
+     * Returns null if the group operation is not a count this class handles.
+     */
+    static QueryIterator execute(OpGroup opGroup, QueryIterator input, ExecutionContext execCxt) {
+        // Only the start of a query: no bindings to substitute.
+        if ( ! input.isJoinIdentity() )
+            return null;
+        // Counting can not apply a tuple filter.
+        if ( QC2.getFilter(execCxt.getContext()) != null )
+            return null;
+        List<ExprAggregator> aggregators = opGroup.getAggregators();
+        if ( aggregators.isEmpty() )
+            return null;
+
+        Op subOp = opGroup.getSubOp();
+        DatasetGraphTDB dsg;
+        Node gn;
+        Triple triple;
+        if ( subOp instanceof OpBGP opBGP ) {
+            if ( opBGP.getPattern().size() != 1 )
+                return null;
+            GraphTDB graph = (GraphTDB)execCxt.getActiveGraph();
+            dsg = graph.getDSG();
+            gn = graph.getGraphName();
+            triple = opBGP.getPattern().get(0);
+        } else if ( subOp instanceof OpQuadPattern opQuadPattern ) {
+            if ( opQuadPattern.getBasicPattern().size() != 1 )
+                return null;
+            if ( ! ( execCxt.getDataset() instanceof DatasetGraphTDB dsgtdb ) )
+                return null;
+            dsg = dsgtdb;
+            gn = opQuadPattern.getGraphNode();
+            triple = opQuadPattern.getBasicPattern().get(0);
+        } else
+            return null;
+
+        gn = OpExecutorTDB2.decideGraphNode(gn, execCxt);
+        // Union graph.
+        if ( gn == Node.ANY )
+            return null;
+
+        // Triples (S,P,O) or quads (G,S,P,O)
+        Node[] nodes = ( gn == null )
+                ? new Node[] {triple.getSubject(), triple.getPredicate(), triple.getObject()}
+                : new Node[] {gn, triple.getSubject(), triple.getPredicate(), triple.getObject()};
+        NodeTupleTable table = ( gn == null )
+                ? dsg.getTripleTable().getNodeTupleTable()
+                : dsg.getQuadTable().getNodeTupleTable();
+
+        // Each variable appears once so every slot is a constant or any.
+        Set<Var> vars = new HashSet<>();
+        for ( Node n : nodes ) {
+            if ( n.isTripleTerm() )
+                return null;
+            if ( Var.isVar(n) && ! vars.add(Var.alloc(n)) )
+                return null;
+        }
+
+        // COUNT(*) or COUNT(?var) where ?var is always bound.
+        for ( ExprAggregator exprAgg : aggregators ) {
+            Aggregator agg = exprAgg.getAggregator();
+            if ( agg instanceof AggCount )
+                continue;
+            if ( agg instanceof AggCountVar ) {
+                Expr expr = agg.getExprList().get(0);
+                if ( expr.isVariable() && vars.contains(expr.asVar()) )
+                    continue;
+            }
+            return null;
+        }
+
+        VarExprList groupVars = opGroup.getGroupVars();
+        if ( groupVars.size() > 1 )
+            return null;
+        Var groupVar = null;
+        int groupSlot = -1;
+        if ( groupVars.size() == 1 ) {
+            groupVar = groupVars.getVars().get(0);
+            if ( groupVars.getExpr(groupVar) != null )
+                return null;
+            for ( int i = 0; i < nodes.length ; i++ ) {
+                if ( groupVar.equals(nodes[i]) )
+                    groupSlot = i;
+            }
+            if ( groupSlot < 0 )
+                return null;
+        }
+
+        NodeTable nodeTable = table.getNodeTable();
+        NodeId[] ids = new NodeId[nodes.length];
+        boolean noMatch = false;
+        for ( int i = 0; i < nodes.length ; i++ ) {
+            if ( Var.isVar(nodes[i]) ) {
+                ids[i] = NodeId.NodeIdAny;
+                continue;
+            }
+            ids[i] = nodeTable.getNodeIdForNode(nodes[i]);
+            if ( NodeId.isDoesNotExist(ids[i]) )
+                noMatch = true;
+        }
+        Tuple<NodeId> pattern = TupleFactory.create(ids);
+        TupleIndex[] indexes = table.getTupleTable().getIndexes();
+
+        if ( groupVar == null ) {
+            long count = 0;
+            if ( ! noMatch ) {
+                count = -1;
+                for ( TupleIndex index : indexes ) {
+                    if ( index.baseTupleIndex() instanceof TupleIndexRecord indexRecord ) {
+                        count = indexRecord.count(pattern);
+                        if ( count >= 0 ) {
+                            Explain.explain(execCxt.getContext(), "Count by index %s: %s", index.getName(), pattern);
+                            break;
+                        }
+                    }
+                }
+                if ( count < 0 )
+                    return null;
+            }
+            input.close();
+            return QueryIterSingleton.create(countBinding(null, null, aggregators, count), execCxt);
+        }
+
+        if ( noMatch ) {
+            input.close();
+            return QueryIterNullIterator.create(execCxt);
+        }
+        Iterator<Pair<NodeId, Long>> groups = null;
+        for ( TupleIndex index : indexes ) {
+            if ( index.baseTupleIndex() instanceof TupleIndexRecord indexRecord ) {
+                groups = indexRecord.countByGroup(pattern, groupSlot);
+                if ( groups != null ) {
+                    Explain.explain(execCxt.getContext(), "Count by index %s: %s group %s", index.getName(), pattern, groupVar);
+                    break;
+                }
+            }
+        }
+        if ( groups == null )
+            return null;
+        input.close();
+        Var var = groupVar;
+        Iterator<Binding> iter = Iter.map(groups,
+                                          pair -> countBinding(var, nodeTable.getNodeForNodeId(pair.getLeft()), aggregators, pair.getRight()));
+        return QueryIterPlainWrapper.create(iter, execCxt);
+    }
+
+    private static Binding countBinding(Var groupVar, Node groupKey, List<ExprAggregator> aggregators, long count) {
+        BindingBuilder builder = BindingFactory.builder();
+        if ( groupVar != null )
+            builder.add(groupVar, groupKey);
+        Node countNode = NodeValue.makeInteger(count).asNode();
+        for ( ExprAggregator exprAgg : aggregators )
+            builder.add(exprAgg.getVar(), countNode);
+        return builder.build();
+    }
+}
@@ -18,6 +18,8 @@
 
 package org.apache.jena.tdb2.store;
 
+import java.util.function.Consumer;
+
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
@@ -90,6 +92,11 @@ public class GraphViewSwitchable extends GraphView {
         return getBaseGraph().find(s, p, o);
     }
 
+    @Override
+    public void forEachMatch(Node s, Node p, Node o, Consumer<Triple> action) {
+        getBaseGraph().forEachMatch(s, p, o, action);
+    }
+
     private DatasetGraphTDB getDSG() {
         return ((DatasetGraphTDB)(getx().get()));
     }
@@ -156,6 +156,14 @@ public class NodeId implements Comparable<NodeId>
     /*package*/ int  getValue1() { return value1; }
     /*package*/ long getValue2() { return value2; }
 
+    /**
+     * A 64 bit hash value.
+     * NodeIds that are held in 64 bits, which is the usual case, have different values.
+     */
+    public long longHashCode() {
+        return value2 ^ ((long)value1 << 32);
+    }
+
     @Override
     public int hashCode() {
         // Ensure all parts have an effect on the 32 bit hash value.
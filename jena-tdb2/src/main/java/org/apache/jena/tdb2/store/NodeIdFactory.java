@@ -137,6 +137,14 @@ public class NodeIdFactory
         Bytes.setLong(v2, b, 0);
     }
 
+    /**
+     * The 64 bit form of a NodeId, as held in indexes.
+     * Different NodeIds have different 64 bit forms.
+     */
+    public static long encode64(NodeId nodeId) {
+        return encode(nodeId);
+    }
+
     private static long encode(NodeId nodeId) {
         long x = nodeId.value2;
         switch(nodeId.type()) {
@@ -18,7 +18,9 @@
 
 package org.apache.jena.tdb2.store;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -103,7 +105,7 @@ public class StorageTDB implements StorageRDF {
         checkActive();
         ensureWriteTxn();
         removeWorker(() -> tripleTable.getNodeTupleTable().findAsNodeIds(s,p,o),
-                     x  -> tripleTable.getNodeTupleTable().getTupleTable().delete(x) );
+                     x  -> tripleTable.deleteAll(x) );
     }
 
     @Override
@@ -111,33 +113,28 @@ public class StorageTDB implements StorageRDF {
         checkActive();
         ensureWriteTxn();
         removeWorker(() -> quadTable.getNodeTupleTable().findAsNodeIds(g,s,p,o),
-                     x  -> quadTable.getNodeTupleTable().getTupleTable().delete(x) );
+                     x  -> quadTable.deleteAll(x) );
     }
 
     private static final int DeleteBufferSize = 1000;
 
-    /** General purpose "remove by pattern" code */
-    private void removeWorker(Supplier<Iterator<Tuple<NodeId>>> finder, Consumer<Tuple<NodeId>> deleter) {
+    /**
+     * General purpose "remove by pattern" code.
+     * Each slice is deleted as a batch, which the indexes apply in their own order.
+     */
+    private void removeWorker(Supplier<Iterator<Tuple<NodeId>>> finder, Consumer<List<Tuple<NodeId>>> deleter) {
         // Allocate buffer once.
-        // Not Java11 @SuppressWarnings("unchecked")
-        //Tuple<NodeId>[] buffer = (Tuple<NodeId>[])new Object[DeleteBufferSize];
-        Object[] buffer = new Object[DeleteBufferSize];
+        List<Tuple<NodeId>> buffer = new ArrayList<>(DeleteBufferSize);
         while (true) {
             Iterator<Tuple<NodeId>> iter = finder.get();
             // Get a slice
-            int idx = 0;
-            for (; idx < DeleteBufferSize; idx++ ) {
-                if ( !iter.hasNext() )
-                    break;
-                buffer[idx] = iter.next();
-            }
+            while ( buffer.size() < DeleteBufferSize && iter.hasNext() )
+                buffer.add(iter.next());
+            int idx = buffer.size();
             // Delete them.
-            for ( int i = 0; i < idx; i++ ) {
-                @SuppressWarnings("unchecked")
-                Tuple<NodeId> x = (Tuple<NodeId>)buffer[i];
-                deleter.accept(x);
-                buffer[i] = null;
-            }
+            if ( idx > 0 )
+                deleter.accept(buffer);
+            buffer.clear();
             // Finished?
             if ( idx < DeleteBufferSize )
                 break;
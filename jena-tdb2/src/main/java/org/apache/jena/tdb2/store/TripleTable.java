@@ -19,6 +19,7 @@
 package org.apache.jena.tdb2.store;
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.atlas.lib.tuple.Tuple;
@@ -59,6 +60,22 @@ public class TripleTable extends TableBase {
         table.deleteRow(s, p, o);
     }
 
+    /**
+     * Add a block of triples as 3-tuples of NodeIds.
+     * Each index sorts the block into its own order and applies it sequentially.
+     */
+    public void addAll(List<Tuple<NodeId>> tuples) {
+        table.getTupleTable().addAll(tuples);
+    }
+
+    /**
+     * Delete a block of triples as 3-tuples of NodeIds.
+     * Each index sorts the block into its own order and applies it sequentially.
+     */
+    public void deleteAll(List<Tuple<NodeId>> tuples) {
+        table.getTupleTable().deleteAll(tuples);
+    }
+
     /** Find matching triples */
     public Iterator<Triple> find(Node s, Node p, Node o) {
         Iterator<Tuple<NodeId>> iter = table.findAsNodeIds(s, p, o);
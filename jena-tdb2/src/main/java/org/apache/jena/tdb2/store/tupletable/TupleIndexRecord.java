@@ -21,11 +21,15 @@ package org.apache.jena.tdb2.store.tupletable;
 import static java.lang.String.format;
 import static org.apache.jena.tdb2.sys.SystemTDB.SizeOfNodeId;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.function.Predicate;
 
 import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.Pair;
 import org.apache.jena.atlas.lib.tuple.Tuple;
 import org.apache.jena.atlas.lib.tuple.TupleFactory;
 import org.apache.jena.atlas.lib.tuple.TupleMap;
@@ -99,18 +103,24 @@ public class TupleIndexRecord extends TupleIndexBase
         index.delete(r);
     }
 
-    /** Insert tuples */
+    /** Insert tuples, in the order of this index so that B+Tree access is sequential. */
     @Override
     public void addAll(Collection<Tuple<NodeId>> tuples) {
-        for ( Tuple<NodeId> t : tuples )
-            add(t);
+        index.insertAll(sortedRecords(tuples).iterator());
     }
 
-    /** Delete tuples */
+    /** Delete tuples, in the order of this index so that B+Tree access is sequential. */
     @Override
     public void deleteAll(Collection<Tuple<NodeId>> tuples) {
+        index.deleteAll(sortedRecords(tuples).iterator());
+    }
+
+    private List<Record> sortedRecords(Collection<Tuple<NodeId>> tuples) {
+        List<Record> records = new ArrayList<>(tuples.size());
         for ( Tuple<NodeId> t : tuples )
-            delete(t);
+            records.add(TupleLib.record(factory, t, tupleMap));
+        records.sort(Record::compareByKeyValue);
+        return records;
     }
 
     /** Find all matching tuples - a slot of NodeId.NodeIdAny (or null) means match any.
@@ -241,6 +251,117 @@ public class TupleIndexRecord extends TupleIndexBase
         return tuples;
     }
 
+    /** Count all matching tuples, without retrieving them.
+     *  Input pattern in natural order, not index order.
+     *  Returns -1 if the slots set in the pattern are not a prefix of the index order,
+     *  in which case counting needs a scan.
+     */
+    public long count(Tuple<NodeId> patternNaturalOrder) {
+        Tuple<NodeId> pattern = tupleMap.map(patternNaturalOrder);
+        int prefixLen = prefixLength(pattern);
+        if ( prefixLen < 0 )
+            return -1;
+        if ( prefixLen == 0 )
+            return index.count(null, null);
+        Record minRec = factory.createKeyOnly();
+        Record maxRec = factory.createKeyOnly();
+        setPrefix(pattern, prefixLen, minRec, maxRec);
+        return index.count(minRec, maxRec);
+    }
+
+    /** Count the matching tuples for each NodeId in the group slot, without retrieving them.
+     *  Input pattern and group slot in natural order, not index order.
+     *  The slots set in the pattern must be a prefix of the index order and the group slot
+     *  must be the slot after the prefix, so each group is a range of the index.
+     *  Returns null if the index can not count the groups.
+     *  <p>
+     *  The groups are in index order. Only the first record of each group is read.
+     */
+    public Iterator<Pair<NodeId, Long>> countByGroup(Tuple<NodeId> patternNaturalOrder, int groupSlot) {
+        Tuple<NodeId> pattern = tupleMap.map(patternNaturalOrder);
+        int prefixLen = prefixLength(pattern);
+        if ( prefixLen < 0 || tupleMap.unmapIdx(groupSlot) != prefixLen )
+            return null;
+        Record minRec = null;
+        Record maxRec = null;
+        if ( prefixLen > 0 ) {
+            minRec = factory.createKeyOnly();
+            maxRec = factory.createKeyOnly();
+            setPrefix(pattern, prefixLen, minRec, maxRec);
+        }
+        return new IteratorGroupCount(minRec, maxRec, prefixLen);
+    }
+
+    /** Skip from one group to the next, counting the range of each group. */
+    private class IteratorGroupCount implements Iterator<Pair<NodeId, Long>> {
+        private final Record maxRec;
+        private final int groupIdx;
+        private Record lowRec;
+        private Pair<NodeId, Long> slot = null;
+        private boolean finished = false;
+
+        IteratorGroupCount(Record minRec, Record maxRec, int groupIdx) {
+            this.lowRec = minRec;
+            this.maxRec = maxRec;
+            this.groupIdx = groupIdx;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if ( finished )
+                return false;
+            if ( slot != null )
+                return true;
+            Iterator<Record> iter = index.iterator(lowRec, maxRec);
+            Record first = iter.hasNext() ? iter.next() : null;
+            Iter.close(iter);
+            if ( first == null ) {
+                finished = true;
+                return false;
+            }
+            int len = (groupIdx+1)*SizeOfNodeId;
+            NodeId groupId = NodeIdFactory.get(first.getKey(), groupIdx*SizeOfNodeId);
+            Record groupMin = factory.createKeyOnly();
+            Record groupMax = factory.createKeyOnly();
+            System.arraycopy(first.getKey(), 0, groupMin.getKey(), 0, len);
+            System.arraycopy(first.getKey(), 0, groupMax.getKey(), 0, len);
+            NodeIdFactory.setNext(groupId, groupMax.getKey(), groupIdx*SizeOfNodeId);
+            slot = Pair.create(groupId, index.count(groupMin, groupMax));
+            lowRec = groupMax;
+            return true;
+        }
+
+        @Override
+        public Pair<NodeId, Long> next() {
+            if ( ! hasNext() )
+                throw new NoSuchElementException();
+            Pair<NodeId, Long> x = slot;
+            slot = null;
+            return x;
+        }
+    }
+
+    /** Number of leading slots set, in index order, or -1 if a slot is set after an unset slot. */
+    private static int prefixLength(Tuple<NodeId> pattern) {
+        int prefixLen = 0;
+        while ( prefixLen < pattern.len() && ! NodeId.isAny(pattern.get(prefixLen)) )
+            prefixLen++;
+        for ( int i = prefixLen; i < pattern.len() ; i++ ) {
+            if ( ! NodeId.isAny(pattern.get(i)) )
+                return -1;
+        }
+        return prefixLen;
+    }
+
+    /** Set the records to the range of the prefix, inclusive to exclusive. */
+    private static void setPrefix(Tuple<NodeId> pattern, int prefixLen, Record minRec, Record maxRec) {
+        for ( int i = 0; i < prefixLen ; i++ ) {
+            NodeIdFactory.set(pattern.get(i), minRec.getKey(), i*SizeOfNodeId);
+            NodeIdFactory.set(pattern.get(i), maxRec.getKey(), i*SizeOfNodeId);
+        }
+        NodeIdFactory.setNext(pattern.get(prefixLen-1), maxRec.getKey(), (prefixLen-1)*SizeOfNodeId);
+    }
+
     @Override
     public Iterator<Tuple<NodeId>> all()
     {
@@ -120,6 +120,14 @@ public class SystemTDB
     /** Experimental : triple and quad filtering at scan level */
     public static final Symbol symTupleFilter       = allocSymbol("tupleFilter");
 
+    /**
+     * Number: the largest number of triples of one property to keep in memory
+     * as a link index for evaluating transitive property paths ({@code :p+}, {@code :p*})
+     * in read transactions. A link index is discarded when a write transaction commits.
+     * Unset or zero means no link indexes are kept.
+     */
+    public static final Symbol symPathLinkCache     = allocSymbol("pathLinkCache");
+
     private static final String PropertyFileKey1    = tdbPropertyRoot+".settings";
     private static final String PropertyFileKey2    = tdbSymbolPrefix+":settings";
 
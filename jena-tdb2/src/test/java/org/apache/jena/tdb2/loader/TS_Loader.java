@@ -24,7 +24,8 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses( {
     TestLoaderStdSetups.class ,
-    TestLoaderMainPlan.class
+    TestLoaderMainPlan.class ,
+    TestLoaderResumable.class
 })
 
 public class TS_Loader {}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.loader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sys.JenaSystem;
+import org.apache.jena.system.Txn;
+import org.apache.jena.system.progress.MonitorOutput;
+import org.apache.jena.system.progress.MonitorOutputs;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.apache.jena.tdb2.loader.basic.LoaderBasicResumable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Interrupt and resume a {@link LoaderBasicResumable} load. */
+public class TestLoaderResumable {
+    static { JenaSystem.init(); }
+
+    private static MonitorOutput output = MonitorOutputs.nullOutput();
+    private static String DIR = "testing/Loader/";
+    private static final int N = 2000;
+
+    private Path dir;
+    private Path stateFile;
+    private String dataFile;
+
+    @Before public void before() throws IOException {
+        dir = Files.createTempDirectory("tdb2-loader");
+        stateFile = dir.resolve("loader.state");
+        Path data = dir.resolve("data.nt");
+        try ( PrintWriter out = new PrintWriter(Files.newBufferedWriter(data, StandardCharsets.UTF_8)) ) {
+            for ( int i = 0 ; i < N ; i++ )
+                out.printf("_:b%d <http://example/p> \"%d\" .\n", i % 50, i);
+        }
+        dataFile = data.toString();
+    }
+
+    @After public void after() throws IOException {
+        Files.deleteIfExists(dir.resolve("loader.state.tmp"));
+        Files.deleteIfExists(stateFile);
+        Files.deleteIfExists(Path.of(dataFile));
+        Files.deleteIfExists(dir);
+    }
+
+    @Test public void resumable_load() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        load(LoaderFactory.resumableLoader(dsg, null, stateFile, output), DIR+"data-2.nt", dataFile);
+        assertFalse(Files.exists(stateFile));
+        assertEquals(expected(DIR+"data-2.nt", dataFile), summary(dsg));
+    }
+
+    @Test public void resumable_interrupted() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        // Fail part way through the second file, after several commits.
+        DataLoader loader1 = new Interrupted(dsg, stateFile, 1000, N/2);
+        try {
+            load(loader1, DIR+"data-2.nt", dataFile);
+            fail("Expected the load to fail");
+        } catch (InterruptedLoad ex) {}
+        assertTrue(Files.exists(stateFile));
+        long loaded = Txn.calculateRead(dsg, ()->dsg.getDefaultGraph().size());
+        assertTrue("Nothing committed", loaded > 0);
+        assertTrue("All committed", loaded < expected(DIR+"data-2.nt", dataFile).size);
+
+        DataLoader loader2 = new LoaderBasicResumable(dsg, null, output, stateFile, 1000);
+        load(loader2, DIR+"data-2.nt", dataFile);
+        assertFalse(Files.exists(stateFile));
+        // Same number of triples and blank nodes: the blank nodes of the resumed file
+        // are the same as before the interruption.
+        assertEquals(expected(DIR+"data-2.nt", dataFile), summary(dsg));
+    }
+
+    private static void load(DataLoader loader, String... files) {
+        // DataLoader.load aborts the transaction if there is an exception.
+        loader.startBulk();
+        loader.load(files);
+        loader.finishBulk();
+    }
+
+    private static Summary expected(String... files) {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        load(LoaderFactory.basicLoader(dsg, null, output), files);
+        return summary(dsg);
+    }
+
+    private static Summary summary(DatasetGraph dsg) {
+        return Txn.calculateRead(dsg, ()->{
+            Set<Node> bnodes = new HashSet<>();
+            dsg.getDefaultGraph().find().forEach(t->{
+                if ( t.getSubject().isBlank() )
+                    bnodes.add(t.getSubject());
+                if ( t.getObject().isBlank() )
+                    bnodes.add(t.getObject());
+            });
+            return new Summary(dsg.getDefaultGraph().size(), bnodes.size());
+        });
+    }
+
+    private record Summary(long size, int blankNodes) {}
+
+    static class InterruptedLoad extends RuntimeException {}
+
+    /** Loader that fails after a number of triples. */
+    static class Interrupted extends LoaderBasicResumable {
+        private final StreamRDF stream;
+
+        Interrupted(DatasetGraph dsg, Path stateFile, long commitInterval, long limit) {
+            super(dsg, null, TestLoaderResumable.output, stateFile, commitInterval);
+            this.stream = new StreamRDFWrapper(super.stream()) {
+                private long count = 0;
+                @Override
+                public void triple(Triple triple) {
+                    if ( ++count > limit )
+                        throw new InterruptedLoad();
+                    super.triple(triple);
+                }
+            };
+        }
+
+        @Override
+        public StreamRDF stream() {
+            return stream;
+        }
+    }
+}
@@ -24,6 +24,9 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses( {
     TestSolverTDB.class
+    , TestHashJoinNodeId.class
+    , TestPathLinksTDB.class
+    , TestSolverCountTDB.class
     , TestStats.class
 })
 
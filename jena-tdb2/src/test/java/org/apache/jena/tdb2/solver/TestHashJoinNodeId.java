@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.jena.tdb2.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.shared.impl.PrefixMappingImpl;
+import org.apache.jena.sparql.ARQConstants;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.resultset.ResultsCompare;
+import org.apache.jena.sparql.service.ServiceExecutorRegistry;
+import org.apache.jena.sparql.service.single.ServiceExecutor;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.junit.TL;
+
+/** Joins executed by {@link QueryIterHashJoinNodeId}, checked against the general in-memory engine. */
+public class TestHashJoinNodeId {
+    private static DatasetGraph dsgTDB = null;
+    private static DatasetGraph dsgMem = null;
+    private static PrefixMapping pmap = null;
+
+    @BeforeClass
+    public static void beforeClass() {
+        dsgTDB = TL.createTestDatasetGraphMem();
+        dsgMem = DatasetGraphFactory.createTxnMem();
+        Txn.executeWrite(dsgTDB, ()->{
+            for ( int i = 0 ; i < 100 ; i++ ) {
+                add(uri("s"+i), uri("p"), uri("o"+(i % 7)));
+                add(uri("s"+i), uri("r"), uri("o"+(i % 5)));
+            }
+            for ( int j = 0 ; j < 10 ; j++ )
+                add(uri("o"+j), uri("q"), NodeFactory.createLiteralString("v"+j));
+            add(uri("x"), uri("q"), NodeFactory.createLiteralString("x"));
+        });
+        Txn.executeRead(dsgTDB, ()->dsgTDB.getDefaultGraph().find().forEach(dsgMem.getDefaultGraph()::add));
+        pmap = new PrefixMappingImpl();
+        pmap.setNsPrefix("", "http://example/");
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        TL.expel(dsgTDB);
+    }
+
+    private static Node uri(String local) {
+        return NodeFactory.createURI("http://example/"+local);
+    }
+
+    private static void add(Node s, Node p, Node o) {
+        dsgTDB.getDefaultGraph().add(s, p, o);
+    }
+
+    @Test public void join_nodeid_01() {
+        List<Binding> results = test("(join (bgp (?s :p ?o)) (bgp (?o :q ?v)))");
+        assertFalse(results.isEmpty());
+        // Joined on NodeIds.
+        for ( Binding b : results )
+            assertTrue(b instanceof BindingTDB);
+    }
+
+    @Test public void join_nodeid_02() {
+        // Two join variables.
+        test("(join (bgp (?s :p ?o)) (bgp (?s :r ?o)))");
+    }
+
+    @Test public void join_nodeid_03() {
+        test("(join (bgp (?s :p ?o)) (bgp (?s :r ?x)))");
+    }
+
+    @Test public void join_nodeid_04() {
+        // Stream side rows that are not from TDB.
+        test("(join (bgp (?s :p ?o)) (table (vars ?o ?z) (row [?o :o1]) (row [?o :o2] [?z 1]) (row [?z 2]) (row)))");
+    }
+
+    @Test public void join_nodeid_05() {
+        // Probe side rows that are not from TDB.
+        test("(join (table (vars ?o ?z) (row [?o :o1]) (row [?o :o2] [?z 1]) (row [?z 2]) (row)) (bgp (?s :p ?o)))");
+    }
+
+    @Test public void join_nodeid_06() {
+        // Optional: rows do not all bind the join variables.
+        test("(join (leftjoin (bgp (?x :q ?v)) (bgp (?s :p ?x))) (bgp (?s :r ?o)))");
+        test("(join (bgp (?s :r ?o)) (leftjoin (bgp (?x :q ?v)) (bgp (?s :p ?x))))");
+    }
+
+    @Test public void join_nodeid_07() {
+        // Nodes not in the database.
+        test("(join (bgp (?s :p ?o)) (extend ((?o :notThere)) (table unit)))");
+        test("(join (extend ((?o :notThere)) (table unit)) (bgp (?s :p ?o)))");
+    }
+
+    @Test public void join_nodeid_08() {
+        // No common variables.
+        test("(join (bgp (?s :p :o1)) (bgp (?x :q ?v)))");
+    }
+
+    @Test public void join_nodeid_09() {
+        // Empty.
+        test("(join (bgp (?s :p :o1)) (bgp (?x :q :notThere)))");
+        test("(join (bgp (?s :p :notThere)) (bgp (?x :q ?v)))");
+    }
+
+    // A SERVICE that does not depend on the other side starts on another thread,
+    // and is joined by the general hash join.
+    @Test public void join_service_async() {
+        List<Binding> calls = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        Var varO = Var.alloc("o");
+        ServiceExecutor service = (opExecute, opOriginal, binding, execCxt) -> {
+            calls.add(binding);
+            threads.add(Thread.currentThread());
+            List<Binding> rows = List.of(BindingFactory.binding(binding, varO, uri("o1")),
+                                         BindingFactory.binding(binding, varO, uri("o2")));
+            return QueryIterPlainWrapper.create(rows.iterator(), execCxt);
+        };
+        Op op = SSE.parseOp("(join (bgp (?s :p ?o)) (service <urn:test:service> (table unit)))", pmap);
+        Op opExpected = SSE.parseOp("(join (bgp (?s :p ?o)) (table (vars ?o) (row [?o :o1]) (row [?o :o2])))", pmap);
+        List<Binding> expected = Iter.toList(Algebra.exec(opExpected, dsgMem));
+
+        Context cxt = dsgTDB.getContext();
+        ServiceExecutorRegistry.set(cxt, new ServiceExecutorRegistry().add(service));
+        cxt.set(ARQ.serviceConcurrency, 2);
+        // Keep the join; do not execute the SERVICE by substitution.
+        cxt.set(ARQ.optIndexJoinStrategy, false);
+        try {
+            Txn.executeRead(dsgTDB, ()->{
+                List<Binding> actual = Iter.toList(Algebra.exec(op, dsgTDB));
+                assertTrue(ResultsCompare.equalsByTerm(expected, actual));
+            });
+        } finally {
+            cxt.remove(ARQConstants.registryServiceExecutors);
+            cxt.remove(ARQ.serviceConcurrency);
+            cxt.remove(ARQ.optIndexJoinStrategy);
+        }
+        // One call, not by substitution, on another thread.
+        assertEquals(1, calls.size());
+        assertTrue(calls.get(0).isEmpty());
+        assertNotEquals(Thread.currentThread(), threads.get(0));
+    }
+
+    private static List<Binding> test(String pattern) {
+        Op op = SSE.parseOp(pattern, pmap);
+        List<Binding> expected = Iter.toList(Algebra.exec(op, dsgMem));
+        return Txn.calculateRead(dsgTDB, ()->{
+            List<Binding> actual = Iter.toList(Algebra.exec(op, dsgTDB));
+            assertTrue(ResultsCompare.equalsByTerm(expected, actual));
+            return actual;
+        });
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.RowSetRewindable;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.junit.TL;
+import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.NodeIdFactory;
+import org.apache.jena.tdb2.sys.SystemTDB;
+
+/** Transitive property paths evaluated on NodeIds ({@link PathLinksTDB}), checked against the general in-memory engine. */
+public class TestPathLinksTDB {
+    private DatasetGraph dsgTDB = null;
+    private DatasetGraph dsgMem = null;
+
+    @Before
+    public void before() {
+        dsgTDB = TL.createTestDatasetGraphMem();
+        dsgMem = DatasetGraphFactory.createTxnMem();
+        Node g = uri("g");
+        Txn.executeWrite(dsgTDB, ()->{
+            for ( int i = 0 ; i < 20 ; i++ ) {
+                add(Quad.defaultGraphIRI, uri("n"+i), uri("p"), uri("n"+(i+1)));
+                add(g, uri("n"+i), uri("p"), uri("n"+(2*i)));
+            }
+            // Cycles.
+            add(Quad.defaultGraphIRI, uri("n20"), uri("p"), uri("n10"));
+            add(Quad.defaultGraphIRI, uri("x"), uri("p"), uri("x"));
+            add(Quad.defaultGraphIRI, uri("n5"), uri("q"), NodeFactory.createLiteralString("abc"));
+            add(Quad.defaultGraphIRI, uri("n6"), uri("p"), NodeFactory.createLiteralString("abc"));
+            add(g, uri("n3"), uri("p"), NodeFactory.createBlankNode("b"));
+        });
+    }
+
+    @After
+    public void after() {
+        TL.expel(dsgTDB);
+    }
+
+    private static Node uri(String local) {
+        return NodeFactory.createURI("http://example/"+local);
+    }
+
+    private void add(Node g, Node s, Node p, Node o) {
+        dsgTDB.add(g, s, p, o);
+        dsgMem.add(g, s, p, o);
+    }
+
+    private static String[] queries = {
+        "SELECT * { ?s :p+ ?o }",
+        "SELECT * { ?s :p* ?o }",
+        "SELECT * { ?s ^:p+ ?o }",
+        "SELECT * { ?x :p+ ?x }",
+        "SELECT * { :n3 :p+ ?o }",
+        "SELECT * { :n3 :p* ?o }",
+        "SELECT * { ?s :p+ :n12 }",
+        "SELECT * { ?s :p* 'abc' }",
+        "SELECT * { :n1 :p+ :n15 }",
+        "SELECT * { :n15 :p+ :n1 }",
+        "SELECT * { :n15 :p+ :n15 }",
+        "SELECT * { :x :p+ :x }",
+        "SELECT * { :n0 :p* :n0 }",
+        "SELECT * { :notThere :p* :notThere }",
+        "SELECT * { :n1 :notThere+ ?o }",
+        "SELECT * { ?s :p ?x . ?x :p+ ?o }",
+        "SELECT * { GRAPH :g { ?s :p+ ?o } }",
+        "SELECT * { GRAPH :g { :n1 :p+ ?o } }",
+        "SELECT * { GRAPH ?g { :n3 :p* ?o } }",
+    };
+
+    @Test public void path_nodeid_01() {
+        for ( String qs : queries )
+            test(qs, 0);
+    }
+
+    @Test public void path_nodeid_02() {
+        // With link indexes
+        for ( String qs : queries )
+            test(qs, 1000);
+    }
+
+    @Test public void path_nodeid_03() {
+        // Link index limit too small.
+        for ( String qs : queries )
+            test(qs, 5);
+    }
+
+    @Test public void path_nodeid_04() {
+        // Link index discarded after a write.
+        String qs = "SELECT * { :n3 :p+ ?o }";
+        test(qs, 1000);
+        Txn.executeWrite(dsgTDB, ()->add(Quad.defaultGraphIRI, uri("n21"), uri("p"), uri("y")));
+        test(qs, 1000);
+        Txn.executeWrite(dsgTDB, ()->dsgTDB.delete(Quad.defaultGraphIRI, uri("n15"), uri("p"), uri("n16")));
+        dsgMem.delete(Quad.defaultGraphIRI, uri("n15"), uri("p"), uri("n16"));
+        test(qs, 1000);
+    }
+
+    @Test public void path_nodeid_05() {
+        // In a write transaction.
+        Txn.executeWrite(dsgTDB, ()->{
+            add(Quad.defaultGraphIRI, uri("n21"), uri("p"), uri("y"));
+            for ( String qs : queries )
+                test(qs, 1000);
+        });
+    }
+
+    @Test public void nodeIdSet() {
+        NodeIdSet set = new NodeIdSet();
+        for ( int i = 0 ; i < 1000 ; i++ )
+            assertTrue(set.add(NodeIdFactory.createPtr(i)));
+        assertFalse(set.add(NodeIdFactory.createPtr(5)));
+        assertTrue(set.contains(NodeIdFactory.createPtr(999)));
+        assertFalse(set.contains(NodeIdFactory.createPtr(1000)));
+        assertEquals(1000, set.size());
+        assertEquals(1000, set.stream().distinct().count());
+        // Same value, different type.
+        NodeId inline = NodeIdFactory.createValue(org.apache.jena.tdb2.store.NodeIdType.XSD_INTEGER, 5);
+        assertTrue(set.add(inline));
+        assertTrue(set.contains(inline));
+    }
+
+    private void test(String queryString, long cacheSize) {
+        Query query = QueryFactory.create("PREFIX : <http://example/> " + queryString);
+        RowSetRewindable expected = Txn.calculateRead(dsgMem, ()->QueryExec.dataset(dsgMem).query(query).select().rewindable());
+        RowSetRewindable actual = Txn.calculate(dsgTDB, ()->
+            QueryExec.dataset(dsgTDB).query(query).set(SystemTDB.symPathLinkCache, cacheSize).select().rewindable());
+        boolean b = ResultSetCompare.equalsByTerm(expected, actual);
+        if ( !b ) {
+            expected.reset();
+            actual.reset();
+        }
+        assertTrue(queryString + "\nExpected:\n" + expected + "\nActual:\n" + actual, b);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.solver;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.RowSetRewindable;
+import org.apache.jena.sparql.resultset.ResultSetCompare;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.junit.TL;
+
+/** COUNT by counting index ranges ({@link SolverCountTDB}), checked against the general in-memory engine. */
+public class TestSolverCountTDB {
+    private DatasetGraph dsgTDB = null;
+    private DatasetGraph dsgMem = null;
+
+    @Before
+    public void before() {
+        dsgTDB = TL.createTestDatasetGraphMem();
+        dsgMem = DatasetGraphFactory.createTxnMem();
+        Node g1 = uri("g1");
+        Node g2 = uri("g2");
+        Txn.executeWrite(dsgTDB, ()->{
+            for ( int i = 0 ; i < 500 ; i++ ) {
+                add(Quad.defaultGraphIRI, uri("s"+(i%50)), uri("p"+(i%3)), NodeFactory.createLiteralString("o"+i));
+                add(g1, uri("s"+(i%7)), uri("p"), NodeFactory.createLiteralDT(Integer.toString(i), XSDDatatype.XSDinteger));
+            }
+            add(Quad.defaultGraphIRI, uri("x"), uri("q"), uri("x"));
+            add(g2, uri("x"), uri("q"), uri("y"));
+        });
+    }
+
+    @After
+    public void after() {
+        TL.expel(dsgTDB);
+    }
+
+    private static Node uri(String local) {
+        return NodeFactory.createURI("http://example/"+local);
+    }
+
+    private void add(Node g, Node s, Node p, Node o) {
+        dsgTDB.add(g, s, p, o);
+        dsgMem.add(g, s, p, o);
+    }
+
+    private static String[] queries = {
+        "SELECT (count(*) AS ?c) { ?s ?p ?o }",
+        "SELECT (count(*) AS ?c) { ?s :p1 ?o }",
+        "SELECT (count(?s) AS ?c) { :s3 ?p ?o }",
+        "SELECT (count(*) AS ?c) { :s3 :p0 ?o }",
+        "SELECT (count(*) AS ?c) { :s3 :p0 'o3' }",
+        "SELECT (count(*) AS ?c) { :s3 :p0 'o4' }",
+        "SELECT (count(*) AS ?c) { ?s :notThere ?o }",
+        "SELECT (count(*) AS ?c) (count(?o) AS ?c2) { ?s :p2 ?o }",
+        "SELECT ?p (count(*) AS ?c) { ?s ?p ?o } GROUP BY ?p",
+        "SELECT ?s (count(*) AS ?c) { ?s :p1 ?o } GROUP BY ?s",
+        "SELECT ?o (count(*) AS ?c) { :s1 ?p ?o } GROUP BY ?o",
+        "SELECT ?s (count(*) AS ?c) { ?s :notThere ?o } GROUP BY ?s",
+        "SELECT ?s (count(*) AS ?c) { ?s ?p ?o } GROUP BY ?s HAVING (count(*) > 10)",
+        "SELECT (count(*) AS ?c) { ?x ?p ?x }",
+        "SELECT (count(DISTINCT ?s) AS ?c) { ?s ?p ?o }",
+        "SELECT (count(*) AS ?c) { GRAPH :g1 { ?s ?p ?o } }",
+        "SELECT (count(*) AS ?c) { GRAPH :g1 { ?s ?p 10 } }",
+        "SELECT (count(*) AS ?c) { GRAPH ?g { ?s ?p ?o } }",
+        "SELECT ?g (count(*) AS ?c) { GRAPH ?g { ?s ?p ?o } } GROUP BY ?g",
+        "SELECT ?s (count(*) AS ?c) { GRAPH :g1 { ?s :p ?o } } GROUP BY ?s",
+        "SELECT (count(*) AS ?c) { GRAPH :notThere { ?s ?p ?o } }",
+        "SELECT (count(*) AS ?c) { GRAPH <urn:x-arq:UnionGraph> { ?s :q ?o } }",
+        "SELECT (count(*) AS ?c) { ?s :p1 ?o . ?s :p2 ?o2 }",
+        "SELECT * { { SELECT ?s (count(*) AS ?c) { ?s :p0 ?o } GROUP BY ?s } ?s :p1 ?o }",
+    };
+
+    @Test public void count_index_01() {
+        for ( String qs : queries )
+            test(qs);
+    }
+
+    @Test public void count_index_02() {
+        // In a write transaction.
+        Txn.executeWrite(dsgTDB, ()->{
+            add(Quad.defaultGraphIRI, uri("s1"), uri("p1"), uri("z"));
+            for ( String qs : queries )
+                test(qs);
+        });
+    }
+
+    private void test(String queryString) {
+        Query query = QueryFactory.create("PREFIX : <http://example/> " + queryString);
+        RowSetRewindable expected = Txn.calculateRead(dsgMem, ()->
+            QueryExec.dataset(dsgMem).query(query).select().rewindable());
+        RowSetRewindable actual = Txn.calculate(dsgTDB, ()->
+            QueryExec.dataset(dsgTDB).query(query).select().rewindable());
+        boolean b = ResultSetCompare.equalsByTerm(expected, actual);
+        if ( !b ) {
+            expected.reset();
+            actual.reset();
+        }
+        assertTrue(queryString + "\nExpected:\n" + expected + "\nActual:\n" + actual, b);
+    }
+}
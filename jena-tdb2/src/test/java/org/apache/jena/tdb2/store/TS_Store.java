@@ -37,6 +37,7 @@ import org.junit.runners.Suite;
     , TestDatasetTDBPersist.class
     , Test_SPARQL_TDB.class
     , TestQueryExecTDB.class
+    , TestUpdateStreamChangesTDB.class
     , TestDynamicDatasetTDB.class
     , TestStoreConnectionMem.class
     , TestStoreConnectionDirect.class
@@ -24,13 +24,18 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Iterator;
+import java.util.List;
 
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.atlas.lib.tuple.Tuple;
+import org.apache.jena.atlas.lib.tuple.TupleFactory;
 import org.apache.jena.atlas.logging.LogCtl;
 import org.apache.jena.dboe.base.file.Location;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.query.ReadWrite;
 import org.apache.jena.sparql.util.NodeFactoryExtra;
+import org.apache.jena.tdb2.store.nodetable.NodeTable;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -142,6 +147,41 @@ public class TestTripleTable
         match(table, null, null, null);
     }
 
+    private static Tuple<NodeId> tuple(TripleTable table, Node s, Node p, Node o)
+    {
+        NodeTable nodeTable = table.getNodeTupleTable().getNodeTable();
+        return TupleFactory.tuple(nodeTable.getAllocateNodeId(s), nodeTable.getAllocateNodeId(p), nodeTable.getAllocateNodeId(o));
+    }
+
+    @Test public void addAll1()
+    {
+        TripleTable table = createTripleTableMem();
+        add(table, n1, n2, n3);
+        table.addAll(List.of(tuple(table, n4, n5, n6), tuple(table, n1, n2, n4), tuple(table, n1, n2, n3)));
+        contains(table, n1, n2, n3);
+        contains(table, n1, n2, n4);
+        contains(table, n4, n5, n6);
+        assertEquals(3, Iter.count(table.find(null, null, null)));
+        // Each index
+        assertEquals(2, Iter.count(table.find(n1, null, null)));
+        assertEquals(2, Iter.count(table.find(null, n2, null)));
+        assertEquals(1, Iter.count(table.find(null, null, n6)));
+    }
+
+    @Test public void deleteAll1()
+    {
+        TripleTable table = createTripleTableMem();
+        add(table, n1, n2, n3);
+        add(table, n1, n2, n4);
+        add(table, n4, n5, n6);
+        table.deleteAll(List.of(tuple(table, n4, n5, n6), tuple(table, n1, n2, n3), tuple(table, n1, n5, n6)));
+        contains(table, n1, n2, n4);
+        notMatch(table, n1, n2, n3);
+        notMatch(table, null, null, n6);
+        notMatch(table, null, n5, null);
+        assertEquals(1, Iter.count(table.find(null, null, null)));
+    }
+
     private TripleTable createTripleTableMem()
     {
         DatasetGraphTDB dsg = TDB2StorageBuilder.build(Location.mem());
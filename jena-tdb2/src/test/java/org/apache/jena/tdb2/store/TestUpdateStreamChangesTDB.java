@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jena.tdb2.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.exec.UpdateExec;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.IsoMatcher;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb2.DatabaseMgr;
+import org.apache.jena.tdb2.modify.UpdateChangesTDB;
+import org.junit.Test;
+
+/** DELETE/INSERT WHERE with the changes passed to TDB2 as the WHERE clause is evaluated. */
+public class TestUpdateStreamChangesTDB {
+
+    private static final String PREFIX = "PREFIX : <http://example/> ";
+
+    private static final String DATA = """
+        (dataset
+          (graph (:s1 :p 1) (:s2 :p 2) (:s1 :q 1))
+          (graph :g (:s1 :p 1) (:s3 :p 3))
+        )
+        """;
+
+    /** Execute the update with streaming changes and compare with an in-memory dataset. */
+    private static DatasetGraph test(String update) {
+        return test(SSE.parseDatasetGraph(DATA), update, -1);
+    }
+
+    /** As {@link #test(String)}, with the given data and spill threshold for the TDB2 dataset. */
+    private static DatasetGraph test(DatasetGraph data, String update, long spillThreshold) {
+        DatasetGraph expected = DatasetGraphFactory.createTxnMem();
+        expected.addAll(data);
+        UpdateExec.dataset(expected).update(PREFIX+update).execute();
+
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        if ( spillThreshold >= 0 )
+            dsg.getContext().set(ARQ.spillToDiskThreshold, spillThreshold);
+        Txn.executeWrite(dsg, ()->{
+            dsg.addAll(data);
+            UpdateExec.dataset(dsg).update(PREFIX+update).set(ARQ.updateStreamChanges, true).execute();
+        });
+        Txn.executeRead(dsg, ()->assertTrue(IsoMatcher.isomorphic(expected, dsg)));
+        return dsg;
+    }
+
+    @Test public void stream_modify_01() {
+        test("DELETE { ?s :p ?o } INSERT { ?s :r ?o } WHERE { ?s :p ?o }");
+    }
+
+    @Test public void stream_modify_02() {
+        test("WITH :g DELETE { ?s :p ?o } INSERT { ?s :r ?o } WHERE { ?s :p ?o }");
+    }
+
+    @Test public void stream_modify_03() {
+        test("INSERT { GRAPH :g2 { ?s ?p ?o } } WHERE { GRAPH ?g { ?s ?p ?o } }");
+    }
+
+    @Test public void stream_modify_04() {
+        // Delete and add the same triples.
+        test("DELETE { ?s ?p ?o } INSERT { ?s ?p ?o } WHERE { ?s ?p ?o }");
+    }
+
+    @Test public void stream_modify_05() {
+        // Nodes not in the database.
+        test("DELETE { ?s :p :unknown . :x :y :z } INSERT { ?s :p 'new' } WHERE { ?s :q ?o }");
+    }
+
+    @Test public void stream_modify_06() {
+        // No match - no change, including for ground triples.
+        test("DELETE { :s1 :p 1 } INSERT { :x :y :z } WHERE { ?s :nomatch ?o }");
+    }
+
+    @Test public void stream_modify_bnodes() {
+        // A new blank node for each result.
+        DatasetGraph dsg = test("INSERT { ?s :r [] } WHERE { ?s :p ?o }");
+        Node r = SSE.parseNode(":r");
+        long count = Txn.calculateRead(dsg, ()->Iter.count(Iter.distinct(Iter.map(dsg.find(null, null, r, null), q->q.getObject()))));
+        assertEquals(2, count);
+    }
+
+    @Test public void stream_delete_where_01() {
+        test("DELETE WHERE { ?s :p ?o }");
+    }
+
+    @Test public void stream_delete_where_02() {
+        test("DELETE WHERE { GRAPH ?g { ?s :p ?o } }");
+    }
+
+    // Changes spill to disk and are applied in batches of the spill threshold.
+    @Test public void stream_spill_01() {
+        DatasetGraph data = DatasetGraphFactory.create();
+        for ( int i = 0 ; i < 100 ; i++ ) {
+            data.add(SSE.parseQuad("(_ :s"+i+" :p "+i+")"));
+            data.add(SSE.parseQuad("(:g :s"+i+" :q "+i+")"));
+        }
+        test(data, "DELETE { ?s :p ?o . GRAPH :g { ?s :q ?o } } INSERT { ?s :r ?o . GRAPH :g2 { ?s :r ?o } } WHERE { ?s :p ?o }", 7);
+    }
+
+    @Test public void stream_spill_02() {
+        DatasetGraph data = DatasetGraphFactory.create();
+        for ( int i = 0 ; i < 50 ; i++ )
+            data.add(SSE.parseQuad("(_ :s"+i+" :p "+i+")"));
+        test(data, "DELETE { ?s :p ?o } INSERT { ?s :p ?o } WHERE { ?s :p ?o }", 0);
+    }
+
+    @Test public void stream_requires_write_txn() {
+        DatasetGraph dsg = DatabaseMgr.createDatasetGraph();
+        Txn.executeRead(dsg, ()->assertNull(UpdateChangesTDB.create(dsg)));
+        Txn.executeWrite(dsg, ()->assertNotNull(UpdateChangesTDB.create(dsg)));
+        assertNull(UpdateChangesTDB.create(DatasetGraphFactory.createTxnMem()));
+    }
+}
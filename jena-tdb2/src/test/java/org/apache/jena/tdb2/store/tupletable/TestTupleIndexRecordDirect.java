@@ -22,10 +22,12 @@ import static org.apache.jena.atlas.lib.tuple.TupleFactory.tuple;
 import static org.apache.jena.tdb2.store.tupletable.NData.*;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.jena.atlas.iterator.Iter;
 import static org.junit.Assert.*;
+import org.apache.jena.atlas.lib.Pair;
 import org.apache.jena.atlas.lib.tuple.Tuple;
 import org.apache.jena.atlas.lib.tuple.TupleMap;
 import org.apache.jena.dboe.base.file.FileSet;
@@ -311,5 +313,53 @@ public class TestTupleIndexRecordDirect
         assertFalse(iter.hasNext());
    }
 
+    @Test public void TupleIndexRecordCount_1()
+    {
+        TupleIndexRecord index = create("SPO");
+        add(index, n1, n2, n3);
+        add(index, n1, n2, n4);
+        add(index, n1, n5, n6);
+        add(index, n2, n2, n3);
+
+        assertEquals(4, index.count(tuple(null, null, null)));
+        assertEquals(3, index.count(tuple(n1, null, null)));
+        assertEquals(2, index.count(tuple(n1, n2, null)));
+        assertEquals(1, index.count(tuple(n1, n2, n3)));
+        assertEquals(0, index.count(tuple(n3, null, null)));
+        // Not a prefix of SPO
+        assertEquals(-1, index.count(tuple(null, n2, null)));
+    }
 
+    @Test public void TupleIndexRecordCount_2()
+    {
+        TupleIndexRecord index = create("POS");
+        add(index, n1, n2, n3);
+        add(index, n1, n2, n4);
+        add(index, n2, n2, n3);
+        add(index, n1, n5, n6);
+
+        assertEquals(3, index.count(tuple(null, n2, null)));
+        assertEquals(2, index.count(tuple(null, n2, n3)));
+        assertEquals(-1, index.count(tuple(n1, null, null)));
+    }
+
+    @Test public void TupleIndexRecordCountByGroup_1()
+    {
+        TupleIndexRecord index = create("POS");
+        add(index, n1, n2, n3);
+        add(index, n1, n2, n4);
+        add(index, n2, n2, n3);
+        add(index, n1, n5, n6);
+
+        // Group by O for P=n2
+        List<Pair<NodeId, Long>> x = Iter.toList(index.countByGroup(tuple(null, n2, null), 2));
+        assertEquals(List.of(Pair.create(n3, 2L), Pair.create(n4, 1L)), x);
+        // Group by P
+        List<Pair<NodeId, Long>> y = Iter.toList(index.countByGroup(tuple(null, null, null), 1));
+        assertEquals(List.of(Pair.create(n2, 3L), Pair.create(n5, 1L)), y);
+        // No match
+        assertFalse(index.countByGroup(tuple(null, n3, null), 2).hasNext());
+        // Group slot not next in index order
+        assertNull(index.countByGroup(tuple(null, n2, null), 0));
+    }
 }